@@ -66,6 +66,20 @@ public enum SteveConfiguration {
                .userName(p.getString("db.user"))
                .password(p.getString("db.password"))
                .sqlLogging(p.getBoolean("db.sql.logging"))
+               .meterValueQueueCapacity(p.getOptionalInt("db.meter.value.queue.capacity", 10000))
+               .meterValueBatchSize(p.getOptionalInt("db.meter.value.batch.size", 1000))
+               .meterValueLingerMillis(p.getOptionalInt("db.meter.value.linger.ms", 200))
+               .partitionRetentionMonths(p.getOptionalInt("db.partition.retention.months", 0))
+               .partitionArchive(p.getOptionalBoolean("db.partition.archive"))
+               .meterValueBlob(p.getOptionalBoolean("db.meter.value.blob"))
+               .connectorStatusDedup(p.getOptionalBoolean("db.connector.status.dedup"))
+               .poolMaxSize(p.getOptionalInt("db.pool.max.size", 10))
+               .replicaIp(p.getOptionalString("db.replica.ip"))
+               .replicaPort(p.getOptionalInt("db.replica.port", p.getInt("db.port")))
+               .replicaUserName(useFallbackIfNotSet(p.getOptionalString("db.replica.user"), p.getString("db.user")))
+               .replicaPassword(useFallbackIfNotSet(p.getOptionalString("db.replica.password"),
+                                                    p.getString("db.password")))
+               .replicaPoolMaxSize(p.getOptionalInt("db.replica.pool.max.size", 10))
                .build();
 
         PasswordEncoder encoder = new BCryptPasswordEncoder();
@@ -80,6 +94,18 @@ public enum SteveConfiguration {
                    .autoRegisterUnknownStations(p.getOptionalBoolean("auto.register.unknown.stations"))
                    .wsSessionSelectStrategy(
                            WsSessionSelectStrategyEnum.fromName(p.getString("ws.session.select.strategy")))
+                   .incomingWorkerThreads(p.getOptionalInt("ws.incoming.worker.threads", 16))
+                   .incomingMailboxCapacity(p.getOptionalInt("ws.incoming.mailbox.capacity", 100))
+                   .incomingQueueCapacity(p.getOptionalInt("ws.incoming.queue.capacity", 20_000))
+                   .callTimeoutInSeconds(p.getOptionalInt("ws.call.timeout.seconds", 60))
+                   .pongTimeoutInSeconds(p.getOptionalInt("ws.ping.pong.timeout.seconds", 60))
+                   .callReplayCacheTtlInSeconds(p.getOptionalInt("ws.call.replay.cache.ttl.seconds", 300))
+                   .callReplayCacheSizePerStation(p.getOptionalInt("ws.call.replay.cache.size.per.station", 16))
+                   .heartbeatFlushIntervalInSeconds(p.getOptionalInt("heartbeat.flush.interval.seconds", 10))
+                   .ocppTagCacheTtlInSeconds(p.getOptionalInt("ocpp.tag.cache.ttl.seconds", 60))
+                   .ocppTagCacheMaxSize(p.getOptionalInt("ocpp.tag.cache.max.size", 10_000))
+                   .chargeBoxCacheTtlInSeconds(p.getOptionalInt("charge.box.cache.ttl.seconds", 600))
+                   .chargeBoxCacheMaxSize(p.getOptionalInt("charge.box.cache.max.size", 10_000))
                    .build();
 
         validate();
@@ -154,6 +180,33 @@ public enum SteveConfiguration {
         private final String userName;
         private final String password;
         private final boolean sqlLogging;
+        private final int meterValueQueueCapacity;
+        private final int meterValueBatchSize;
+        private final int meterValueLingerMillis;
+        private final int poolMaxSize;
+
+        // Monthly partitions of connector_meter_value and connector_status that are older than this are dropped, or
+        // moved to archive tables (see PartitionMaintenance). 0 keeps all partitions
+        private final int partitionRetentionMonths;
+        private final boolean partitionArchive;
+
+        // Meter values of transactions as blobs instead of rows (see MeterValueBlobCodec)
+        private final boolean meterValueBlob;
+
+        // Skip the connector statuses that repeat the last one (see LatestConnectorStatusCache)
+        private final boolean connectorStatusDedup;
+
+        // Optional read replica for the queries of the Web interface. If the ip is not set, everything goes to the
+        // primary. User and password default to the ones of the primary
+        private final String replicaIp;
+        private final int replicaPort;
+        private final String replicaUserName;
+        private final String replicaPassword;
+        private final int replicaPoolMaxSize;
+
+        public boolean isReplicaEnabled() {
+            return replicaIp != null;
+        }
     }
 
     // Credentials for Web interface access
@@ -169,6 +222,32 @@ public enum SteveConfiguration {
     public static class Ocpp {
         private final boolean autoRegisterUnknownStations;
         private final WsSessionSelectStrategy wsSessionSelectStrategy;
+
+        // Processing of incoming WebSocket/Json messages (see IncomingMessageDispatcher)
+        private final int incomingWorkerThreads;
+        private final int incomingMailboxCapacity;
+        private final int incomingQueueCapacity;
+
+        // How long to wait for the response to an outgoing WebSocket/Json call
+        private final int callTimeoutInSeconds;
+
+        // Sessions that do not answer a ping within this time are disconnected (see WebSocketPingScheduler). 0 = off
+        private final int pongTimeoutInSeconds;
+
+        // Responses to incoming WebSocket/Json calls are kept for retransmissions (see IncomingCallReplayCache)
+        private final int callReplayCacheTtlInSeconds;
+        private final int callReplayCacheSizePerStation;
+
+        // Heartbeat timestamps are written to database in batches at this interval (see ChargeBoxHeartbeatStore)
+        private final int heartbeatFlushIntervalInSeconds;
+
+        // Authorization data of OCPP tags is cached (see AuthorizationCache). A TTL of 0 disables the cache
+        private final int ocppTagCacheTtlInSeconds;
+        private final int ocppTagCacheMaxSize;
+
+        // Registration and metadata of charge boxes are cached (see ChargeBoxMetadataCache). A TTL of 0 disables it
+        private final int chargeBoxCacheTtlInSeconds;
+        private final int chargeBoxCacheMaxSize;
     }
 
 }
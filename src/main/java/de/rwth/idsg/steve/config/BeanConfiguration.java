@@ -7,9 +7,11 @@ import com.zaxxer.hikari.HikariDataSource;
 import de.rwth.idsg.steve.SteveConfiguration;
 import de.rwth.idsg.steve.service.DummyReleaseCheckService;
 import de.rwth.idsg.steve.service.GithubReleaseCheckService;
+import de.rwth.idsg.steve.service.MetricsProvider;
 import de.rwth.idsg.steve.service.ReleaseCheckService;
 import de.rwth.idsg.steve.utils.InternetChecker;
 import lombok.extern.slf4j.Slf4j;
+import org.jooq.ConnectionProvider;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
 import org.jooq.conf.Settings;
@@ -19,6 +21,7 @@ import org.jooq.impl.DefaultConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.Ordered;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
@@ -51,7 +54,14 @@ import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 @ComponentScan("de.rwth.idsg.steve")
 public class BeanConfiguration implements WebMvcConfigurer {
 
+    /**
+     * Name of the DSLContext for the read-only queries of the Web interface, which goes to the read replica, if one is
+     * configured. Otherwise, it is the same as the primary one.
+     */
+    public static final String READ_ONLY_DSL_CONTEXT = "readOnlyDslContext";
+
     private HikariDataSource dataSource;
+    private ReadReplicaConnectionProvider replicaConnectionProvider;
     private ScheduledThreadPoolExecutor executor;
 
     /**
@@ -60,12 +70,39 @@ public class BeanConfiguration implements WebMvcConfigurer {
     private void initDataSource() {
         SteveConfiguration.DB dbConfig = CONFIG.getDb();
 
+        HikariConfig hc = createHikariConfig(dbConfig.getIp(), dbConfig.getPort(),
+                dbConfig.getUserName(), dbConfig.getPassword());
+        hc.setPoolName("SteVe-Primary");
+        hc.setMaximumPoolSize(dbConfig.getPoolMaxSize());
+
+        dataSource = new HikariDataSource(hc);
+    }
+
+    /**
+     * The replica must not prevent the start of the application, and a replica that is down must not let the Web
+     * interface wait for long (see ReadReplicaConnectionProvider for the fallback).
+     */
+    private void initReplicaDataSource() {
+        SteveConfiguration.DB dbConfig = CONFIG.getDb();
+
+        HikariConfig hc = createHikariConfig(dbConfig.getReplicaIp(), dbConfig.getReplicaPort(),
+                dbConfig.getReplicaUserName(), dbConfig.getReplicaPassword());
+        hc.setPoolName("SteVe-Replica");
+        hc.setMaximumPoolSize(dbConfig.getReplicaPoolMaxSize());
+        hc.setReadOnly(true);
+        hc.setConnectionTimeout(TimeUnit.SECONDS.toMillis(2));
+        hc.setInitializationFailTimeout(-1);
+
+        replicaConnectionProvider = new ReadReplicaConnectionProvider(new HikariDataSource(hc), dataSource);
+    }
+
+    private static HikariConfig createHikariConfig(String ip, int port, String userName, String password) {
         HikariConfig hc = new HikariConfig();
 
         // set standard params
-        hc.setJdbcUrl("jdbc:mysql://" + dbConfig.getIp() + ":" + dbConfig.getPort() + "/" + dbConfig.getSchema());
-        hc.setUsername(dbConfig.getUserName());
-        hc.setPassword(dbConfig.getPassword());
+        hc.setJdbcUrl("jdbc:mysql://" + ip + ":" + port + "/" + CONFIG.getDb().getSchema());
+        hc.setUsername(userName);
+        hc.setPassword(password);
 
         // set non-standard params
         hc.addDataSourceProperty(PropertyDefinitions.PNAME_cachePrepStmts, true);
@@ -76,7 +113,7 @@ public class BeanConfiguration implements WebMvcConfigurer {
         hc.addDataSourceProperty(PropertyDefinitions.PNAME_serverTimezone, CONFIG.getTimeZoneId());
         hc.addDataSourceProperty(PropertyDefinitions.PNAME_useSSL, true);
 
-        dataSource = new HikariDataSource(hc);
+        return hc;
     }
 
     /**
@@ -92,9 +129,35 @@ public class BeanConfiguration implements WebMvcConfigurer {
      * - http://stackoverflow.com/questions/32848865/jooq-dslcontext-correct-autowiring-with-spring
      */
     @Bean
+    @Primary
     public DSLContext dslContext() {
         initDataSource();
+        return createDslContext(new DataSourceConnectionProvider(dataSource));
+    }
 
+    /**
+     * For the overview/details pages, statistics and exports of the Web interface. The OCPP services must use the
+     * primary DSLContext, since they read their own writes.
+     */
+    @Bean(name = READ_ONLY_DSL_CONTEXT)
+    public DSLContext readOnlyDslContext() {
+        DSLContext primary = dslContext();
+        if (!CONFIG.getDb().isReplicaEnabled()) {
+            return primary;
+        }
+
+        initReplicaDataSource();
+        return createDslContext(replicaConnectionProvider);
+    }
+
+    @Bean
+    public MetricsProvider dataSourceMetrics() {
+        // make sure that the data sources are initialized
+        readOnlyDslContext();
+        return new DataSourceMetrics(dataSource, replicaConnectionProvider);
+    }
+
+    private static DSLContext createDslContext(ConnectionProvider connectionProvider) {
         Settings settings = new Settings()
                 // Normally, the records are "attached" to the Configuration that created (i.e. fetch/insert) them.
                 // This means that they hold an internal reference to the same database connection that was used.
@@ -107,7 +170,7 @@ public class BeanConfiguration implements WebMvcConfigurer {
         // Configuration for JOOQ
         org.jooq.Configuration conf = new DefaultConfiguration()
                 .set(SQLDialect.MYSQL)
-                .set(new DataSourceConnectionProvider(dataSource))
+                .set(connectionProvider)
                 .set(settings);
 
         return DSL.using(conf);
@@ -144,6 +207,10 @@ public class BeanConfiguration implements WebMvcConfigurer {
 
     @PreDestroy
     public void shutDown() {
+        if (replicaConnectionProvider != null) {
+            replicaConnectionProvider.getReplica().close();
+        }
+
         if (dataSource != null) {
             dataSource.close();
         }
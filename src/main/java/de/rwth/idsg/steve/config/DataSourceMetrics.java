@@ -0,0 +1,58 @@
+package de.rwth.idsg.steve.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection pool numbers of the primary database and, if configured, of the read replica.
+ *
+ * @since 18.10.2026
+ */
+@RequiredArgsConstructor
+public class DataSourceMetrics implements MetricsProvider {
+
+    private final HikariDataSource primary;
+    @Nullable private final ReadReplicaConnectionProvider replicaConnectionProvider;
+
+    @Override
+    public String getMetricsName() {
+        return "Database Connection Pools";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        putPoolMetrics(map, "Primary", primary);
+
+        if (replicaConnectionProvider == null) {
+            map.put("Read replica", "Not configured");
+        } else {
+            putPoolMetrics(map, "Replica", replicaConnectionProvider.getReplica());
+            map.put("Replica: available", replicaConnectionProvider.isReplicaAvailable());
+            map.put("Replica: reads", replicaConnectionProvider.getReplicaAcquires());
+            map.put("Replica: reads that fell back to primary", replicaConnectionProvider.getPrimaryFallbacks());
+            map.put("Replica: of which due to a full pool", replicaConnectionProvider.getReplicaPoolTimeouts());
+        }
+        return map;
+    }
+
+    private static void putPoolMetrics(Map<String, Object> map, String prefix, HikariDataSource dataSource) {
+        map.put(prefix + ": max pool size", dataSource.getMaximumPoolSize());
+
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return;
+        }
+
+        map.put(prefix + ": active connections", pool.getActiveConnections());
+        map.put(prefix + ": idle connections", pool.getIdleConnections());
+        map.put(prefix + ": total connections", pool.getTotalConnections());
+        map.put(prefix + ": threads waiting for a connection", pool.getThreadsAwaitingConnection());
+    }
+}
@@ -0,0 +1,112 @@
+package de.rwth.idsg.steve.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.ConnectionProvider;
+import org.jooq.exception.DataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out connections of the read replica. If no connection to the replica can be acquired, the connection is
+ * taken from the primary instead. Two causes are distinguished:
+ *
+ * - The replica cannot be connected to: The replica is not tried again for some time, such that the Web interface
+ *   does not wait for the connection timeout with every query while the replica is down.
+ * - All connections of the replica pool are in use (the pool timed out, but the replica is reachable): Only this
+ *   query goes to the primary, and the next one tries the replica again.
+ *
+ * Hikari reports both as SQLTransientConnectionException, but only a connection failure has the last failure of the
+ * pool as cause. A timeout of the primary pool is reported separately from a failure of the primary as well.
+ *
+ * A query that fails on an already acquired replica connection is not retried on the primary.
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReadReplicaConnectionProvider implements ConnectionProvider {
+
+    private static final long RETRY_REPLICA_AFTER_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    @Getter private final HikariDataSource replica;
+    private final DataSource primary;
+
+    private volatile long retryReplicaAt = 0;
+
+    private final LongAdder replicaAcquires = new LongAdder();
+    private final LongAdder replicaPoolTimeouts = new LongAdder();
+    private final LongAdder primaryFallbacks = new LongAdder();
+
+    @Override
+    public Connection acquire() throws DataAccessException {
+        if (System.currentTimeMillis() >= retryReplicaAt) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaAcquires.increment();
+                return connection;
+            } catch (SQLException e) {
+                if (isPoolTimeout(e)) {
+                    replicaPoolTimeouts.increment();
+                    log.warn("All connections of the read replica are in use ({}). This read goes to the primary",
+                            e.getMessage());
+                } else {
+                    retryReplicaAt = System.currentTimeMillis() + RETRY_REPLICA_AFTER_MILLIS;
+                    log.warn("The read replica is not available ({}). Reads go to the primary for the next {} "
+                            + "seconds", e.getMessage(), TimeUnit.MILLISECONDS.toSeconds(RETRY_REPLICA_AFTER_MILLIS));
+                }
+            }
+        }
+
+        try {
+            Connection connection = primary.getConnection();
+            primaryFallbacks.increment();
+            return connection;
+        } catch (SQLException e) {
+            if (isPoolTimeout(e)) {
+                throw new DataAccessException("Timed out waiting for a free connection of data source " + primary, e);
+            } else {
+                throw new DataAccessException("Error getting connection from data source " + primary, e);
+            }
+        }
+    }
+
+    @Override
+    public void release(Connection connection) throws DataAccessException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error closing connection " + connection, e);
+        }
+    }
+
+    public boolean isReplicaAvailable() {
+        return System.currentTimeMillis() >= retryReplicaAt;
+    }
+
+    public long getReplicaAcquires() {
+        return replicaAcquires.sum();
+    }
+
+    public long getReplicaPoolTimeouts() {
+        return replicaPoolTimeouts.sum();
+    }
+
+    public long getPrimaryFallbacks() {
+        return primaryFallbacks.sum();
+    }
+
+    /**
+     * Hikari sets the last connection failure as cause of the timeout. Without one, the connections were all in use.
+     */
+    private static boolean isPoolTimeout(SQLException e) {
+        return e instanceof SQLTransientConnectionException && e.getCause() == null;
+    }
+}
@@ -41,6 +41,11 @@ public class WebSocketConfiguration implements WebSocketConfigurer {
     private static final long IDLE_TIMEOUT = TimeUnit.HOURS.toMillis(2);
     private static final int MAX_MSG_SIZE = 8_388_608; // 8 MB for max message size
 
+    // Messages to a station are sent one at a time. While a send is in progress, the messages of other threads are
+    // buffered up to this limit. A session that exceeds one of the limits is closed
+    public static final int SEND_TIME_LIMIT = (int) TimeUnit.SECONDS.toMillis(30);
+    public static final int SEND_BUFFER_SIZE_LIMIT = 2 * MAX_MSG_SIZE;
+
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         WebSocketPolicy policy = new WebSocketPolicy(WebSocketBehavior.SERVER);
@@ -116,7 +116,7 @@ public abstract class CommunicationTask<S extends ChargePointSelection, RESPONSE
         }
     }
 
-    protected void failed(String chargeBoxId, Exception exception) {
+    public void failed(String chargeBoxId, Exception exception) {
         for (OcppCallback<RESPONSE> c : callbackList) {
             try {
                 c.failed(chargeBoxId, exception);
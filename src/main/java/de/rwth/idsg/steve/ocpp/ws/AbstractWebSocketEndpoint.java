@@ -6,7 +6,7 @@ import de.rwth.idsg.steve.ocpp.OcppVersion;
 import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
 import de.rwth.idsg.steve.ocpp.ws.pipeline.IncomingPipeline;
-import de.rwth.idsg.steve.repository.OcppServerRepository;
+import de.rwth.idsg.steve.repository.ChargeBoxHeartbeatStore;
 import de.rwth.idsg.steve.service.NotificationService;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,14 +17,12 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
@@ -33,12 +31,13 @@ import java.util.function.Consumer;
  */
 public abstract class AbstractWebSocketEndpoint implements WebSocketHandler {
 
-    @Autowired private ScheduledExecutorService service;
-    @Autowired private OcppServerRepository ocppServerRepository;
+    @Autowired private ChargeBoxHeartbeatStore chargeBoxHeartbeatStore;
     @Autowired private FutureResponseContextStore futureResponseContextStore;
     @Autowired private NotificationService notificationService;
+    @Autowired private IncomingMessageDispatcher incomingMessageDispatcher;
 
     public static final String CHARGEBOX_ID_KEY = "CHARGEBOX_ID_KEY";
+    private static final String CONCURRENT_SESSION_KEY = "CONCURRENT_SESSION_KEY";
 
     private final SessionContextStoreImpl sessionContextStore = new SessionContextStoreImpl();
     private final List<Consumer<String>> connectedCallbackList = new ArrayList<>();
@@ -59,10 +58,10 @@ public abstract class AbstractWebSocketEndpoint implements WebSocketHandler {
     @Override
     public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
         if (message instanceof TextMessage) {
-            handleTextMessage(session, (TextMessage) message);
+            handleTextMessage(getConcurrentSession(session), (TextMessage) message);
 
         } else if (message instanceof PongMessage) {
-            handlePongMessage(session);
+            handlePongMessage(getConcurrentSession(session));
 
         } else if (message instanceof BinaryMessage) {
             session.close(CloseStatus.NOT_ACCEPTABLE.withReason("Binary messages not supported"));
@@ -87,35 +86,38 @@ public abstract class AbstractWebSocketEndpoint implements WebSocketHandler {
         CommunicationContext context = new CommunicationContext(session, chargeBoxId);
         context.setIncomingString(incomingString);
 
-        pipeline.accept(context);
+        incomingMessageDispatcher.dispatch(context, pipeline);
     }
 
     private void handlePongMessage(WebSocketSession session) {
-        WebSocketLogger.receivedPong(getChargeBoxId(session), session);
-        ocppServerRepository.updateChargeboxHeartbeat(getChargeBoxId(session), DateTime.now());
+        String chargeBoxId = getChargeBoxId(session);
+
+        WebSocketLogger.receivedPong(chargeBoxId, session);
+        sessionContextStore.pongReceived(chargeBoxId, session);
+        chargeBoxHeartbeatStore.update(chargeBoxId, DateTime.now());
     }
 
     @Override
-    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+    public void afterConnectionEstablished(WebSocketSession nativeSession) throws Exception {
+        // From now on, responses (worker threads), rejections of the dispatcher (I/O threads), outgoing calls
+        // (web threads) and pings (scheduler) share this session. Jetty does not allow concurrent sends, therefore
+        // all of them must use the decorator which serializes the sends.
+        WebSocketSession session = new ConcurrentWebSocketSessionDecorator(nativeSession,
+                WebSocketConfiguration.SEND_TIME_LIMIT, WebSocketConfiguration.SEND_BUFFER_SIZE_LIMIT);
+        nativeSession.getAttributes().put(CONCURRENT_SESSION_KEY, session);
+
         String chargeBoxId = getChargeBoxId(session);
 
         WebSocketLogger.connected(chargeBoxId, session);
 
-        // Just to keep the connection alive, such that the servers do not close
-        // the connection because of a idle timeout, we ping-pong at fixed intervals.
-        ScheduledFuture pingSchedule = service.scheduleAtFixedRate(
-                new PingTask(chargeBoxId, session),
-                WebSocketConfiguration.PING_INTERVAL,
-                WebSocketConfiguration.PING_INTERVAL,
-                TimeUnit.MINUTES);
-
         futureResponseContextStore.addSession(session);
 
         int sizeBeforeAdd;
 
         synchronized (sessionContextLock) {
             sizeBeforeAdd = sessionContextStore.getSize(chargeBoxId);
-            sessionContextStore.add(chargeBoxId, session, pingSchedule);
+            // The session will be pinged by WebSocketPingScheduler from now on
+            sessionContextStore.add(chargeBoxId, session);
         }
 
         // Take into account that there might be multiple connections to a charging station.
@@ -126,7 +128,8 @@ public abstract class AbstractWebSocketEndpoint implements WebSocketHandler {
     }
 
     @Override
-    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+    public void afterConnectionClosed(WebSocketSession nativeSession, CloseStatus closeStatus) throws Exception {
+        WebSocketSession session = getConcurrentSession(nativeSession);
         String chargeBoxId = getChargeBoxId(session);
 
         WebSocketLogger.closed(chargeBoxId, session, closeStatus);
@@ -165,6 +168,14 @@ public abstract class AbstractWebSocketEndpoint implements WebSocketHandler {
         return (String) session.getAttributes().get(CHARGEBOX_ID_KEY);
     }
 
+    /**
+     * The stores know the session only by its decorator (see afterConnectionEstablished), which Spring does not.
+     */
+    private static WebSocketSession getConcurrentSession(WebSocketSession nativeSession) {
+        WebSocketSession session = (WebSocketSession) nativeSession.getAttributes().get(CONCURRENT_SESSION_KEY);
+        return (session == null) ? nativeSession : session;
+    }
+
     protected void registerConnectedCallback(Consumer<String> consumer) {
         connectedCallbackList.add(consumer);
     }
@@ -189,4 +200,8 @@ public abstract class AbstractWebSocketEndpoint implements WebSocketHandler {
         return sessionContextStore.getSession(chargeBoxId);
     }
 
+    public List<SessionContext> getSessionContexts() {
+        return sessionContextStore.getSessionContexts();
+    }
+
 }
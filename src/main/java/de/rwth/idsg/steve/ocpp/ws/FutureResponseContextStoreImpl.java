@@ -2,32 +2,89 @@ package de.rwth.idsg.steve.ocpp.ws;
 
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import de.rwth.idsg.steve.utils.HashedTimingWheel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.WebSocketSession;
 
-import java.util.HashMap;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 
 /**
  * Presumption: The responses must be sent using the same connection as the requests!
  *
+ * Every pending call is registered in a timing wheel that ticks once per second. If no response arrives within
+ * the configured timeout, the call is removed from the store and its task is failed. The pending calls of a closed
+ * connection are failed right away, since their responses cannot arrive anymore.
+ *
+ * Whoever removes a pending call from the map of its session (response, timeout or close) owns it. This way,
+ * a task is either completed or failed, but never both.
+ *
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 21.03.2015
  */
 @Slf4j
 @Service
-public class FutureResponseContextStoreImpl implements FutureResponseContextStore {
+public class FutureResponseContextStoreImpl implements FutureResponseContextStore, MetricsProvider {
+
+    // With ticks of one second, one revolution of the wheel takes ~8.5 minutes
+    private static final int WHEEL_SIZE = 512;
+
+    @Autowired private ScheduledExecutorService executorService;
+
+    private final int callTimeoutInSeconds;
+
+    // We store for each chargeBox connection, multiple pairs of (messageId, pending call)
+    // (sessionId, (messageId, pending call))
+    private final Map<String, Map<String, PendingCall>> lookupTable = new ConcurrentHashMap<>();
 
-    // We store for each chargeBox connection, multiple pairs of (messageId, context)
-    // (session, (messageId, context))
-    private final Map<WebSocketSession, Map<String, FutureResponseContext>> lookupTable = new HashMap<>();
+    private final HashedTimingWheel<PendingCall> timingWheel = new HashedTimingWheel<>(WHEEL_SIZE);
+
+    private final LongAdder timedOutCount = new LongAdder();
+    private final LongAdder closedCount = new LongAdder();
+
+    private ScheduledFuture<?> tickSchedule;
+
+    public FutureResponseContextStoreImpl() {
+        this(CONFIG.getOcpp().getCallTimeoutInSeconds());
+    }
+
+    FutureResponseContextStoreImpl(int callTimeoutInSeconds) {
+        this.callTimeoutInSeconds = callTimeoutInSeconds;
+    }
+
+    @PostConstruct
+    public void init() {
+        tickSchedule = executorService.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (tickSchedule != null) {
+            tickSchedule.cancel(false);
+        }
+    }
 
     @Override
     public void addSession(WebSocketSession session) {
-        lookupTable.computeIfAbsent(session, webSocketSession -> {
-            log.debug("Creating new store for sessionId '{}'", webSocketSession.getId());
+        lookupTable.computeIfAbsent(session.getId(), sessionId -> {
+            log.debug("Creating new store for sessionId '{}'", sessionId);
             return new ConcurrentHashMap<>();
         });
     }
@@ -35,29 +92,131 @@ public class FutureResponseContextStoreImpl implements FutureResponseContextStor
     @Override
     public void removeSession(WebSocketSession session) {
         log.debug("Deleting the store for sessionId '{}'", session.getId());
-        lookupTable.remove(session);
+        Map<String, PendingCall> map = lookupTable.remove(session.getId());
+        if (map == null) {
+            return;
+        }
+
+        for (String messageId : map.keySet()) {
+            PendingCall call = map.remove(messageId);
+            if (call != null) {
+                timingWheel.cancel(call.getTimeout());
+                closedCount.increment();
+                fail(call, new SteveException("The connection was closed before a response was received"));
+            }
+        }
     }
 
     @Override
     public void add(WebSocketSession session, String messageId, FutureResponseContext context) {
-        Map<String, FutureResponseContext> map = lookupTable.get(session);
+        Map<String, PendingCall> map = lookupTable.get(session.getId());
         if (map == null) {
             throw new SteveException("sessionId '%s' is not in store", session.getId());
-        } else {
-            map.put(messageId, context);
-            log.debug("Store size for sessionId '{}': {}", session.getId(), map.size());
         }
+
+        String chargeBoxId = (String) session.getAttributes().get(AbstractWebSocketEndpoint.CHARGEBOX_ID_KEY);
+        PendingCall call = new PendingCall(map, messageId, chargeBoxId, context);
+
+        // register the timeout first, so that a fast response finds it
+        call.setTimeout(timingWheel.add(call, callTimeoutInSeconds));
+        map.put(messageId, call);
+        log.debug("Store size for sessionId '{}': {}", session.getId(), map.size());
     }
 
     @Override
     public FutureResponseContext get(WebSocketSession session, String messageId) {
-        Map<String, FutureResponseContext> map = lookupTable.get(session);
+        Map<String, PendingCall> map = lookupTable.get(session.getId());
         if (map == null) {
             throw new SteveException("sessionId '%s' is not in store", session.getId());
+        }
+
+        PendingCall call = map.remove(messageId);
+        log.debug("Store size for sessionId '{}': {}", session.getId(), map.size());
+
+        if (call == null) {
+            return null;
         } else {
-            FutureResponseContext context = map.remove(messageId);
-            log.debug("Store size for sessionId '{}': {}", session.getId(), map.size());
-            return context;
+            timingWheel.cancel(call.getTimeout());
+            return call.getContext();
         }
     }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Pending Outgoing WebSocket/Json Calls";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        int total = 0;
+        int max = 0;
+        for (Map<String, PendingCall> map : lookupTable.values()) {
+            int size = map.size();
+            total += size;
+            max = Math.max(max, size);
+        }
+
+        String perSession = lookupTable.entrySet()
+                                       .stream()
+                                       .filter(e -> !e.getValue().isEmpty())
+                                       .sorted(Comparator.comparingInt(e -> -e.getValue().size()))
+                                       .limit(10)
+                                       .map(e -> e.getKey() + ": " + e.getValue().size())
+                                       .collect(Collectors.joining(", "));
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("Call timeout (seconds)", callTimeoutInSeconds);
+        metrics.put("Sessions", lookupTable.size());
+        metrics.put("Pending calls", total);
+        metrics.put("Max pending calls of a session", max);
+        metrics.put("Pending calls per session (top 10)", perSession);
+        metrics.put("Timed out calls", timedOutCount.sum());
+        metrics.put("Calls failed by closed connection", closedCount.sum());
+        return metrics;
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Called once per second. Package-private for the tests, which drive the wheel themselves.
+     */
+    void tick() {
+        try {
+            timingWheel.tick(this::onTimeout);
+        } catch (Exception e) {
+            // an exception would cancel the schedule
+            log.error("Exception occurred", e);
+        }
+    }
+
+    private void onTimeout(PendingCall call) {
+        // a response might have been received in the meantime
+        if (call.getSessionMap().remove(call.getMessageId(), call)) {
+            timedOutCount.increment();
+            fail(call, new SteveException("No response was received within %s seconds", callTimeoutInSeconds));
+        }
+    }
+
+    private static void fail(PendingCall call, Exception e) {
+        log.warn("Call with messageId '{}' to chargeBoxId '{}' failed: {}",
+                call.getMessageId(), call.getChargeBoxId(), e.getMessage());
+
+        call.getContext().getTask().failed(call.getChargeBoxId(), e);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class PendingCall {
+        private final Map<String, PendingCall> sessionMap;
+        private final String messageId;
+        private final String chargeBoxId;
+        private final FutureResponseContext context;
+        @Setter private volatile HashedTimingWheel.Timeout<PendingCall> timeout;
+    }
 }
@@ -0,0 +1,30 @@
+package de.rwth.idsg.steve.ocpp.ws;
+
+/**
+ * Keeps the serialized responses to the last incoming calls of each charging station, such that a retransmitted call
+ * is answered with the same response without being processed again.
+ *
+ * A call counts as retransmitted only if the whole incoming frame (action, messageId and payload) is the same. This
+ * way, a station that starts its messageIds from the beginning after a reboot does not get the response to another
+ * call.
+ *
+ * Only the transaction messages (StartTransaction, StopTransaction and MeterValues) are replayed, since processing
+ * them twice would e.g. store the meter values twice. The responses of the other calls depend on the state when
+ * they are processed (e.g. the authorization of a tag, or the current time of a Heartbeat), hence they are
+ * processed again. The cache is not cleared when a station reconnects, since a call is typically
+ * retransmitted after a reconnect.
+ *
+ * @since 18.10.2026
+ */
+public interface IncomingCallReplayCache {
+
+    /**
+     * @return the response that was sent for the same incoming frame before, or null
+     */
+    String get(String chargeBoxId, String incomingString);
+
+    /**
+     * Keeps the response only if the action is replayed
+     */
+    void put(String chargeBoxId, String incomingString, String action, String outgoingString);
+}
@@ -0,0 +1,154 @@
+package de.rwth.idsg.steve.ocpp.ws;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Every station has its own small map of (incoming frame, response), which holds the most recent calls up to the
+ * configured size. An entry is not replayed anymore after the TTL, and the map of a station is removed when it was
+ * not used for the TTL.
+ *
+ * Only CALL_RESULTs are kept. A call that failed with a CALL_ERROR is processed again when it is retransmitted.
+ *
+ * @since 18.10.2026
+ */
+@Service
+public class IncomingCallReplayCacheImpl implements IncomingCallReplayCache, MetricsProvider {
+
+    private static final Set<String> REPLAYED_ACTIONS =
+            ImmutableSet.of("StartTransaction", "StopTransaction", "MeterValues");
+
+    private final int ttlInSeconds;
+    private final int sizePerStation;
+    private final boolean enabled;
+    private final long ttlInNanos;
+
+    private final Cache<String, StationReplays> stations;
+
+    private final LongAdder lookupCount = new LongAdder();
+    private final LongAdder storedCount = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> hitCountByAction = new ConcurrentHashMap<>();
+
+    public IncomingCallReplayCacheImpl() {
+        this(CONFIG.getOcpp().getCallReplayCacheTtlInSeconds(), CONFIG.getOcpp().getCallReplayCacheSizePerStation());
+    }
+
+    IncomingCallReplayCacheImpl(int ttlInSeconds, int sizePerStation) {
+        this.ttlInSeconds = ttlInSeconds;
+        this.sizePerStation = sizePerStation;
+        this.enabled = ttlInSeconds > 0 && sizePerStation > 0;
+        this.ttlInNanos = TimeUnit.SECONDS.toNanos(ttlInSeconds);
+        this.stations = CacheBuilder.newBuilder()
+                                    .expireAfterAccess(Math.max(ttlInSeconds, 1), TimeUnit.SECONDS)
+                                    .build();
+    }
+
+    @Override
+    public String get(String chargeBoxId, String incomingString) {
+        if (!enabled) {
+            return null;
+        }
+
+        lookupCount.increment();
+
+        StationReplays replays = stations.getIfPresent(chargeBoxId);
+        if (replays == null) {
+            return null;
+        }
+
+        Replay replay = replays.get(incomingString, System.nanoTime());
+        if (replay == null) {
+            return null;
+        }
+
+        hitCountByAction.computeIfAbsent(replay.action, k -> new LongAdder()).increment();
+        return replay.outgoingString;
+    }
+
+    @Override
+    public void put(String chargeBoxId, String incomingString, String action, String outgoingString) {
+        if (!enabled || !REPLAYED_ACTIONS.contains(action)) {
+            return;
+        }
+
+        StationReplays replays = stations.asMap().computeIfAbsent(chargeBoxId, k -> new StationReplays());
+        replays.put(incomingString, new Replay(action, outgoingString, System.nanoTime()));
+        storedCount.increment();
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Incoming Call Replay Cache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        long hitCount = hitCountByAction.values().stream().mapToLong(LongAdder::sum).sum();
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Enabled", enabled);
+        map.put("TTL (seconds)", ttlInSeconds);
+        map.put("Size per station", sizePerStation);
+        map.put("Stations", stations.size());
+        map.put("Stored responses", storedCount.sum());
+        map.put("Lookups", lookupCount.sum());
+        map.put("Replayed responses", hitCount);
+        hitCountByAction.forEach((action, count) -> map.put("Replayed responses (" + action + ")", count.sum()));
+        return map;
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * The calls of a station are processed one after another (see IncomingMessageDispatcher), so the lock is
+     * practically uncontended.
+     */
+    private class StationReplays {
+
+        private final LinkedHashMap<String, Replay> map = new LinkedHashMap<String, Replay>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Replay> eldest) {
+                return size() > sizePerStation;
+            }
+        };
+
+        private synchronized Replay get(String incomingString, long now) {
+            Replay replay = map.get(incomingString);
+            if (replay != null && now - replay.createdAt > ttlInNanos) {
+                map.remove(incomingString);
+                return null;
+            }
+            return replay;
+        }
+
+        private synchronized void put(String incomingString, Replay replay) {
+            map.put(incomingString, replay);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Replay {
+        private final String action;
+        private final String outgoingString;
+        private final long createdAt;
+    }
+}
@@ -0,0 +1,339 @@
+package de.rwth.idsg.steve.ocpp.ws;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.MessageType;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Sender;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Serializer;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Takes the processing of incoming messages (deserialization, database work, response) off the I/O threads of Jetty
+ * and hands it to a bounded pool of worker threads.
+ *
+ * The messages of a charging station are put into its mailbox (keyed by chargeBoxId) and are processed one after
+ * another in the order of arrival. Mailboxes of different stations are processed in parallel. A mailbox only exists
+ * while it has messages to process, and is removed when it is drained.
+ *
+ * Overflow policy: If the mailbox of a station or the total number of waiting messages (approximately) reaches its
+ * capacity, an incoming CALL is not queued, but answered immediately with a CALL_ERROR, such that the station can
+ * retry later. Incoming CALL_RESULTs and CALL_ERRORs are always queued, since they are responses to our own calls and
+ * their number is bounded by them. The rejection is sent by the I/O thread, while a worker might be sending to the
+ * same station. This is safe, since the session is decorated such that sends are serialized (see
+ * AbstractWebSocketEndpoint).
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+@Component
+public class IncomingMessageDispatcher implements MetricsProvider {
+
+    /**
+     * A busy mailbox gives its worker thread back after this many messages, such that the other mailboxes
+     * waiting in the executor queue are not starved.
+     */
+    private static final int MAX_MESSAGES_PER_RUN = 32;
+
+    private final int workerThreads;
+    private final int mailboxCapacity;
+    private final int queueCapacity;
+
+    private final JsonFactory jsonFactory = JsonObjectMapper.INSTANCE.getMapper().getFactory();
+
+    private final ConcurrentHashMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedCount = new AtomicInteger();
+
+    private final LongAdder processedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private ExecutorService executor;
+
+    public IncomingMessageDispatcher() {
+        this(CONFIG.getOcpp().getIncomingWorkerThreads(),
+             CONFIG.getOcpp().getIncomingMailboxCapacity(),
+             CONFIG.getOcpp().getIncomingQueueCapacity());
+    }
+
+    IncomingMessageDispatcher(int workerThreads, int mailboxCapacity, int queueCapacity) {
+        this.workerThreads = workerThreads;
+        this.mailboxCapacity = mailboxCapacity;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (workerThreads > 0) {
+            executor = Executors.newFixedThreadPool(
+                    workerThreads,
+                    new ThreadFactoryBuilder().setNameFormat("SteVe-Incoming-%d").build()
+            );
+        } else {
+            log.info("Worker pool for incoming messages is disabled. Messages will be processed by I/O threads");
+        }
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (executor == null) {
+            return;
+        }
+
+        try {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+
+        } catch (InterruptedException e) {
+            log.error("Termination interrupted", e);
+
+        } finally {
+            if (!executor.isTerminated()) {
+                log.warn("Killing non-finished tasks");
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    public void dispatch(CommunicationContext context, Consumer<CommunicationContext> pipeline) {
+        if (executor == null) {
+            pipeline.accept(context);
+            return;
+        }
+
+        Task task = new Task(context, pipeline, System.nanoTime());
+        if (enqueue(task, false)) {
+            return;
+        }
+
+        String callMessageId = getCallMessageId(context.getIncomingString());
+        if (callMessageId == null) {
+            // a response to our call, or garbage that the pipeline will respond to with an error
+            enqueue(task, true);
+        } else {
+            reject(context, callMessageId);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Incoming WebSocket/Json Messages";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        int largestMailbox = 0;
+        for (Mailbox mailbox : mailboxes.values()) {
+            synchronized (mailbox) {
+                largestMailbox = Math.max(largestMailbox, mailbox.queue.size());
+            }
+        }
+
+        long processed = processedCount.sum();
+        long avgWaitNanos = (processed == 0) ? 0 : totalWaitNanos.sum() / processed;
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Worker threads", workerThreads);
+        map.put("Active mailboxes", mailboxes.size());
+        map.put("Waiting messages", queuedCount.get());
+        map.put("Largest mailbox depth", largestMailbox);
+        map.put("Processed messages", processed);
+        map.put("Rejected calls (overflow)", rejectedCount.sum());
+        map.put("Average wait time (ms)", toMillis(avgWaitNanos));
+        map.put("Max wait time (ms)", toMillis(maxWaitNanos.get()));
+        return map;
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private boolean enqueue(Task task, boolean ignoreCapacity) {
+        String chargeBoxId = task.context.getChargeBoxId();
+
+        while (true) {
+            Mailbox mailbox = mailboxes.computeIfAbsent(chargeBoxId, Mailbox::new);
+
+            synchronized (mailbox) {
+                if (mailbox.retired) {
+                    // drained and removed concurrently. the next iteration will create a new one
+                    continue;
+                }
+
+                if (!ignoreCapacity
+                        && (mailbox.queue.size() >= mailboxCapacity || queuedCount.get() >= queueCapacity)) {
+                    return false;
+                }
+
+                mailbox.queue.add(task);
+                queuedCount.incrementAndGet();
+
+                if (!mailbox.scheduled) {
+                    mailbox.scheduled = true;
+                    execute(mailbox);
+                }
+                return true;
+            }
+        }
+    }
+
+    private void execute(Mailbox mailbox) {
+        try {
+            executor.execute(mailbox);
+        } catch (RejectedExecutionException e) {
+            log.warn("The executor is shut down. Messages of chargeBoxId '{}' will not be processed",
+                    mailbox.chargeBoxId);
+        }
+    }
+
+    private void process(Task task) {
+        long waitNanos = System.nanoTime() - task.enqueuedAt;
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        processedCount.increment();
+
+        try {
+            task.pipeline.accept(task.context);
+        } catch (Exception e) {
+            // When processed by the I/O thread, the exception propagates to Spring which closes the session
+            // (see ExceptionWebSocketHandlerDecorator). Keep this behaviour.
+            log.error("Exception occurred while processing the message of chargeBoxId '{}'",
+                    task.context.getChargeBoxId(), e);
+            closeWithError(task.context.getSession());
+        }
+    }
+
+    private void reject(CommunicationContext context, String messageId) {
+        rejectedCount.increment();
+        log.warn("Mailbox of chargeBoxId '{}' is full. Rejecting the call with messageId '{}'",
+                context.getChargeBoxId(), messageId);
+
+        context.setOutgoingMessage(ErrorFactory.serverBusy(messageId));
+        Serializer.INSTANCE.accept(context);
+        Sender.INSTANCE.accept(context);
+    }
+
+    /**
+     * Reads just enough of the envelope to decide whether it is a CALL.
+     *
+     * @return the messageId, if the message is a CALL. Otherwise null
+     */
+    private String getCallMessageId(String incomingString) {
+        try (JsonParser parser = jsonFactory.createParser(incomingString)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return null;
+            }
+
+            parser.nextToken();
+            if (parser.getIntValue() != MessageType.CALL.getTypeNr()) {
+                return null;
+            }
+
+            parser.nextToken();
+            return parser.getText();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+
+    private static void closeWithError(WebSocketSession session) {
+        try {
+            if (session.isOpen()) {
+                session.close(CloseStatus.SERVER_ERROR);
+            }
+        } catch (IOException e) {
+            log.error("Failed to close the session", e);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Class declarations
+    // -------------------------------------------------------------------------
+
+    @RequiredArgsConstructor
+    private static class Task {
+        private final CommunicationContext context;
+        private final Consumer<CommunicationContext> pipeline;
+        private final long enqueuedAt;
+    }
+
+    /**
+     * All fields except chargeBoxId are guarded by the monitor of the mailbox.
+     */
+    @RequiredArgsConstructor
+    private class Mailbox implements Runnable {
+        private final String chargeBoxId;
+        private final ArrayDeque<Task> queue = new ArrayDeque<>();
+
+        // submitted to the executor or running
+        private boolean scheduled = false;
+        // drained and removed from the map, must not accept messages anymore
+        private boolean retired = false;
+
+        @Override
+        public void run() {
+            for (int i = 0; i < MAX_MESSAGES_PER_RUN; i++) {
+                Task task;
+                synchronized (this) {
+                    task = queue.poll();
+                    if (task == null) {
+                        retire();
+                        return;
+                    }
+                }
+                queuedCount.decrementAndGet();
+                process(task);
+            }
+
+            synchronized (this) {
+                if (queue.isEmpty()) {
+                    retire();
+                    return;
+                }
+            }
+
+            // still busy, go to the end of the line
+            execute(this);
+        }
+
+        private void retire() {
+            scheduled = false;
+            retired = true;
+            mailboxes.remove(chargeBoxId, this);
+        }
+    }
+}
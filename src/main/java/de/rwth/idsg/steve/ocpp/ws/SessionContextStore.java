@@ -6,18 +6,19 @@ import org.springframework.web.socket.WebSocketSession;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledFuture;
 
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 17.03.2015
  */
 public interface SessionContextStore {
-    void add(String chargeBoxId, WebSocketSession session, ScheduledFuture pingSchedule);
+    void add(String chargeBoxId, WebSocketSession session);
     void remove(String chargeBoxId, WebSocketSession session);
+    void pongReceived(String chargeBoxId, WebSocketSession session);
     WebSocketSession getSession(String chargeBoxId);
     int getSize(String chargeBoxId);
     int getNumberOfChargeBoxes();
     List<String> getChargeBoxIdList();
     Map<String, Deque<SessionContext>> getACopy();
+    List<SessionContext> getSessionContexts();
 }
@@ -10,13 +10,14 @@ import org.joda.time.DateTime;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.locks.Lock;
 
 import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
@@ -39,11 +40,13 @@ public class SessionContextStoreImpl implements SessionContextStore {
     private final WsSessionSelectStrategy wsSessionSelectStrategy = CONFIG.getOcpp().getWsSessionSelectStrategy();
 
     @Override
-    public void add(String chargeBoxId, WebSocketSession session, ScheduledFuture pingSchedule) {
+    public void add(String chargeBoxId, WebSocketSession session) {
         Lock l = locks.get(chargeBoxId);
         l.lock();
         try {
-            SessionContext context = new SessionContext(session, pingSchedule, DateTime.now());
+            // A random slice, such that the pings of stations that (re)connect at the same time are spread
+            int pingSlice = ThreadLocalRandom.current().nextInt(WebSocketPingScheduler.SLICES);
+            SessionContext context = new SessionContext(session, DateTime.now(), pingSlice);
 
             Deque<SessionContext> endpointDeque = lookupTable.computeIfAbsent(chargeBoxId, str -> new ArrayDeque<>());
             endpointDeque.addLast(context); // Adding at the end
@@ -70,23 +73,15 @@ public class SessionContextStoreImpl implements SessionContextStore {
             // Reason: Cannot modify the set (remove the item) we are iterating
             // Solution: Iterate the set, find the item, remove the item after the for-loop
             //
-            SessionContext toRemove = null;
-            for (SessionContext context : endpointDeque) {
-                if (context.getSession().getId().equals(session.getId())) {
-                    toRemove = context;
-                    break;
-                }
-            }
+            SessionContext toRemove = find(endpointDeque, session);
 
             if (toRemove != null) {
-                // 1. Cancel the ping task
-                toRemove.getPingSchedule().cancel(true);
-                // 2. Delete from collection
+                // 1. Delete from collection
                 if (endpointDeque.remove(toRemove)) {
                     log.debug("A SessionContext is removed for chargeBoxId '{}'. Store size: {}",
                             chargeBoxId, endpointDeque.size());
                 }
-                // 3. Delete empty collection from lookup table in order to correctly calculate
+                // 2. Delete empty collection from lookup table in order to correctly calculate
                 // the number of connected chargeboxes with getNumberOfChargeBoxes()
                 if (endpointDeque.size() == 0) {
                     lookupTable.remove(chargeBoxId);
@@ -97,6 +92,25 @@ public class SessionContextStoreImpl implements SessionContextStore {
         }
     }
 
+    @Override
+    public void pongReceived(String chargeBoxId, WebSocketSession session) {
+        Lock l = locks.get(chargeBoxId);
+        l.lock();
+        try {
+            Deque<SessionContext> endpointDeque = lookupTable.get(chargeBoxId);
+            if (endpointDeque == null) {
+                return;
+            }
+
+            SessionContext context = find(endpointDeque, session);
+            if (context != null) {
+                context.setPingSentAtTick(SessionContext.NO_PING_PENDING);
+            }
+        } finally {
+            l.unlock();
+        }
+    }
+
     @Override
     public WebSocketSession getSession(String chargeBoxId) {
         Lock l = locks.get(chargeBoxId);
@@ -138,4 +152,28 @@ public class SessionContextStoreImpl implements SessionContextStore {
     public Map<String, Deque<SessionContext>> getACopy() {
         return ImmutableMap.copyOf(lookupTable);
     }
+
+    @Override
+    public List<SessionContext> getSessionContexts() {
+        List<SessionContext> list = new ArrayList<>(lookupTable.size());
+        for (Map.Entry<String, Deque<SessionContext>> entry : lookupTable.entrySet()) {
+            Lock l = locks.get(entry.getKey());
+            l.lock();
+            try {
+                list.addAll(entry.getValue());
+            } finally {
+                l.unlock();
+            }
+        }
+        return list;
+    }
+
+    private static SessionContext find(Deque<SessionContext> endpointDeque, WebSocketSession session) {
+        for (SessionContext context : endpointDeque) {
+            if (context.getSession().getId().equals(session.getId())) {
+                return context;
+            }
+        }
+        return null;
+    }
 }
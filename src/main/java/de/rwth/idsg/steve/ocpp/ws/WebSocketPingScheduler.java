@@ -0,0 +1,260 @@
+package de.rwth.idsg.steve.ocpp.ws;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.rwth.idsg.steve.config.WebSocketConfiguration;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.websocket.api.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Just to keep the connections alive, such that the servers do not close the connections because of an idle
+ * timeout, we ping-pong at fixed intervals.
+ *
+ * Instead of one scheduled task per connection, there is one task that walks the sessions of all endpoints once
+ * per slice of the ping interval. Every session is assigned to a random slice when connected, and is pinged when
+ * the walk arrives at its slice. This way, the pings of stations that (re)connect at the same time are spread
+ * over the interval.
+ *
+ * The walk only hands the pings to a small pool of sender threads, such that a peer that does not read (and blocks
+ * the write) cannot delay the pings of the other sessions. A ping that is still being written after
+ * {@link #SEND_TIMEOUT_SLICES} slices means that the connection is unusable, and the session is disconnected.
+ *
+ * A session that does not answer its ping within the pong timeout (ws.ping.pong.timeout.seconds, 60 seconds, i.e.
+ * 4 slices by default) is considered dead and is disconnected as well. A timeout of 0 disables this check.
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+@Component
+public class WebSocketPingScheduler implements MetricsProvider {
+
+    public static final int SLICES = 60;
+
+    private static final int SEND_TIMEOUT_SLICES = 2;
+    private static final int SENDER_THREADS = 4;
+
+    // Marks a session that is being disconnected, such that it is not visited again
+    private static final long DISCONNECTING = Long.MAX_VALUE;
+
+    private static final PingMessage PING_MESSAGE = new PingMessage(ByteBuffer.wrap("ping".getBytes(UTF_8)));
+
+    @Autowired private ScheduledExecutorService executorService;
+    @Autowired private List<AbstractWebSocketEndpoint> endpoints;
+
+    private final long sliceInMillis = TimeUnit.MINUTES.toMillis(WebSocketConfiguration.PING_INTERVAL) / SLICES;
+    private final int pongTimeoutInSeconds;
+    // 0 = disabled
+    private final long pongTimeoutSlices;
+
+    private final ExecutorService senderExecutor = Executors.newFixedThreadPool(
+            SENDER_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("SteVe-Ping-%d").build()
+    );
+
+    private final LongAdder pingCount = new LongAdder();
+    private final LongAdder pingErrorCount = new LongAdder();
+    private final LongAdder deadSessionCount = new LongAdder();
+    private final LongAdder stuckSessionCount = new LongAdder();
+
+    private volatile int lastWalkSessions = 0;
+    private volatile long lastWalkMicros = 0;
+
+    // Only accessed by the walking thread
+    private long tick = 0;
+
+    private ScheduledFuture<?> walkSchedule;
+
+    public WebSocketPingScheduler() {
+        this(CONFIG.getOcpp().getPongTimeoutInSeconds());
+    }
+
+    WebSocketPingScheduler(int pongTimeoutInSeconds) {
+        this.pongTimeoutInSeconds = pongTimeoutInSeconds;
+        if (pongTimeoutInSeconds <= 0) {
+            pongTimeoutSlices = 0;
+        } else {
+            long millis = TimeUnit.SECONDS.toMillis(pongTimeoutInSeconds);
+            pongTimeoutSlices = (millis + sliceInMillis - 1) / sliceInMillis;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        walkSchedule = executorService.scheduleAtFixedRate(this::walk, sliceInMillis, sliceInMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (walkSchedule != null) {
+            walkSchedule.cancel(false);
+        }
+        // a ping that is still being written would not be answered anyway
+        senderExecutor.shutdownNow();
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "WebSocket Ping Scheduler";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Slice length (seconds)", TimeUnit.MILLISECONDS.toSeconds(sliceInMillis));
+        map.put("Pong timeout (seconds)", pongTimeoutInSeconds);
+        map.put("Sessions in last walk", lastWalkSessions);
+        map.put("Duration of last walk (microseconds)", lastWalkMicros);
+        map.put("Sent pings", pingCount.sum());
+        map.put("Failed pings", pingErrorCount.sum());
+        map.put("Disconnected dead sessions (no pong)", deadSessionCount.sum());
+        map.put("Disconnected stuck sessions (ping not sent)", stuckSessionCount.sum());
+        return map;
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void walk() {
+        try {
+            long currentTick = ++tick;
+            int slice = (int) (currentTick % SLICES);
+
+            long start = System.nanoTime();
+            int count = 0;
+
+            for (AbstractWebSocketEndpoint endpoint : endpoints) {
+                for (SessionContext context : endpoint.getSessionContexts()) {
+                    visit(context, currentTick, slice);
+                    count++;
+                }
+            }
+
+            lastWalkSessions = count;
+            lastWalkMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        } catch (Exception e) {
+            // an exception would cancel the schedule
+            log.error("Exception occurred", e);
+        }
+    }
+
+    /**
+     * Package-private for the tests, which walk the sessions themselves.
+     */
+    void visit(SessionContext context, long currentTick, int slice) {
+        long sentAtTick = context.getPingSentAtTick();
+        if (sentAtTick == DISCONNECTING) {
+            return;
+        }
+
+        long sendingSinceTick = context.getPingSendingSinceTick();
+        if (sendingSinceTick != SessionContext.NO_PING_SENDING) {
+            if (currentTick - sendingSinceTick >= SEND_TIMEOUT_SLICES) {
+                context.setPingSentAtTick(DISCONNECTING);
+                stuckSessionCount.increment();
+                disconnect(context.getSession(), "The ping could not be sent");
+            }
+            return;
+        }
+
+        if (pongTimeoutSlices > 0
+                && sentAtTick != SessionContext.NO_PING_PENDING
+                && currentTick - sentAtTick >= pongTimeoutSlices) {
+            context.setPingSentAtTick(DISCONNECTING);
+            deadSessionCount.increment();
+            disconnect(context.getSession(), "No pong received");
+
+        } else if (context.getPingSlice() == slice) {
+            // the pong timeout counts from the first ping that is not answered.
+            // set before sending, since the pong might arrive before we return
+            if (sentAtTick == SessionContext.NO_PING_PENDING) {
+                context.setPingSentAtTick(currentTick);
+            }
+            ping(context, currentTick);
+        }
+    }
+
+    private void ping(SessionContext context, long currentTick) {
+        context.setPingSendingSinceTick(currentTick);
+        try {
+            senderExecutor.execute(() -> send(context));
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            context.setPingSendingSinceTick(SessionContext.NO_PING_SENDING);
+        }
+    }
+
+    private void send(SessionContext context) {
+        WebSocketSession session = context.getSession();
+        String chargeBoxId = getChargeBoxId(session);
+        WebSocketLogger.sendingPing(chargeBoxId, session);
+        try {
+            session.sendMessage(PING_MESSAGE);
+            pingCount.increment();
+        } catch (Exception e) {
+            // IOException or SessionLimitExceededException of the decorator, which closes the session
+            pingErrorCount.increment();
+            WebSocketLogger.pingError(chargeBoxId, session, e);
+        } finally {
+            context.setPingSendingSinceTick(SessionContext.NO_PING_SENDING);
+        }
+    }
+
+    /**
+     * A dead peer will not answer a close frame either. Therefore, drop the connection without the close handshake,
+     * if the underlying Jetty session is accessible.
+     */
+    private void disconnect(WebSocketSession session, String reason) {
+        log.warn("{} for chargeBoxId '{}' (sessionId '{}'). Disconnecting",
+                reason, getChargeBoxId(session), session.getId());
+
+        try {
+            WebSocketSession adapter = WebSocketSessionDecorator.unwrap(session);
+            if (adapter instanceof NativeWebSocketSession) {
+                Session nativeSession = ((NativeWebSocketSession) adapter).getNativeSession(Session.class);
+                if (nativeSession != null) {
+                    nativeSession.disconnect();
+                    return;
+                }
+            }
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.error("Failed to disconnect the session", e);
+        }
+    }
+
+    private static String getChargeBoxId(WebSocketSession session) {
+        return (String) session.getAttributes().get(AbstractWebSocketEndpoint.CHARGEBOX_ID_KEY);
+    }
+}
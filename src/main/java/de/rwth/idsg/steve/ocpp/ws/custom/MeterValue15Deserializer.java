@@ -2,17 +2,15 @@ package de.rwth.idsg.steve.ocpp.ws.custom;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import ocpp.cs._2012._06.MeterValue;
 import org.joda.time.DateTime;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -20,6 +18,8 @@ import java.util.List;
  * that set the field name wrongfully to "values" rather than the correct "value".
  * We handle the situation by looking both fields up in the message.
  *
+ * The parser is consumed token by token, so that no intermediate JsonNode tree is built.
+ *
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 01.09.2015
  */
@@ -27,60 +27,64 @@ import java.util.List;
 public class MeterValue15Deserializer extends JsonDeserializer<List<MeterValue>> {
 
     @Override
-    public List<MeterValue> deserialize(JsonParser jp, DeserializationContext deserializationContext)
+    @SuppressWarnings("unchecked")
+    public List<MeterValue> deserialize(JsonParser jp, DeserializationContext ctxt)
             throws IOException, JsonProcessingException {
 
-        ObjectMapper mapper = (ObjectMapper) jp.getCodec();
-        JsonNode node = mapper.readTree(jp);
-        if (node == null) {
-            return Collections.emptyList();
+        if (jp.currentToken() != JsonToken.START_ARRAY) {
+            return (List<MeterValue>) ctxt.handleUnexpectedToken(List.class, jp);
         }
-        return parseListMeterValue(mapper, node);
-    }
-
-    // List<MeterValue>
-    private List<MeterValue> parseListMeterValue(ObjectMapper mapper, JsonNode listNode)
-            throws JsonProcessingException {
 
-        if (listNode.isMissingNode()) {
-            return Collections.emptyList();
-        } else {
-            List<MeterValue> rootList = new ArrayList<>();
-            for (JsonNode node : listNode) {
-                rootList.add(buildMeterValue(mapper, node));
-            }
-            return rootList;
+        List<MeterValue> rootList = new ArrayList<>();
+        while (jp.nextToken() != JsonToken.END_ARRAY) {
+            rootList.add(buildMeterValue(jp, ctxt));
         }
+        return rootList;
     }
 
     // MeterValue
-    private MeterValue buildMeterValue(ObjectMapper mapper, JsonNode node)
-            throws JsonProcessingException {
+    private MeterValue buildMeterValue(JsonParser jp, DeserializationContext ctxt) throws IOException {
+        if (jp.currentToken() != JsonToken.START_OBJECT) {
+            return (MeterValue) ctxt.handleUnexpectedToken(MeterValue.class, jp);
+        }
 
         MeterValue meterValue = new MeterValue();
         List<MeterValue.Value> list = meterValue.getValue();
 
-        parseValue(mapper, list, node.path("value"));
-        parseValue(mapper, list, node.path("values"));
-        parseDateTime(meterValue, node.path("timestamp"));
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jp.getCurrentName();
+            jp.nextToken(); // move to the value of the field
+
+            switch (fieldName) {
+                case "value":
+                case "values":
+                    parseValue(jp, ctxt, list);
+                    break;
+
+                case "timestamp":
+                    meterValue.setTimestamp(new DateTime(jp.getText()));
+                    break;
+
+                default:
+                    jp.skipChildren();
+                    break;
+            }
+        }
 
         return meterValue;
     }
 
     // List<MeterValue.Value>
-    private void parseValue(ObjectMapper mapper, List<MeterValue.Value> list, JsonNode listNode)
-            throws JsonProcessingException {
+    private void parseValue(JsonParser jp, DeserializationContext ctxt, List<MeterValue.Value> list)
+            throws IOException {
 
-        if (!listNode.isMissingNode()) {
-            for (JsonNode node : listNode) {
-                list.add(mapper.treeToValue(node, MeterValue.Value.class));
-            }
+        if (jp.currentToken() != JsonToken.START_ARRAY) {
+            jp.skipChildren();
+            return;
         }
-    }
 
-    private void parseDateTime(MeterValue meterValue, JsonNode node) {
-        if (!node.isMissingNode()) {
-            meterValue.setTimestamp(new DateTime(node.asText()));
+        while (jp.nextToken() != JsonToken.END_ARRAY) {
+            list.add(ctxt.readValue(jp, MeterValue.Value.class));
         }
     }
 }
@@ -2,11 +2,10 @@ package de.rwth.idsg.steve.ocpp.ws.data;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import org.joda.time.DateTime;
 import org.springframework.web.socket.WebSocketSession;
 
-import java.util.concurrent.ScheduledFuture;
-
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 25.03.2015
@@ -14,7 +13,18 @@ import java.util.concurrent.ScheduledFuture;
 @Getter
 @RequiredArgsConstructor
 public class SessionContext {
+    public static final long NO_PING_PENDING = -1;
+    public static final long NO_PING_SENDING = -1;
+
     private final WebSocketSession session;
-    private final ScheduledFuture pingSchedule;
     private final DateTime openSince;
+
+    // The slice of the ping interval, in which the session is pinged (see WebSocketPingScheduler)
+    private final int pingSlice;
+
+    // The tick of WebSocketPingScheduler, when the ping that is not answered yet was sent
+    @Setter private volatile long pingSentAtTick = NO_PING_PENDING;
+
+    // The tick of WebSocketPingScheduler, when the ping that is still being written was handed to the sender
+    @Setter private volatile long pingSendingSinceTick = NO_PING_SENDING;
 }
@@ -2,7 +2,6 @@ package de.rwth.idsg.steve.ocpp.ws.pipeline;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.TreeNode;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.rwth.idsg.ocpp.jaxb.RequestType;
 import de.rwth.idsg.ocpp.jaxb.ResponseType;
@@ -102,12 +101,11 @@ public class Deserializer implements Consumer<CommunicationContext> {
             return;
         }
 
-        // parse request payload
+        // parse request payload. bind directly from the parser without building an intermediate JsonNode tree
         RequestType req;
         try {
             parser.nextToken();
-            JsonNode requestPayload = parser.readValueAsTree();
-            req = mapper.treeToValue(requestPayload, clazz);
+            req = mapper.readValue(parser, clazz);
         } catch (IOException e) {
             log.error("Exception occurred", e);
             context.setOutgoingMessage(ErrorFactory.payloadDeserializeError(messageId, e.getMessage()));
@@ -125,21 +123,22 @@ public class Deserializer implements Consumer<CommunicationContext> {
     /**
      * Do NOT catch and handle exceptions for incoming RESPONSEs. Let the processing fail.
      * There is no mechanism in OCPP to report back such erroneous messages.
+     *
+     * A response to an unknown call leaves the incoming message unset, such that it is ignored.
      */
     private void handleResult(CommunicationContext context, String messageId, JsonParser parser) {
         FutureResponseContext responseContext = futureResponseContextStore.get(context.getSession(), messageId);
         if (responseContext == null) {
-            throw new SteveException(
-                    "A result message was received as response to a not-sent call. The message was: %s",
-                    context.getIncomingString()
-            );
+            // the call might have timed out already. no need to fail the processing (and close the connection)
+            log.warn("A result message was received as response to a not-sent or timed out call. The message was: {}",
+                    context.getIncomingString());
+            return;
         }
 
         ResponseType res;
         try {
             parser.nextToken();
-            JsonNode responsePayload = parser.readValueAsTree();
-            res = mapper.treeToValue(responsePayload, responseContext.getResponseClass());
+            res = mapper.readValue(parser, responseContext.getResponseClass());
         } catch (IOException e) {
             throw new SteveException("Deserialization of incoming response payload failed", e);
         }
@@ -155,14 +154,16 @@ public class Deserializer implements Consumer<CommunicationContext> {
     /**
      * Do NOT catch and handle exceptions for incoming RESPONSEs. Let the processing fail.
      * There is no mechanism in OCPP to report back such erroneous messages.
+     *
+     * A response to an unknown call leaves the incoming message unset, such that it is ignored.
      */
     private void handleError(CommunicationContext context, String messageId, JsonParser parser) {
         FutureResponseContext responseContext = futureResponseContextStore.get(context.getSession(), messageId);
         if (responseContext == null) {
-            throw new SteveException(
-                    "An error message was received as response to a not-sent call. The message was: %s",
-                    context.getIncomingString()
-            );
+            // the call might have timed out already. no need to fail the processing (and close the connection)
+            log.warn("An error message was received as response to a not-sent or timed out call. The message was: {}",
+                    context.getIncomingString());
+            return;
         }
 
         ErrorCode code;
@@ -1,5 +1,6 @@
 package de.rwth.idsg.steve.ocpp.ws.pipeline;
 
+import de.rwth.idsg.steve.ocpp.ws.IncomingCallReplayCache;
 import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
 import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
 import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonError;
@@ -13,6 +14,9 @@ import java.util.function.Consumer;
 /**
  * For all incoming message types.
  *
+ * A retransmitted transaction message is answered with the response that was sent before (see
+ * IncomingCallReplayCache), before it is even deserialized.
+ *
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 23.03.2015
  */
@@ -25,9 +29,17 @@ public class IncomingPipeline implements Consumer<CommunicationContext> {
 
     private final Deserializer deserializer;
     private final AbstractCallHandler handler;
+    private final IncomingCallReplayCache replayCache;
 
     @Override
     public void accept(CommunicationContext context) {
+        String replay = replayCache.get(context.getChargeBoxId(), context.getIncomingString());
+        if (replay != null) {
+            context.setOutgoingString(replay);
+            sender.accept(context);
+            return;
+        }
+
         deserializer.accept(context);
 
         // When the incoming could not be deserialized
@@ -42,6 +54,11 @@ public class IncomingPipeline implements Consumer<CommunicationContext> {
         if (msg instanceof OcppJsonCall) {
             handler.accept(context);
             serializer.accept(context);
+
+            if (context.getOutgoingMessage() instanceof OcppJsonResult) {
+                replayCache.put(context.getChargeBoxId(), context.getIncomingString(),
+                        ((OcppJsonCall) msg).getAction(), context.getOutgoingString());
+            }
             sender.accept(context);
 
         } else if (msg instanceof OcppJsonResult) {
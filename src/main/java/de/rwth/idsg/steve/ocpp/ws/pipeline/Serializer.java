@@ -1,9 +1,7 @@
 package de.rwth.idsg.steve.ocpp.ws.pipeline;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.ws.ErrorFactory;
 import de.rwth.idsg.steve.ocpp.ws.JsonObjectMapper;
@@ -16,12 +14,15 @@ import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonResult;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.util.function.Consumer;
 
 /**
  * Outgoing OcppJsonMessage --> String.
  *
- * This class should remain stateless.
+ * The envelope [typeNr, messageId, (action,) payload] is written directly through a JsonGenerator into a reusable,
+ * thread-local buffer. No intermediate JsonNode trees are built. Apart from this buffer, the class should remain
+ * stateless.
  *
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 17.03.2015
@@ -30,36 +31,45 @@ import java.util.function.Consumer;
 public enum Serializer implements Consumer<CommunicationContext> {
     INSTANCE;
 
+    /**
+     * Buffers that grew beyond this size (in chars) because of an unusually large message are not retained
+     * for the next message of the thread.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<StringWriter> BUFFER = ThreadLocal.withInitial(() -> new StringWriter(1024));
+
     private final ObjectMapper mapper = JsonObjectMapper.INSTANCE.getMapper();
 
     @Override
     public void accept(CommunicationContext context) {
         OcppJsonMessage message = context.getOutgoingMessage();
+        StringWriter buffer = getBuffer();
 
-        ArrayNode str;
-        MessageType messageType = message.getMessageType();
-        switch (messageType) {
-            case CALL:
-                str = handleCall((OcppJsonCall) message);
-                break;
+        try {
+            MessageType messageType = message.getMessageType();
+            switch (messageType) {
+                case CALL:
+                    handleCall(buffer, (OcppJsonCall) message);
+                    break;
 
-            case CALL_RESULT:
-                str = handleResult((OcppJsonResult) message);
-                break;
+                case CALL_RESULT:
+                    handleResult(buffer, (OcppJsonResult) message);
+                    break;
 
-            case CALL_ERROR:
-                str = handleError((OcppJsonError) message);
-                break;
+                case CALL_ERROR:
+                    handleError(buffer, (OcppJsonError) message);
+                    break;
 
-            default:
-                throw new SteveException("Unknown enum type");
-        }
+                default:
+                    throw new SteveException("Unknown enum type");
+            }
 
-        try {
-            String result = mapper.writeValueAsString(str);
-            context.setOutgoingString(result);
+            context.setOutgoingString(buffer.toString());
         } catch (IOException e) {
             throw new SteveException("The outgoing message could not be serialized", e);
+        } finally {
+            releaseBuffer(buffer);
         }
     }
 
@@ -71,43 +81,44 @@ public enum Serializer implements Consumer<CommunicationContext> {
      * Do NOT catch and handle exceptions for outgoing CALLs. Do NOT send the message.
      * Let the processing fail and acknowledge the user.
      */
-    private ArrayNode handleCall(OcppJsonCall call) {
-        JsonNode payloadNode;
-        try {
-            payloadNode = mapper.valueToTree(call.getPayload());
-        } catch (IllegalArgumentException e) {
+    private void handleCall(StringWriter buffer, OcppJsonCall call) {
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(buffer)) {
+            gen.writeStartArray();
+            gen.writeNumber(call.getMessageType().getTypeNr());
+            gen.writeString(call.getMessageId());
+            gen.writeString(call.getAction());
+            writePayload(gen, call.getPayload());
+            gen.writeEndArray();
+
+        } catch (IOException | IllegalArgumentException e) {
             throw new SteveException("The payload of the outgoing call could not be converted to JSON", e);
         }
-
-        return mapper.createArrayNode()
-                     .add(call.getMessageType().getTypeNr())
-                     .add(call.getMessageId())
-                     .add(call.getAction())
-                     .add(payloadNode);
     }
 
     /**
      * Catch exceptions and wrap them in outgoing ERRORs for outgoing RESPONSEs.
      */
-    private ArrayNode handleResult(OcppJsonResult result) {
-        JsonNode payloadNode;
-        try {
-            payloadNode = mapper.valueToTree(result.getPayload());
-        } catch (IllegalArgumentException e) {
+    private void handleResult(StringWriter buffer, OcppJsonResult result) throws IOException {
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(buffer)) {
+            gen.writeStartArray();
+            gen.writeNumber(result.getMessageType().getTypeNr());
+            gen.writeString(result.getMessageId());
+            writePayload(gen, result.getPayload());
+            gen.writeEndArray();
+
+        } catch (IOException | IllegalArgumentException e) {
             log.error("Exception occurred", e);
-            return handleError(ErrorFactory.payloadSerializeError(result.getMessageId(), e.getMessage()));
-        }
 
-        return mapper.createArrayNode()
-                     .add(result.getMessageType().getTypeNr())
-                     .add(result.getMessageId())
-                     .add(payloadNode);
+            // the payload might have been written partially. discard it, and send an error instead
+            buffer.getBuffer().setLength(0);
+            handleError(buffer, ErrorFactory.payloadSerializeError(result.getMessageId(), e.getMessage()));
+        }
     }
 
     /**
      * No exception to catch during serialization, since the fields of the error are simple Strings.
      */
-    private ArrayNode handleError(OcppJsonError error) {
+    private void handleError(StringWriter buffer, OcppJsonError error) throws IOException {
         // From spec:
         // ErrorDescription - Should be filled in if possible, otherwise a clear empty string "".
         String description;
@@ -117,19 +128,42 @@ public enum Serializer implements Consumer<CommunicationContext> {
             description = "";
         }
 
-        // From spec:
-        // ErrorDetails - This JSON object describes error details in an undefined way.
-        // If there are no error details you should fill in an empty object {}, missing or null is not allowed
-        ObjectNode detailsNode = mapper.createObjectNode();
-        if (error.isSetDetails()) {
-            detailsNode.set("errorMsg", mapper.getNodeFactory().textNode(error.toStringErrorDetails()));
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(buffer)) {
+            gen.writeStartArray();
+            gen.writeNumber(error.getMessageType().getTypeNr());
+            gen.writeString(error.getMessageId());
+            gen.writeString(error.getErrorCode().name());
+            gen.writeString(description);
+
+            // From spec:
+            // ErrorDetails - This JSON object describes error details in an undefined way.
+            // If there are no error details you should fill in an empty object {}, missing or null is not allowed
+            gen.writeStartObject();
+            if (error.isSetDetails()) {
+                gen.writeStringField("errorMsg", error.toStringErrorDetails());
+            }
+            gen.writeEndObject();
+
+            gen.writeEndArray();
         }
+    }
+
+    /**
+     * Payload is written with the settings of the mapper (e.g. inclusion of non-null fields only).
+     */
+    private void writePayload(JsonGenerator gen, Object payload) throws IOException {
+        mapper.writeValue(gen, payload);
+    }
 
-        return mapper.createArrayNode()
-                     .add(error.getMessageType().getTypeNr())
-                     .add(error.getMessageId())
-                     .add(error.getErrorCode().name())
-                     .add(description)
-                     .add(detailsNode);
+    private static StringWriter getBuffer() {
+        StringWriter buffer = BUFFER.get();
+        buffer.getBuffer().setLength(0);
+        return buffer;
+    }
+
+    private static void releaseBuffer(StringWriter buffer) {
+        if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            BUFFER.remove();
+        }
     }
 }
@@ -0,0 +1,54 @@
+package de.rwth.idsg.steve.repository;
+
+import de.rwth.idsg.steve.repository.dto.ActiveTransaction;
+
+import java.util.List;
+
+/**
+ * The active transactions (i.e. stop value and stop timestamp are null), kept in memory and indexed by transaction id,
+ * OCPP tag and charge box. The repositories report the started and stopped transactions after the commit, and the
+ * registry is checked against the database periodically to correct changes that were not reported (e.g. changes made
+ * directly in the database).
+ *
+ * Every instance of the application has its own registry, and only sees the changes of its own repositories right
+ * away. The changes made by other instances that share the database are seen after the next reconciliation (see
+ * ActiveTransactionRegistryImpl for the interval), i.e. until then the authorization of a tag might not see that it is
+ * in a transaction at a station that is connected to another instance. With more than one instance, the stations of a
+ * tag should therefore be connected to the same instance, or the short delay must be acceptable.
+ *
+ * @since 18.10.2026
+ */
+public interface ActiveTransactionRegistry {
+
+    /**
+     * @return null, if the transaction is not active
+     */
+    ActiveTransaction get(int transactionId);
+
+    /**
+     * @return the ids in ascending order
+     */
+    List<Integer> getTransactionIds(String chargeBoxId);
+
+    /**
+     * @return the ids in ascending order
+     */
+    List<Integer> getTransactionIds(String chargeBoxId, int connectorId);
+
+    /**
+     * Why plural: A transaction in the db remains 'active' (stop value and stop timestamp are null) until a
+     * StopTransaction is received. Are these values null because the charging process is still going on or the station
+     * did not send a StopTransaction message since it has connectivity issues and is therefore offline? The latter
+     * causes us problems, because a StopTransaction might arrive a long time after the charging process actually ends.
+     * Therefore, we have to consider that multiple stations might have active transactions for the same ocppIdTag.
+     */
+    List<String> getChargeBoxIds(String ocppIdTag);
+
+    int getCount();
+
+    void reconcile();
+
+    void started(ActiveTransaction transaction);
+    void stopped(int transactionId);
+    void chargeBoxDeleted(String chargeBoxId);
+}
@@ -0,0 +1,45 @@
+package de.rwth.idsg.steve.repository;
+
+import jooq.steve.db.tables.records.OcppTagRecord;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Caches the database state that the authorization decision of an idTag depends on. The decision itself is made
+ * by the caller for every request, since it also depends on the asking charge box and the current time.
+ *
+ * Every write to an OCPP tag (incl. in_transaction) must invalidate its entry.
+ *
+ * @since 18.10.2026
+ */
+public interface AuthorizationCache {
+
+    /**
+     * @return the cached entry, or the one created by the loader (which is cached, if the cache is enabled)
+     */
+    Entry get(String idTag, Supplier<Entry> loader);
+
+    void invalidate(String idTag);
+
+    void invalidate(List<String> idTagList);
+
+    void invalidateAll();
+
+    @Getter
+    @RequiredArgsConstructor
+    final class Entry {
+        /**
+         * Null, if the idTag is not in database
+         */
+        @Nullable private final OcppTagRecord record;
+
+        /**
+         * Only set, if the idTag is in transaction
+         */
+        private final List<String> chargeBoxIdsOfActiveTransactions;
+    }
+}
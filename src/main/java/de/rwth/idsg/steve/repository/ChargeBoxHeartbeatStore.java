@@ -0,0 +1,19 @@
+package de.rwth.idsg.steve.repository;
+
+import org.joda.time.DateTime;
+
+/**
+ * Write-behind buffer for the heartbeat timestamps of charge boxes.
+ *
+ * @since 18.10.2026
+ */
+public interface ChargeBoxHeartbeatStore {
+    void update(String chargeBoxId, DateTime ts);
+
+    /**
+     * @return the latest heartbeat timestamp that is not written to database yet, or null
+     */
+    DateTime getPending(String chargeBoxId);
+
+    void flush();
+}
@@ -0,0 +1,27 @@
+package de.rwth.idsg.steve.repository;
+
+import de.rwth.idsg.steve.repository.dto.ChargeBoxMetadata;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Caches the registration and the metadata of charge boxes. Unknown chargeBoxIds are cached as well, since they
+ * are asked for with every message of an unregistered station.
+ *
+ * Every write to a charge box (incl. insert and delete) must invalidate its entry.
+ *
+ * @since 18.10.2026
+ */
+public interface ChargeBoxMetadataCache {
+
+    /**
+     * @return the cached or loaded metadata, or null, if the charge box is not in database
+     */
+    @Nullable
+    ChargeBoxMetadata get(String chargeBoxId);
+
+    void invalidate(String chargeBoxId);
+
+    void invalidate(List<String> chargeBoxIdList);
+}
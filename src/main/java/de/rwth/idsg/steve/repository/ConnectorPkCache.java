@@ -0,0 +1,22 @@
+package de.rwth.idsg.steve.repository;
+
+/**
+ * In-process cache of (chargeBoxId, connectorId) -> connectorPk. Connector rows are never updated, and are only
+ * deleted together with their charge box. Therefore, an entry stays valid until its charge box is deleted.
+ *
+ * @since 18.10.2026
+ */
+public interface ConnectorPkCache {
+
+    /**
+     * @return the primary key of the connector, or null if it is not cached
+     */
+    Integer get(String chargeBoxId, int connectorId);
+
+    /**
+     * Must only be called with the primary key of a committed connector row.
+     */
+    void put(String chargeBoxId, int connectorId, int connectorPk);
+
+    void invalidate(String chargeBoxId);
+}
@@ -0,0 +1,31 @@
+package de.rwth.idsg.steve.repository;
+
+import org.joda.time.DateTime;
+
+/**
+ * In-process cache of the last stored status of each connector, for the deduplication of connector statuses (see
+ * db.connector.status.dedup). If the deduplication is disabled, no status is unchanged and nothing is cached.
+ *
+ * @since 18.10.2026
+ */
+public interface LatestConnectorStatusCache {
+
+    /**
+     * @return true, if the status is equal to the last stored one of the connector and not older. Storing it would
+     * only repeat the last entry of the history
+     */
+    boolean isUnchanged(int connectorPk, DateTime timestamp, String status, String errorCode,
+                        String errorInfo, String vendorId, String vendorErrorCode);
+
+    /**
+     * Must only be called with a committed status. An older status than the cached one is ignored.
+     */
+    void put(int connectorPk, DateTime timestamp, String status, String errorCode,
+             String errorInfo, String vendorId, String vendorErrorCode);
+
+    /**
+     * Must be called after a status of the connector was committed in a way that is not reported with
+     * {@link #put}, such that the next status is stored in any case.
+     */
+    void invalidate(int connectorPk);
+}
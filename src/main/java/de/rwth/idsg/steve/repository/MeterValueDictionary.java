@@ -0,0 +1,31 @@
+package de.rwth.idsg.steve.repository;
+
+import org.jooq.Field;
+
+/**
+ * In-process dictionary of the strings of a sampled value (reading context, format, measurand, location, unit and
+ * phase), which are stored in connector_meter_value as codes into the table meter_value_dictionary. Codes are never
+ * changed or deleted. Therefore, all entries are loaded at startup and stay valid.
+ *
+ * @since 18.10.2026
+ */
+public interface MeterValueDictionary {
+
+    /**
+     * Adds the value to the dictionary, if it is unknown. Fails with a SteveException, if the dictionary is full.
+     *
+     * @return the code of the value, or null if the value is null
+     */
+    Short getCode(String value);
+
+    /**
+     * @return the value of the code, or null if the code is null
+     */
+    String getValue(Short code);
+
+    /**
+     * @return the field with its codes resolved to values when fetched. It is named like the string column that was
+     * replaced (e.g. "measurand" for measurand_pk), such that e.g. the header of a CSV export does not change.
+     */
+    Field<String> resolve(Field<Short> code);
+}
@@ -0,0 +1,30 @@
+package de.rwth.idsg.steve.repository;
+
+import de.rwth.idsg.steve.repository.dto.MeterValueRollup;
+import ocpp.cs._2015._10.MeterValue;
+import org.joda.time.DateTime;
+
+import java.util.List;
+
+/**
+ * Downsampled meter values at the resolutions of {@link MeterValueRollup.Resolution}, which are kept current from the
+ * ingest path. For long ranges, these should be queried instead of the raw meter values.
+ *
+ * @since 18.10.2026
+ */
+public interface MeterValueRollupStore {
+
+    /**
+     * Called with the meter values that are committed to database.
+     */
+    void add(int connectorPk, List<MeterValue> list);
+
+    void flush();
+
+    /**
+     * @param connectorId if null, the rollups of all connectors of the charge box
+     * @param maxPoints   the resolution is picked with {@link MeterValueRollup.Resolution#forRange}
+     */
+    List<MeterValueRollup> getRollups(String chargeBoxId, Integer connectorId, String measurand,
+                                      DateTime from, DateTime to, int maxPoints);
+}
@@ -1,6 +1,7 @@
 package de.rwth.idsg.steve.repository;
 
 import de.rwth.idsg.steve.repository.dto.InsertConnectorStatusParams;
+import de.rwth.idsg.steve.repository.dto.InsertMeterValuesParams;
 import de.rwth.idsg.steve.repository.dto.InsertTransactionParams;
 import de.rwth.idsg.steve.repository.dto.UpdateChargeboxParams;
 import de.rwth.idsg.steve.repository.dto.UpdateTransactionParams;
@@ -8,6 +9,7 @@ import ocpp.cs._2015._10.MeterValue;
 import org.joda.time.DateTime;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
@@ -15,17 +17,35 @@ import java.util.List;
  */
 public interface OcppServerRepository {
 
-    void updateChargebox(UpdateChargeboxParams params);
+    /**
+     * Writes the metadata of a BootNotification (incl. the heartbeat timestamp), if any of it differs from what is
+     * in database.
+     *
+     * @return false, if nothing was written. Then the caller is responsible for the heartbeat timestamp.
+     */
+    boolean updateChargebox(UpdateChargeboxParams params);
+
     void updateEndpointAddress(String chargeBoxIdentity, String endpointAddress);
     void updateChargeboxFirmwareStatus(String chargeBoxIdentity, String firmwareStatus);
     void updateChargeboxDiagnosticsStatus(String chargeBoxIdentity, String status);
-    void updateChargeboxHeartbeat(String chargeBoxIdentity, DateTime ts);
+    void updateChargeboxHeartbeats(Map<String, DateTime> heartbeats);
 
     void insertConnectorStatus(InsertConnectorStatusParams params);
 
-    void insertMeterValues(String chargeBoxIdentity, List<MeterValue> list, int connectorId, Integer transactionId);
     void insertMeterValues(String chargeBoxIdentity, List<MeterValue> list, int transactionId);
 
+    /**
+     * Inserts the meter values of multiple messages (possibly of different charge boxes) in one database
+     * transaction and with one multi-row insert.
+     */
+    void insertMeterValues(List<InsertMeterValuesParams> list);
+
+    /**
+     * Merges the meter value chunks of a stopped transaction, if they are stored as blob (see db.meter.value.blob).
+     * Should be called after its last meter values are inserted.
+     */
+    void compactMeterValues(int transactionId);
+
     Integer insertTransaction(InsertTransactionParams params);
     void updateTransaction(UpdateTransactionParams params);
 }
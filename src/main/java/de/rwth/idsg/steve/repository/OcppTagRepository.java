@@ -1,6 +1,7 @@
 package de.rwth.idsg.steve.repository;
 
 import de.rwth.idsg.steve.repository.dto.OcppTag;
+import de.rwth.idsg.steve.repository.dto.Page;
 import de.rwth.idsg.steve.web.dto.OcppTagForm;
 import de.rwth.idsg.steve.web.dto.OcppTagQueryForm;
 import jooq.steve.db.tables.records.OcppTagRecord;
@@ -13,7 +14,7 @@ import java.util.List;
  * @since 19.08.2014
  */
 public interface OcppTagRepository {
-    List<OcppTag.Overview> getOverview(OcppTagQueryForm form);
+    Page<OcppTag.Overview> getOverview(OcppTagQueryForm form);
 
     Result<OcppTagRecord> getRecords();
     Result<OcppTagRecord> getRecords(List<String> idTagList);
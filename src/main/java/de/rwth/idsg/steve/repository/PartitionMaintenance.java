@@ -0,0 +1,11 @@
+package de.rwth.idsg.steve.repository;
+
+/**
+ * Maintains the monthly partitions of connector_meter_value and connector_status: Creates the partitions of the coming
+ * months, and drops (or archives) the partitions that are past the retention period.
+ *
+ * @since 18.10.2026
+ */
+public interface PartitionMaintenance {
+    void maintain();
+}
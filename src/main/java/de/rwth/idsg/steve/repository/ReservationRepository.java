@@ -1,10 +1,10 @@
 package de.rwth.idsg.steve.repository;
 
 import de.rwth.idsg.steve.repository.dto.InsertReservationParams;
+import de.rwth.idsg.steve.repository.dto.Page;
 import de.rwth.idsg.steve.repository.dto.Reservation;
 import de.rwth.idsg.steve.web.dto.ReservationQueryForm;
-import org.jooq.Record1;
-import org.jooq.Select;
+import org.jooq.DSLContext;
 
 import java.util.List;
 
@@ -13,7 +13,7 @@ import java.util.List;
  * @since 19.08.2014
  */
 public interface ReservationRepository {
-    List<Reservation> getReservations(ReservationQueryForm form);
+    Page<Reservation> getReservations(ReservationQueryForm form);
 
     List<Integer> getActiveReservationIds(String chargeBoxId);
 
@@ -31,5 +31,5 @@ public interface ReservationRepository {
 
     void accepted(int reservationId);
     void cancelled(int reservationId);
-    void used(Select<Record1<Integer>> connectorPkSelect, String ocppIdTag, int reservationId, int transactionId);
+    void used(DSLContext ctx, int connectorPk, String ocppIdTag, int reservationId, int transactionId);
 }
@@ -1,6 +1,7 @@
 package de.rwth.idsg.steve.repository;
 
 import de.rwth.idsg.steve.repository.dto.MailSettings;
+import de.rwth.idsg.steve.repository.dto.SettingsSnapshot;
 import de.rwth.idsg.steve.web.dto.SettingsForm;
 
 /**
@@ -9,6 +10,12 @@ import de.rwth.idsg.steve.web.dto.SettingsForm;
  */
 public interface SettingsRepository {
     SettingsForm getForm();
+
+    /**
+     * Served from memory. Never touches the database.
+     */
+    SettingsSnapshot getSnapshot();
+
     MailSettings getMailSettings();
     int getHeartbeatIntervalInSeconds();
     int getHoursToExpire();
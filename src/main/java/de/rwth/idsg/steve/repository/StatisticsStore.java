@@ -0,0 +1,37 @@
+package de.rwth.idsg.steve.repository;
+
+import de.rwth.idsg.steve.web.dto.Statistics;
+import org.joda.time.DateTime;
+
+import java.util.List;
+
+/**
+ * The statistics of the home page, kept in memory. The repositories report their changes after the commit, and the
+ * store is reconciled with the database periodically to correct changes that were not reported (e.g. changes made
+ * directly in the database).
+ *
+ * @since 18.10.2026
+ */
+public interface StatisticsStore {
+
+    /**
+     * @return a snapshot without the numbers of WebSocket/JSON charge boxes, which are not stored here
+     */
+    Statistics getStats();
+
+    void reconcile();
+
+    void chargeBoxesAdded(List<String> chargeBoxIdList);
+    void chargeBoxDeleted(String chargeBoxId);
+    void heartbeat(String chargeBoxId, DateTime ts);
+    void connectorStatus(String chargeBoxId, int connectorId, DateTime ts, String status);
+
+    void ocppTagsAdded(int count);
+    void ocppTagDeleted();
+
+    void userAdded();
+    void userDeleted();
+
+    void reservationAccepted(int reservationId, DateTime expiry);
+    void reservationEnded(int reservationId);
+}
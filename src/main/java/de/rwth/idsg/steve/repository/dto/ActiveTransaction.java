@@ -0,0 +1,16 @@
+package de.rwth.idsg.steve.repository.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * @since 18.10.2026
+ */
+@Getter
+@Builder
+public class ActiveTransaction {
+    private final int transactionId;
+    private final String ocppIdTag;
+    private final String chargeBoxId;
+    private final int connectorId;
+}
@@ -0,0 +1,20 @@
+package de.rwth.idsg.steve.repository.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * The columns of a charge box that the OCPP services read or write for (almost) every message.
+ *
+ * @since 18.10.2026
+ */
+@Getter
+@Builder
+public class ChargeBoxMetadata {
+    private final String chargeBoxId;
+    private final String ocppProtocol;
+    private final String endpointAddress;
+    private final boolean insertConnectorStatusAfterTransactionMsg;
+    private final String vendor, model, pointSerial, boxSerial, fwVersion,
+            iccid, imsi, meterType, meterSerial;
+}
@@ -0,0 +1,29 @@
+package de.rwth.idsg.steve.repository.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import ocpp.cs._2015._10.MeterValue;
+
+import java.util.List;
+
+/**
+ * The meter values of one MeterValues message.
+ *
+ * @since 18.10.2026
+ */
+@Getter
+@Builder
+public class InsertMeterValuesParams {
+    private final String chargeBoxId;
+    private final int connectorId;
+    private final Integer transactionId;
+    private final List<MeterValue> meterValues;
+
+    public int getSampleCount() {
+        int count = 0;
+        for (MeterValue meterValue : meterValues) {
+            count += meterValue.getSampledValue().size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,64 @@
+package de.rwth.idsg.steve.repository.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.joda.time.DateTime;
+
+/**
+ * One bucket of the downsampled meter values of a connector, measurand and phase.
+ *
+ * @since 18.10.2026
+ */
+@Getter
+@Builder
+public final class MeterValueRollup {
+    private final int connectorId;
+    private final String measurand, phase, unit;
+    private final Resolution resolution;
+    private final DateTime bucketStart, lastTimestamp;
+    private final int sampleCount;
+    private final double minValue, maxValue, lastValue;
+
+    // Only for registers (e.g. Energy.Active.Import.Register): the increase of the last value over the previous
+    // bucket of the series. null for other measurands, the first bucket and a decreasing register
+    private final Double energyDelta;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Resolution {
+        ONE_MINUTE(60),
+        FIFTEEN_MINUTES(15 * 60),
+        ONE_HOUR(60 * 60);
+
+        private final int seconds;
+
+        public DateTime getBucketStart(DateTime ts) {
+            long millis = seconds * 1000L;
+            return new DateTime(Math.floorDiv(ts.getMillis(), millis) * millis);
+        }
+
+        /**
+         * @return the finest resolution with at most maxPoints buckets in the range, i.e. a coarser resolution is
+         * only picked when the finer one would return too many buckets. For very long ranges, the coarsest one.
+         */
+        public static Resolution forRange(DateTime from, DateTime to, int maxPoints) {
+            long rangeInSeconds = (to.getMillis() - from.getMillis()) / 1000;
+            for (Resolution r : Resolution.values()) {
+                if (rangeInSeconds / r.seconds <= maxPoints) {
+                    return r;
+                }
+            }
+            return ONE_HOUR;
+        }
+
+        public static Resolution fromSeconds(int seconds) {
+            for (Resolution r : Resolution.values()) {
+                if (r.seconds == seconds) {
+                    return r;
+                }
+            }
+            throw new IllegalArgumentException(String.valueOf(seconds));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package de.rwth.idsg.steve.repository.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of an overview (see {@link de.rwth.idsg.steve.web.dto.PagedQueryForm}). The keys are the primary keys of
+ * the first and last item, which are used to request the previous and next page.
+ *
+ * @since 18.10.2026
+ */
+@Getter
+@Builder
+public class Page<T> {
+    private final List<T> items;
+    private final boolean hasPrevious;
+    private final boolean hasNext;
+    private final Integer firstKey;
+    private final Integer lastKey;
+
+    // Only set, if requested. If capped, there are more matching rows than this number
+    private final Integer totalCount;
+    private final boolean totalCountCapped;
+}
@@ -0,0 +1,19 @@
+package de.rwth.idsg.steve.repository.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Immutable state of the settings table. Every change of the settings results in a new snapshot with a higher
+ * version.
+ *
+ * @since 18.10.2026
+ */
+@Getter
+@Builder
+public class SettingsSnapshot {
+    private final long version;
+    private final int heartbeatIntervalInSeconds;
+    private final int hoursToExpire;
+    private final MailSettings mailSettings;
+}
@@ -0,0 +1,311 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.ActiveTransactionRegistry;
+import de.rwth.idsg.steve.repository.dto.ActiveTransaction;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import de.rwth.idsg.steve.utils.DateTimeUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+import org.jooq.DSLContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.Transaction.TRANSACTION;
+
+/**
+ * Reads are served from concurrent maps without locking. Changes are applied under a lock, such that the three
+ * indexes are changed together.
+ *
+ * Reconciliation reads the active transactions from the database, and replaces the state. The changes that are
+ * reported while the database is read are applied to the new state as well. Since starting and stopping a
+ * transaction is idempotent, it does not matter whether the database already contained them.
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+@Repository
+public class ActiveTransactionRegistryImpl implements ActiveTransactionRegistry, MetricsProvider {
+
+    private static final int RECONCILE_INTERVAL_IN_MINUTES = 10;
+
+    @Autowired private DSLContext ctx;
+    @Autowired private ScheduledExecutorService executorService;
+
+    private final Object lock = new Object();
+
+    private volatile State state = new State();
+
+    // the changes that are reported during a reconciliation, or null. guarded by lock
+    private List<Consumer<State>> changesDuringReconcile;
+
+    private volatile DateTime lastReconcileTimestamp;
+    private volatile long lastReconcileMillis = 0;
+    private volatile int lastReconcileCorrections = 0;
+
+    private ScheduledFuture<?> reconcileSchedule;
+
+    @PostConstruct
+    public void init() {
+        reconcile();
+        log.info("Loaded {} active transactions", getCount());
+        reconcileSchedule = executorService.scheduleWithFixedDelay(this::scheduledReconcile,
+                RECONCILE_INTERVAL_IN_MINUTES, RECONCILE_INTERVAL_IN_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (reconcileSchedule != null) {
+            reconcileSchedule.cancel(false);
+        }
+    }
+
+    @Override
+    public ActiveTransaction get(int transactionId) {
+        return state.byTransactionId.get(transactionId);
+    }
+
+    @Override
+    public List<Integer> getTransactionIds(String chargeBoxId) {
+        return getTransactionIds(chargeBoxId, t -> true);
+    }
+
+    @Override
+    public List<Integer> getTransactionIds(String chargeBoxId, int connectorId) {
+        return getTransactionIds(chargeBoxId, t -> t.getConnectorId() == connectorId);
+    }
+
+    @Override
+    public List<String> getChargeBoxIds(String ocppIdTag) {
+        State s = state;
+        Set<Integer> ids = s.byOcppIdTag.get(ocppIdTag);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> chargeBoxIds = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ActiveTransaction t = s.byTransactionId.get(id);
+            if (t != null) {
+                chargeBoxIds.add(t.getChargeBoxId());
+            }
+        }
+        return chargeBoxIds;
+    }
+
+    @Override
+    public int getCount() {
+        return state.byTransactionId.size();
+    }
+
+    @Override
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        DateTime now = DateTime.now();
+
+        synchronized (lock) {
+            changesDuringReconcile = new ArrayList<>();
+        }
+
+        State s = new State();
+        try {
+            ctx.select(TRANSACTION.TRANSACTION_PK, TRANSACTION.ID_TAG, CONNECTOR.CHARGE_BOX_ID, CONNECTOR.CONNECTOR_ID)
+               .from(TRANSACTION)
+               .join(CONNECTOR)
+                    .on(CONNECTOR.CONNECTOR_PK.eq(TRANSACTION.CONNECTOR_PK))
+               .where(TRANSACTION.STOP_VALUE.isNull())
+                 .and(TRANSACTION.STOP_TIMESTAMP.isNull())
+               .fetch()
+               .forEach(r -> s.add(ActiveTransaction.builder()
+                                                    .transactionId(r.value1())
+                                                    .ocppIdTag(r.value2())
+                                                    .chargeBoxId(r.value3())
+                                                    .connectorId(r.value4())
+                                                    .build()));
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                changesDuringReconcile = null;
+            }
+            throw e;
+        }
+
+        int corrections;
+        synchronized (lock) {
+            changesDuringReconcile.forEach(change -> change.accept(s));
+            changesDuringReconcile = null;
+
+            State old = state;
+            corrections = countDifferences(old, s);
+            state = s;
+        }
+
+        lastReconcileTimestamp = now;
+        lastReconcileMillis = System.currentTimeMillis() - start;
+        lastReconcileCorrections = corrections;
+
+        if (corrections > 0) {
+            log.warn("Reconciled the active transactions in {} ms with {} corrections", lastReconcileMillis,
+                    corrections);
+        } else {
+            log.debug("Reconciled the active transactions in {} ms", lastReconcileMillis);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Reported changes
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void started(ActiveTransaction transaction) {
+        apply(s -> s.add(transaction));
+    }
+
+    @Override
+    public void stopped(int transactionId) {
+        apply(s -> s.remove(transactionId));
+    }
+
+    @Override
+    public void chargeBoxDeleted(String chargeBoxId) {
+        apply(s -> {
+            Set<Integer> ids = s.byChargeBoxId.get(chargeBoxId);
+            if (ids != null) {
+                new ArrayList<>(ids).forEach(s::remove);
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Active Transaction Registry";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        State s = state;
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Active transactions", s.byTransactionId.size());
+        map.put("OCPP tags in transaction", s.byOcppIdTag.size());
+        map.put("Charge boxes with transactions", s.byChargeBoxId.size());
+        map.put("Reconciliation interval (minutes)", RECONCILE_INTERVAL_IN_MINUTES);
+        map.put("Last reconciliation", DateTimeUtils.humanize(lastReconcileTimestamp));
+        map.put("Duration of last reconciliation (ms)", lastReconcileMillis);
+        map.put("Corrections at last reconciliation", lastReconcileCorrections);
+        return map;
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            // an exception would cancel the schedule
+            log.error("Exception occurred", e);
+        }
+    }
+
+    private void apply(Consumer<State> change) {
+        synchronized (lock) {
+            change.accept(state);
+            if (changesDuringReconcile != null) {
+                changesDuringReconcile.add(change);
+            }
+        }
+    }
+
+    private List<Integer> getTransactionIds(String chargeBoxId, Predicate<ActiveTransaction> filter) {
+        State s = state;
+        Set<Integer> ids = s.byChargeBoxId.get(chargeBoxId);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+
+        List<Integer> list = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ActiveTransaction t = s.byTransactionId.get(id);
+            if (t != null && filter.test(t)) {
+                list.add(id);
+            }
+        }
+        Collections.sort(list);
+        return list;
+    }
+
+    /**
+     * The number of transactions that are active in only one of the states
+     */
+    private static int countDifferences(State a, State b) {
+        int count = 0;
+        for (Integer id : a.byTransactionId.keySet()) {
+            if (!b.byTransactionId.containsKey(id)) {
+                count++;
+            }
+        }
+        for (Integer id : b.byTransactionId.keySet()) {
+            if (!a.byTransactionId.containsKey(id)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Only changed under the lock (or before it is published). The sets of the indexes are concurrent, such that
+     * readers can iterate them while they are changed.
+     */
+    private static class State {
+        private final ConcurrentHashMap<Integer, ActiveTransaction> byTransactionId = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Set<Integer>> byOcppIdTag = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Set<Integer>> byChargeBoxId = new ConcurrentHashMap<>();
+
+        private void add(ActiveTransaction t) {
+            remove(t.getTransactionId());
+            byTransactionId.put(t.getTransactionId(), t);
+            byOcppIdTag.computeIfAbsent(t.getOcppIdTag(), k -> ConcurrentHashMap.newKeySet())
+                       .add(t.getTransactionId());
+            byChargeBoxId.computeIfAbsent(t.getChargeBoxId(), k -> ConcurrentHashMap.newKeySet())
+                         .add(t.getTransactionId());
+        }
+
+        private void remove(int transactionId) {
+            ActiveTransaction t = byTransactionId.remove(transactionId);
+            if (t != null) {
+                removeFromIndex(byOcppIdTag, t.getOcppIdTag(), transactionId);
+                removeFromIndex(byChargeBoxId, t.getChargeBoxId(), transactionId);
+            }
+        }
+
+        private static void removeFromIndex(Map<String, Set<Integer>> index, String key, int transactionId) {
+            Set<Integer> ids = index.get(key);
+            if (ids != null) {
+                ids.remove(transactionId);
+                if (ids.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.base.Ticker;
+import de.rwth.idsg.steve.repository.AuthorizationCache;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Bounded by size, and every entry expires after the configured TTL at the latest. A TTL of 0 disables the cache,
+ * such that every request is decided with the current database state. A load that overlaps with an invalidation is
+ * not cached (see {@link GenerationCheckedCache}).
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+@Repository
+public class AuthorizationCacheImpl implements AuthorizationCache, MetricsProvider {
+
+    private final int ttlInSeconds;
+    private final GenerationCheckedCache<String, Entry> cache;
+
+    public AuthorizationCacheImpl() {
+        this(CONFIG.getOcpp().getOcppTagCacheTtlInSeconds(), CONFIG.getOcpp().getOcppTagCacheMaxSize());
+    }
+
+    AuthorizationCacheImpl(int ttlInSeconds, int maxSize) {
+        this.ttlInSeconds = ttlInSeconds;
+        // the entries of unknown idTags are not null, i.e. they have the same TTL
+        this.cache = new GenerationCheckedCache<>(ttlInSeconds, ttlInSeconds, maxSize, Ticker.systemTicker());
+    }
+
+    @Override
+    public Entry get(String idTag, Supplier<Entry> loader) {
+        return cache.get(idTag, loader);
+    }
+
+    @Override
+    public void invalidate(String idTag) {
+        cache.invalidate(idTag);
+    }
+
+    @Override
+    public void invalidate(List<String> idTagList) {
+        cache.invalidate(idTagList);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "OCPP Tag Authorization Cache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Enabled", cache.isEnabled());
+        map.put("TTL (seconds)", ttlInSeconds);
+        cache.addMetrics(map);
+        return map;
+    }
+}
@@ -0,0 +1,178 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.collect.Iterables;
+import de.rwth.idsg.steve.repository.ChargeBoxHeartbeatStore;
+import de.rwth.idsg.steve.repository.OcppServerRepository;
+import de.rwth.idsg.steve.repository.StatisticsStore;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Heartbeats (OCPP Heartbeat messages and WebSocket pongs) of a charge box only update its latest timestamp in
+ * memory. The latest timestamps of all charge boxes are written to database periodically with multi-row updates.
+ * Consecutive heartbeats of a charge box within one interval result in one written row.
+ *
+ * The map holds at most one entry per charge box. A flush writes at most {@link #MAX_ROWS_PER_STATEMENT} rows with
+ * one statement. If a statement fails, its entries stay in the map and are retried with the next flush. Pending
+ * entries are flushed at shutdown.
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+@Repository
+public class ChargeBoxHeartbeatStoreImpl implements ChargeBoxHeartbeatStore, MetricsProvider {
+
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    @Autowired private OcppServerRepository ocppServerRepository;
+    @Autowired private StatisticsStore statisticsStore;
+    @Autowired private ScheduledExecutorService executorService;
+
+    private final int flushIntervalInSeconds;
+
+    // (chargeBoxId, heartbeat timestamp that is not written to database yet)
+    private final ConcurrentHashMap<String, DateTime> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder updateCount = new LongAdder();
+    private final LongAdder writtenRowCount = new LongAdder();
+    private final LongAdder statementCount = new LongAdder();
+    private final LongAdder failedStatementCount = new LongAdder();
+    private volatile long lastFlushMillis = 0;
+
+    private ScheduledFuture<?> flushSchedule;
+
+    public ChargeBoxHeartbeatStoreImpl() {
+        this(CONFIG.getOcpp().getHeartbeatFlushIntervalInSeconds());
+    }
+
+    ChargeBoxHeartbeatStoreImpl(int flushIntervalInSeconds) {
+        this.flushIntervalInSeconds = flushIntervalInSeconds;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (flushIntervalInSeconds > 0) {
+            flushSchedule = executorService.scheduleWithFixedDelay(
+                    this::scheduledFlush, flushIntervalInSeconds, flushIntervalInSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (flushSchedule != null) {
+            flushSchedule.cancel(false);
+        }
+        flush();
+    }
+
+    @Override
+    public void update(String chargeBoxId, DateTime ts) {
+        updateCount.increment();
+        statisticsStore.heartbeat(chargeBoxId, ts);
+
+        if (flushIntervalInSeconds > 0) {
+            pending.merge(chargeBoxId, ts, (oldTs, newTs) -> newTs.isAfter(oldTs) ? newTs : oldTs);
+        } else {
+            // write-behind is disabled
+            Map<String, DateTime> map = new HashMap<>(1);
+            map.put(chargeBoxId, ts);
+            write(map);
+        }
+    }
+
+    @Override
+    public DateTime getPending(String chargeBoxId) {
+        return pending.get(chargeBoxId);
+    }
+
+    /**
+     * Synchronized, since the scheduled flush and the flush at shutdown might overlap.
+     */
+    @Override
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+
+        List<Map.Entry<String, DateTime>> snapshot = new ArrayList<>(pending.entrySet());
+        for (List<Map.Entry<String, DateTime>> chunk : Iterables.partition(snapshot, MAX_ROWS_PER_STATEMENT)) {
+            Map<String, DateTime> batch = new HashMap<>(chunk.size());
+            chunk.forEach(e -> batch.put(e.getKey(), e.getValue()));
+
+            if (write(batch)) {
+                // remove only if there was no newer heartbeat in the meantime
+                batch.forEach(pending::remove);
+            }
+        }
+
+        lastFlushMillis = System.currentTimeMillis() - start;
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Charge Box Heartbeats";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Flush interval (seconds)", flushIntervalInSeconds);
+        map.put("Pending charge boxes", pending.size());
+        map.put("Received heartbeats", updateCount.sum());
+        map.put("Written rows", writtenRowCount.sum());
+        map.put("Update statements", statementCount.sum());
+        map.put("Failed update statements", failedStatementCount.sum());
+        map.put("Duration of last flush (ms)", lastFlushMillis);
+        return map;
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // an exception would cancel the schedule
+            log.error("Exception occurred", e);
+        }
+    }
+
+    private boolean write(Map<String, DateTime> batch) {
+        try {
+            ocppServerRepository.updateChargeboxHeartbeats(batch);
+            statementCount.increment();
+            writtenRowCount.add(batch.size());
+            return true;
+        } catch (Exception e) {
+            failedStatementCount.increment();
+            log.error("Failed to write the heartbeats of {} charge boxes", batch.size(), e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.base.Ticker;
+import de.rwth.idsg.steve.repository.ChargeBoxMetadataCache;
+import de.rwth.idsg.steve.repository.dto.ChargeBoxMetadata;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import jooq.steve.db.tables.records.ChargeBoxRecord;
+import org.jetbrains.annotations.Nullable;
+import org.jooq.DSLContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+
+/**
+ * Bounded by size, and every entry expires after the configured TTL at the latest. A TTL of 0 disables the cache,
+ * such that every lookup goes to database. A load that overlaps with an invalidation is not cached (see
+ * {@link GenerationCheckedCache}).
+ *
+ * A charge box that is not in database is cached for a few seconds only, since it might be added without an
+ * invalidation of this cache (e.g. by another instance), and should then be accepted soon.
+ *
+ * @since 18.10.2026
+ */
+@Repository
+public class ChargeBoxMetadataCacheImpl implements ChargeBoxMetadataCache, MetricsProvider {
+
+    private static final int NEGATIVE_TTL_IN_SECONDS = 10;
+
+    private final DSLContext ctx;
+    private final int ttlInSeconds;
+    private final GenerationCheckedCache<String, ChargeBoxMetadata> cache;
+
+    @Autowired
+    public ChargeBoxMetadataCacheImpl(DSLContext ctx) {
+        this(ctx, CONFIG.getOcpp().getChargeBoxCacheTtlInSeconds(), CONFIG.getOcpp().getChargeBoxCacheMaxSize(),
+                Ticker.systemTicker());
+    }
+
+    ChargeBoxMetadataCacheImpl(DSLContext ctx, int ttlInSeconds, int maxSize, Ticker ticker) {
+        this.ctx = ctx;
+        this.ttlInSeconds = ttlInSeconds;
+        this.cache = new GenerationCheckedCache<>(ttlInSeconds, NEGATIVE_TTL_IN_SECONDS, maxSize, ticker);
+    }
+
+    @Nullable
+    @Override
+    public ChargeBoxMetadata get(String chargeBoxId) {
+        return cache.get(chargeBoxId, () -> load(chargeBoxId));
+    }
+
+    @Override
+    public void invalidate(String chargeBoxId) {
+        cache.invalidate(chargeBoxId);
+    }
+
+    @Override
+    public void invalidate(List<String> chargeBoxIdList) {
+        cache.invalidate(chargeBoxIdList);
+    }
+
+    @Nullable
+    private ChargeBoxMetadata load(String chargeBoxId) {
+        ChargeBoxRecord r = ctx.select(CHARGE_BOX.OCPP_PROTOCOL,
+                                       CHARGE_BOX.ENDPOINT_ADDRESS,
+                                       CHARGE_BOX.INSERT_CONNECTOR_STATUS_AFTER_TRANSACTION_MSG,
+                                       CHARGE_BOX.CHARGE_POINT_VENDOR,
+                                       CHARGE_BOX.CHARGE_POINT_MODEL,
+                                       CHARGE_BOX.CHARGE_POINT_SERIAL_NUMBER,
+                                       CHARGE_BOX.CHARGE_BOX_SERIAL_NUMBER,
+                                       CHARGE_BOX.FW_VERSION,
+                                       CHARGE_BOX.ICCID,
+                                       CHARGE_BOX.IMSI,
+                                       CHARGE_BOX.METER_TYPE,
+                                       CHARGE_BOX.METER_SERIAL_NUMBER)
+                               .from(CHARGE_BOX)
+                               .where(CHARGE_BOX.CHARGE_BOX_ID.eq(chargeBoxId))
+                               .fetchOneInto(CHARGE_BOX);
+
+        if (r == null) {
+            return null;
+        }
+
+        return ChargeBoxMetadata.builder()
+                                .chargeBoxId(chargeBoxId)
+                                .ocppProtocol(r.getOcppProtocol())
+                                .endpointAddress(r.getEndpointAddress())
+                                .insertConnectorStatusAfterTransactionMsg(
+                                        Boolean.TRUE.equals(r.getInsertConnectorStatusAfterTransactionMsg()))
+                                .vendor(r.getChargePointVendor())
+                                .model(r.getChargePointModel())
+                                .pointSerial(r.getChargePointSerialNumber())
+                                .boxSerial(r.getChargeBoxSerialNumber())
+                                .fwVersion(r.getFwVersion())
+                                .iccid(r.getIccid())
+                                .imsi(r.getImsi())
+                                .meterType(r.getMeterType())
+                                .meterSerial(r.getMeterSerialNumber())
+                                .build();
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Charge Box Metadata Cache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Enabled", cache.isEnabled());
+        map.put("TTL (seconds)", ttlInSeconds);
+        map.put("TTL of unknown charge boxes (seconds)", Math.min(NEGATIVE_TTL_IN_SECONDS, ttlInSeconds));
+        cache.addMetrics(map);
+        return map;
+    }
+}
@@ -1,13 +1,20 @@
 package de.rwth.idsg.steve.repository.impl;
 
 import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.config.BeanConfiguration;
 import de.rwth.idsg.steve.ocpp.OcppProtocol;
 import de.rwth.idsg.steve.ocpp.OcppTransport;
+import de.rwth.idsg.steve.repository.ActiveTransactionRegistry;
 import de.rwth.idsg.steve.repository.AddressRepository;
+import de.rwth.idsg.steve.repository.ChargeBoxHeartbeatStore;
+import de.rwth.idsg.steve.repository.ChargeBoxMetadataCache;
 import de.rwth.idsg.steve.repository.ChargePointRepository;
+import de.rwth.idsg.steve.repository.ConnectorPkCache;
+import de.rwth.idsg.steve.repository.StatisticsStore;
 import de.rwth.idsg.steve.repository.dto.ChargePoint;
 import de.rwth.idsg.steve.repository.dto.ChargePointSelect;
 import de.rwth.idsg.steve.repository.dto.ConnectorStatus;
+import de.rwth.idsg.steve.repository.dto.Page;
 import de.rwth.idsg.steve.utils.DateTimeUtils;
 import de.rwth.idsg.steve.web.dto.ChargePointForm;
 import de.rwth.idsg.steve.web.dto.ChargePointQueryForm;
@@ -18,18 +25,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.joda.time.DateTime;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
-import org.jooq.Field;
 import org.jooq.Record1;
 import org.jooq.Record5;
-import org.jooq.Result;
+import org.jooq.RecordMapper;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectQuery;
-import org.jooq.Table;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -38,7 +45,10 @@ import static de.rwth.idsg.steve.utils.CustomDSL.date;
 import static de.rwth.idsg.steve.utils.CustomDSL.includes;
 import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
 import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
+import static jooq.steve.db.tables.ConnectorMeterValueRollup.CONNECTOR_METER_VALUE_ROLLUP;
 import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
+import static jooq.steve.db.tables.ConnectorStatusLatest.CONNECTOR_STATUS_LATEST;
 
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
@@ -48,22 +58,39 @@ import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
 @Repository
 public class ChargePointRepositoryImpl implements ChargePointRepository {
 
+    private static final KeysetPagination KEYSET = KeysetPagination.byPrimaryKey(CHARGE_BOX.CHARGE_BOX_PK, false);
+
     private final DSLContext ctx;
+    private final DSLContext readOnlyCtx;
     private final AddressRepository addressRepository;
+    private final ChargeBoxHeartbeatStore chargeBoxHeartbeatStore;
+    private final ConnectorPkCache connectorPkCache;
+    private final StatisticsStore statisticsStore;
+    private final ActiveTransactionRegistry activeTransactionRegistry;
+    private final ChargeBoxMetadataCache chargeBoxMetadataCache;
 
     @Autowired
-    public ChargePointRepositoryImpl(DSLContext ctx, AddressRepository addressRepository) {
+    public ChargePointRepositoryImpl(DSLContext ctx,
+                                     @Qualifier(BeanConfiguration.READ_ONLY_DSL_CONTEXT) DSLContext readOnlyCtx,
+                                     AddressRepository addressRepository,
+                                     ChargeBoxHeartbeatStore chargeBoxHeartbeatStore,
+                                     ConnectorPkCache connectorPkCache,
+                                     StatisticsStore statisticsStore,
+                                     ActiveTransactionRegistry activeTransactionRegistry,
+                                     ChargeBoxMetadataCache chargeBoxMetadataCache) {
         this.ctx = ctx;
+        this.readOnlyCtx = readOnlyCtx;
         this.addressRepository = addressRepository;
+        this.chargeBoxHeartbeatStore = chargeBoxHeartbeatStore;
+        this.connectorPkCache = connectorPkCache;
+        this.statisticsStore = statisticsStore;
+        this.activeTransactionRegistry = activeTransactionRegistry;
+        this.chargeBoxMetadataCache = chargeBoxMetadataCache;
     }
 
     @Override
     public boolean isRegistered(String chargeBoxId) {
-        Record1<Integer> r = ctx.selectOne()
-                                .from(CHARGE_BOX)
-                                .where(CHARGE_BOX.CHARGE_BOX_ID.eq(chargeBoxId))
-                                .fetchOne();
-        return (r != null) && (r.value1() == 1);
+        return chargeBoxMetadataCache.get(chargeBoxId) != null;
     }
 
     @Override
@@ -94,22 +121,26 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
     }
 
     @Override
-    public List<ChargePoint.Overview> getOverview(ChargePointQueryForm form) {
-        return getOverviewInternal(form)
-                .map(r -> ChargePoint.Overview.builder()
-                                              .chargeBoxPk(r.value1())
-                                              .chargeBoxId(r.value2())
-                                              .description(r.value3())
-                                              .ocppProtocol(r.value4())
-                                              .lastHeartbeatTimestampDT(r.value5())
-                                              .lastHeartbeatTimestamp(DateTimeUtils.humanize(r.value5()))
-                                              .build()
-                );
+    public Page<ChargePoint.Overview> getOverview(ChargePointQueryForm form) {
+        RecordMapper<Record5<Integer, String, String, String, DateTime>, ChargePoint.Overview> mapper = r -> {
+            DateTime lastHeartbeat = getLastHeartbeat(r.value2(), r.value5());
+            return ChargePoint.Overview.builder()
+                                       .chargeBoxPk(r.value1())
+                                       .chargeBoxId(r.value2())
+                                       .description(r.value3())
+                                       .ocppProtocol(r.value4())
+                                       .lastHeartbeatTimestampDT(lastHeartbeat)
+                                       .lastHeartbeatTimestamp(DateTimeUtils.humanize(lastHeartbeat))
+                                       .build();
+        };
+
+        return KEYSET.fetchPage(readOnlyCtx, getOverviewInternal(form), form, mapper);
     }
 
     @SuppressWarnings("unchecked")
-    private Result<Record5<Integer, String, String, String, DateTime>> getOverviewInternal(ChargePointQueryForm form) {
-        SelectQuery selectQuery = ctx.selectQuery();
+    private SelectQuery<Record5<Integer, String, String, String, DateTime>> getOverviewInternal(
+            ChargePointQueryForm form) {
+        SelectQuery selectQuery = readOnlyCtx.selectQuery();
         selectQuery.addFrom(CHARGE_BOX);
         selectQuery.addSelect(
                 CHARGE_BOX.CHARGE_BOX_PK,
@@ -159,12 +190,14 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                 throw new SteveException("Unknown enum type");
         }
 
-        // Default order
-        selectQuery.addOrderBy(CHARGE_BOX.CHARGE_BOX_PK.asc());
-
-        return selectQuery.fetch();
+        // No order, see KEYSET
+        return selectQuery;
     }
 
+    /**
+     * Reads from the primary, since the details are the content of the edit form, which must not be filled with the
+     * lagging state of the replica (e.g. right after a previous edit).
+     */
     @Override
     public ChargePoint.Details getDetails(int chargeBoxPk) {
         ChargeBoxRecord cbr = ctx.selectFrom(CHARGE_BOX)
@@ -175,33 +208,19 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
             throw new SteveException("Charge point not found");
         }
 
+        cbr.setLastHeartbeatTimestamp(getLastHeartbeat(cbr.getChargeBoxId(), cbr.getLastHeartbeatTimestamp()));
+
         AddressRecord ar = addressRepository.get(ctx, cbr.getAddressPk());
 
         return new ChargePoint.Details(cbr, ar);
     }
 
+    /**
+     * Reads the latest status of each connector from connector_status_latest, which is maintained with every insert
+     * into the status history.
+     */
     @Override
     public List<ConnectorStatus> getChargePointConnectorStatus(ConnectorStatusForm form) {
-        // find out the latest timestamp for each connector
-        Field<Integer> t1Pk = CONNECTOR_STATUS.CONNECTOR_PK.as("t1_pk");
-        Field<DateTime> t1TsMax = DSL.max(CONNECTOR_STATUS.STATUS_TIMESTAMP).as("t1_ts_max");
-        Table<?> t1 = ctx.select(t1Pk, t1TsMax)
-                         .from(CONNECTOR_STATUS)
-                         .groupBy(CONNECTOR_STATUS.CONNECTOR_PK)
-                         .asTable("t1");
-
-        // get the status table with latest timestamps only
-        Field<Integer> t2Pk = CONNECTOR_STATUS.CONNECTOR_PK.as("t2_pk");
-        Field<DateTime> t2Ts = CONNECTOR_STATUS.STATUS_TIMESTAMP.as("t2_ts");
-        Field<String> t2Status = CONNECTOR_STATUS.STATUS.as("t2_status");
-        Field<String> t2Error = CONNECTOR_STATUS.ERROR_CODE.as("t2_error");
-        Table<?> t2 = ctx.selectDistinct(t2Pk, t2Ts, t2Status, t2Error)
-                         .from(CONNECTOR_STATUS)
-                         .join(t1)
-                            .on(CONNECTOR_STATUS.CONNECTOR_PK.equal(t1.field(t1Pk)))
-                            .and(CONNECTOR_STATUS.STATUS_TIMESTAMP.equal(t1.field(t1TsMax)))
-                         .asTable("t2");
-
         final Condition chargeBoxCondition;
         if (form == null || form.getChargeBoxId() == null) {
             chargeBoxCondition = DSL.noCondition();
@@ -213,23 +232,23 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
         if (form == null || form.getStatus() == null) {
             statusCondition = DSL.noCondition();
         } else {
-            statusCondition = t2.field(t2Status).eq(form.getStatus());
+            statusCondition = CONNECTOR_STATUS_LATEST.STATUS.eq(form.getStatus());
         }
 
         return ctx.select(
                         CHARGE_BOX.CHARGE_BOX_PK,
                         CONNECTOR.CHARGE_BOX_ID,
                         CONNECTOR.CONNECTOR_ID,
-                        t2.field(t2Ts),
-                        t2.field(t2Status),
-                        t2.field(t2Error))
-                  .from(t2)
+                        CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP,
+                        CONNECTOR_STATUS_LATEST.STATUS,
+                        CONNECTOR_STATUS_LATEST.ERROR_CODE)
+                  .from(CONNECTOR_STATUS_LATEST)
                   .join(CONNECTOR)
-                        .on(CONNECTOR.CONNECTOR_PK.eq(t2.field(t2Pk)))
+                        .on(CONNECTOR.CONNECTOR_PK.eq(CONNECTOR_STATUS_LATEST.CONNECTOR_PK))
                   .join(CHARGE_BOX)
                         .on(CHARGE_BOX.CHARGE_BOX_ID.eq(CONNECTOR.CHARGE_BOX_ID))
                   .where(chargeBoxCondition, statusCondition)
-                  .orderBy(t2.field(t2Ts).desc())
+                  .orderBy(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.desc())
                   .fetch()
                   .map(r -> ConnectorStatus.builder()
                                            .chargeBoxPk(r.value1())
@@ -261,11 +280,15 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                                                      .collect(Collectors.toList());
 
         ctx.batchInsert(batch).execute();
+
+        // the unknown chargeBoxIds are cached as not registered
+        chargeBoxMetadataCache.invalidate(chargeBoxIdList);
+        statisticsStore.chargeBoxesAdded(chargeBoxIdList);
     }
 
     @Override
     public int addChargePoint(ChargePointForm form) {
-        return ctx.transactionResult(configuration -> {
+        int chargeBoxPk = ctx.transactionResult(configuration -> {
             DSLContext ctx = DSL.using(configuration);
             try {
                 Integer addressId = addressRepository.updateOrInsert(ctx, form.getAddress());
@@ -276,6 +299,10 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                         form.getChargeBoxId(), e);
             }
         });
+
+        chargeBoxMetadataCache.invalidate(form.getChargeBoxId());
+        statisticsStore.chargeBoxesAdded(Collections.singletonList(form.getChargeBoxId()));
+        return chargeBoxPk;
     }
 
     @Override
@@ -291,10 +318,18 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                         form.getChargeBoxId(), e);
             }
         });
+
+        // after the commit, such that a concurrent load cannot put the old state into the cache again
+        chargeBoxMetadataCache.invalidate(form.getChargeBoxId());
     }
 
     @Override
     public void deleteChargePoint(int chargeBoxPk) {
+        String chargeBoxId = ctx.select(CHARGE_BOX.CHARGE_BOX_ID)
+                                .from(CHARGE_BOX)
+                                .where(CHARGE_BOX.CHARGE_BOX_PK.eq(chargeBoxPk))
+                                .fetchOne(CHARGE_BOX.CHARGE_BOX_ID);
+
         ctx.transaction(configuration -> {
             DSLContext ctx = DSL.using(configuration);
             try {
@@ -305,6 +340,14 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                 throw new SteveException("Failed to delete the charge point", e);
             }
         });
+
+        // the connectors and transactions are deleted by cascade
+        if (chargeBoxId != null) {
+            connectorPkCache.invalidate(chargeBoxId);
+            chargeBoxMetadataCache.invalidate(chargeBoxId);
+            statisticsStore.chargeBoxDeleted(chargeBoxId);
+            activeTransactionRegistry.chargeBoxDeleted(chargeBoxId);
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -346,8 +389,39 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
     }
 
     private void deleteChargePointInternal(DSLContext ctx, int chargeBoxPk) {
+        // the partitioned tables and rollups have no foreign keys to cascade the delete
+        SelectConditionStep<Record1<Integer>> connectorPks =
+                DSL.select(CONNECTOR.CONNECTOR_PK)
+                   .from(CONNECTOR)
+                   .join(CHARGE_BOX).on(CHARGE_BOX.CHARGE_BOX_ID.eq(CONNECTOR.CHARGE_BOX_ID))
+                   .where(CHARGE_BOX.CHARGE_BOX_PK.equal(chargeBoxPk));
+
+        ctx.delete(CONNECTOR_METER_VALUE)
+           .where(CONNECTOR_METER_VALUE.CONNECTOR_PK.in(connectorPks))
+           .execute();
+
+        ctx.delete(CONNECTOR_STATUS)
+           .where(CONNECTOR_STATUS.CONNECTOR_PK.in(connectorPks))
+           .execute();
+
+        ctx.delete(CONNECTOR_METER_VALUE_ROLLUP)
+           .where(CONNECTOR_METER_VALUE_ROLLUP.CONNECTOR_PK.in(connectorPks))
+           .execute();
+
         ctx.delete(CHARGE_BOX)
            .where(CHARGE_BOX.CHARGE_BOX_PK.equal(chargeBoxPk))
            .execute();
     }
+
+    /**
+     * The heartbeat in memory (if any) is more recent than the one in database
+     */
+    private DateTime getLastHeartbeat(String chargeBoxId, DateTime fromDatabase) {
+        DateTime pending = chargeBoxHeartbeatStore.getPending(chargeBoxId);
+        if (pending == null) {
+            return fromDatabase;
+        } else {
+            return pending;
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.ConnectorPkCache;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The entries are grouped by charge box, such that all connectors of a deleted charge box are invalidated at once.
+ *
+ * Every hit saves the INSERT IGNORE of the connector, and the lookup of its primary key (which was either a separate
+ * select or a subquery within the actual statement).
+ *
+ * @since 18.10.2026
+ */
+@Repository
+public class ConnectorPkCacheImpl implements ConnectorPkCache, MetricsProvider {
+
+    // (chargeBoxId, (connectorId, connectorPk))
+    private final ConcurrentHashMap<String, Map<Integer, Integer>> lookupTable = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    @Override
+    public Integer get(String chargeBoxId, int connectorId) {
+        Map<Integer, Integer> connectors = lookupTable.get(chargeBoxId);
+        Integer connectorPk = (connectors == null) ? null : connectors.get(connectorId);
+
+        if (connectorPk == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return connectorPk;
+    }
+
+    @Override
+    public void put(String chargeBoxId, int connectorId, int connectorPk) {
+        lookupTable.computeIfAbsent(chargeBoxId, k -> new ConcurrentHashMap<>())
+                   .put(connectorId, connectorPk);
+    }
+
+    @Override
+    public void invalidate(String chargeBoxId) {
+        if (lookupTable.remove(chargeBoxId) != null) {
+            invalidationCount.increment();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Connector Primary Key Cache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        int connectors = 0;
+        for (Map<Integer, Integer> map : lookupTable.values()) {
+            connectors += map.size();
+        }
+
+        long hits = hitCount.sum();
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Cached charge boxes", lookupTable.size());
+        map.put("Cached connectors", connectors);
+        map.put("Hits", hits);
+        map.put("Misses", missCount.sum());
+        map.put("Invalidated charge boxes", invalidationCount.sum());
+        map.put("Saved database round-trips (INSERT IGNORE of connector)", hits);
+        return map;
+    }
+}
@@ -0,0 +1,118 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The loading cache of {@link AuthorizationCacheImpl} and {@link ChargeBoxMetadataCacheImpl}. Bounded by size, and
+ * every entry expires after the TTL at the latest. A TTL of 0 disables the cache, such that every lookup is loaded.
+ *
+ * A load might overlap with an invalidation of the same key, and would then cache the state from before the write.
+ * To prevent this, every invalidation increments a generation counter. A loaded entry is dropped, if the generation
+ * changed while loading.
+ *
+ * A loader returns null for a key that does not exist (e.g. an unknown charge box). Such negative entries expire
+ * after their own TTL, which is usually shorter, since the key might be created without an invalidation (e.g. by
+ * another instance). A negative TTL of 0 does not cache them at all.
+ *
+ * @since 18.10.2026
+ */
+final class GenerationCheckedCache<K, V> {
+
+    private final boolean enabled;
+    private final long negativeTtlInNanos;
+    private final Ticker ticker;
+    private final Cache<K, Loaded<V>> cache;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder droppedLoadCount = new LongAdder();
+
+    GenerationCheckedCache(int ttlInSeconds, int negativeTtlInSeconds, int maxSize, Ticker ticker) {
+        this.enabled = ttlInSeconds > 0;
+        this.negativeTtlInNanos = TimeUnit.SECONDS.toNanos(Math.min(negativeTtlInSeconds, ttlInSeconds));
+        this.ticker = ticker;
+        this.cache = CacheBuilder.newBuilder()
+                                 .maximumSize(maxSize)
+                                 .expireAfterWrite(Math.max(ttlInSeconds, 1), TimeUnit.SECONDS)
+                                 .ticker(ticker)
+                                 .recordStats()
+                                 .build();
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    V get(K key, Supplier<V> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Loaded<V> loaded = cache.getIfPresent(key);
+        if (loaded != null && (loaded.value != null || ticker.read() - loaded.nanos < negativeTtlInNanos)) {
+            hitCount.increment();
+            return loaded.value;
+        }
+        missCount.increment();
+
+        long generationBefore = generation.get();
+        V value = loader.get();
+
+        if (value == null && negativeTtlInNanos == 0) {
+            return null;
+        }
+
+        cache.put(key, new Loaded<>(value, ticker.read()));
+
+        // checked after put, such that either this or the invalidation removes the entry
+        if (generation.get() != generationBefore) {
+            cache.invalidate(key);
+            droppedLoadCount.increment();
+        }
+        return value;
+    }
+
+    void invalidate(K key) {
+        generation.incrementAndGet();
+        cache.invalidate(key);
+    }
+
+    void invalidate(Iterable<K> keys) {
+        generation.incrementAndGet();
+        cache.invalidateAll(keys);
+    }
+
+    void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    void addMetrics(Map<String, Object> map) {
+        long hits = hitCount.sum();
+        long misses = missCount.sum();
+        long requests = hits + misses;
+
+        map.put("Size", cache.size());
+        map.put("Hits", hits);
+        map.put("Misses", misses);
+        map.put("Hit rate", String.format("%.2f", requests == 0 ? 1.0 : (double) hits / requests));
+        map.put("Evictions (size or TTL)", cache.stats().evictionCount());
+        map.put("Loads dropped due to concurrent invalidation", droppedLoadCount.sum());
+    }
+
+    @RequiredArgsConstructor
+    private static final class Loaded<V> {
+        private final V value;
+        private final long nanos;
+    }
+}
@@ -0,0 +1,169 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.dto.Page;
+import de.rwth.idsg.steve.web.dto.PagedQueryForm;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Record1;
+import org.jooq.RecordMapper;
+import org.jooq.SelectQuery;
+import org.jooq.SortField;
+import org.jooq.SortOrder;
+import org.jooq.TableField;
+import org.jooq.impl.DSL;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keyset (seek) pagination: The rows are sorted by an optional leading column and the primary key, which makes the
+ * order stable. A page is selected with a condition relative to the row of the cursor (the primary key of the last
+ * row of the previous page, or the first row of the next page) and a limit, such that the database reads only the
+ * rows of the page, regardless of how deep the page is.
+ *
+ * For a leading column, its value at the cursor is selected first, such that the cursor is always the primary key
+ * alone. If the row of the cursor was deleted in the meantime (e.g. a reservation that was cancelled and removed),
+ * its position in the order is unknown, and the first page is returned instead.
+ *
+ * @since 18.10.2026
+ */
+final class KeysetPagination {
+
+    /**
+     * Counting is stopped at this number, such that it does not get more expensive than a few pages.
+     */
+    static final int COUNT_LIMIT = 10_000;
+
+    private final TableField<?, Integer> pk;
+    private final Field<?> leading;
+    private final boolean descending;
+
+    private KeysetPagination(TableField<?, Integer> pk, Field<?> leading, boolean descending) {
+        this.pk = pk;
+        this.leading = leading;
+        this.descending = descending;
+    }
+
+    static KeysetPagination byPrimaryKey(TableField<?, Integer> pk, boolean descending) {
+        return new KeysetPagination(pk, null, descending);
+    }
+
+    static KeysetPagination byColumn(Field<?> leading, TableField<?, Integer> pk, boolean descending) {
+        return new KeysetPagination(pk, leading, descending);
+    }
+
+    /**
+     * Adds the sort order without any paging, e.g. for exports.
+     */
+    void addOrderBy(SelectQuery<?> query) {
+        query.addOrderBy(getSortFields(!descending));
+    }
+
+    /**
+     * The query must contain the filter conditions and select the primary key, but must not have an order and limit.
+     */
+    <R extends Record, T> Page<T> fetchPage(DSLContext ctx, SelectQuery<R> query, PagedQueryForm form,
+                                            RecordMapper<? super R, T> mapper) {
+        Integer totalCount = null;
+        boolean totalCountCapped = false;
+
+        if (form.isCountTotal()) {
+            query.addLimit(COUNT_LIMIT + 1);
+            int count = ctx.fetchCount(query);
+            totalCountCapped = count > COUNT_LIMIT;
+            totalCount = Math.min(count, COUNT_LIMIT);
+        }
+
+        int pageSize = Math.max(1, Math.min(form.getPageSize(), PagedQueryForm.MAX_PAGE_SIZE));
+        boolean backward = form.isBeforeSet();
+        Integer cursor = backward ? form.getBefore() : form.getAfter();
+
+        Record1<?> leadingAtCursor = null;
+        if (cursor != null && leading != null) {
+            leadingAtCursor = ctx.select(leading)
+                                 .from(pk.getTable())
+                                 .where(pk.eq(cursor))
+                                 .fetchOne();
+
+            if (leadingAtCursor == null) {
+                cursor = null;
+                backward = false;
+            }
+        }
+
+        // going backward, the rows before the cursor are read in reverse order
+        boolean ascending = (descending == backward);
+
+        if (cursor != null) {
+            query.addConditions(seek(cursor, leadingAtCursor, ascending));
+        }
+        query.addOrderBy(getSortFields(ascending));
+        query.addLimit(pageSize + 1);
+
+        List<R> records = new ArrayList<>(query.fetch());
+
+        // the additional row only tells that there is more in this direction
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = new ArrayList<>(records.subList(0, pageSize));
+        }
+
+        if (backward) {
+            Collections.reverse(records);
+        }
+
+        List<T> items = new ArrayList<>(records.size());
+        for (R r : records) {
+            items.add(mapper.map(r));
+        }
+
+        boolean notEmpty = !records.isEmpty();
+
+        return Page.<T>builder()
+                   .items(items)
+                   .hasPrevious(notEmpty && (backward ? hasMore : cursor != null))
+                   .hasNext(notEmpty && (backward || hasMore))
+                   .firstKey(notEmpty ? records.get(0).get(pk) : null)
+                   .lastKey(notEmpty ? records.get(records.size() - 1).get(pk) : null)
+                   .totalCount(totalCount)
+                   .totalCountCapped(totalCountCapped)
+                   .build();
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private List<SortField<?>> getSortFields(boolean ascending) {
+        SortOrder order = ascending ? SortOrder.ASC : SortOrder.DESC;
+
+        List<SortField<?>> fields = new ArrayList<>(2);
+        if (leading != null) {
+            fields.add(leading.sort(order));
+        }
+        fields.add(pk.sort(order));
+        return fields;
+    }
+
+    /**
+     * @param leadingAtCursor the value of the leading column in the row of the cursor, if there is a leading column
+     * @param greater whether to select the rows after the cursor in ascending order (or before it, otherwise)
+     */
+    private Condition seek(int cursor, Record1<?> leadingAtCursor, boolean greater) {
+        Condition pkCondition = greater ? pk.gt(cursor) : pk.lt(cursor);
+        if (leading == null) {
+            return pkCondition;
+        }
+        return seekLeading(leading, leadingAtCursor.value1(), pkCondition, greater);
+    }
+
+    private static <V> Condition seekLeading(Field<V> leading, Object value, Condition pkCondition, boolean greater) {
+        Field<V> leadingAtCursor = DSL.val(value, leading);
+
+        Condition leadingCondition = greater ? leading.gt(leadingAtCursor) : leading.lt(leadingAtCursor);
+        return leadingCondition.or(leading.eq(leadingAtCursor).and(pkCondition));
+    }
+}
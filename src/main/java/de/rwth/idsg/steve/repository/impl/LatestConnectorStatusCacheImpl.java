@@ -0,0 +1,126 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.LatestConnectorStatusCache;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.joda.time.DateTime;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * The timestamp is not part of the comparison, since a repeated status only differs in it. The history keeps the
+ * first one of the repeated statuses, i.e. the time at which the connector changed to the status.
+ *
+ * A status that is older than the cached one (e.g. a delayed message) is never unchanged, such that it is stored in
+ * the history as before.
+ *
+ * @since 18.10.2026
+ */
+@Repository
+public class LatestConnectorStatusCacheImpl implements LatestConnectorStatusCache, MetricsProvider {
+
+    private final boolean enabled;
+
+    // (connectorPk, last stored status)
+    private final ConcurrentHashMap<Integer, Entry> lookupTable = new ConcurrentHashMap<>();
+
+    private final LongAdder unchangedCount = new LongAdder();
+    private final LongAdder changedCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    public LatestConnectorStatusCacheImpl() {
+        this(CONFIG.getDb().isConnectorStatusDedup());
+    }
+
+    LatestConnectorStatusCacheImpl(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean isUnchanged(int connectorPk, DateTime timestamp, String status, String errorCode,
+                               String errorInfo, String vendorId, String vendorErrorCode) {
+        if (!enabled) {
+            return false;
+        }
+
+        Entry last = lookupTable.get(connectorPk);
+        boolean unchanged = last != null
+                && timestamp != null
+                && !timestamp.isBefore(last.timestamp)
+                && last.status.equals(new Status(status, errorCode, errorInfo, vendorId, vendorErrorCode));
+
+        if (unchanged) {
+            unchangedCount.increment();
+        } else {
+            changedCount.increment();
+        }
+        return unchanged;
+    }
+
+    @Override
+    public void put(int connectorPk, DateTime timestamp, String status, String errorCode,
+                    String errorInfo, String vendorId, String vendorErrorCode) {
+        if (!enabled || timestamp == null) {
+            return;
+        }
+
+        Entry entry = new Entry(timestamp, new Status(status, errorCode, errorInfo, vendorId, vendorErrorCode));
+
+        // concurrent statuses of a connector may be committed in any order. the newest one wins
+        lookupTable.merge(connectorPk, entry, (old, neu) -> neu.timestamp.isBefore(old.timestamp) ? old : neu);
+    }
+
+    @Override
+    public void invalidate(int connectorPk) {
+        if (lookupTable.remove(connectorPk) != null) {
+            invalidationCount.increment();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Connector Status Deduplication";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Enabled", enabled);
+        map.put("Cached connectors", lookupTable.size());
+        map.put("Changed statuses (stored)", changedCount.sum());
+        map.put("Unchanged statuses (skipped)", unchangedCount.sum());
+        map.put("Invalidated connectors", invalidationCount.sum());
+        return map;
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Status {
+        private final String status;
+        private final String errorCode;
+        private final String errorInfo;
+        private final String vendorId;
+        private final String vendorErrorCode;
+    }
+
+    @RequiredArgsConstructor
+    private static final class Entry {
+        private final DateTime timestamp;
+        private final Status status;
+    }
+}
@@ -0,0 +1,408 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.dto.TransactionDetails;
+import jooq.steve.db.tables.records.TransactionMeterValueBlobRecord;
+import org.joda.time.DateTime;
+import org.jooq.DSLContext;
+import org.jooq.InsertSetMoreStep;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static jooq.steve.db.tables.TransactionMeterValueBlob.TRANSACTION_METER_VALUE_BLOB;
+
+/**
+ * Compact binary encoding of the meter values of a transaction (see transaction_meter_value_blob). A blob is a
+ * sequence of chunks, one per append, such that an append does not have to read the blob. A chunk is columnar:
+ *
+ * - version (1 byte)
+ * - number of samples n (varint)
+ * - timestamps: n entries (varints). 0 is null, otherwise 1 + the delta in millis to the previous timestamp (zigzag),
+ *   where the one before the first is 0
+ * - reading context, format, measurand, location, unit, phase: n codes each (varints). 0 is null, 1 is followed by a
+ *   literal string (varint length, UTF-8), and 2 + i is the entry i of {@link #DICTIONARY}
+ * - values: n entries with a header (varint). 0 is null, 1 is followed by a literal string, and 2 + scale is
+ *   followed by the unscaled value of the decimal. The unscaled value is the delta (zigzag varint) to the previous
+ *   value of the same series (measurand, location, phase and unit) in the chunk, if it had the same scale.
+ *
+ * A value is only encoded as decimal if it is printed back to the same string. Therefore, decoding returns the
+ * strings that were encoded.
+ *
+ * Every append inserts its chunk as a row. Appending to one growing blob (CONCAT) rewrites the whole blob, which
+ * makes long transactions quadratic: 10000 appends of 8 samples wrote 6 GB to InnoDB for a blob of 0.9 MB. The chunk
+ * rows of a stopped transaction are merged into one with {@link #compact}, which rewrites the blob only once.
+ *
+ * @since 18.10.2026
+ */
+final class MeterValueBlobCodec {
+
+    private static final byte VERSION = 1;
+
+    private static final int NULL = 0;
+    private static final int LITERAL = 1;
+    private static final int FIRST_CODE = 2;
+
+    /**
+     * The values of the OCPP 1.6 enums of SampledValue. Since the codes are stored, entries must never be removed or
+     * reordered. New ones can be appended.
+     */
+    private static final List<String> DICTIONARY = Arrays.asList(
+            // ReadingContext
+            "Interruption.Begin", "Interruption.End", "Other", "Sample.Clock", "Sample.Periodic",
+            "Transaction.Begin", "Transaction.End", "Trigger",
+            // ValueFormat
+            "Raw", "SignedData",
+            // Measurand
+            "Current.Export", "Current.Import", "Current.Offered", "Energy.Active.Export.Register",
+            "Energy.Active.Import.Register", "Energy.Reactive.Export.Register", "Energy.Reactive.Import.Register",
+            "Energy.Active.Export.Interval", "Energy.Active.Import.Interval", "Energy.Reactive.Export.Interval",
+            "Energy.Reactive.Import.Interval", "Frequency", "Power.Active.Export", "Power.Active.Import",
+            "Power.Factor", "Power.Offered", "Power.Reactive.Export", "Power.Reactive.Import", "RPM", "SoC",
+            "Temperature", "Voltage",
+            // Location
+            "Body", "Cable", "EV", "Inlet", "Outlet",
+            // UnitOfMeasure
+            "Wh", "kWh", "varh", "kvarh", "W", "kW", "VA", "kVA", "var", "kvar", "A", "V", "Celsius", "Celcius",
+            "Fahrenheit", "K", "Percent",
+            // Phase
+            "L1", "L2", "L3", "N", "L1-N", "L2-N", "L3-N", "L1-L2", "L2-L3", "L3-L1"
+    );
+
+    private static final Map<String, Integer> CODES = new HashMap<>();
+
+    static {
+        for (int i = 0; i < DICTIONARY.size(); i++) {
+            CODES.put(DICTIONARY.get(i), FIRST_CODE + i);
+        }
+    }
+
+    private MeterValueBlobCodec() { }
+
+    /**
+     * @return one chunk, which can be appended to an existing blob
+     */
+    static byte[] encode(List<TransactionDetails.MeterValues> samples) {
+        Writer w = new Writer();
+        w.out.write(VERSION);
+        w.writeVarLong(samples.size());
+
+        long previousMillis = 0;
+        for (TransactionDetails.MeterValues s : samples) {
+            if (s.getValueTimestamp() == null) {
+                w.writeVarLong(NULL);
+            } else {
+                long millis = s.getValueTimestamp().getMillis();
+                w.writeVarLong(zigZag(millis - previousMillis) + 1);
+                previousMillis = millis;
+            }
+        }
+
+        encodeColumn(w, samples, TransactionDetails.MeterValues::getReadingContext);
+        encodeColumn(w, samples, TransactionDetails.MeterValues::getFormat);
+        encodeColumn(w, samples, TransactionDetails.MeterValues::getMeasurand);
+        encodeColumn(w, samples, TransactionDetails.MeterValues::getLocation);
+        encodeColumn(w, samples, TransactionDetails.MeterValues::getUnit);
+        encodeColumn(w, samples, TransactionDetails.MeterValues::getPhase);
+
+        Map<List<String>, long[]> previousDecimals = new HashMap<>();
+        for (TransactionDetails.MeterValues s : samples) {
+            String value = s.getValue();
+            BigDecimal decimal = toDecimal(value);
+
+            if (value == null) {
+                w.writeVarLong(NULL);
+            } else if (decimal == null) {
+                w.writeVarLong(LITERAL);
+                w.writeString(value);
+            } else {
+                long unscaled = decimal.unscaledValue().longValue();
+                long[] previous = previousDecimals.put(seriesOf(s), new long[] {decimal.scale(), unscaled});
+                w.writeVarLong(FIRST_CODE + decimal.scale());
+                w.writeZigZag(previous != null && previous[0] == decimal.scale() ? unscaled - previous[1] : unscaled);
+            }
+        }
+        return w.out.toByteArray();
+    }
+
+    /**
+     * Appends a chunk to the blob of each transaction
+     */
+    static void append(DSLContext ctx, List<TransactionMeterValueBlobRecord> list) {
+        InsertSetMoreStep<TransactionMeterValueBlobRecord> insert = null;
+        for (TransactionMeterValueBlobRecord r : list) {
+            if (insert == null) {
+                insert = ctx.insertInto(TRANSACTION_METER_VALUE_BLOB).set(r);
+            } else {
+                insert = insert.newRecord().set(r);
+            }
+        }
+
+        if (insert != null) {
+            insert.execute();
+        }
+    }
+
+    /**
+     * Merges the chunk rows of the transaction into its first one. The rows are locked, such that a concurrent
+     * compaction waits, and a chunk that is appended in the meantime is kept as the next row.
+     *
+     * @return the number of merged rows, 0 if there was nothing to merge
+     */
+    static int compact(DSLContext ctx, int transactionPk) {
+        List<TransactionMeterValueBlobRecord> chunks =
+                ctx.selectFrom(TRANSACTION_METER_VALUE_BLOB)
+                   .where(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK.eq(transactionPk))
+                   .orderBy(TRANSACTION_METER_VALUE_BLOB.CHUNK_PK)
+                   .forUpdate()
+                   .fetch();
+
+        if (chunks.size() < 2) {
+            return 0;
+        }
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int sampleCount = 0;
+        for (TransactionMeterValueBlobRecord r : chunks) {
+            data.write(r.getData(), 0, r.getData().length);
+            sampleCount += r.getSampleCount();
+        }
+
+        long firstChunkPk = chunks.get(0).getChunkPk();
+        long lastChunkPk = chunks.get(chunks.size() - 1).getChunkPk();
+
+        ctx.update(TRANSACTION_METER_VALUE_BLOB)
+           .set(TRANSACTION_METER_VALUE_BLOB.DATA, data.toByteArray())
+           .set(TRANSACTION_METER_VALUE_BLOB.SAMPLE_COUNT, sampleCount)
+           .where(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK.eq(transactionPk))
+           .and(TRANSACTION_METER_VALUE_BLOB.CHUNK_PK.eq(firstChunkPk))
+           .execute();
+
+        ctx.delete(TRANSACTION_METER_VALUE_BLOB)
+           .where(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK.eq(transactionPk))
+           .and(TRANSACTION_METER_VALUE_BLOB.CHUNK_PK.gt(firstChunkPk))
+           .and(TRANSACTION_METER_VALUE_BLOB.CHUNK_PK.le(lastChunkPk))
+           .execute();
+
+        return chunks.size();
+    }
+
+    /**
+     * @return the samples of all chunks of the transaction, in the order of appending
+     */
+    static List<TransactionDetails.MeterValues> read(DSLContext ctx, int transactionPk) {
+        List<TransactionDetails.MeterValues> samples = new ArrayList<>();
+        ctx.select(TRANSACTION_METER_VALUE_BLOB.DATA)
+           .from(TRANSACTION_METER_VALUE_BLOB)
+           .where(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK.eq(transactionPk))
+           .orderBy(TRANSACTION_METER_VALUE_BLOB.CHUNK_PK)
+           .fetch(TRANSACTION_METER_VALUE_BLOB.DATA)
+           .forEach(data -> samples.addAll(decode(data)));
+        return samples;
+    }
+
+    static TransactionMeterValueBlobRecord toRecord(DSLContext ctx, int transactionPk, int connectorPk,
+                                                    List<TransactionDetails.MeterValues> samples) {
+        return ctx.newRecord(TRANSACTION_METER_VALUE_BLOB)
+                  .setTransactionPk(transactionPk)
+                  .setConnectorPk(connectorPk)
+                  .setSampleCount(samples.size())
+                  .setData(encode(samples));
+    }
+
+    /**
+     * @return the samples of all chunks, in the order of encoding
+     */
+    static List<TransactionDetails.MeterValues> decode(byte[] blob) {
+        Reader r = new Reader(blob);
+        List<TransactionDetails.MeterValues> samples = new ArrayList<>();
+        while (r.hasRemaining()) {
+            decodeChunk(r, samples);
+        }
+        return samples;
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private static void decodeChunk(Reader r, List<TransactionDetails.MeterValues> samples) {
+        int version = r.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown version of meter value chunk: " + version);
+        }
+
+        int n = (int) r.readVarLong();
+
+        DateTime[] timestamps = new DateTime[n];
+        long previousMillis = 0;
+        for (int i = 0; i < n; i++) {
+            long entry = r.readVarLong();
+            if (entry != NULL) {
+                previousMillis += unZigZag(entry - 1);
+                timestamps[i] = new DateTime(previousMillis);
+            }
+        }
+
+        String[] contexts = decodeColumn(r, n);
+        String[] formats = decodeColumn(r, n);
+        String[] measurands = decodeColumn(r, n);
+        String[] locations = decodeColumn(r, n);
+        String[] units = decodeColumn(r, n);
+        String[] phases = decodeColumn(r, n);
+
+        Map<List<String>, long[]> previousDecimals = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            String value;
+            int header = (int) r.readVarLong();
+            if (header == NULL) {
+                value = null;
+            } else if (header == LITERAL) {
+                value = r.readString();
+            } else {
+                int scale = header - FIRST_CODE;
+                List<String> series = Arrays.asList(measurands[i], locations[i], phases[i], units[i]);
+                long[] previous = previousDecimals.get(series);
+                long unscaled = r.readZigZag() + (previous != null && previous[0] == scale ? previous[1] : 0);
+                previousDecimals.put(series, new long[] {scale, unscaled});
+                value = BigDecimal.valueOf(unscaled, scale).toPlainString();
+            }
+
+            samples.add(TransactionDetails.MeterValues.builder()
+                                                      .valueTimestamp(timestamps[i])
+                                                      .value(value)
+                                                      .readingContext(contexts[i])
+                                                      .format(formats[i])
+                                                      .measurand(measurands[i])
+                                                      .location(locations[i])
+                                                      .unit(units[i])
+                                                      .phase(phases[i])
+                                                      .build());
+        }
+    }
+
+    private static void encodeColumn(Writer w, List<TransactionDetails.MeterValues> samples,
+                                     Function<TransactionDetails.MeterValues, String> column) {
+        for (TransactionDetails.MeterValues s : samples) {
+            String str = column.apply(s);
+            Integer code = str == null ? Integer.valueOf(NULL) : CODES.get(str);
+            if (code == null) {
+                w.writeVarLong(LITERAL);
+                w.writeString(str);
+            } else {
+                w.writeVarLong(code);
+            }
+        }
+    }
+
+    private static String[] decodeColumn(Reader r, int n) {
+        String[] column = new String[n];
+        for (int i = 0; i < n; i++) {
+            int code = (int) r.readVarLong();
+            if (code == LITERAL) {
+                column[i] = r.readString();
+            } else if (code != NULL) {
+                column[i] = DICTIONARY.get(code - FIRST_CODE);
+            }
+        }
+        return column;
+    }
+
+    private static List<String> seriesOf(TransactionDetails.MeterValues s) {
+        return Arrays.asList(s.getMeasurand(), s.getLocation(), s.getPhase(), s.getUnit());
+    }
+
+    /**
+     * @return null, if the value cannot be restored from the decimal as the same string
+     */
+    private static BigDecimal toDecimal(String value) {
+        if (value == null || value.isEmpty() || value.length() > 19) {
+            return null;
+        }
+        try {
+            BigDecimal decimal = new BigDecimal(value);
+            boolean fits = decimal.scale() >= 0 && decimal.unscaledValue().bitLength() < Long.SIZE;
+            return fits && decimal.toPlainString().equals(value) ? decimal : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Maps signed to unsigned values, such that small negative values also have short varints
+     */
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private void writeZigZag(long value) {
+            writeVarLong(zigZag(value));
+        }
+
+        private void writeString(String str) {
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static class Reader {
+        private final byte[] bytes;
+        private int position = 0;
+
+        private Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private boolean hasRemaining() {
+            return position < bytes.length;
+        }
+
+        private int readByte() {
+            return bytes[position++];
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        private long readZigZag() {
+            return unZigZag(readVarLong());
+        }
+
+        private String readString() {
+            int length = (int) readVarLong();
+            String str = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return str;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.repository.MeterValueDictionary;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Converter;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record2;
+import org.jooq.impl.AbstractConverter;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static jooq.steve.db.tables.MeterValueDictionary.METER_VALUE_DICTIONARY;
+
+/**
+ * Lookups are served from memory. A value that is not known yet is inserted with INSERT IGNORE and its code is
+ * selected afterwards, such that concurrent inserts of the same value (e.g. by another instance) get the same code.
+ *
+ * A code that is not known is looked up in database (e.g. inserted by another instance) before failing.
+ *
+ * The codes are SMALLINT, i.e. there are at most 32767 entries. When they are used up, the auto increment of the
+ * table cannot assign a code anymore (which INSERT IGNORE ignores), and new values are rejected. Values that are
+ * already in the dictionary are still served.
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+@Repository
+public class MeterValueDictionaryImpl implements MeterValueDictionary, MetricsProvider {
+
+    private static final String CODE_SUFFIX = "_pk";
+
+    private final DSLContext ctx;
+
+    private final ConcurrentHashMap<String, Short> codes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Short, String> values = new ConcurrentHashMap<>();
+
+    private final Converter<Short, String> converter =
+            new AbstractConverter<Short, String>(Short.class, String.class) {
+                @Override
+                public String from(Short code) {
+                    return getValue(code);
+                }
+
+                @Override
+                public Short to(String value) {
+                    return getCode(value);
+                }
+            };
+
+    private volatile boolean full = false;
+
+    private final LongAdder insertCount = new LongAdder();
+    private final LongAdder rejectCount = new LongAdder();
+    private final LongAdder reloadCount = new LongAdder();
+
+    @Autowired
+    public MeterValueDictionaryImpl(DSLContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @PostConstruct
+    public void init() {
+        load();
+        log.info("Loaded {} meter value dictionary entries", codes.size());
+    }
+
+    @Override
+    public Short getCode(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        Short code = codes.get(value);
+        if (code == null) {
+            code = insert(value);
+        }
+        return code;
+    }
+
+    @Override
+    public String getValue(Short code) {
+        if (code == null) {
+            return null;
+        }
+
+        String value = values.get(code);
+        if (value == null) {
+            value = reload(code);
+        }
+        return value;
+    }
+
+    @Override
+    public Field<String> resolve(Field<Short> code) {
+        String name = code.getName();
+        if (name.endsWith(CODE_SUFFIX)) {
+            name = name.substring(0, name.length() - CODE_SUFFIX.length());
+        }
+        return code.coerce(code.getDataType().asConvertedDataType(converter)).as(name);
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private synchronized Short insert(String value) {
+        Short code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+
+        // a full dictionary stays full, since the codes are never deleted. the value might still have been inserted
+        // by another instance before
+        if (!full) {
+            ctx.insertInto(METER_VALUE_DICTIONARY)
+               .set(METER_VALUE_DICTIONARY.VALUE, value)
+               .onDuplicateKeyIgnore()
+               .execute();
+        }
+
+        code = ctx.select(METER_VALUE_DICTIONARY.DICTIONARY_PK)
+                  .from(METER_VALUE_DICTIONARY)
+                  .where(METER_VALUE_DICTIONARY.VALUE.eq(value))
+                  .fetchOne(METER_VALUE_DICTIONARY.DICTIONARY_PK);
+
+        if (code == null) {
+            if (!full && getMaxCode() >= Short.MAX_VALUE) {
+                full = true;
+                log.error("The meter value dictionary is full ({} entries), new values are rejected", Short.MAX_VALUE);
+            }
+            if (full) {
+                rejectCount.increment();
+                throw new SteveException("The meter value dictionary is full, the value '%s' cannot be added", value);
+            }
+            throw new SteveException("Failed to add the value '%s' to the meter value dictionary", value);
+        }
+
+        put(code, value);
+        insertCount.increment();
+        return code;
+    }
+
+    private synchronized String reload(Short code) {
+        String value = values.get(code);
+        if (value != null) {
+            return value;
+        }
+
+        load();
+        reloadCount.increment();
+
+        value = values.get(code);
+        if (value == null) {
+            throw new SteveException("There is no meter value dictionary entry with code '%s'", code);
+        }
+        return value;
+    }
+
+    private short getMaxCode() {
+        Short max = ctx.select(DSL.max(METER_VALUE_DICTIONARY.DICTIONARY_PK))
+                       .from(METER_VALUE_DICTIONARY)
+                       .fetchOne()
+                       .value1();
+        return max == null ? 0 : max;
+    }
+
+    private void load() {
+        for (Record2<Short, String> r : ctx.select(METER_VALUE_DICTIONARY.DICTIONARY_PK, METER_VALUE_DICTIONARY.VALUE)
+                                           .from(METER_VALUE_DICTIONARY)
+                                           .fetch()) {
+            put(r.value1(), r.value2());
+        }
+    }
+
+    private void put(Short code, String value) {
+        // the value of a code first, such that a code is resolvable as soon as it is handed out
+        values.put(code, value);
+        codes.put(value, code);
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Meter Value Dictionary";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Entries", values.size());
+        map.put("Inserted values", insertCount.sum());
+        map.put("Full", full);
+        map.put("Rejected values", rejectCount.sum());
+        map.put("Reloads after unknown codes", reloadCount.sum());
+        return map;
+    }
+}
@@ -0,0 +1,502 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.collect.Iterables;
+import de.rwth.idsg.steve.config.BeanConfiguration;
+import de.rwth.idsg.steve.repository.MeterValueRollupStore;
+import de.rwth.idsg.steve.repository.dto.MeterValueRollup;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import jooq.steve.db.tables.records.ConnectorMeterValueRollupRecord;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.SampledValue;
+import org.joda.time.DateTime;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.InsertSetMoreStep;
+import org.jooq.Record3;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.rwth.idsg.steve.utils.CustomDSL.values;
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.ConnectorMeterValueRollup.CONNECTOR_METER_VALUE_ROLLUP;
+
+/**
+ * The committed meter values are aggregated in memory into the buckets of all resolutions, which are written to
+ * database periodically with multi-row upserts. The upsert merges a bucket with its row from the previous flushes
+ * (min, max, last by timestamp, sum of count), such that a bucket can be written any number of times, and by any
+ * number of instances.
+ *
+ * Only numeric raw values are rolled up. Signed data and the samples of locations other than Outlet and EV (e.g.
+ * Inlet, Body) are skipped, since they would be mixed with the outlet values of the same measurand.
+ *
+ * For registers, the energy delta of a bucket is the increase of its last value over the last value of the previous
+ * bucket, and is calculated by the query. It is derived from the database only, and does not depend on which
+ * instance received the samples, or on a restart in between. A register that decreases (e.g. a replaced meter) has no
+ * delta.
+ *
+ * The pending buckets are split into stripes by connector, such that only the meter values of connectors in the
+ * same stripe wait for each other. The flush takes the buckets out stripe by stripe.
+ *
+ * If a statement fails, its buckets are merged back and retried with the next flush. Pending buckets are flushed at
+ * shutdown, and are lost if the process is killed (at most one flush interval of samples, which only affects the
+ * count, min and max of their buckets, since the deltas of the following buckets are derived from the last values).
+ * Queries do not see the buckets that are not flushed yet.
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+@Repository
+public class MeterValueRollupStoreImpl implements MeterValueRollupStore, MetricsProvider {
+
+    private static final int FLUSH_INTERVAL_IN_SECONDS = 10;
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+    private static final int STRIPE_COUNT = 64;
+
+    // Defaults of OCPP, if not set
+    private static final String DEFAULT_MEASURAND = "Energy.Active.Import.Register";
+    private static final String DEFAULT_LOCATION = "Outlet";
+
+    private static final String EV_LOCATION = "EV";
+    private static final String SIGNED_DATA = "SignedData";
+    private static final String REGISTER_SUFFIX = ".Register";
+    private static final String NO_PHASE = "";
+
+    private final DSLContext ctx;
+    private final DSLContext readOnlyCtx;
+    private final ScheduledExecutorService executorService;
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+    private final LongAdder addedCount = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+    private final LongAdder writtenRowCount = new LongAdder();
+    private final LongAdder statementCount = new LongAdder();
+    private final LongAdder failedStatementCount = new LongAdder();
+    private volatile long lastFlushMillis = 0;
+
+    private ScheduledFuture<?> flushSchedule;
+
+    @Autowired
+    public MeterValueRollupStoreImpl(DSLContext ctx,
+                                     @Qualifier(BeanConfiguration.READ_ONLY_DSL_CONTEXT) DSLContext readOnlyCtx,
+                                     ScheduledExecutorService executorService) {
+        this.ctx = ctx;
+        this.readOnlyCtx = readOnlyCtx;
+        this.executorService = executorService;
+
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        flushSchedule = executorService.scheduleWithFixedDelay(
+                this::scheduledFlush, FLUSH_INTERVAL_IN_SECONDS, FLUSH_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (flushSchedule != null) {
+            flushSchedule.cancel(false);
+        }
+        flush();
+    }
+
+    @Override
+    public void add(int connectorPk, List<MeterValue> list) {
+        Stripe stripe = getStripe(connectorPk);
+        synchronized (stripe) {
+            for (MeterValue mv : list) {
+                for (SampledValue sv : mv.getSampledValue()) {
+                    add(stripe, connectorPk, mv.getTimestamp(), sv);
+                }
+            }
+        }
+    }
+
+    /**
+     * Synchronized, since the scheduled flush and the flush at shutdown might overlap.
+     */
+    @Override
+    public synchronized void flush() {
+        // the keys of the stripes are disjoint, since a connector is in one stripe only
+        List<Map.Entry<BucketKey, Bucket>> entries = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (!stripe.pending.isEmpty()) {
+                    entries.addAll(stripe.pending.entrySet());
+                    stripe.pending = new HashMap<>();
+                }
+            }
+        }
+
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+
+        for (List<Map.Entry<BucketKey, Bucket>> chunk : Iterables.partition(entries, MAX_ROWS_PER_STATEMENT)) {
+            if (!write(chunk)) {
+                // retried with the next flush
+                for (Map.Entry<BucketKey, Bucket> e : chunk) {
+                    Stripe stripe = getStripe(e.getKey().series.connectorPk);
+                    synchronized (stripe) {
+                        stripe.pending.merge(e.getKey(), e.getValue(), (newer, older) -> Bucket.merge(older, newer));
+                    }
+                }
+            }
+        }
+
+        lastFlushMillis = System.currentTimeMillis() - start;
+    }
+
+    @Override
+    public List<MeterValueRollup> getRollups(String chargeBoxId, Integer connectorId, String measurand,
+                                             DateTime from, DateTime to, int maxPoints) {
+        MeterValueRollup.Resolution resolution = MeterValueRollup.Resolution.forRange(from, to, maxPoints);
+
+        DateTime start = resolution.getBucketStart(from);
+
+        Condition condition = CONNECTOR.CHARGE_BOX_ID.eq(chargeBoxId)
+                .and(CONNECTOR_METER_VALUE_ROLLUP.MEASURAND.eq(measurand))
+                .and(CONNECTOR_METER_VALUE_ROLLUP.RESOLUTION.eq(resolution.getSeconds()));
+
+        if (connectorId != null) {
+            condition = condition.and(CONNECTOR.CONNECTOR_ID.eq(connectorId));
+        }
+
+        // the last value of the previous bucket of each series, for the energy deltas
+        Map<SeriesKey, Double> previousLastValues = measurand.endsWith(REGISTER_SUFFIX)
+                ? getLastValuesBefore(condition, start)
+                : null;
+
+        return readOnlyCtx.select(CONNECTOR.CONNECTOR_ID,
+                                  CONNECTOR_METER_VALUE_ROLLUP.PHASE,
+                                  CONNECTOR_METER_VALUE_ROLLUP.UNIT,
+                                  CONNECTOR_METER_VALUE_ROLLUP.BUCKET_START,
+                                  CONNECTOR_METER_VALUE_ROLLUP.SAMPLE_COUNT,
+                                  CONNECTOR_METER_VALUE_ROLLUP.MIN_VALUE,
+                                  CONNECTOR_METER_VALUE_ROLLUP.MAX_VALUE,
+                                  CONNECTOR_METER_VALUE_ROLLUP.LAST_VALUE,
+                                  CONNECTOR_METER_VALUE_ROLLUP.LAST_TIMESTAMP,
+                                  CONNECTOR_METER_VALUE_ROLLUP.CONNECTOR_PK)
+                          .from(CONNECTOR_METER_VALUE_ROLLUP)
+                          .join(CONNECTOR)
+                            .on(CONNECTOR.CONNECTOR_PK.eq(CONNECTOR_METER_VALUE_ROLLUP.CONNECTOR_PK))
+                          .where(condition)
+                            .and(CONNECTOR_METER_VALUE_ROLLUP.BUCKET_START.ge(start))
+                            .and(CONNECTOR_METER_VALUE_ROLLUP.BUCKET_START.lt(to))
+                          .orderBy(CONNECTOR.CONNECTOR_ID,
+                                   CONNECTOR_METER_VALUE_ROLLUP.PHASE,
+                                   CONNECTOR_METER_VALUE_ROLLUP.BUCKET_START)
+                          .fetch()
+                          .map(r -> {
+                              Double energyDelta = null;
+                              if (previousLastValues != null) {
+                                  SeriesKey series = new SeriesKey(r.value10(), measurand, r.value2());
+                                  Double previous = previousLastValues.put(series, r.value8());
+                                  if (previous != null && r.value8() >= previous) {
+                                      energyDelta = r.value8() - previous;
+                                  }
+                              }
+
+                              return MeterValueRollup.builder()
+                                                     .connectorId(r.value1())
+                                                     .measurand(measurand)
+                                                     .phase(NO_PHASE.equals(r.value2()) ? null : r.value2())
+                                                     .unit(r.value3())
+                                                     .resolution(resolution)
+                                                     .bucketStart(r.value4())
+                                                     .sampleCount(r.value5())
+                                                     .minValue(r.value6())
+                                                     .maxValue(r.value7())
+                                                     .lastValue(r.value8())
+                                                     .lastTimestamp(r.value9())
+                                                     .energyDelta(energyDelta)
+                                                     .build();
+                          });
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Meter Value Rollups";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        int pendingCount = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                pendingCount += stripe.pending.size();
+            }
+        }
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Flush interval (seconds)", FLUSH_INTERVAL_IN_SECONDS);
+        map.put("Pending buckets", pendingCount);
+        map.put("Added samples", addedCount.sum());
+        map.put("Skipped samples", skippedCount.sum());
+        map.put("Written rows", writtenRowCount.sum());
+        map.put("Upsert statements", statementCount.sum());
+        map.put("Failed upsert statements", failedStatementCount.sum());
+        map.put("Duration of last flush (ms)", lastFlushMillis);
+        return map;
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // an exception would cancel the schedule
+            log.error("Exception occurred", e);
+        }
+    }
+
+    private Stripe getStripe(int connectorPk) {
+        return stripes[Math.floorMod(connectorPk, STRIPE_COUNT)];
+    }
+
+    private void add(Stripe stripe, int connectorPk, DateTime ts, SampledValue sv) {
+        Double value = ts == null || !isRolledUp(sv) ? null : parse(sv.getValue());
+        if (value == null) {
+            skippedCount.increment();
+            return;
+        }
+
+        String unit = sv.isSetUnit() ? sv.getUnit().value() : null;
+
+        // kWh, kW, kvarh, kvar and kVA
+        if (unit != null && unit.length() > 1 && unit.startsWith("k")) {
+            value = value * 1000;
+            unit = unit.substring(1);
+        }
+
+        SeriesKey series = new SeriesKey(
+                connectorPk,
+                sv.isSetMeasurand() ? sv.getMeasurand().value() : DEFAULT_MEASURAND,
+                sv.isSetPhase() ? sv.getPhase().value() : NO_PHASE
+        );
+
+        for (MeterValueRollup.Resolution resolution : MeterValueRollup.Resolution.values()) {
+            BucketKey key = new BucketKey(series, resolution, resolution.getBucketStart(ts));
+            stripe.pending.computeIfAbsent(key, k -> new Bucket()).add(ts, value, unit);
+        }
+        addedCount.increment();
+    }
+
+    private static boolean isRolledUp(SampledValue sv) {
+        if (sv.isSetFormat() && SIGNED_DATA.equals(sv.getFormat().value())) {
+            return false;
+        }
+        String location = sv.isSetLocation() ? sv.getLocation().value() : DEFAULT_LOCATION;
+        return DEFAULT_LOCATION.equals(location) || EV_LOCATION.equals(location);
+    }
+
+    private static Double parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private boolean write(List<Map.Entry<BucketKey, Bucket>> chunk) {
+        try {
+            upsert(chunk);
+            statementCount.increment();
+            writtenRowCount.add(chunk.size());
+            return true;
+        } catch (Exception e) {
+            failedStatementCount.increment();
+            log.error("Failed to write {} meter value rollups", chunk.size(), e);
+            return false;
+        }
+    }
+
+    private void upsert(List<Map.Entry<BucketKey, Bucket>> chunk) {
+        InsertSetMoreStep<ConnectorMeterValueRollupRecord> insert = null;
+        for (Map.Entry<BucketKey, Bucket> e : chunk) {
+            BucketKey key = e.getKey();
+            Bucket bucket = e.getValue();
+
+            ConnectorMeterValueRollupRecord record = ctx.newRecord(CONNECTOR_METER_VALUE_ROLLUP)
+                                                        .setConnectorPk(key.series.connectorPk)
+                                                        .setMeasurand(key.series.measurand)
+                                                        .setPhase(key.series.phase)
+                                                        .setResolution(key.resolution.getSeconds())
+                                                        .setBucketStart(key.bucketStart)
+                                                        .setUnit(bucket.unit)
+                                                        .setSampleCount(bucket.count)
+                                                        .setMinValue(bucket.min)
+                                                        .setMaxValue(bucket.max)
+                                                        .setLastValue(bucket.lastValue)
+                                                        .setLastTimestamp(bucket.lastTimestamp);
+
+            if (insert == null) {
+                insert = ctx.insertInto(CONNECTOR_METER_VALUE_ROLLUP).set(record);
+            } else {
+                insert = insert.newRecord().set(record);
+            }
+        }
+
+        if (insert == null) {
+            return;
+        }
+
+        Condition isNewer = CONNECTOR_METER_VALUE_ROLLUP.LAST_TIMESTAMP.isNull()
+                                .or(CONNECTOR_METER_VALUE_ROLLUP.LAST_TIMESTAMP
+                                        .le(values(CONNECTOR_METER_VALUE_ROLLUP.LAST_TIMESTAMP)));
+
+        // MySQL evaluates the assignments from left to right. Therefore, last_timestamp must be the last one, since
+        // the others compare with its old value.
+        insert.onDuplicateKeyUpdate()
+              .set(CONNECTOR_METER_VALUE_ROLLUP.UNIT,
+                      DSL.coalesce(values(CONNECTOR_METER_VALUE_ROLLUP.UNIT), CONNECTOR_METER_VALUE_ROLLUP.UNIT))
+              .set(CONNECTOR_METER_VALUE_ROLLUP.SAMPLE_COUNT,
+                      CONNECTOR_METER_VALUE_ROLLUP.SAMPLE_COUNT.add(values(CONNECTOR_METER_VALUE_ROLLUP.SAMPLE_COUNT)))
+              .set(CONNECTOR_METER_VALUE_ROLLUP.MIN_VALUE,
+                      DSL.least(CONNECTOR_METER_VALUE_ROLLUP.MIN_VALUE,
+                              values(CONNECTOR_METER_VALUE_ROLLUP.MIN_VALUE)))
+              .set(CONNECTOR_METER_VALUE_ROLLUP.MAX_VALUE,
+                      DSL.greatest(CONNECTOR_METER_VALUE_ROLLUP.MAX_VALUE,
+                              values(CONNECTOR_METER_VALUE_ROLLUP.MAX_VALUE)))
+              .set(CONNECTOR_METER_VALUE_ROLLUP.LAST_VALUE,
+                      DSL.when(isNewer, values(CONNECTOR_METER_VALUE_ROLLUP.LAST_VALUE))
+                         .otherwise(CONNECTOR_METER_VALUE_ROLLUP.LAST_VALUE))
+              .set(CONNECTOR_METER_VALUE_ROLLUP.LAST_TIMESTAMP,
+                      DSL.when(isNewer, values(CONNECTOR_METER_VALUE_ROLLUP.LAST_TIMESTAMP))
+                         .otherwise(CONNECTOR_METER_VALUE_ROLLUP.LAST_TIMESTAMP))
+              .execute();
+    }
+
+    /**
+     * The last value of the latest bucket before the start in each series. Without window functions (MySQL 5.6),
+     * the latest buckets are selected by the max per group and joined back.
+     *
+     * @param condition on the charge box, connector, measurand and resolution
+     */
+    private Map<SeriesKey, Double> getLastValuesBefore(Condition condition, DateTime start) {
+        Field<DateTime> maxBucketStart = DSL.max(CONNECTOR_METER_VALUE_ROLLUP.BUCKET_START).as("max_bucket_start");
+
+        Table<Record3<Integer, String, DateTime>> latest =
+                DSL.select(CONNECTOR_METER_VALUE_ROLLUP.CONNECTOR_PK,
+                           CONNECTOR_METER_VALUE_ROLLUP.PHASE,
+                           maxBucketStart)
+                   .from(CONNECTOR_METER_VALUE_ROLLUP)
+                   .join(CONNECTOR)
+                     .on(CONNECTOR.CONNECTOR_PK.eq(CONNECTOR_METER_VALUE_ROLLUP.CONNECTOR_PK))
+                   .where(condition)
+                     .and(CONNECTOR_METER_VALUE_ROLLUP.BUCKET_START.lt(start))
+                   .groupBy(CONNECTOR_METER_VALUE_ROLLUP.CONNECTOR_PK,
+                            CONNECTOR_METER_VALUE_ROLLUP.PHASE)
+                   .asTable("latest");
+
+        Map<SeriesKey, Double> map = new HashMap<>();
+        readOnlyCtx.select(CONNECTOR_METER_VALUE_ROLLUP.CONNECTOR_PK,
+                           CONNECTOR_METER_VALUE_ROLLUP.MEASURAND,
+                           CONNECTOR_METER_VALUE_ROLLUP.PHASE,
+                           CONNECTOR_METER_VALUE_ROLLUP.LAST_VALUE)
+                   .from(CONNECTOR_METER_VALUE_ROLLUP)
+                   .join(CONNECTOR)
+                     .on(CONNECTOR.CONNECTOR_PK.eq(CONNECTOR_METER_VALUE_ROLLUP.CONNECTOR_PK))
+                   .join(latest)
+                     .on(CONNECTOR_METER_VALUE_ROLLUP.CONNECTOR_PK
+                                 .eq(latest.field(CONNECTOR_METER_VALUE_ROLLUP.CONNECTOR_PK)))
+                     .and(CONNECTOR_METER_VALUE_ROLLUP.PHASE.eq(latest.field(CONNECTOR_METER_VALUE_ROLLUP.PHASE)))
+                     .and(CONNECTOR_METER_VALUE_ROLLUP.BUCKET_START.eq(latest.field(maxBucketStart)))
+                   .where(condition)
+                   .fetch()
+                   .forEach(r -> map.put(new SeriesKey(r.value1(), r.value2(), r.value3()), r.value4()));
+        return map;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class SeriesKey {
+        private final int connectorPk;
+        private final String measurand;
+        private final String phase;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class BucketKey {
+        private final SeriesKey series;
+        private final MeterValueRollup.Resolution resolution;
+        private final DateTime bucketStart;
+    }
+
+    private static class Stripe {
+        private Map<BucketKey, Bucket> pending = new HashMap<>();
+    }
+
+    private static class Bucket {
+        private String unit;
+        private int count;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double lastValue;
+        private DateTime lastTimestamp;
+
+        private void add(DateTime ts, double value, String unit) {
+            if (unit != null) {
+                this.unit = unit;
+            }
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            if (lastTimestamp == null || !ts.isBefore(lastTimestamp)) {
+                lastValue = value;
+                lastTimestamp = ts;
+            }
+        }
+
+        /**
+         * Merges the newer bucket into the older one (of a failed flush)
+         */
+        private static Bucket merge(Bucket older, Bucket newer) {
+            Bucket merged = new Bucket();
+            merged.unit = newer.unit != null ? newer.unit : older.unit;
+            merged.count = older.count + newer.count;
+            merged.min = Math.min(older.min, newer.min);
+            merged.max = Math.max(older.max, newer.max);
+
+            Bucket last = older.lastTimestamp.isAfter(newer.lastTimestamp) ? older : newer;
+            merged.lastValue = last.lastValue;
+            merged.lastTimestamp = last.lastTimestamp;
+            return merged;
+        }
+    }
+}
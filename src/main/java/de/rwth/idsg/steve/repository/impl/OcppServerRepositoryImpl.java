@@ -1,35 +1,66 @@
 package de.rwth.idsg.steve.repository.impl;
 
-import com.google.common.util.concurrent.Striped;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
 import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.repository.ActiveTransactionRegistry;
+import de.rwth.idsg.steve.repository.AuthorizationCache;
+import de.rwth.idsg.steve.repository.ChargeBoxMetadataCache;
+import de.rwth.idsg.steve.repository.ConnectorPkCache;
+import de.rwth.idsg.steve.repository.LatestConnectorStatusCache;
+import de.rwth.idsg.steve.repository.MeterValueDictionary;
+import de.rwth.idsg.steve.repository.MeterValueRollupStore;
 import de.rwth.idsg.steve.repository.OcppServerRepository;
 import de.rwth.idsg.steve.repository.ReservationRepository;
+import de.rwth.idsg.steve.repository.StatisticsStore;
+import de.rwth.idsg.steve.repository.dto.ActiveTransaction;
+import de.rwth.idsg.steve.repository.dto.ChargeBoxMetadata;
 import de.rwth.idsg.steve.repository.dto.InsertConnectorStatusParams;
+import de.rwth.idsg.steve.repository.dto.InsertMeterValuesParams;
 import de.rwth.idsg.steve.repository.dto.InsertTransactionParams;
+import de.rwth.idsg.steve.repository.dto.TransactionDetails;
 import de.rwth.idsg.steve.repository.dto.TransactionStatusUpdate;
 import de.rwth.idsg.steve.repository.dto.UpdateChargeboxParams;
 import de.rwth.idsg.steve.repository.dto.UpdateTransactionParams;
 import jooq.steve.db.tables.records.ConnectorMeterValueRecord;
+import jooq.steve.db.tables.records.ConnectorRecord;
+import jooq.steve.db.tables.records.TransactionMeterValueBlobRecord;
+import jooq.steve.db.tables.records.TransactionRecord;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.SampledValue;
 import org.joda.time.DateTime;
+import org.jooq.CaseWhenStep;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.InsertSetMoreStep;
+import org.jooq.InsertValuesStep2;
+import org.jooq.Query;
+import org.jooq.Row2;
 import org.jooq.Record1;
-import org.jooq.SelectConditionStep;
 import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.locks.Lock;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
 import static jooq.steve.db.tables.Connector.CONNECTOR;
 import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
 import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
+import static jooq.steve.db.tables.ConnectorStatusLatest.CONNECTOR_STATUS_LATEST;
 import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
 import static jooq.steve.db.tables.Transaction.TRANSACTION;
 
@@ -47,11 +78,82 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
 
     @Autowired private DSLContext ctx;
     @Autowired private ReservationRepository reservationRepository;
+    @Autowired private ConnectorPkCache connectorPkCache;
+    @Autowired private LatestConnectorStatusCache latestConnectorStatusCache;
+    @Autowired private AuthorizationCache authorizationCache;
+    @Autowired private ChargeBoxMetadataCache chargeBoxMetadataCache;
+    @Autowired private StatisticsStore statisticsStore;
+    @Autowired private ActiveTransactionRegistry activeTransactionRegistry;
+    @Autowired private MeterValueRollupStore meterValueRollupStore;
+    @Autowired private MeterValueDictionary meterValueDictionary;
 
-    private final Striped<Lock> transactionTableLocks = Striped.lock(16);
+    private final boolean meterValueBlob = CONFIG.getDb().isMeterValueBlob();
+
+    // -------------------------------------------------------------------------
+    // Statements of the hot path, which are rendered only once (see PreparedQuery)
+    // -------------------------------------------------------------------------
+
+    private PreparedQuery updateHeartbeatQuery;
+    private PreparedQuery insertConnectorStatusQuery;
+    private PreparedQuery insertConnectorStatusIfEnabledQuery;
+    private PreparedQuery upsertLatestConnectorStatusQuery;
+    private PreparedQuery lockTagQuery;
+    private PreparedQuery setTagInTransactionQuery;
+    private PreparedQuery selectTransactionForUpdateQuery;
+    private PreparedQuery stopTransactionQuery;
+
+    @PostConstruct
+    public void init() {
+        updateHeartbeatQuery = PreparedQuery.of(ctx,
+                DSL.update(CHARGE_BOX)
+                   .set(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, DSL.param("ts", CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP))
+                   .where(CHARGE_BOX.CHARGE_BOX_ID.eq(DSL.param("chargeBoxId", CHARGE_BOX.CHARGE_BOX_ID))));
+
+        insertConnectorStatusQuery = PreparedQuery.of(ctx,
+                DSL.insertInto(CONNECTOR_STATUS)
+                   .set(CONNECTOR_STATUS.CONNECTOR_PK, DSL.param("connectorPk", CONNECTOR_STATUS.CONNECTOR_PK))
+                   .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, DSL.param("ts", CONNECTOR_STATUS.STATUS_TIMESTAMP))
+                   .set(CONNECTOR_STATUS.STATUS, DSL.param("status", CONNECTOR_STATUS.STATUS))
+                   .set(CONNECTOR_STATUS.ERROR_CODE, DSL.param("errorCode", CONNECTOR_STATUS.ERROR_CODE))
+                   .set(CONNECTOR_STATUS.ERROR_INFO, DSL.param("errorInfo", CONNECTOR_STATUS.ERROR_INFO))
+                   .set(CONNECTOR_STATUS.VENDOR_ID, DSL.param("vendorId", CONNECTOR_STATUS.VENDOR_ID))
+                   .set(CONNECTOR_STATUS.VENDOR_ERROR_CODE,
+                           DSL.param("vendorErrorCode", CONNECTOR_STATUS.VENDOR_ERROR_CODE)));
+
+        insertConnectorStatusIfEnabledQuery = PreparedQuery.of(ctx, createInsertConnectorStatusIfEnabled());
+        upsertLatestConnectorStatusQuery = PreparedQuery.of(ctx, createUpsertLatestConnectorStatus());
+
+        lockTagQuery = PreparedQuery.of(ctx,
+                DSL.select(OCPP_TAG.ID_TAG)
+                   .from(OCPP_TAG)
+                   .where(OCPP_TAG.ID_TAG.eq(DSL.param("idTag", OCPP_TAG.ID_TAG)))
+                   .forUpdate());
+
+        setTagInTransactionQuery = PreparedQuery.of(ctx,
+                DSL.update(OCPP_TAG)
+                   .set(OCPP_TAG.IN_TRANSACTION, DSL.param("inTransaction", OCPP_TAG.IN_TRANSACTION))
+                   .where(OCPP_TAG.ID_TAG.eq(DSL.param("idTag", OCPP_TAG.ID_TAG))));
+
+        selectTransactionForUpdateQuery = PreparedQuery.of(ctx,
+                DSL.select(TRANSACTION.ID_TAG, TRANSACTION.CONNECTOR_PK, TRANSACTION.STOP_TIMESTAMP)
+                   .from(TRANSACTION)
+                   .where(TRANSACTION.TRANSACTION_PK.eq(DSL.param("transactionPk", TRANSACTION.TRANSACTION_PK)))
+                   .forUpdate());
+
+        stopTransactionQuery = PreparedQuery.of(ctx,
+                DSL.update(TRANSACTION)
+                   .set(TRANSACTION.STOP_TIMESTAMP, DSL.param("stopTimestamp", TRANSACTION.STOP_TIMESTAMP))
+                   .set(TRANSACTION.STOP_VALUE, DSL.param("stopValue", TRANSACTION.STOP_VALUE))
+                   .set(TRANSACTION.STOP_REASON, DSL.param("stopReason", TRANSACTION.STOP_REASON))
+                   .where(TRANSACTION.TRANSACTION_PK.eq(DSL.param("transactionPk", TRANSACTION.TRANSACTION_PK))));
+    }
 
     @Override
-    public void updateChargebox(UpdateChargeboxParams p) {
+    public boolean updateChargebox(UpdateChargeboxParams p) {
+        if (isUnchanged(chargeBoxMetadataCache.get(p.getChargeBoxId()), p)) {
+            return false;
+        }
+
         ctx.update(CHARGE_BOX)
            .set(CHARGE_BOX.OCPP_PROTOCOL, p.getOcppProtocol().getCompositeValue())
            .set(CHARGE_BOX.CHARGE_POINT_VENDOR, p.getVendor())
@@ -66,14 +168,25 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
            .set(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, p.getHeartbeatTimestamp())
            .where(CHARGE_BOX.CHARGE_BOX_ID.equal(p.getChargeBoxId()))
            .execute();
+
+        chargeBoxMetadataCache.invalidate(p.getChargeBoxId());
+        statisticsStore.heartbeat(p.getChargeBoxId(), p.getHeartbeatTimestamp());
+        return true;
     }
 
     @Override
     public void updateEndpointAddress(String chargeBoxIdentity, String endpointAddress) {
+        ChargeBoxMetadata metadata = chargeBoxMetadataCache.get(chargeBoxIdentity);
+        if (metadata != null && Objects.equals(metadata.getEndpointAddress(), endpointAddress)) {
+            return;
+        }
+
         ctx.update(CHARGE_BOX)
            .set(CHARGE_BOX.ENDPOINT_ADDRESS, endpointAddress)
            .where(CHARGE_BOX.CHARGE_BOX_ID.equal(chargeBoxIdentity))
            .execute();
+
+        chargeBoxMetadataCache.invalidate(chargeBoxIdentity);
     }
 
     @Override
@@ -94,186 +207,329 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
            .execute();
     }
 
+    /**
+     * One multi-row update for all charge boxes:
+     *
+     * UPDATE charge_box
+     * SET last_heartbeat_timestamp = CASE charge_box_id WHEN ? THEN ? WHEN ? THEN ? ... END
+     * WHERE charge_box_id IN (?, ?, ...)
+     */
     @Override
-    public void updateChargeboxHeartbeat(String chargeBoxIdentity, DateTime ts) {
+    public void updateChargeboxHeartbeats(Map<String, DateTime> heartbeats) {
+        if (heartbeats.isEmpty()) {
+            return;
+        }
+
+        // e.g. with write-behind disabled
+        if (heartbeats.size() == 1) {
+            Map.Entry<String, DateTime> entry = heartbeats.entrySet().iterator().next();
+            updateHeartbeatQuery.execute(ctx, entry.getValue(), entry.getKey());
+            return;
+        }
+
+        CaseWhenStep<String, DateTime> caseStep = null;
+        for (Map.Entry<String, DateTime> entry : heartbeats.entrySet()) {
+            Field<DateTime> ts = DSL.val(entry.getValue(), CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP);
+            if (caseStep == null) {
+                caseStep = DSL.choose(CHARGE_BOX.CHARGE_BOX_ID).when(entry.getKey(), ts);
+            } else {
+                caseStep = caseStep.when(entry.getKey(), ts);
+            }
+        }
+
         ctx.update(CHARGE_BOX)
-           .set(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, ts)
-           .where(CHARGE_BOX.CHARGE_BOX_ID.equal(chargeBoxIdentity))
+           .set(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, caseStep.otherwise(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP))
+           .where(CHARGE_BOX.CHARGE_BOX_ID.in(heartbeats.keySet()))
            .execute();
     }
 
     @Override
     public void insertConnectorStatus(InsertConnectorStatusParams p) {
+        // Step 1
+        int connectorPk = getOrInsertConnectorPk(p.getChargeBoxId(), p.getConnectorId());
+
+        boolean unchanged = latestConnectorStatusCache.isUnchanged(connectorPk, p.getTimestamp(), p.getStatus(),
+                p.getErrorCode(), p.getErrorInfo(), p.getVendorId(), p.getVendorErrorCode());
+
+        if (unchanged) {
+            log.debug("Skipped the unchanged connector status for {}/{}.", p.getChargeBoxId(), p.getConnectorId());
+            statisticsStore.connectorStatus(p.getChargeBoxId(), p.getConnectorId(), p.getTimestamp(), p.getStatus());
+            return;
+        }
+
         ctx.transaction(configuration -> {
             DSLContext ctx = DSL.using(configuration);
 
-            // Step 1
-            insertIgnoreConnector(ctx, p.getChargeBoxId(), p.getConnectorId());
-
             // -------------------------------------------------------------------------
             // Step 2: We store a log of connector statuses
             // -------------------------------------------------------------------------
 
-            ctx.insertInto(CONNECTOR_STATUS)
-               .set(CONNECTOR_STATUS.CONNECTOR_PK, DSL.select(CONNECTOR.CONNECTOR_PK)
-                                                      .from(CONNECTOR)
-                                                      .where(CONNECTOR.CHARGE_BOX_ID.equal(p.getChargeBoxId()))
-                                                      .and(CONNECTOR.CONNECTOR_ID.equal(p.getConnectorId()))
-               )
-               .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, p.getTimestamp())
-               .set(CONNECTOR_STATUS.STATUS, p.getStatus())
-               .set(CONNECTOR_STATUS.ERROR_CODE, p.getErrorCode())
-               .set(CONNECTOR_STATUS.ERROR_INFO, p.getErrorInfo())
-               .set(CONNECTOR_STATUS.VENDOR_ID, p.getVendorId())
-               .set(CONNECTOR_STATUS.VENDOR_ERROR_CODE, p.getVendorErrorCode())
-               .execute();
+            insertConnectorStatusQuery.execute(ctx, connectorPk, p.getTimestamp(), p.getStatus(), p.getErrorCode(),
+                    p.getErrorInfo(), p.getVendorId(), p.getVendorErrorCode());
+
+            // -------------------------------------------------------------------------
+            // Step 3: ... and the latest status of each connector
+            // -------------------------------------------------------------------------
+
+            updateLatestConnectorStatus(ctx, connectorPk, p.getTimestamp(), p.getStatus(), p.getErrorCode());
 
             log.debug("Stored a new connector status for {}/{}.", p.getChargeBoxId(), p.getConnectorId());
         });
+
+        latestConnectorStatusCache.put(connectorPk, p.getTimestamp(), p.getStatus(), p.getErrorCode(),
+                p.getErrorInfo(), p.getVendorId(), p.getVendorErrorCode());
+
+        statisticsStore.connectorStatus(p.getChargeBoxId(), p.getConnectorId(), p.getTimestamp(), p.getStatus());
     }
 
     @Override
-    public void insertMeterValues(String chargeBoxIdentity, List<MeterValue> list, int connectorId, Integer transactionId) {
-        ctx.transaction(configuration -> {
+    public void insertMeterValues(String chargeBoxIdentity, List<MeterValue> list, int transactionId) {
+        int connectorPk = ctx.transactionResult(configuration -> {
             DSLContext ctx = DSL.using(configuration);
 
-            insertIgnoreConnector(ctx, chargeBoxIdentity, connectorId);
-            int connectorPk = getConnectorPkFromConnector(ctx, chargeBoxIdentity, connectorId);
-            batchInsertMeterValues(ctx, list, connectorPk, transactionId);
+            // First, get connector primary key from transaction table
+            int pk = ctx.select(TRANSACTION.CONNECTOR_PK)
+                        .from(TRANSACTION)
+                        .where(TRANSACTION.TRANSACTION_PK.equal(transactionId))
+                        .fetchOne()
+                        .value1();
+
+            batchInsertMeterValues(ctx, list, pk, transactionId);
+            return pk;
         });
+
+        meterValueRollupStore.add(connectorPk, list);
     }
 
     @Override
-    public void insertMeterValues(String chargeBoxIdentity, List<MeterValue> list, int transactionId) {
+    public void insertMeterValues(List<InsertMeterValuesParams> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+
+        Table<String, Integer, Integer> connectorPks = getOrInsertConnectorPks(list);
+
         ctx.transaction(configuration -> {
             DSLContext ctx = DSL.using(configuration);
 
-            // First, get connector primary key from transaction table
-            int connectorPk = ctx.select(TRANSACTION.CONNECTOR_PK)
-                                 .from(TRANSACTION)
-                                 .where(TRANSACTION.TRANSACTION_PK.equal(transactionId))
-                                 .fetchOne()
-                                 .value1();
+            InsertSetMoreStep<ConnectorMeterValueRecord> insert = null;
+            Map<Integer, List<TransactionDetails.MeterValues>> blobSamples = new LinkedHashMap<>();
+            Map<Integer, Integer> blobConnectorPks = new HashMap<>();
+
+            for (InsertMeterValuesParams p : list) {
+                int connectorPk = connectorPks.get(p.getChargeBoxId(), p.getConnectorId());
+
+                if (meterValueBlob && p.getTransactionId() != null) {
+                    // one chunk per transaction
+                    blobSamples.computeIfAbsent(p.getTransactionId(), k -> new ArrayList<>())
+                               .addAll(toSamples(p.getMeterValues()));
+                    blobConnectorPks.put(p.getTransactionId(), connectorPk);
+                    continue;
+                }
+
+                List<ConnectorMeterValueRecord> records =
+                        toRecords(ctx, p.getMeterValues(), connectorPk, p.getTransactionId());
+
+                for (ConnectorMeterValueRecord r : records) {
+                    if (insert == null) {
+                        insert = ctx.insertInto(CONNECTOR_METER_VALUE).set(r);
+                    } else {
+                        insert = insert.newRecord().set(r);
+                    }
+                }
+            }
+
+            if (insert != null) {
+                insert.execute();
+            }
 
-            batchInsertMeterValues(ctx, list, connectorPk, transactionId);
+            List<TransactionMeterValueBlobRecord> blobs = new ArrayList<>(blobSamples.size());
+            blobSamples.forEach((transactionPk, samples) -> blobs.add(
+                    MeterValueBlobCodec.toRecord(ctx, transactionPk, blobConnectorPks.get(transactionPk), samples)));
+            MeterValueBlobCodec.append(ctx, blobs);
         });
+
+        for (InsertMeterValuesParams p : list) {
+            meterValueRollupStore.add(connectorPks.get(p.getChargeBoxId(), p.getConnectorId()), p.getMeterValues());
+        }
+    }
+
+    /**
+     * A failure is only logged, since the chunks are read the same way when they are not merged.
+     */
+    @Override
+    public void compactMeterValues(int transactionId) {
+        if (!meterValueBlob) {
+            return;
+        }
+
+        try {
+            ctx.transaction(configuration -> MeterValueBlobCodec.compact(DSL.using(configuration), transactionId));
+        } catch (Exception e) {
+            log.warn("Failed to compact the meter values of transaction {}", transactionId, e);
+        }
     }
 
+    /**
+     * All statements run in one database transaction, such that a failure does not leave a half-started transaction
+     * behind (e.g. a transaction row with an ocpp_tag that is not in_transaction). The duplicate detection is done by
+     * the unique key transaction_start_uq, and not with a select under an application lock.
+     *
+     * The connector and an unknown idTag are inserted before (auto-committed). The transaction then locks the existing
+     * row of the idTag first. Otherwise, the foreign key check of the transaction takes a shared lock on it, and
+     * concurrent starts with the same idTag deadlock, when they upgrade it for the update of in_transaction. Locking a
+     * missing row would take a gap lock instead, and concurrent inserts into the same gap deadlock as well.
+     */
     @Override
     public Integer insertTransaction(InsertTransactionParams p) {
 
-        SelectConditionStep<Record1<Integer>> connectorPkQuery =
-                DSL.select(CONNECTOR.CONNECTOR_PK)
-                   .from(CONNECTOR)
-                   .where(CONNECTOR.CHARGE_BOX_ID.equal(p.getChargeBoxId()))
-                   .and(CONNECTOR.CONNECTOR_ID.equal(p.getConnectorId()));
-
         // -------------------------------------------------------------------------
-        // Step 1: Insert connector and idTag, if they are new to us
+        // Step 1: Insert connector, if it is new to us (auto-committed, see getOrInsertConnectorPk)
         // -------------------------------------------------------------------------
 
-        insertIgnoreConnector(ctx, p.getChargeBoxId(), p.getConnectorId());
+        int connectorPk = getOrInsertConnectorPk(p.getChargeBoxId(), p.getConnectorId());
+        boolean insertStatus = isInsertConnectorStatusAfterTransactionMsg(p.getChargeBoxId());
+
+        // -------------------------------------------------------------------------
+        // Step 2: Insert idTag, if it is new to us (auto-committed)
+        // -------------------------------------------------------------------------
 
         // it is important to insert idTag before transaction, since the transaction table references it
         boolean unknownTagInserted = insertIgnoreIdTag(ctx, p);
 
-        // -------------------------------------------------------------------------
-        // Step 2: Insert transaction if it does not exist already
-        // -------------------------------------------------------------------------
+        TransactionDataHolder data = ctx.transactionResult(configuration -> {
+            DSLContext ctx = DSL.using(configuration);
 
-        TransactionDataHolder data = insertIgnoreTransaction(p, connectorPkQuery);
-        Integer transactionId = data.transactionId;
+            lockTagQuery.fetchOneInto(ctx, OCPP_TAG, p.getIdTag());
 
-        if (data.existsAlready) {
-            return transactionId;
-        }
+            // -------------------------------------------------------------------------
+            // Step 3: Insert transaction if it does not exist already
+            // -------------------------------------------------------------------------
 
-        if (unknownTagInserted) {
-            log.warn("The transaction '{}' contains an unknown idTag '{}' which was inserted into DB "
-                    + "to prevent information loss and has been blocked", transactionId, p.getIdTag());
-        }
+            TransactionDataHolder holder = insertIgnoreTransaction(ctx, p, connectorPk);
+            Integer transactionId = holder.transactionId;
 
-        // -------------------------------------------------------------------------
-        // Step 3: Update OCPP tag (in_transaction=true)
-        // -------------------------------------------------------------------------
+            if (holder.existsAlready) {
+                return holder;
+            }
 
-        int count = ctx.update(OCPP_TAG)
-                       .set(OCPP_TAG.IN_TRANSACTION, true)
-                       .where(OCPP_TAG.ID_TAG.eq(p.getIdTag()))
-                       .execute();
+            if (unknownTagInserted) {
+                log.warn("The transaction '{}' contains an unknown idTag '{}' which was inserted into DB "
+                        + "to prevent information loss and has been blocked", transactionId, p.getIdTag());
+            }
 
-        if (count == 0) {
-            log.warn("Failed to set in_transaction=true of OCPP tag of STARTED transaction {}", transactionId);
-        }
+            // -------------------------------------------------------------------------
+            // Step 4: Update OCPP tag (in_transaction=true)
+            // -------------------------------------------------------------------------
 
-        // -------------------------------------------------------------------------
-        // Step 4 for OCPP >= 1.5: A startTransaction may be related to a reservation
-        // -------------------------------------------------------------------------
+            int count = setTagInTransactionQuery.execute(ctx, true, p.getIdTag());
 
-        if (p.isSetReservationId()) {
-            reservationRepository.used(connectorPkQuery, p.getIdTag(), p.getReservationId(), transactionId);
-        }
+            if (count == 0) {
+                log.warn("Failed to set in_transaction=true of OCPP tag of STARTED transaction {}", transactionId);
+            }
 
-        // -------------------------------------------------------------------------
-        // Step 5: Set connector status
-        // -------------------------------------------------------------------------
+            // -------------------------------------------------------------------------
+            // Step 5 for OCPP >= 1.5: A startTransaction may be related to a reservation
+            // -------------------------------------------------------------------------
 
-        if (shouldInsertConnectorStatusAfterTransactionMsg(p.getChargeBoxId())) {
-            insertConnectorStatus(ctx, connectorPkQuery, p.getStartTimestamp(), p.getStatusUpdate());
+            if (p.isSetReservationId()) {
+                reservationRepository.used(ctx, connectorPk, p.getIdTag(), p.getReservationId(), transactionId);
+            }
+
+            // -------------------------------------------------------------------------
+            // Step 6: Set connector status
+            // -------------------------------------------------------------------------
+
+            if (insertStatus) {
+                insertConnectorStatus(ctx, p.getChargeBoxId(), connectorPk, p.getStartTimestamp(),
+                        p.getStatusUpdate());
+            }
+
+            return holder;
+        });
+
+        // after the commit, such that a concurrent load cannot put the old state into the cache again. the registry
+        // first, since the authorization cache loads the charge boxes of the tag from it
+        if (!data.existsAlready) {
+            activeTransactionRegistry.started(ActiveTransaction.builder()
+                                                               .transactionId(data.transactionId)
+                                                               .ocppIdTag(p.getIdTag())
+                                                               .chargeBoxId(p.getChargeBoxId())
+                                                               .connectorId(p.getConnectorId())
+                                                               .build());
+            authorizationCache.invalidate(p.getIdTag());
+            latestConnectorStatusCache.invalidate(connectorPk);
+            if (p.isSetReservationId()) {
+                statisticsStore.reservationEnded(p.getReservationId());
+            }
         }
 
-        return transactionId;
+        return data.transactionId;
     }
 
     @Override
     public void updateTransaction(UpdateTransactionParams p) {
+        boolean insertStatus = isInsertConnectorStatusAfterTransactionMsg(p.getChargeBoxId());
 
-        // -------------------------------------------------------------------------
-        // Step 1: Update transaction table
-        // -------------------------------------------------------------------------
+        TransactionStopHolder data = ctx.transactionResult(configuration -> {
+            DSLContext ctx = DSL.using(configuration);
 
-        int transactionUpdateCount = ctx.update(TRANSACTION)
-                                        .set(TRANSACTION.STOP_TIMESTAMP, p.getStopTimestamp())
-                                        .set(TRANSACTION.STOP_VALUE, p.getStopMeterValue())
-                                        .set(TRANSACTION.STOP_REASON, p.getStopReason())
-                                        .where(TRANSACTION.TRANSACTION_PK.equal(p.getTransactionId()))
-                                        .execute();
+            // -------------------------------------------------------------------------
+            // Step 1: Update transaction table
+            // -------------------------------------------------------------------------
 
-        // Actually unnecessary, because JOOQ will throw an exception, if something goes wrong
-        if (transactionUpdateCount == 0) {
-            throw new SteveException("Failed to UPDATE transaction in database");
-        }
+            // the row is locked, such that only one of concurrent stops of the same transaction sees it as active.
+            // the idTag is selected separately (and not as a subquery), since its cache entry must be invalidated
+            TransactionRecord old = selectTransactionForUpdateQuery.fetchOneInto(ctx, TRANSACTION,
+                    p.getTransactionId());
 
-        // -------------------------------------------------------------------------
-        // Step 2: Update OCPP tag (in_transaction=false)
-        // -------------------------------------------------------------------------
+            if (old == null) {
+                throw new SteveException("Failed to UPDATE transaction in database");
+            }
 
-        SelectConditionStep<Record1<String>> idTagSelect =
-                DSL.select(TRANSACTION.ID_TAG)
-                   .from(TRANSACTION)
-                   .where(TRANSACTION.TRANSACTION_PK.equal(p.getTransactionId()));
+            String tag = old.getIdTag();
 
-        int ocppTagUpdateCount = ctx.update(OCPP_TAG)
-                                    .set(OCPP_TAG.IN_TRANSACTION, false)
-                                    .where(OCPP_TAG.ID_TAG.eq(idTagSelect))
-                                    .execute();
+            int transactionUpdateCount = stopTransactionQuery.execute(ctx, p.getStopTimestamp(),
+                    p.getStopMeterValue(), p.getStopReason(), p.getTransactionId());
 
-        if (ocppTagUpdateCount == 0) {
-            log.warn("Failed to set in_transaction=false of OCPP tag of STOPPED transaction {}", p.getTransactionId());
-        }
+            // Actually unnecessary, because JOOQ will throw an exception, if something goes wrong
+            if (transactionUpdateCount == 0) {
+                throw new SteveException("Failed to UPDATE transaction in database");
+            }
 
-        // -------------------------------------------------------------------------
-        // Step 3: Set connector status back
-        // -------------------------------------------------------------------------
+            // -------------------------------------------------------------------------
+            // Step 2: Update OCPP tag (in_transaction=false)
+            // -------------------------------------------------------------------------
+
+            int ocppTagUpdateCount = setTagInTransactionQuery.execute(ctx, false, tag);
+
+            if (ocppTagUpdateCount == 0) {
+                log.warn("Failed to set in_transaction=false of OCPP tag of STOPPED transaction {}",
+                        p.getTransactionId());
+            }
+
+            // -------------------------------------------------------------------------
+            // Step 3: Set connector status back
+            // -------------------------------------------------------------------------
+
+            if (insertStatus) {
+                insertConnectorStatus(ctx, p.getChargeBoxId(), old.getConnectorPk(), p.getStopTimestamp(),
+                        p.getStatusUpdate());
+            }
+
+            return new TransactionStopHolder(tag, old.getConnectorPk(), old.getStopTimestamp() == null);
+        });
 
-        if (shouldInsertConnectorStatusAfterTransactionMsg(p.getChargeBoxId())) {
-            SelectConditionStep<Record1<Integer>> connectorPkQuery =
-                    DSL.select(TRANSACTION.CONNECTOR_PK)
-                       .from(TRANSACTION)
-                       .where(TRANSACTION.TRANSACTION_PK.equal(p.getTransactionId()));
+        // after the commit, such that a concurrent load cannot put the old state into the cache again. the registry
+        // first, since the authorization cache loads the charge boxes of the tag from it
+        if (data.wasActive) {
+            activeTransactionRegistry.stopped(p.getTransactionId());
+        }
 
-            insertConnectorStatus(ctx, connectorPkQuery, p.getStopTimestamp(), p.getStatusUpdate());
+        if (data.idTag != null) {
+            authorizationCache.invalidate(data.idTag);
         }
+        latestConnectorStatusCache.invalidate(data.connectorPk);
     }
 
     // -------------------------------------------------------------------------
@@ -286,46 +542,49 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         final Integer transactionId;
     }
 
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class TransactionStopHolder {
+        final String idTag;
+        final int connectorPk;
+        final boolean wasActive;
+    }
+
     /**
      * Use case: If the station sends identical StartTransaction messages multiple times (e.g. due to connection
      * problems the response of StartTransaction could not be delivered and station tries again later), we do not want
      * to insert this into database multiple times.
+     *
+     * The insert is ignored, if it violates the unique key transaction_start_uq. Only then, the existing transaction
+     * is selected.
      */
-    private TransactionDataHolder insertIgnoreTransaction(InsertTransactionParams p,
-                                                          SelectConditionStep<Record1<Integer>> connectorPkQuery) {
-        Lock l = transactionTableLocks.get(p.getChargeBoxId());
-        l.lock();
-        try {
-            Record1<Integer> r = ctx.select(TRANSACTION.TRANSACTION_PK)
-                                    .from(TRANSACTION)
-                                    .where(TRANSACTION.CONNECTOR_PK.eq(connectorPkQuery))
-                                    .and(TRANSACTION.ID_TAG.eq(p.getIdTag()))
-                                    .and(TRANSACTION.START_TIMESTAMP.eq(p.getStartTimestamp()))
-                                    .and(TRANSACTION.START_VALUE.eq(p.getStartMeterValue()))
-                                    .fetchOne();
-
-            if (r != null) {
-                return new TransactionDataHolder(true, r.value1());
-            }
-
-            Integer transactionId = ctx.insertInto(TRANSACTION)
-                                       .set(TRANSACTION.CONNECTOR_PK, connectorPkQuery)
-                                       .set(TRANSACTION.ID_TAG, p.getIdTag())
-                                       .set(TRANSACTION.START_TIMESTAMP, p.getStartTimestamp())
-                                       .set(TRANSACTION.START_VALUE, p.getStartMeterValue())
-                                       .returning(TRANSACTION.TRANSACTION_PK)
-                                       .fetchOne()
-                                       .getTransactionPk();
+    private TransactionDataHolder insertIgnoreTransaction(DSLContext ctx, InsertTransactionParams p, int connectorPk) {
+        TransactionRecord inserted = ctx.insertInto(TRANSACTION)
+                                        .set(TRANSACTION.CONNECTOR_PK, connectorPk)
+                                        .set(TRANSACTION.ID_TAG, p.getIdTag())
+                                        .set(TRANSACTION.START_TIMESTAMP, p.getStartTimestamp())
+                                        .set(TRANSACTION.START_VALUE, p.getStartMeterValue())
+                                        .onDuplicateKeyIgnore()
+                                        .returning(TRANSACTION.TRANSACTION_PK)
+                                        .fetchOne();
+
+        if (inserted != null && inserted.getTransactionPk() != null) {
+            return new TransactionDataHolder(false, inserted.getTransactionPk());
+        }
 
-            // Actually unnecessary, because JOOQ will throw an exception, if something goes wrong
-            if (transactionId == null) {
-                throw new SteveException("Failed to INSERT transaction into database");
-            }
+        Record1<Integer> r = ctx.select(TRANSACTION.TRANSACTION_PK)
+                                .from(TRANSACTION)
+                                .where(TRANSACTION.CONNECTOR_PK.eq(connectorPk))
+                                .and(TRANSACTION.ID_TAG.eq(p.getIdTag()))
+                                .and(TRANSACTION.START_TIMESTAMP.eq(p.getStartTimestamp()))
+                                .and(TRANSACTION.START_VALUE.eq(p.getStartMeterValue()))
+                                .fetchOne();
 
-            return new TransactionDataHolder(false, transactionId);
-        } finally {
-            l.unlock();
+        // IGNORE also turns other errors into warnings. In that case, there is no duplicate to be found.
+        if (r == null) {
+            throw new SteveException("Failed to INSERT transaction into database");
         }
+
+        return new TransactionDataHolder(true, r.value1());
     }
 
     /**
@@ -336,17 +595,116 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
      * If the station sends a notification, we will have a more recent timestamp, and therefore the status of the
      * notification will be used as current. Or, if this transaction data was sent to us for a failed push from the past
      * and we have a "more recent" status, it will still be the current status.
+     *
+     * This is only done for charge boxes with insert_connector_status_after_transaction_msg. The callers check the
+     * cached flag before the transaction, since a cache miss would take a second connection from the pool while the
+     * transaction holds one (under load, all connections of the pool end up waiting for each other). The flag is
+     * checked again as part of the statements (INSERT ... SELECT ... WHERE EXISTS), since the cache might be stale.
+     *
+     * A status that repeats the last stored one is skipped (see LatestConnectorStatusCache). Since it is not known here
+     * whether the status is stored and committed, the callers invalidate the cached status after the commit.
      */
     private void insertConnectorStatus(DSLContext ctx,
-                                       SelectConditionStep<Record1<Integer>> connectorPkQuery,
+                                       String chargeBoxId,
+                                       int connectorPk,
                                        DateTime timestamp,
                                        TransactionStatusUpdate statusUpdate) {
-        ctx.insertInto(CONNECTOR_STATUS)
-           .set(CONNECTOR_STATUS.CONNECTOR_PK, connectorPkQuery)
-           .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, timestamp)
-           .set(CONNECTOR_STATUS.STATUS, statusUpdate.getStatus())
-           .set(CONNECTOR_STATUS.ERROR_CODE, statusUpdate.getErrorCode())
-           .execute();
+        boolean unchanged = latestConnectorStatusCache.isUnchanged(connectorPk, timestamp,
+                statusUpdate.getStatus(), statusUpdate.getErrorCode(), null, null, null);
+
+        if (unchanged) {
+            return;
+        }
+
+        int count = insertConnectorStatusIfEnabledQuery.execute(ctx, connectorPk, timestamp,
+                statusUpdate.getStatus(), statusUpdate.getErrorCode(), chargeBoxId);
+
+        if (count > 0) {
+            updateLatestConnectorStatus(ctx, connectorPk, timestamp,
+                    statusUpdate.getStatus(), statusUpdate.getErrorCode());
+        }
+    }
+
+    private boolean isInsertConnectorStatusAfterTransactionMsg(String chargeBoxId) {
+        ChargeBoxMetadata metadata = chargeBoxMetadataCache.get(chargeBoxId);
+        return metadata != null && metadata.isInsertConnectorStatusAfterTransactionMsg();
+    }
+
+    /**
+     * The heartbeat timestamp is not compared, since it is written anyway (see ChargeBoxHeartbeatStore)
+     */
+    private static boolean isUnchanged(ChargeBoxMetadata m, UpdateChargeboxParams p) {
+        return m != null
+                && Objects.equals(m.getOcppProtocol(), p.getOcppProtocol().getCompositeValue())
+                && Objects.equals(m.getVendor(), p.getVendor())
+                && Objects.equals(m.getModel(), p.getModel())
+                && Objects.equals(m.getPointSerial(), p.getPointSerial())
+                && Objects.equals(m.getBoxSerial(), p.getBoxSerial())
+                && Objects.equals(m.getFwVersion(), p.getFwVersion())
+                && Objects.equals(m.getIccid(), p.getIccid())
+                && Objects.equals(m.getImsi(), p.getImsi())
+                && Objects.equals(m.getMeterType(), p.getMeterType())
+                && Objects.equals(m.getMeterSerial(), p.getMeterSerial());
+    }
+
+    /**
+     * connector_status is the history, whereas connector_status_latest holds only the most recent status of each
+     * connector, such that readers do not have to find it in the history. A status with an older timestamp than the
+     * current one (e.g. a delayed transaction message) does not overwrite it.
+     */
+    private void updateLatestConnectorStatus(DSLContext ctx, int connectorPk,
+                                             DateTime timestamp, String status, String errorCode) {
+        upsertLatestConnectorStatusQuery.execute(ctx, connectorPk, timestamp, status, errorCode);
+    }
+
+    /**
+     * INSERT INTO connector_status (...) SELECT ... WHERE EXISTS (charge box with the flag)
+     */
+    private static Query createInsertConnectorStatusIfEnabled() {
+        Condition isEnabled = DSL.exists(
+                DSL.selectOne()
+                   .from(CHARGE_BOX)
+                   .where(CHARGE_BOX.CHARGE_BOX_ID.eq(DSL.param("chargeBoxId", CHARGE_BOX.CHARGE_BOX_ID)))
+                   .and(CHARGE_BOX.INSERT_CONNECTOR_STATUS_AFTER_TRANSACTION_MSG.eq(DSL.inline(true)))
+        );
+
+        return DSL.insertInto(CONNECTOR_STATUS,
+                          CONNECTOR_STATUS.CONNECTOR_PK,
+                          CONNECTOR_STATUS.STATUS_TIMESTAMP,
+                          CONNECTOR_STATUS.STATUS,
+                          CONNECTOR_STATUS.ERROR_CODE)
+                  .select(DSL.select(DSL.param("connectorPk", CONNECTOR_STATUS.CONNECTOR_PK),
+                                     DSL.param("ts", CONNECTOR_STATUS.STATUS_TIMESTAMP),
+                                     DSL.param("status", CONNECTOR_STATUS.STATUS),
+                                     DSL.param("errorCode", CONNECTOR_STATUS.ERROR_CODE))
+                             .where(isEnabled));
+    }
+
+    /**
+     * The timestamp must be set last, since MySQL evaluates the assignments of the update from left to right, and
+     * the conditions of the others must see the old timestamp.
+     */
+    private static Query createUpsertLatestConnectorStatus() {
+        Field<Integer> connectorPk = DSL.param("connectorPk", CONNECTOR_STATUS_LATEST.CONNECTOR_PK);
+        Field<DateTime> timestamp = DSL.param("ts", CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP);
+        Field<String> status = DSL.param("status", CONNECTOR_STATUS_LATEST.STATUS);
+        Field<String> errorCode = DSL.param("errorCode", CONNECTOR_STATUS_LATEST.ERROR_CODE);
+
+        Condition isNewer = CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.isNull()
+                                .or(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.le(timestamp));
+
+        return DSL.insertInto(CONNECTOR_STATUS_LATEST)
+                  .set(CONNECTOR_STATUS_LATEST.CONNECTOR_PK, connectorPk)
+                  .set(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP, timestamp)
+                  .set(CONNECTOR_STATUS_LATEST.STATUS, status)
+                  .set(CONNECTOR_STATUS_LATEST.ERROR_CODE, errorCode)
+                  .onDuplicateKeyUpdate()
+                  .set(CONNECTOR_STATUS_LATEST.STATUS,
+                          DSL.when(isNewer, status).otherwise(CONNECTOR_STATUS_LATEST.STATUS))
+                  .set(CONNECTOR_STATUS_LATEST.ERROR_CODE,
+                          DSL.when(isNewer, errorCode).otherwise(CONNECTOR_STATUS_LATEST.ERROR_CODE))
+                  .set(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP,
+                          DSL.when(isNewer, timestamp).otherwise(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP));
     }
 
     /**
@@ -383,14 +741,47 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         return count == 1;
     }
 
-    private boolean shouldInsertConnectorStatusAfterTransactionMsg(String chargeBoxId) {
-        Record1<Integer> r = ctx.selectOne()
-                                .from(CHARGE_BOX)
-                                .where(CHARGE_BOX.CHARGE_BOX_ID.eq(chargeBoxId))
-                                .and(CHARGE_BOX.INSERT_CONNECTOR_STATUS_AFTER_TRANSACTION_MSG.isTrue())
-                                .fetchOne();
+    /**
+     * Resolves the primary key of the connector with the cache, and inserts the connector if it was not received
+     * before. Runs outside of the transaction of the caller with its own (auto-committed) statements, such that only
+     * primary keys of committed rows end up in the cache.
+     */
+    private int getOrInsertConnectorPk(String chargeBoxIdentity, int connectorId) {
+        Integer connectorPk = connectorPkCache.get(chargeBoxIdentity, connectorId);
+        if (connectorPk == null) {
+            insertIgnoreConnector(ctx, chargeBoxIdentity, connectorId);
+            connectorPk = getConnectorPkFromConnector(ctx, chargeBoxIdentity, connectorId);
+            connectorPkCache.put(chargeBoxIdentity, connectorId, connectorPk);
+        }
+        return connectorPk;
+    }
 
-        return (r != null) && (r.value1() == 1);
+    /**
+     * Multi-row variant of getOrInsertConnectorPk(..). The connectors that are not in the cache are resolved with
+     * two statements in total.
+     *
+     * @return (chargeBoxId, connectorId) -> connectorPk
+     */
+    private Table<String, Integer, Integer> getOrInsertConnectorPks(List<InsertMeterValuesParams> list) {
+        Table<String, Integer, Integer> connectorPks = HashBasedTable.create();
+        List<InsertMeterValuesParams> misses = new ArrayList<>();
+
+        for (InsertMeterValuesParams p : list) {
+            Integer connectorPk = connectorPkCache.get(p.getChargeBoxId(), p.getConnectorId());
+            if (connectorPk == null) {
+                misses.add(p);
+            } else {
+                connectorPks.put(p.getChargeBoxId(), p.getConnectorId(), connectorPk);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            for (Table.Cell<String, Integer, Integer> cell : insertIgnoreConnectors(ctx, misses).cellSet()) {
+                connectorPkCache.put(cell.getRowKey(), cell.getColumnKey(), cell.getValue());
+                connectorPks.put(cell.getRowKey(), cell.getColumnKey(), cell.getValue());
+            }
+        }
+        return connectorPks;
     }
 
     private int getConnectorPkFromConnector(DSLContext ctx, String chargeBoxIdentity, int connectorId) {
@@ -402,25 +793,93 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
                   .value1();
     }
 
+    /**
+     * Multi-row variant of insertIgnoreConnector(..) that also returns the primary keys of the connectors.
+     *
+     * @return (chargeBoxId, connectorId) -> connectorPk
+     */
+    private Table<String, Integer, Integer> insertIgnoreConnectors(DSLContext ctx, List<InsertMeterValuesParams> list) {
+        Table<String, Integer, Boolean> distinct = HashBasedTable.create();
+        for (InsertMeterValuesParams p : list) {
+            distinct.put(p.getChargeBoxId(), p.getConnectorId(), Boolean.TRUE);
+        }
+
+        List<Row2<String, Integer>> rows = new ArrayList<>(distinct.size());
+        InsertValuesStep2<ConnectorRecord, String, Integer> insert =
+                ctx.insertInto(CONNECTOR, CONNECTOR.CHARGE_BOX_ID, CONNECTOR.CONNECTOR_ID);
+
+        for (Table.Cell<String, Integer, Boolean> cell : distinct.cellSet()) {
+            rows.add(DSL.row(cell.getRowKey(), cell.getColumnKey()));
+            insert = insert.values(cell.getRowKey(), cell.getColumnKey());
+        }
+
+        int count = insert.onDuplicateKeyIgnore().execute();
+        if (count > 0) {
+            log.info("{} new connector(s) inserted into DB.", count);
+        }
+
+        Table<String, Integer, Integer> connectorPks = HashBasedTable.create();
+        ctx.select(CONNECTOR.CHARGE_BOX_ID, CONNECTOR.CONNECTOR_ID, CONNECTOR.CONNECTOR_PK)
+           .from(CONNECTOR)
+           .where(DSL.row(CONNECTOR.CHARGE_BOX_ID, CONNECTOR.CONNECTOR_ID).in(rows))
+           .fetch()
+           .forEach(r -> connectorPks.put(r.value1(), r.value2(), r.value3()));
+        return connectorPks;
+    }
+
     private void batchInsertMeterValues(DSLContext ctx, List<MeterValue> list, int connectorPk, Integer transactionId) {
-        List<ConnectorMeterValueRecord> batch =
-                list.stream()
-                    .flatMap(t -> t.getSampledValue()
-                                   .stream()
-                                   .map(k -> ctx.newRecord(CONNECTOR_METER_VALUE)
-                                                .setConnectorPk(connectorPk)
-                                                .setTransactionPk(transactionId)
-                                                .setValueTimestamp(t.getTimestamp())
-                                                .setValue(k.getValue())
-                                                // The following are optional fields!
-                                                .setReadingContext(k.isSetContext() ? k.getContext().value() : null)
-                                                .setFormat(k.isSetFormat() ? k.getFormat().value() : null)
-                                                .setMeasurand(k.isSetMeasurand() ? k.getMeasurand().value() : null)
-                                                .setLocation(k.isSetLocation() ? k.getLocation().value() : null)
-                                                .setUnit(k.isSetUnit() ? k.getUnit().value() : null)
-                                                .setPhase(k.isSetPhase() ? k.getPhase().value() : null)))
-                    .collect(Collectors.toList());
-
-        ctx.batchInsert(batch).execute();
+        if (meterValueBlob && transactionId != null) {
+            TransactionMeterValueBlobRecord blob =
+                    MeterValueBlobCodec.toRecord(ctx, transactionId, connectorPk, toSamples(list));
+            MeterValueBlobCodec.append(ctx, Collections.singletonList(blob));
+        } else {
+            ctx.batchInsert(toRecords(ctx, list, connectorPk, transactionId)).execute();
+        }
+    }
+
+    private static List<TransactionDetails.MeterValues> toSamples(List<MeterValue> list) {
+        return list.stream()
+                   .flatMap(t -> t.getSampledValue()
+                                  .stream()
+                                  .map(k -> toSample(t.getTimestamp(), k)))
+                   .collect(Collectors.toList());
+    }
+
+    private static TransactionDetails.MeterValues toSample(DateTime timestamp, SampledValue k) {
+        return TransactionDetails.MeterValues.builder()
+                                             .valueTimestamp(timestamp)
+                                             .value(k.getValue())
+                                             // The following are optional fields!
+                                             .readingContext(k.isSetContext() ? k.getContext().value() : null)
+                                             .format(k.isSetFormat() ? k.getFormat().value() : null)
+                                             .measurand(k.isSetMeasurand() ? k.getMeasurand().value() : null)
+                                             .location(k.isSetLocation() ? k.getLocation().value() : null)
+                                             .unit(k.isSetUnit() ? k.getUnit().value() : null)
+                                             .phase(k.isSetPhase() ? k.getPhase().value() : null)
+                                             .build();
+    }
+
+    private List<ConnectorMeterValueRecord> toRecords(DSLContext ctx, List<MeterValue> list, int connectorPk,
+                                                      Integer transactionId) {
+        return list.stream()
+                   .flatMap(t -> t.getSampledValue()
+                                  .stream()
+                                  .map(k -> toRecord(ctx, connectorPk, transactionId, toSample(t.getTimestamp(), k))))
+                   .collect(Collectors.toList());
+    }
+
+    private ConnectorMeterValueRecord toRecord(DSLContext ctx, int connectorPk, Integer transactionId,
+                                               TransactionDetails.MeterValues sample) {
+        return ctx.newRecord(CONNECTOR_METER_VALUE)
+                  .setConnectorPk(connectorPk)
+                  .setTransactionPk(transactionId)
+                  .setValueTimestamp(sample.getValueTimestamp())
+                  .setValue(sample.getValue())
+                  .setReadingContextPk(meterValueDictionary.getCode(sample.getReadingContext()))
+                  .setFormatPk(meterValueDictionary.getCode(sample.getFormat()))
+                  .setMeasurandPk(meterValueDictionary.getCode(sample.getMeasurand()))
+                  .setLocationPk(meterValueDictionary.getCode(sample.getLocation()))
+                  .setUnitPk(meterValueDictionary.getCode(sample.getUnit()))
+                  .setPhasePk(meterValueDictionary.getCode(sample.getPhase()));
     }
 }
@@ -1,8 +1,12 @@
 package de.rwth.idsg.steve.repository.impl;
 
 import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.repository.ActiveTransactionRegistry;
+import de.rwth.idsg.steve.repository.AuthorizationCache;
 import de.rwth.idsg.steve.repository.OcppTagRepository;
+import de.rwth.idsg.steve.repository.StatisticsStore;
 import de.rwth.idsg.steve.repository.dto.OcppTag.Overview;
+import de.rwth.idsg.steve.repository.dto.Page;
 import de.rwth.idsg.steve.web.dto.OcppTagForm;
 import de.rwth.idsg.steve.web.dto.OcppTagQueryForm;
 import jooq.steve.db.tables.OcppTag;
@@ -11,22 +15,29 @@ import lombok.extern.slf4j.Slf4j;
 import org.joda.time.DateTime;
 import org.jooq.DSLContext;
 import org.jooq.JoinType;
+import org.jooq.Record1;
 import org.jooq.Record7;
 import org.jooq.RecordMapper;
 import org.jooq.Result;
+import org.jooq.SelectConditionStep;
 import org.jooq.SelectQuery;
 import org.jooq.TableField;
 import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static de.rwth.idsg.steve.utils.DateTimeUtils.humanize;
 import static de.rwth.idsg.steve.utils.DateTimeUtils.toDateTime;
+import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
 import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
+import static jooq.steve.db.tables.Reservation.RESERVATION;
+import static jooq.steve.db.tables.Transaction.TRANSACTION;
 
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
@@ -36,16 +47,32 @@ import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
 @Repository
 public class OcppTagRepositoryImpl implements OcppTagRepository {
 
+    private static final KeysetPagination KEYSET = KeysetPagination.byPrimaryKey(OCPP_TAG.OCPP_TAG_PK, false);
+
     private final DSLContext ctx;
+    private final AuthorizationCache authorizationCache;
+    private final StatisticsStore statisticsStore;
+    private final ActiveTransactionRegistry activeTransactionRegistry;
+
+    // on the hot path of Authorize, StartTransaction and StopTransaction (if not cached)
+    private final PreparedQuery selectByIdTagQuery;
 
     @Autowired
-    public OcppTagRepositoryImpl(DSLContext ctx) {
+    public OcppTagRepositoryImpl(DSLContext ctx, AuthorizationCache authorizationCache,
+                                 StatisticsStore statisticsStore, ActiveTransactionRegistry activeTransactionRegistry) {
         this.ctx = ctx;
+        this.authorizationCache = authorizationCache;
+        this.statisticsStore = statisticsStore;
+        this.activeTransactionRegistry = activeTransactionRegistry;
+
+        this.selectByIdTagQuery = PreparedQuery.of(ctx,
+                DSL.selectFrom(OCPP_TAG)
+                   .where(OCPP_TAG.ID_TAG.eq(DSL.param("idTag", OCPP_TAG.ID_TAG))));
     }
 
     @Override
     @SuppressWarnings("unchecked")
-    public List<Overview> getOverview(OcppTagQueryForm form) {
+    public Page<Overview> getOverview(OcppTagQueryForm form) {
         SelectQuery selectQuery = ctx.selectQuery();
         selectQuery.addFrom(OCPP_TAG);
 
@@ -92,7 +119,7 @@ public class OcppTagRepositoryImpl implements OcppTagRepository {
         processBooleanType(selectQuery, OCPP_TAG.IN_TRANSACTION, form.getInTransaction());
         processBooleanType(selectQuery, OCPP_TAG.BLOCKED, form.getBlocked());
 
-        return selectQuery.fetch().map(new UserMapper());
+        return KEYSET.fetchPage(ctx, selectQuery, form, new UserMapper());
     }
 
     @Override
@@ -110,9 +137,7 @@ public class OcppTagRepositoryImpl implements OcppTagRepository {
 
     @Override
     public OcppTagRecord getRecord(String idTag) {
-        return ctx.selectFrom(OCPP_TAG)
-                  .where(OCPP_TAG.ID_TAG.equal(idTag))
-                  .fetchOne();
+        return selectByIdTagQuery.fetchOneInto(ctx, OCPP_TAG, idTag);
     }
 
     @Override
@@ -166,21 +191,28 @@ public class OcppTagRepositoryImpl implements OcppTagRepository {
                                              .collect(Collectors.toList());
 
         ctx.batchInsert(batch).execute();
+        authorizationCache.invalidate(idTagList);
+        statisticsStore.ocppTagsAdded(idTagList.size());
     }
 
     @Override
     public int addOcppTag(OcppTagForm u) {
         try {
-            return ctx.insertInto(OCPP_TAG)
-                      .set(OCPP_TAG.ID_TAG, u.getIdTag())
-                      .set(OCPP_TAG.PARENT_ID_TAG, u.getParentIdTag())
-                      .set(OCPP_TAG.EXPIRY_DATE, toDateTime(u.getExpiration()))
-                      .set(OCPP_TAG.NOTE, u.getNote())
-                      .set(OCPP_TAG.BLOCKED, false)
-                      .set(OCPP_TAG.IN_TRANSACTION, false)
-                      .returning(OCPP_TAG.OCPP_TAG_PK)
-                      .fetchOne()
-                      .getOcppTagPk();
+            int ocppTagPk = ctx.insertInto(OCPP_TAG)
+                               .set(OCPP_TAG.ID_TAG, u.getIdTag())
+                               .set(OCPP_TAG.PARENT_ID_TAG, u.getParentIdTag())
+                               .set(OCPP_TAG.EXPIRY_DATE, toDateTime(u.getExpiration()))
+                               .set(OCPP_TAG.NOTE, u.getNote())
+                               .set(OCPP_TAG.BLOCKED, false)
+                               .set(OCPP_TAG.IN_TRANSACTION, false)
+                               .returning(OCPP_TAG.OCPP_TAG_PK)
+                               .fetchOne()
+                               .getOcppTagPk();
+
+            // there might be an entry saying that this idTag is unknown
+            authorizationCache.invalidate(u.getIdTag());
+            statisticsStore.ocppTagsAdded(1);
+            return ocppTagPk;
 
         } catch (DataAccessException e) {
             if (e.getCause() instanceof SQLIntegrityConstraintViolationException) {
@@ -201,6 +233,9 @@ public class OcppTagRepositoryImpl implements OcppTagRepository {
                .set(OCPP_TAG.BLOCKED, u.getBlocked())
                .where(OCPP_TAG.OCPP_TAG_PK.equal(u.getOcppTagPk()))
                .execute();
+
+            // the idTag of the form cannot be trusted to match the pk. since updates are rare, invalidate all
+            authorizationCache.invalidateAll();
         } catch (DataAccessException e) {
             throw new SteveException("Execution of updateOcppTag for idTag '%s' FAILED.", u.getIdTag(), e);
         }
@@ -209,14 +244,59 @@ public class OcppTagRepositoryImpl implements OcppTagRepository {
     @Override
     public void deleteOcppTag(int ocppTagPk) {
         try {
-            ctx.delete(OCPP_TAG)
-               .where(OCPP_TAG.OCPP_TAG_PK.equal(ocppTagPk))
-               .execute();
+            // the reservations and transactions of the tag, which are deleted by cascade
+            List<Integer> reservationPks = new ArrayList<>();
+            List<Integer> activeTransactionPks = new ArrayList<>();
+
+            int count = ctx.transactionResult(configuration -> {
+                DSLContext ctx = DSL.using(configuration);
+
+                reservationPks.addAll(
+                        ctx.select(RESERVATION.RESERVATION_PK)
+                           .from(RESERVATION)
+                           .join(OCPP_TAG).on(OCPP_TAG.ID_TAG.eq(RESERVATION.ID_TAG))
+                           .where(OCPP_TAG.OCPP_TAG_PK.equal(ocppTagPk))
+                           .forUpdate()
+                           .fetch(RESERVATION.RESERVATION_PK));
+
+                activeTransactionPks.addAll(
+                        ctx.fetchValues(selectTransactionPks(ocppTagPk).and(TRANSACTION.STOP_VALUE.isNull())
+                                                                       .and(TRANSACTION.STOP_TIMESTAMP.isNull())
+                                                                       .forUpdate()));
+
+                // the transactions of the tag are deleted by cascade. the partitioned connector_meter_value has no
+                // foreign key anymore (see V0_9_8), which set the reference to NULL
+                ctx.update(CONNECTOR_METER_VALUE)
+                   .set(CONNECTOR_METER_VALUE.TRANSACTION_PK, (Integer) null)
+                   .where(CONNECTOR_METER_VALUE.TRANSACTION_PK.in(selectTransactionPks(ocppTagPk)))
+                   .execute();
+
+                return ctx.delete(OCPP_TAG)
+                          .where(OCPP_TAG.OCPP_TAG_PK.equal(ocppTagPk))
+                          .execute();
+            });
+
+            // the registry first, since the authorization cache loads the charge boxes of a tag from it
+            if (count > 0) {
+                activeTransactionPks.forEach(activeTransactionRegistry::stopped);
+                statisticsStore.ocppTagDeleted();
+                reservationPks.forEach(statisticsStore::reservationEnded);
+            }
+
+            // the parent_id_tag of other tags might change as well
+            authorizationCache.invalidateAll();
         } catch (DataAccessException e) {
             throw new SteveException("Execution of deleteOcppTag for idTag FAILED.", e);
         }
     }
 
+    private static SelectConditionStep<Record1<Integer>> selectTransactionPks(int ocppTagPk) {
+        return DSL.select(TRANSACTION.TRANSACTION_PK)
+                  .from(TRANSACTION)
+                  .join(OCPP_TAG).on(OCPP_TAG.ID_TAG.eq(TRANSACTION.ID_TAG))
+                  .where(OCPP_TAG.OCPP_TAG_PK.equal(ocppTagPk));
+    }
+
     private void processBooleanType(SelectQuery selectQuery,
                                     TableField<OcppTagRecord, Boolean> field,
                                     OcppTagQueryForm.BooleanType type) {
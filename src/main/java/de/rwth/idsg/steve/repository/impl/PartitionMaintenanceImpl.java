@@ -0,0 +1,256 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.PartitionMaintenance;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import de.rwth.idsg.steve.utils.DateTimeUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
+import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
+
+/**
+ * The tables are partitioned with RANGE COLUMNS (timestamp column) since V0_9_8:
+ *
+ * - p_start: rows without timestamp and before the first month. Never dropped.
+ * - pYYYYMM: rows of one month.
+ * - p_future: catch-all for rows beyond the last month.
+ *
+ * The partitions of the coming months are split from p_future, which is a metadata operation as long as it is empty.
+ * Otherwise (e.g. after a downtime of more than three months, or rows with a timestamp far in the future), MySQL copies
+ * the rows of p_future into the new partitions, and the table is locked meanwhile. This is logged as a warning.
+ * The monthly partitions that end before the retention period are dropped. With archive enabled, a partition is first
+ * exchanged with an empty table (e.g. connector_meter_value_archive_p202401), which is a metadata operation as well.
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+@Repository
+public class PartitionMaintenanceImpl implements PartitionMaintenance, MetricsProvider {
+
+    private static final int INTERVAL_IN_HOURS = 6;
+    private static final int MONTHS_AHEAD = 3;
+
+    private static final String START_PARTITION = "p_start";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormat.forPattern("'p'yyyyMM");
+    private static final DateTimeFormatter BOUNDARY = DateTimeFormat.forPattern("yyyy-MM-dd");
+
+    private static final Field<String> PARTITION_NAME_FIELD = DSL.field(DSL.name("PARTITION_NAME"), String.class);
+    private static final Field<Long> TABLE_ROWS_FIELD = DSL.field(DSL.name("TABLE_ROWS"), Long.class);
+
+    @Autowired private DSLContext ctx;
+    @Autowired private ScheduledExecutorService executorService;
+
+    private final int retentionMonths = CONFIG.getDb().getPartitionRetentionMonths();
+    private final boolean archive = CONFIG.getDb().isPartitionArchive();
+
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder archivedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private volatile DateTime lastRunTimestamp;
+
+    private ScheduledFuture<?> maintenanceSchedule;
+
+    @PostConstruct
+    public void init() {
+        maintenanceSchedule = executorService.scheduleWithFixedDelay(this::scheduledMaintain,
+                0, INTERVAL_IN_HOURS, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (maintenanceSchedule != null) {
+            maintenanceSchedule.cancel(false);
+        }
+    }
+
+    /**
+     * Synchronized, since DDL statements of the same table must not overlap.
+     */
+    @Override
+    public synchronized void maintain() {
+        maintain(CONNECTOR_METER_VALUE);
+        maintain(CONNECTOR_STATUS);
+        lastRunTimestamp = DateTime.now();
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Partition Maintenance";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Retention (months)", retentionMonths == 0 ? "unlimited" : retentionMonths);
+        map.put("Archive dropped partitions", archive);
+        map.put("Last run", DateTimeUtils.humanize(lastRunTimestamp));
+        map.put("Created partitions", createdCount.sum());
+        map.put("Dropped partitions", droppedCount.sum());
+        map.put("Archived partitions", archivedCount.sum());
+        map.put("Failed statements", failedCount.sum());
+        return map;
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void scheduledMaintain() {
+        try {
+            maintain();
+        } catch (Exception e) {
+            // an exception would cancel the schedule
+            log.error("Exception occurred", e);
+        }
+    }
+
+    private void maintain(Table<?> table) {
+        List<String> partitions = getPartitionNames(table);
+        if (!partitions.contains(FUTURE_PARTITION)) {
+            log.warn("The table '{}' is not partitioned as expected: {}", table.getName(), partitions);
+            return;
+        }
+
+        List<LocalDate> months = partitions.stream()
+                                           .filter(name -> !START_PARTITION.equals(name))
+                                           .filter(name -> !FUTURE_PARTITION.equals(name))
+                                           .map(PARTITION_NAME::parseLocalDate)
+                                           .sorted()
+                                           .collect(Collectors.toList());
+
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        createPartitions(table, months, currentMonth);
+
+        if (retentionMonths > 0) {
+            LocalDate firstRetainedMonth = currentMonth.minusMonths(retentionMonths);
+            for (LocalDate month : months) {
+                if (month.isBefore(firstRetainedMonth)) {
+                    dropPartition(table, month);
+                }
+            }
+        }
+    }
+
+    private void createPartitions(Table<?> table, List<LocalDate> months, LocalDate currentMonth) {
+        LocalDate lastMonth = currentMonth.plusMonths(MONTHS_AHEAD);
+        LocalDate month = months.isEmpty() ? currentMonth : months.get(months.size() - 1).plusMonths(1);
+
+        List<String> definitions = new ArrayList<>();
+        for (; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            definitions.add("PARTITION " + PARTITION_NAME.print(month) + " VALUES LESS THAN ("
+                    + boundary(month.plusMonths(1)) + ")");
+        }
+
+        if (definitions.isEmpty()) {
+            return;
+        }
+
+        definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+
+        Long futureRows = getPartitionRowCount(table, FUTURE_PARTITION);
+        if (futureRows != null && futureRows > 0) {
+            log.warn("The partition '{}' of the table '{}' is not empty (about {} rows). Its rows are copied into "
+                    + "the new partitions, and the table is locked meanwhile",
+                    FUTURE_PARTITION, table.getName(), futureRows);
+        }
+
+        boolean success = execute("ALTER TABLE `" + table.getName() + "` REORGANIZE PARTITION " + FUTURE_PARTITION
+                + " INTO (" + String.join(", ", definitions) + ")");
+
+        if (success) {
+            createdCount.add(definitions.size() - 1);
+            log.info("Created {} partition(s) of the table '{}'", definitions.size() - 1, table.getName());
+        }
+    }
+
+    private void dropPartition(Table<?> table, LocalDate month) {
+        String partition = PARTITION_NAME.print(month);
+
+        if (archive) {
+            String archiveTable = table.getName() + "_archive_" + partition;
+            boolean success = execute("CREATE TABLE `" + archiveTable + "` LIKE `" + table.getName() + "`")
+                    && execute("ALTER TABLE `" + archiveTable + "` REMOVE PARTITIONING")
+                    && execute("ALTER TABLE `" + table.getName() + "` EXCHANGE PARTITION " + partition
+                    + " WITH TABLE `" + archiveTable + "`");
+
+            if (!success) {
+                return;
+            }
+            archivedCount.increment();
+            log.info("Moved the partition '{}' of the table '{}' to '{}'", partition, table.getName(), archiveTable);
+        }
+
+        if (execute("ALTER TABLE `" + table.getName() + "` DROP PARTITION " + partition)) {
+            droppedCount.increment();
+            log.info("Dropped the partition '{}' of the table '{}'", partition, table.getName());
+        }
+    }
+
+    private List<String> getPartitionNames(Table<?> table) {
+        return ctx.select(PARTITION_NAME_FIELD)
+                  .from(DSL.table(DSL.name("information_schema", "PARTITIONS")))
+                  .where(DSL.field(DSL.name("TABLE_SCHEMA")).eq(DSL.field("DATABASE()")))
+                  .and(DSL.field(DSL.name("TABLE_NAME")).eq(table.getName()))
+                  .and(PARTITION_NAME_FIELD.isNotNull())
+                  .fetch(PARTITION_NAME_FIELD);
+    }
+
+    /**
+     * An estimate of InnoDB, which is good enough to tell whether the partition is empty
+     */
+    private Long getPartitionRowCount(Table<?> table, String partition) {
+        return ctx.select(TABLE_ROWS_FIELD)
+                  .from(DSL.table(DSL.name("information_schema", "PARTITIONS")))
+                  .where(DSL.field(DSL.name("TABLE_SCHEMA")).eq(DSL.field("DATABASE()")))
+                  .and(DSL.field(DSL.name("TABLE_NAME")).eq(table.getName()))
+                  .and(PARTITION_NAME_FIELD.eq(partition))
+                  .fetchOne(TABLE_ROWS_FIELD);
+    }
+
+    /**
+     * The columns are DATETIME, such that the boundaries are plain dates like the ones of the migration
+     */
+    private static String boundary(LocalDate month) {
+        return "'" + BOUNDARY.print(month) + "'";
+    }
+
+    private boolean execute(String sql) {
+        try {
+            ctx.execute(sql);
+            return true;
+        } catch (Exception e) {
+            failedCount.increment();
+            log.error("Failed to execute: {}", sql, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Converter;
+import org.jooq.DSLContext;
+import org.jooq.DataType;
+import org.jooq.Field;
+import org.jooq.Param;
+import org.jooq.Query;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.Select;
+import org.jooq.Table;
+import org.jooq.VisitContext;
+import org.jooq.exception.TooManyRowsException;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultVisitListener;
+import org.jooq.impl.DefaultVisitListenerProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A statement of the OCPP hot path that is rendered to SQL only once. Otherwise, jOOQ builds the query objects and
+ * renders the SQL for every execution. The rendered SQL is executed with a JDBC PreparedStatement of the connection
+ * of the DSLContext (i.e. within its transaction), and the values are bound with the converters of their fields. The
+ * JDBC driver caches the prepared statement per connection (see cachePrepStmts in BeanConfiguration).
+ *
+ * Executing the rendered SQL as plain SQL with jOOQ (ctx.query(sql, bindings)) was measured to be no cheaper than the
+ * DSL, since jOOQ parses the plain SQL template for every execution (see PreparedQueryBenchmark).
+ *
+ * The template is built with named placeholders (DSL.param(name, field)), and constants must be inlined
+ * (DSL.inline(value)). A placeholder can be used more than once. The values are passed to execute/fetch in the order
+ * of the first occurrence of their placeholders in the SQL.
+ *
+ * The placeholders are not searched in the SQL text (which could contain them in literals), but are collected by a
+ * VisitListener while jOOQ binds the template, i.e. in the order of the bind values.
+ *
+ * NOTE: Since the statements are executed with JDBC, they bypass the ExecuteListeners of jOOQ (e.g. its LoggerListener
+ * for db.sql.logging). Therefore, the SQL, the bind values and the results are logged here at debug level, if the
+ * execute logging of the DSLContext is enabled. An SQLException is wrapped in a DataAccessException by
+ * ctx.connectionResult, like jOOQ does for its own statements.
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+final class PreparedQuery {
+
+    private final String sql;
+    private final DataType<?>[] types;
+    private final int[] valueIndexes;
+    private final Field<?>[] selectFields;
+
+    private PreparedQuery(String sql, DataType<?>[] types, int[] valueIndexes, Field<?>[] selectFields) {
+        this.sql = sql;
+        this.types = types;
+        this.valueIndexes = valueIndexes;
+        this.selectFields = selectFields;
+    }
+
+    static PreparedQuery of(DSLContext ctx, Query template) {
+        List<Param<?>> boundParams = getBoundParams(ctx, template);
+
+        // in the order of the first occurrence
+        List<String> names = new ArrayList<>();
+        List<DataType<?>> types = new ArrayList<>();
+
+        // the position of each bind value, since a placeholder might occur more than once
+        int[] valueIndexes = new int[boundParams.size()];
+
+        for (int i = 0; i < boundParams.size(); i++) {
+            Param<?> p = boundParams.get(i);
+            String name = p.getParamName();
+            if (name == null) {
+                throw new IllegalArgumentException("The constant '" + p.getValue() + "' must be inlined");
+            }
+
+            int index = names.indexOf(name);
+            if (index == -1) {
+                index = names.size();
+                names.add(name);
+                types.add(p.getDataType());
+            }
+            valueIndexes[i] = index;
+        }
+
+        if (boundParams.size() != ctx.extractBindValues(template).size()) {
+            throw new IllegalArgumentException("Failed to collect the placeholders of: " + template);
+        }
+
+        Field<?>[] selectFields = template instanceof Select
+                ? ((Select<?>) template).getSelect().toArray(new Field<?>[0])
+                : new Field<?>[0];
+
+        return new PreparedQuery(ctx.render(template), types.toArray(new DataType<?>[0]), valueIndexes,
+                selectFields);
+    }
+
+    int execute(DSLContext ctx, Object... values) {
+        Object[] bindings = bind(values);
+        boolean logging = isLogging(ctx);
+        if (logging) {
+            logExecuting(bindings);
+        }
+
+        long start = System.nanoTime();
+        int count = ctx.connectionResult(connection -> {
+            try (PreparedStatement statement = prepare(connection, bindings)) {
+                return statement.executeUpdate();
+            }
+        });
+
+        if (logging) {
+            log.debug("Affected row(s)          : {} (took {} microseconds)", count, micros(start));
+        }
+        return count;
+    }
+
+    /**
+     * The selected columns are read with the converters of the selected fields, and are mapped to the fields of the
+     * table with the same names.
+     */
+    <R extends Record> R fetchOneInto(DSLContext ctx, Table<R> table, Object... values) {
+        Object[] bindings = bind(values);
+        boolean logging = isLogging(ctx);
+        if (logging) {
+            logExecuting(bindings);
+        }
+
+        long start = System.nanoTime();
+        Result<Record> result = ctx.connectionResult(connection -> {
+            try (PreparedStatement statement = prepare(connection, bindings);
+                 ResultSet resultSet = statement.executeQuery()) {
+                return ctx.fetch(resultSet, selectFields);
+            }
+        });
+
+        if (logging) {
+            log.debug("Fetched row(s)           : {} (took {} microseconds)", result.size(), micros(start));
+        }
+
+        if (result.size() > 1) {
+            throw new TooManyRowsException("Cursor returned more than one result");
+        }
+        return result.isEmpty() ? null : result.get(0).into(table);
+    }
+
+    private static boolean isLogging(DSLContext ctx) {
+        return log.isDebugEnabled() && Boolean.TRUE.equals(ctx.settings().isExecuteLogging());
+    }
+
+    private void logExecuting(Object[] bindings) {
+        log.debug("Executing prepared query : {}", sql);
+        log.debug("-> with bind values      : {}", Arrays.toString(bindings));
+    }
+
+    private static long micros(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return the params that are bound (i.e. not inlined), in the order of the bind values
+     */
+    private static List<Param<?>> getBoundParams(DSLContext ctx, Query template) {
+        List<Param<?>> params = new ArrayList<>();
+
+        DefaultVisitListener collector = new DefaultVisitListener() {
+            @Override
+            public void visitStart(VisitContext context) {
+                // only the bind phase, the render phase visits the same params
+                if (context.bindContext() != null && context.queryPart() instanceof Param) {
+                    Param<?> p = (Param<?>) context.queryPart();
+                    if (!p.isInline()) {
+                        params.add(p);
+                    }
+                }
+            }
+        };
+
+        DSL.using(ctx.configuration().derive(new DefaultVisitListenerProvider(collector)))
+           .extractBindValues(template);
+        return params;
+    }
+
+    /**
+     * @return the values in the order of the bind values, converted (e.g. DateTime) like in the DSL
+     */
+    @SuppressWarnings("unchecked")
+    private Object[] bind(Object... values) {
+        if (values.length != types.length) {
+            throw new IllegalArgumentException("Expected " + types.length + " values, but got " + values.length);
+        }
+
+        Object[] bindings = new Object[valueIndexes.length];
+        for (int i = 0; i < valueIndexes.length; i++) {
+            int index = valueIndexes[i];
+            Converter<Object, Object> converter = (Converter<Object, Object>) types[index].getConverter();
+            bindings[i] = converter.to(values[index]);
+        }
+        return bindings;
+    }
+
+    private PreparedStatement prepare(Connection connection, Object[] bindings) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            for (int i = 0; i < bindings.length; i++) {
+                if (bindings[i] == null) {
+                    statement.setNull(i + 1, types[valueIndexes[i]].getSQLType());
+                } else {
+                    statement.setObject(i + 1, bindings[i]);
+                }
+            }
+            return statement;
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package de.rwth.idsg.steve.repository.impl;
 
 import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.config.BeanConfiguration;
 import de.rwth.idsg.steve.repository.ReservationRepository;
 import de.rwth.idsg.steve.repository.ReservationStatus;
+import de.rwth.idsg.steve.repository.StatisticsStore;
 import de.rwth.idsg.steve.repository.dto.InsertReservationParams;
+import de.rwth.idsg.steve.repository.dto.Page;
 import de.rwth.idsg.steve.repository.dto.Reservation;
 import de.rwth.idsg.steve.utils.DateTimeUtils;
 import de.rwth.idsg.steve.web.dto.ReservationQueryForm;
@@ -13,12 +16,12 @@ import org.jooq.DSLContext;
 import org.jooq.Record1;
 import org.jooq.Record10;
 import org.jooq.RecordMapper;
-import org.jooq.Select;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectQuery;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -36,17 +39,26 @@ import static jooq.steve.db.tables.Reservation.RESERVATION;
 @Repository
 public class ReservationRepositoryImpl implements ReservationRepository {
 
+    private static final KeysetPagination KEYSET =
+            KeysetPagination.byColumn(RESERVATION.EXPIRY_DATETIME, RESERVATION.RESERVATION_PK, false);
+
     private final DSLContext ctx;
+    private final DSLContext readOnlyCtx;
+    private final StatisticsStore statisticsStore;
 
     @Autowired
-    public ReservationRepositoryImpl(DSLContext ctx) {
+    public ReservationRepositoryImpl(DSLContext ctx,
+                                     @Qualifier(BeanConfiguration.READ_ONLY_DSL_CONTEXT) DSLContext readOnlyCtx,
+                                     StatisticsStore statisticsStore) {
         this.ctx = ctx;
+        this.readOnlyCtx = readOnlyCtx;
+        this.statisticsStore = statisticsStore;
     }
 
     @Override
     @SuppressWarnings("unchecked")
-    public List<Reservation> getReservations(ReservationQueryForm form) {
-        SelectQuery selectQuery = ctx.selectQuery();
+    public Page<Reservation> getReservations(ReservationQueryForm form) {
+        SelectQuery selectQuery = readOnlyCtx.selectQuery();
         selectQuery.addFrom(RESERVATION);
         selectQuery.addJoin(OCPP_TAG, OCPP_TAG.ID_TAG.eq(RESERVATION.ID_TAG));
         selectQuery.addJoin(CONNECTOR, CONNECTOR.CONNECTOR_PK.eq(RESERVATION.CONNECTOR_PK));
@@ -79,10 +91,7 @@ public class ReservationRepositoryImpl implements ReservationRepository {
 
         processType(selectQuery, form);
 
-        // Default order
-        selectQuery.addOrderBy(RESERVATION.EXPIRY_DATETIME.asc());
-
-        return selectQuery.fetch().map(new ReservationMapper());
+        return KEYSET.fetchPage(readOnlyCtx, selectQuery, form, new ReservationMapper());
     }
 
     @Override
@@ -128,27 +137,39 @@ public class ReservationRepositoryImpl implements ReservationRepository {
            .where(RESERVATION.RESERVATION_PK.equal(reservationId))
            .execute();
 
+        statisticsStore.reservationEnded(reservationId);
         log.debug("The reservation '{}' is deleted.", reservationId);
     }
 
     @Override
     public void accepted(int reservationId) {
         internalUpdateReservation(reservationId, ReservationStatus.ACCEPTED);
+
+        DateTime expiry = ctx.select(RESERVATION.EXPIRY_DATETIME)
+                             .from(RESERVATION)
+                             .where(RESERVATION.RESERVATION_PK.equal(reservationId))
+                             .and(RESERVATION.STATUS.eq(ReservationStatus.ACCEPTED.name()))
+                             .fetchOne(RESERVATION.EXPIRY_DATETIME);
+
+        if (expiry != null) {
+            statisticsStore.reservationAccepted(reservationId, expiry);
+        }
     }
 
     @Override
     public void cancelled(int reservationId) {
         internalUpdateReservation(reservationId, ReservationStatus.CANCELLED);
+        statisticsStore.reservationEnded(reservationId);
     }
 
     @Override
-    public void used(Select<Record1<Integer>> connectorPkSelect, String ocppIdTag, int reservationId, int transactionId) {
+    public void used(DSLContext ctx, int connectorPk, String ocppIdTag, int reservationId, int transactionId) {
         int count = ctx.update(RESERVATION)
                        .set(RESERVATION.STATUS, ReservationStatus.USED.name())
                        .set(RESERVATION.TRANSACTION_PK, transactionId)
                        .where(RESERVATION.RESERVATION_PK.equal(reservationId))
                        .and(RESERVATION.ID_TAG.equal(ocppIdTag))
-                       .and(RESERVATION.CONNECTOR_PK.equal(connectorPkSelect))
+                       .and(RESERVATION.CONNECTOR_PK.equal(connectorPk))
                        .and(RESERVATION.STATUS.eq(ReservationStatus.ACCEPTED.name()))
                        .execute();
 
@@ -6,29 +6,41 @@ import de.rwth.idsg.steve.NotificationFeature;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.repository.SettingsRepository;
 import de.rwth.idsg.steve.repository.dto.MailSettings;
+import de.rwth.idsg.steve.repository.dto.SettingsSnapshot;
 import de.rwth.idsg.steve.web.dto.SettingsForm;
 import jooq.steve.db.tables.records.SettingsRecord;
+import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Nullable;
 import org.jooq.DSLContext;
 import org.jooq.exception.DataAccessException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static jooq.steve.db.tables.Settings.SETTINGS;
 
 /**
+ * The settings are read on the hot path of OCPP messages (e.g. heartbeat interval in every BootNotification).
+ * Therefore, they are held in memory as an immutable snapshot, which is swapped atomically when the settings are
+ * updated. To pick up changes that were not made through this class (e.g. another instance or a manual edit in
+ * database), the snapshot is reloaded periodically as well.
+ *
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 06.11.2015
  */
+@Slf4j
 @Repository
 public class SettingsRepositoryImpl implements SettingsRepository {
 
@@ -42,7 +54,31 @@ public class SettingsRepositoryImpl implements SettingsRepository {
     private static final Splitter SPLITTER = Splitter.on(",").trimResults().omitEmptyStrings();
     private static final Joiner JOINER = Joiner.on(",").skipNulls();
 
+    private static final int RELOAD_INTERVAL_IN_SECONDS = 60;
+
     @Autowired private DSLContext ctx;
+    @Autowired private ScheduledExecutorService executorService;
+
+    private volatile SettingsSnapshot snapshot;
+
+    // Guarded by "this". The record of the current snapshot, to detect changes when reloading
+    private SettingsRecord snapshotRecord;
+
+    private ScheduledFuture<?> reloadSchedule;
+
+    @PostConstruct
+    public void init() {
+        reload();
+        reloadSchedule = executorService.scheduleWithFixedDelay(this::scheduledReload,
+                RELOAD_INTERVAL_IN_SECONDS, RELOAD_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (reloadSchedule != null) {
+            reloadSchedule.cancel(false);
+        }
+    }
 
     @Override
     public SettingsForm getForm() {
@@ -68,33 +104,23 @@ public class SettingsRepositoryImpl implements SettingsRepository {
     }
 
     @Override
-    public MailSettings getMailSettings() {
-        SettingsRecord r = getInternal();
-
-        List<String> eMails = split(r.getMailRecipients());
-        List<NotificationFeature> features = splitFeatures(r.getNotificationFeatures());
+    public SettingsSnapshot getSnapshot() {
+        return snapshot;
+    }
 
-        return MailSettings.builder()
-                           .enabled(r.getMailEnabled())
-                           .host(r.getMailHost())
-                           .username(r.getMailUsername())
-                           .password(r.getMailPassword())
-                           .from(r.getMailFrom())
-                           .protocol(r.getMailProtocol())
-                           .port(r.getMailPort())
-                           .recipients(eMails)
-                           .enabledFeatures(features)
-                           .build();
+    @Override
+    public MailSettings getMailSettings() {
+        return snapshot.getMailSettings();
     }
 
     @Override
     public int getHeartbeatIntervalInSeconds() {
-        return getInternal().getHeartbeatIntervalInSeconds();
+        return snapshot.getHeartbeatIntervalInSeconds();
     }
 
     @Override
     public int getHoursToExpire() {
-        return getInternal().getHoursToExpire();
+        return snapshot.getHoursToExpire();
     }
 
     @Override
@@ -121,6 +147,53 @@ public class SettingsRepositoryImpl implements SettingsRepository {
         } catch (DataAccessException e) {
             throw new SteveException("FAILED to save the settings", e);
         }
+
+        reload();
+    }
+
+    /**
+     * Creates a new snapshot, if the settings in database differ from the current snapshot
+     */
+    private synchronized void reload() {
+        SettingsRecord r = getInternal();
+        if (r.equals(snapshotRecord)) {
+            return;
+        }
+
+        long version = (snapshot == null) ? 1 : snapshot.getVersion() + 1;
+        snapshot = toSnapshot(r, version);
+        snapshotRecord = r;
+        log.info("Loaded the settings (version {})", version);
+    }
+
+    private void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // an exception would cancel the schedule
+            log.error("Exception occurred", e);
+        }
+    }
+
+    private SettingsSnapshot toSnapshot(SettingsRecord r, long version) {
+        MailSettings mailSettings = MailSettings.builder()
+                                                .enabled(r.getMailEnabled())
+                                                .host(r.getMailHost())
+                                                .username(r.getMailUsername())
+                                                .password(r.getMailPassword())
+                                                .from(r.getMailFrom())
+                                                .protocol(r.getMailProtocol())
+                                                .port(r.getMailPort())
+                                                .recipients(split(r.getMailRecipients()))
+                                                .enabledFeatures(splitFeatures(r.getNotificationFeatures()))
+                                                .build();
+
+        return SettingsSnapshot.builder()
+                               .version(version)
+                               .heartbeatIntervalInSeconds(r.getHeartbeatIntervalInSeconds())
+                               .hoursToExpire(r.getHoursToExpire())
+                               .mailSettings(mailSettings)
+                               .build();
     }
 
     private SettingsRecord getInternal() {
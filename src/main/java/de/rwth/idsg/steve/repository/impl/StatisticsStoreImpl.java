@@ -0,0 +1,453 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.ActiveTransactionRegistry;
+import de.rwth.idsg.steve.repository.ReservationStatus;
+import de.rwth.idsg.steve.repository.StatisticsStore;
+import de.rwth.idsg.steve.repository.dto.ConnectorStatus;
+import de.rwth.idsg.steve.service.MetricsProvider;
+import de.rwth.idsg.steve.utils.ConnectorStatusFilter;
+import de.rwth.idsg.steve.utils.DateTimeUtils;
+import de.rwth.idsg.steve.web.dto.Statistics;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record3;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.ConnectorStatusLatest.CONNECTOR_STATUS_LATEST;
+import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
+import static jooq.steve.db.tables.Reservation.RESERVATION;
+import static jooq.steve.db.tables.User.USER;
+
+/**
+ * Counters are updated with the reported changes. Instead of counters, the values that depend on the current time
+ * are derived from small structures when the statistics are requested:
+ *
+ * - Heartbeats: The day of the latest heartbeat of each charge box, and the number of charge boxes per day.
+ * - Reservations: The expiry of each accepted reservation.
+ * - Connector statuses: The latest status of each connector, and the number of connectors per status. When a status
+ *   changes, only the contribution of its charge box is calculated again (see {@link ConnectorStatusFilter}).
+ *
+ * The number of active transactions is taken from the {@link ActiveTransactionRegistry}, which is reconciled itself.
+ *
+ * Reconciliation reads everything from the database, and replaces the state. Heartbeats and statuses of the old
+ * state that are more recent than the ones in the database (e.g. heartbeats that are not written yet) are kept.
+ * The changes that are reported while the database is read are recorded, and applied to the new state as well, such
+ * that they are not lost. Heartbeats, statuses and reservations are idempotent. A count (e.g. of the OCPP tags) is
+ * off by one until the next reconciliation, only if the change was committed before the count was read, but reported
+ * after the recording started.
+ *
+ * The changes are applied under the read lock (i.e. concurrently, the structures of the state are concurrent), and
+ * the recording is started and the state is replaced under the write lock.
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+@Repository
+public class StatisticsStoreImpl implements StatisticsStore, MetricsProvider {
+
+    private static final int RECONCILE_INTERVAL_IN_MINUTES = 10;
+
+    @Autowired private DSLContext ctx;
+    @Autowired private ScheduledExecutorService executorService;
+    @Autowired private ActiveTransactionRegistry activeTransactionRegistry;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile State state = new State();
+
+    // the changes that are reported during a reconciliation, or null
+    private volatile Queue<Consumer<State>> changesDuringReconcile;
+
+    private volatile DateTime lastReconcileTimestamp;
+    private volatile long lastReconcileMillis = 0;
+    private volatile int lastReconcileCorrections = 0;
+
+    private ScheduledFuture<?> reconcileSchedule;
+
+    @PostConstruct
+    public void init() {
+        scheduledReconcile();
+        reconcileSchedule = executorService.scheduleWithFixedDelay(this::scheduledReconcile,
+                RECONCILE_INTERVAL_IN_MINUTES, RECONCILE_INTERVAL_IN_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (reconcileSchedule != null) {
+            reconcileSchedule.cancel(false);
+        }
+    }
+
+    @Override
+    public Statistics getStats() {
+        State s = state;
+        DateTime now = DateTime.now();
+        LocalDate today = now.toLocalDate();
+        LocalDate yesterday = today.minusDays(1);
+
+        int heartbeatToday = 0;
+        int heartbeatYesterday = 0;
+        int heartbeatEarlier = 0;
+        for (Map.Entry<LocalDate, AtomicInteger> entry : s.heartbeatDayCounts.entrySet()) {
+            LocalDate day = entry.getKey();
+            if (day.equals(today)) {
+                heartbeatToday += entry.getValue().get();
+            } else if (day.equals(yesterday)) {
+                heartbeatYesterday += entry.getValue().get();
+            } else if (day.isBefore(yesterday)) {
+                heartbeatEarlier += entry.getValue().get();
+            }
+        }
+
+        int numReservations = 0;
+        for (DateTime expiry : s.reservationExpiries.values()) {
+            if (expiry.isAfter(now)) {
+                numReservations++;
+            }
+        }
+
+        // TreeMap because we want a consistent order of the listing on the page
+        Map<String, Integer> statusCountMap = new TreeMap<>();
+        s.statusCounts.forEach((status, count) -> {
+            if (count.get() > 0) {
+                statusCountMap.put(status, count.get());
+            }
+        });
+
+        return Statistics.builder()
+                         .numChargeBoxes(s.numChargeBoxes.get())
+                         .numOcppTags(s.numOcppTags.get())
+                         .numUsers(s.numUsers.get())
+                         .numReservations(numReservations)
+                         .numTransactions(activeTransactionRegistry.getCount())
+                         .heartbeatToday(heartbeatToday)
+                         .heartbeatYesterday(heartbeatYesterday)
+                         .heartbeatEarlier(heartbeatEarlier)
+                         .statusCountMap(statusCountMap)
+                         .build();
+    }
+
+    @Override
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        DateTime now = DateTime.now();
+
+        lock.writeLock().lock();
+        try {
+            changesDuringReconcile = new ConcurrentLinkedQueue<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            reconcile(start, now);
+        } finally {
+            changesDuringReconcile = null;
+        }
+    }
+
+    private void reconcile(long start, DateTime now) {
+        State s = new State();
+
+        Field<Integer> numChargeBoxes =
+                ctx.selectCount()
+                   .from(CHARGE_BOX)
+                   .asField("num_charge_boxes");
+
+        Field<Integer> numOcppTags =
+                ctx.selectCount()
+                   .from(OCPP_TAG)
+                   .asField("num_ocpp_tags");
+
+        Field<Integer> numUsers =
+                ctx.selectCount()
+                   .from(USER)
+                   .asField("num_users");
+
+        Record3<Integer, Integer, Integer> counts =
+                ctx.select(numChargeBoxes, numOcppTags, numUsers)
+                   .fetchOne();
+
+        s.numChargeBoxes.set(counts.value1());
+        s.numOcppTags.set(counts.value2());
+        s.numUsers.set(counts.value3());
+
+        ctx.select(RESERVATION.RESERVATION_PK, RESERVATION.EXPIRY_DATETIME)
+           .from(RESERVATION)
+           .where(RESERVATION.STATUS.eq(ReservationStatus.ACCEPTED.name()))
+           .and(RESERVATION.EXPIRY_DATETIME.greaterThan(now))
+           .fetch()
+           .forEach(r -> s.reservationExpiries.put(r.value1(), r.value2()));
+
+        Set<String> chargeBoxIds = new HashSet<>();
+        ctx.select(CHARGE_BOX.CHARGE_BOX_ID, CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP)
+           .from(CHARGE_BOX)
+           .fetch()
+           .forEach(r -> {
+               chargeBoxIds.add(r.value1());
+               if (r.value2() != null) {
+                   updateHeartbeatDay(s, r.value1(), r.value2().toLocalDate());
+               }
+           });
+
+        ctx.select(CONNECTOR.CHARGE_BOX_ID,
+                   CONNECTOR.CONNECTOR_ID,
+                   CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP,
+                   CONNECTOR_STATUS_LATEST.STATUS)
+           .from(CONNECTOR_STATUS_LATEST)
+           .join(CONNECTOR)
+                .on(CONNECTOR.CONNECTOR_PK.eq(CONNECTOR_STATUS_LATEST.CONNECTOR_PK))
+           .where(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.isNotNull())
+           .fetch()
+           .forEach(r -> updateConnectorStatus(s, r.value1(), r.value2(), r.value3(), r.value4()));
+
+        int corrections;
+        lock.writeLock().lock();
+        try {
+            // keep the more recent heartbeats and statuses of the charge boxes that still exist
+            State old = state;
+            old.heartbeatDays.forEach((chargeBoxId, day) -> {
+                if (chargeBoxIds.contains(chargeBoxId)) {
+                    updateHeartbeatDay(s, chargeBoxId, day);
+                }
+            });
+            old.stations.forEach((chargeBoxId, connectors) -> {
+                if (chargeBoxIds.contains(chargeBoxId)) {
+                    connectors.values().forEach(cs -> updateConnectorStatus(s, chargeBoxId, cs.getConnectorId(),
+                            cs.getStatusTimestamp(), cs.getStatus()));
+                }
+            });
+
+            changesDuringReconcile.forEach(change -> change.accept(s));
+            changesDuringReconcile = null;
+
+            corrections = Math.abs(s.numChargeBoxes.get() - old.numChargeBoxes.get())
+                    + Math.abs(s.numOcppTags.get() - old.numOcppTags.get())
+                    + Math.abs(s.numUsers.get() - old.numUsers.get());
+
+            state = s;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        lastReconcileTimestamp = now;
+        lastReconcileMillis = System.currentTimeMillis() - start;
+        lastReconcileCorrections = corrections;
+        log.debug("Reconciled the statistics in {} ms with {} corrected counts", lastReconcileMillis, corrections);
+    }
+
+    // -------------------------------------------------------------------------
+    // Reported changes
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void chargeBoxesAdded(List<String> chargeBoxIdList) {
+        apply(s -> s.numChargeBoxes.addAndGet(chargeBoxIdList.size()));
+    }
+
+    @Override
+    public void chargeBoxDeleted(String chargeBoxId) {
+        apply(s -> {
+            s.numChargeBoxes.decrementAndGet();
+            s.heartbeatDays.computeIfPresent(chargeBoxId, (k, day) -> {
+                countHeartbeatDay(s, day, -1);
+                return null;
+            });
+            s.stations.computeIfPresent(chargeBoxId, (k, connectors) -> {
+                countStatuses(s, connectors, -1);
+                return null;
+            });
+        });
+    }
+
+    @Override
+    public void heartbeat(String chargeBoxId, DateTime ts) {
+        apply(s -> updateHeartbeatDay(s, chargeBoxId, ts.toLocalDate()));
+    }
+
+    @Override
+    public void connectorStatus(String chargeBoxId, int connectorId, DateTime ts, String status) {
+        apply(s -> updateConnectorStatus(s, chargeBoxId, connectorId, ts, status));
+    }
+
+    @Override
+    public void ocppTagsAdded(int count) {
+        apply(s -> s.numOcppTags.addAndGet(count));
+    }
+
+    @Override
+    public void ocppTagDeleted() {
+        apply(s -> s.numOcppTags.decrementAndGet());
+    }
+
+    @Override
+    public void userAdded() {
+        apply(s -> s.numUsers.incrementAndGet());
+    }
+
+    @Override
+    public void userDeleted() {
+        apply(s -> s.numUsers.decrementAndGet());
+    }
+
+    @Override
+    public void reservationAccepted(int reservationId, DateTime expiry) {
+        apply(s -> s.reservationExpiries.put(reservationId, expiry));
+    }
+
+    @Override
+    public void reservationEnded(int reservationId) {
+        apply(s -> s.reservationExpiries.remove(reservationId));
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Statistics";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Reconciliation interval (minutes)", RECONCILE_INTERVAL_IN_MINUTES);
+        map.put("Last reconciliation", DateTimeUtils.humanize(lastReconcileTimestamp));
+        map.put("Duration of last reconciliation (ms)", lastReconcileMillis);
+        map.put("Corrected counts at last reconciliation", lastReconcileCorrections);
+        return map;
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            // an exception would cancel the schedule
+            log.error("Exception occurred", e);
+        }
+    }
+
+    private void apply(Consumer<State> change) {
+        lock.readLock().lock();
+        try {
+            change.accept(state);
+            Queue<Consumer<State>> changes = changesDuringReconcile;
+            if (changes != null) {
+                changes.add(change);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void updateHeartbeatDay(State s, String chargeBoxId, LocalDate day) {
+        s.heartbeatDays.compute(chargeBoxId, (k, oldDay) -> {
+            if (oldDay != null && !day.isAfter(oldDay)) {
+                return oldDay;
+            }
+            if (oldDay != null) {
+                countHeartbeatDay(s, oldDay, -1);
+            }
+            countHeartbeatDay(s, day, 1);
+            return day;
+        });
+    }
+
+    private static void countHeartbeatDay(State s, LocalDate day, int delta) {
+        s.heartbeatDayCounts.computeIfAbsent(day, k -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    /**
+     * Like connector_status_latest, a status with an older timestamp does not overwrite the current one.
+     */
+    private static void updateConnectorStatus(State s, String chargeBoxId, int connectorId, DateTime ts,
+                                              String status) {
+        ConnectorStatus newStatus = ConnectorStatus.builder()
+                                                   .chargeBoxId(chargeBoxId)
+                                                   .connectorId(connectorId)
+                                                   .statusTimestamp(ts)
+                                                   .status(status)
+                                                   .build();
+
+        s.stations.compute(chargeBoxId, (k, connectors) -> {
+            if (connectors == null) {
+                connectors = new HashMap<>();
+            }
+
+            ConnectorStatus current = connectors.get(connectorId);
+            if (current != null && current.getStatusTimestamp().isAfter(ts)) {
+                return connectors;
+            }
+
+            countStatuses(s, connectors, -1);
+            connectors.put(connectorId, newStatus);
+            countStatuses(s, connectors, 1);
+            return connectors;
+        });
+    }
+
+    /**
+     * Adds (or removes) the contribution of one charge box to the status counts of the home page.
+     */
+    private static void countStatuses(State s, Map<Integer, ConnectorStatus> connectors, int delta) {
+        if (connectors.isEmpty()) {
+            return;
+        }
+
+        List<ConnectorStatus> list = new ArrayList<>(connectors.values());
+        for (ConnectorStatus cs : ConnectorStatusFilter.filterAndPreferZero(list)) {
+            if (cs.getStatus() != null) {
+                s.statusCounts.computeIfAbsent(cs.getStatus(), k -> new AtomicInteger()).addAndGet(delta);
+            }
+        }
+    }
+
+    private static class State {
+        private final AtomicInteger numChargeBoxes = new AtomicInteger();
+        private final AtomicInteger numOcppTags = new AtomicInteger();
+        private final AtomicInteger numUsers = new AtomicInteger();
+
+        // (reservationId, expiry) of the accepted reservations
+        private final ConcurrentHashMap<Integer, DateTime> reservationExpiries = new ConcurrentHashMap<>();
+
+        // (chargeBoxId, day of the latest heartbeat) and (day, number of charge boxes)
+        private final ConcurrentHashMap<String, LocalDate> heartbeatDays = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<LocalDate, AtomicInteger> heartbeatDayCounts = new ConcurrentHashMap<>();
+
+        // (chargeBoxId, (connectorId, latest status)) and (status, number of connectors)
+        private final ConcurrentHashMap<String, Map<Integer, ConnectorStatus>> stations = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, AtomicInteger> statusCounts = new ConcurrentHashMap<>();
+    }
+}
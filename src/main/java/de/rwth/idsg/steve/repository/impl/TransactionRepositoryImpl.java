@@ -1,27 +1,45 @@
 package de.rwth.idsg.steve.repository.impl;
 
+import com.google.common.collect.Iterables;
 import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.config.BeanConfiguration;
+import de.rwth.idsg.steve.repository.MeterValueDictionary;
 import de.rwth.idsg.steve.repository.TransactionRepository;
+import de.rwth.idsg.steve.repository.dto.Page;
 import de.rwth.idsg.steve.repository.dto.Transaction;
 import de.rwth.idsg.steve.repository.dto.TransactionDetails;
 import de.rwth.idsg.steve.utils.DateTimeUtils;
+import de.rwth.idsg.steve.web.dto.MeterValueQueryForm;
 import de.rwth.idsg.steve.web.dto.TransactionQueryForm;
 import jooq.steve.db.tables.records.ConnectorMeterValueRecord;
 import org.joda.time.DateTime;
 import org.jooq.Condition;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Record1;
 import org.jooq.Record11;
+import org.jooq.Record4;
 import org.jooq.Record9;
 import org.jooq.RecordMapper;
+import org.jooq.Result;
+import org.jooq.ResultQuery;
+import org.jooq.SelectConditionStep;
 import org.jooq.SelectQuery;
 import org.jooq.Table;
 import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static de.rwth.idsg.steve.utils.CustomDSL.date;
 import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
@@ -29,6 +47,7 @@ import static jooq.steve.db.tables.Connector.CONNECTOR;
 import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
 import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
 import static jooq.steve.db.tables.Transaction.TRANSACTION;
+import static jooq.steve.db.tables.TransactionMeterValueBlob.TRANSACTION_METER_VALUE_BLOB;
 
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
@@ -37,36 +56,99 @@ import static jooq.steve.db.tables.Transaction.TRANSACTION;
 @Repository
 public class TransactionRepositoryImpl implements TransactionRepository {
 
-    private final DSLContext ctx;
+    // newest first
+    private static final KeysetPagination KEYSET = KeysetPagination.byPrimaryKey(TRANSACTION.TRANSACTION_PK, true);
+
+    /**
+     * With this fetch size, MySQL Connector/J streams the result set row by row instead of reading it into memory.
+     */
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    /**
+     * Number of rows that are formatted and written at once during CSV exports
+     */
+    static final int CSV_CHUNK_SIZE = 1000;
+
+    private static final Comparator<TransactionDetails.MeterValues> VALUE_TIMESTAMP_ORDER =
+            Comparator.comparing(TransactionDetails.MeterValues::getValueTimestamp,
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final DSLContext readOnlyCtx;
+    private final MeterValueDictionary meterValueDictionary;
 
     @Autowired
-    public TransactionRepositoryImpl(DSLContext ctx) {
-        this.ctx = ctx;
+    public TransactionRepositoryImpl(@Qualifier(BeanConfiguration.READ_ONLY_DSL_CONTEXT) DSLContext readOnlyCtx,
+                                     MeterValueDictionary meterValueDictionary) {
+        this.readOnlyCtx = readOnlyCtx;
+        this.meterValueDictionary = meterValueDictionary;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public List<Transaction> getTransactions(TransactionQueryForm form) {
-        return getInternal(form).fetch()
-                                .map(new TransactionMapper());
+    public Page<Transaction> getTransactions(TransactionQueryForm form) {
+        return KEYSET.fetchPage(readOnlyCtx, getInternal(form), form, new TransactionMapper());
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void writeTransactionsCSV(TransactionQueryForm form, Writer writer) {
-        getInternalCSV(form).fetch()
-                            .formatCSV(writer);
+        SelectQuery<Record9<Integer, String, Integer, String, DateTime, String, DateTime, String, String>> query =
+                getInternalCSV(form);
+
+        KEYSET.addOrderBy(query);
+        writeCSV(query, writer);
     }
 
+    /**
+     * The meter values as they are stored, i.e. without the deduplication of {@link #getDetails(int)}. The meter
+     * values of a transaction are the ones that the station sent with this transaction id.
+     *
+     * The meter values that are stored as blob (see MeterValueBlobCodec) follow the rows, in the order of their
+     * transactions.
+     */
     @Override
-    public List<Integer> getActiveTransactionIds(String chargeBoxId) {
-        return ctx.select(TRANSACTION.TRANSACTION_PK)
-                  .from(TRANSACTION)
-                  .join(CONNECTOR)
-                    .on(TRANSACTION.CONNECTOR_PK.equal(CONNECTOR.CONNECTOR_PK))
-                    .and(CONNECTOR.CHARGE_BOX_ID.equal(chargeBoxId))
-                  .where(TRANSACTION.STOP_TIMESTAMP.isNull())
-                  .fetch(TRANSACTION.TRANSACTION_PK);
+    @SuppressWarnings("unchecked")
+    public void writeMeterValuesCSV(MeterValueQueryForm form, Writer writer) {
+        Field<?>[] fields = {
+                CONNECTOR_METER_VALUE.TRANSACTION_PK,
+                CONNECTOR.CHARGE_BOX_ID,
+                CONNECTOR.CONNECTOR_ID,
+                CONNECTOR_METER_VALUE.VALUE_TIMESTAMP,
+                CONNECTOR_METER_VALUE.VALUE,
+                meterValueDictionary.resolve(CONNECTOR_METER_VALUE.READING_CONTEXT_PK),
+                meterValueDictionary.resolve(CONNECTOR_METER_VALUE.FORMAT_PK),
+                meterValueDictionary.resolve(CONNECTOR_METER_VALUE.MEASURAND_PK),
+                meterValueDictionary.resolve(CONNECTOR_METER_VALUE.LOCATION_PK),
+                meterValueDictionary.resolve(CONNECTOR_METER_VALUE.UNIT_PK),
+                meterValueDictionary.resolve(CONNECTOR_METER_VALUE.PHASE_PK)
+        };
+
+        SelectQuery selectQuery = readOnlyCtx.selectQuery();
+        selectQuery.addFrom(CONNECTOR_METER_VALUE);
+        selectQuery.addJoin(CONNECTOR, CONNECTOR_METER_VALUE.CONNECTOR_PK.eq(CONNECTOR.CONNECTOR_PK));
+        selectQuery.addSelect(fields);
+
+        if (form.isTransactionPkSet()) {
+            selectQuery.addConditions(CONNECTOR_METER_VALUE.TRANSACTION_PK.eq(form.getTransactionPk()));
+        }
+
+        if (form.isChargeBoxIdSet()) {
+            selectQuery.addConditions(CONNECTOR.CHARGE_BOX_ID.eq(form.getChargeBoxId()));
+        }
+
+        if (form.isFromSet()) {
+            selectQuery.addConditions(
+                    CONNECTOR_METER_VALUE.VALUE_TIMESTAMP.greaterOrEqual(form.getFrom().toDateTime())
+            );
+        }
+
+        if (form.isToSet()) {
+            selectQuery.addConditions(CONNECTOR_METER_VALUE.VALUE_TIMESTAMP.lessThan(form.getTo().toDateTime()));
+        }
+
+        // For periods, the index on value_timestamp delivers the rows in this order, such that no sorting is needed
+        selectQuery.addOrderBy(CONNECTOR_METER_VALUE.VALUE_TIMESTAMP.asc());
+
+        writeCSV(selectQuery, writer);
+        writeMeterValueBlobsCSV(form, fields, writer);
     }
 
     @Override
@@ -110,20 +192,23 @@ public class TransactionRepositoryImpl implements TransactionRepository {
         // Case 1: Ideal and most accurate case. Station sends meter values with transaction id set.
         //
         SelectQuery<ConnectorMeterValueRecord> transactionQuery =
-                ctx.selectFrom(CONNECTOR_METER_VALUE)
-                   .where(CONNECTOR_METER_VALUE.TRANSACTION_PK.eq(transactionPk))
-                   .getQuery();
+                readOnlyCtx.selectFrom(CONNECTOR_METER_VALUE)
+                           .where(CONNECTOR_METER_VALUE.TRANSACTION_PK.eq(transactionPk))
+                           .getQuery();
 
         // Case 2: Fall back to filtering according to time windows
         //
+        SelectConditionStep<Record1<Integer>> connectorPkQuery =
+                DSL.select(CONNECTOR.CONNECTOR_PK)
+                   .from(CONNECTOR)
+                   .where(CONNECTOR.CHARGE_BOX_ID.eq(chargeBoxId))
+                   .and(CONNECTOR.CONNECTOR_ID.eq(connectorId));
+
         SelectQuery<ConnectorMeterValueRecord> timestampQuery =
-                ctx.selectFrom(CONNECTOR_METER_VALUE)
-                   .where(CONNECTOR_METER_VALUE.CONNECTOR_PK.eq(ctx.select(CONNECTOR.CONNECTOR_PK)
-                                                                   .from(CONNECTOR)
-                                                                   .where(CONNECTOR.CHARGE_BOX_ID.eq(chargeBoxId))
-                                                                   .and(CONNECTOR.CONNECTOR_ID.eq(connectorId))))
-                   .and(timestampCondition)
-                   .getQuery();
+                readOnlyCtx.selectFrom(CONNECTOR_METER_VALUE)
+                           .where(CONNECTOR_METER_VALUE.CONNECTOR_PK.eq(connectorPkQuery))
+                           .and(timestampCondition)
+                           .getQuery();
 
         // Actually, either case 1 applies or 2. If we retrieved values using 1, case 2 is should not be
         // executed (best case). In worst case (1 returns empty list and we fall back to case 2) though,
@@ -141,56 +226,54 @@ public class TransactionRepositoryImpl implements TransactionRepository {
         // We are only interested in the first arriving entry.
         // -------------------------------------------------------------------------
 
-        Field<DateTime> dateTimeField = DSL.min(t1.field(2, DateTime.class)).as("min");
+        // Grouping by the codes of the dictionary instead of the strings keeps the temporary table of the GROUP BY
+        // narrow. The codes are resolved from memory when fetched.
+        //
+        Field<DateTime> dateTimeField = DSL.min(t1.field(CONNECTOR_METER_VALUE.VALUE_TIMESTAMP)).as("min");
 
         List<TransactionDetails.MeterValues> values =
-                ctx.select(
+                readOnlyCtx.select(
                         dateTimeField,
-                        t1.field(3, String.class),
-                        t1.field(4, String.class),
-                        t1.field(5, String.class),
-                        t1.field(6, String.class),
-                        t1.field(7, String.class),
-                        t1.field(8, String.class),
-                        t1.field(9, String.class))
-                   .from(t1)
-                   .groupBy(
-                           t1.field(3),
-                           t1.field(4),
-                           t1.field(5),
-                           t1.field(6),
-                           t1.field(7),
-                           t1.field(8),
-                           t1.field(9))
-                   .orderBy(dateTimeField)
-                   .fetch()
-                   .map(r -> TransactionDetails.MeterValues.builder()
-                                                           .valueTimestamp(r.value1())
-                                                           .value(r.value2())
-                                                           .readingContext(r.value3())
-                                                           .format(r.value4())
-                                                           .measurand(r.value5())
-                                                           .location(r.value6())
-                                                           .unit(r.value7())
-                                                           .phase(r.value8())
-                                                           .build());
+                        t1.field(CONNECTOR_METER_VALUE.VALUE),
+                        meterValueDictionary.resolve(t1.field(CONNECTOR_METER_VALUE.READING_CONTEXT_PK)),
+                        meterValueDictionary.resolve(t1.field(CONNECTOR_METER_VALUE.FORMAT_PK)),
+                        meterValueDictionary.resolve(t1.field(CONNECTOR_METER_VALUE.MEASURAND_PK)),
+                        meterValueDictionary.resolve(t1.field(CONNECTOR_METER_VALUE.LOCATION_PK)),
+                        meterValueDictionary.resolve(t1.field(CONNECTOR_METER_VALUE.UNIT_PK)),
+                        meterValueDictionary.resolve(t1.field(CONNECTOR_METER_VALUE.PHASE_PK)))
+                           .from(t1)
+                           .groupBy(
+                                   t1.field(CONNECTOR_METER_VALUE.VALUE),
+                                   t1.field(CONNECTOR_METER_VALUE.READING_CONTEXT_PK),
+                                   t1.field(CONNECTOR_METER_VALUE.FORMAT_PK),
+                                   t1.field(CONNECTOR_METER_VALUE.MEASURAND_PK),
+                                   t1.field(CONNECTOR_METER_VALUE.LOCATION_PK),
+                                   t1.field(CONNECTOR_METER_VALUE.UNIT_PK),
+                                   t1.field(CONNECTOR_METER_VALUE.PHASE_PK))
+                           .orderBy(dateTimeField)
+                           .fetch()
+                           .map(r -> TransactionDetails.MeterValues.builder()
+                                                                   .valueTimestamp(r.value1())
+                                                                   .value(r.value2())
+                                                                   .readingContext(r.value3())
+                                                                   .format(r.value4())
+                                                                   .measurand(r.value5())
+                                                                   .location(r.value6())
+                                                                   .unit(r.value7())
+                                                                   .phase(r.value8())
+                                                                   .build());
 
-        return new TransactionDetails(new TransactionMapper().map(transaction), values);
-    }
+        // -------------------------------------------------------------------------
+        // Step 4: Meter values of the transaction that are stored as blob (see MeterValueBlobCodec)
+        // -------------------------------------------------------------------------
 
-    /**
-     * See documentation of {@link TransactionRepository#getChargeBoxIdsOfActiveTransactions(String)}
-     */
-    @Override
-    public List<String> getChargeBoxIdsOfActiveTransactions(String ocppIdTag) {
-        return ctx.select(CONNECTOR.CHARGE_BOX_ID)
-                  .from(CONNECTOR)
-                  .join(TRANSACTION)
-                    .on(TRANSACTION.CONNECTOR_PK.equal(CONNECTOR.CONNECTOR_PK))
-                  .where(TRANSACTION.ID_TAG.eq(ocppIdTag))
-                    .and(TRANSACTION.STOP_VALUE.isNull())
-                    .and(TRANSACTION.STOP_TIMESTAMP.isNull())
-                  .fetch(CONNECTOR.CHARGE_BOX_ID);
+        List<TransactionDetails.MeterValues> blob = MeterValueBlobCodec.read(readOnlyCtx, transactionPk);
+
+        if (!blob.isEmpty()) {
+            values = mergeFirstArriving(values, blob);
+        }
+
+        return new TransactionDetails(new TransactionMapper().map(transaction), values);
     }
 
     // -------------------------------------------------------------------------
@@ -202,7 +285,7 @@ public class TransactionRepositoryImpl implements TransactionRepository {
     SelectQuery<Record9<Integer, String, Integer, String, DateTime, String, DateTime, String, String>>
     getInternalCSV(TransactionQueryForm form) {
 
-        SelectQuery selectQuery = ctx.selectQuery();
+        SelectQuery selectQuery = readOnlyCtx.selectQuery();
         selectQuery.addFrom(TRANSACTION);
         selectQuery.addJoin(CONNECTOR, TRANSACTION.CONNECTOR_PK.eq(CONNECTOR.CONNECTOR_PK));
         selectQuery.addSelect(
@@ -229,7 +312,7 @@ public class TransactionRepositoryImpl implements TransactionRepository {
     SelectQuery<Record11<Integer, String, Integer, String, DateTime, String, DateTime, String, String, Integer, Integer>>
     getInternal(TransactionQueryForm form) {
 
-        SelectQuery selectQuery = ctx.selectQuery();
+        SelectQuery selectQuery = readOnlyCtx.selectQuery();
         selectQuery.addFrom(TRANSACTION);
         selectQuery.addJoin(CONNECTOR, TRANSACTION.CONNECTOR_PK.eq(CONNECTOR.CONNECTOR_PK));
         selectQuery.addJoin(CHARGE_BOX, CHARGE_BOX.CHARGE_BOX_ID.eq(CONNECTOR.CHARGE_BOX_ID));
@@ -271,9 +354,7 @@ public class TransactionRepositoryImpl implements TransactionRepository {
 
         processType(selectQuery, form);
 
-        // Default order
-        selectQuery.addOrderBy(TRANSACTION.TRANSACTION_PK.desc());
-
+        // No order, see KEYSET
         return selectQuery;
     }
 
@@ -311,6 +392,104 @@ public class TransactionRepositoryImpl implements TransactionRepository {
         }
     }
 
+    /**
+     * Same as the GROUP BY of getDetails: Of the values that are equal except for the timestamp, only the first one
+     */
+    private static List<TransactionDetails.MeterValues> mergeFirstArriving(List<TransactionDetails.MeterValues> rows,
+                                                                           List<TransactionDetails.MeterValues> blob) {
+        Map<List<String>, TransactionDetails.MeterValues> firstArriving = new HashMap<>();
+        for (TransactionDetails.MeterValues v : Iterables.concat(rows, blob)) {
+            List<String> key = Arrays.asList(v.getValue(), v.getReadingContext(), v.getFormat(), v.getMeasurand(),
+                    v.getLocation(), v.getUnit(), v.getPhase());
+
+            firstArriving.merge(key, v, (a, b) -> VALUE_TIMESTAMP_ORDER.compare(a, b) <= 0 ? a : b);
+        }
+
+        List<TransactionDetails.MeterValues> merged = new ArrayList<>(firstArriving.values());
+        merged.sort(VALUE_TIMESTAMP_ORDER);
+        return merged;
+    }
+
+    /**
+     * Streams the result of the query into the writer in chunks, such that the memory usage does not depend on the
+     * size of the result. The connection is held until the last row is written.
+     */
+    private static <R extends Record> void writeCSV(ResultQuery<R> query, Writer writer) {
+        try (Cursor<R> cursor = query.fetchSize(MYSQL_STREAMING_FETCH_SIZE).fetchLazy()) {
+            boolean header = true;
+            do {
+                Result<R> chunk = cursor.fetchNext(CSV_CHUNK_SIZE);
+                chunk.formatCSV(writer, header);
+                header = false;
+            } while (cursor.hasNext());
+        }
+    }
+
+    /**
+     * A blob is read chunk by chunk, and its samples are written like the rows. For a period, only the blobs of the
+     * transactions that overlap with it are read, and their samples are filtered by the period.
+     */
+    private void writeMeterValueBlobsCSV(MeterValueQueryForm form, Field<?>[] fields, Writer writer) {
+        SelectQuery<Record4<Integer, String, Integer, byte[]>> query =
+                readOnlyCtx.select(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK,
+                                   CONNECTOR.CHARGE_BOX_ID,
+                                   CONNECTOR.CONNECTOR_ID,
+                                   TRANSACTION_METER_VALUE_BLOB.DATA)
+                           .from(TRANSACTION_METER_VALUE_BLOB)
+                           .join(TRANSACTION)
+                             .on(TRANSACTION.TRANSACTION_PK.eq(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK))
+                           .join(CONNECTOR)
+                             .on(CONNECTOR.CONNECTOR_PK.eq(TRANSACTION.CONNECTOR_PK))
+                           .getQuery();
+
+        if (form.isTransactionPkSet()) {
+            query.addConditions(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK.eq(form.getTransactionPk()));
+        }
+
+        if (form.isChargeBoxIdSet()) {
+            query.addConditions(CONNECTOR.CHARGE_BOX_ID.eq(form.getChargeBoxId()));
+        }
+
+        DateTime from = form.isFromSet() ? form.getFrom().toDateTime() : null;
+        DateTime to = form.isToSet() ? form.getTo().toDateTime() : null;
+
+        if (from != null) {
+            query.addConditions(TRANSACTION.STOP_TIMESTAMP.isNull().or(TRANSACTION.STOP_TIMESTAMP.ge(from)));
+        }
+
+        if (to != null) {
+            query.addConditions(TRANSACTION.START_TIMESTAMP.lessThan(to));
+        }
+
+        query.addOrderBy(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK, TRANSACTION_METER_VALUE_BLOB.CHUNK_PK);
+
+        try (Cursor<Record4<Integer, String, Integer, byte[]>> cursor =
+                     query.fetchSize(MYSQL_STREAMING_FETCH_SIZE).fetchLazy()) {
+            for (Record4<Integer, String, Integer, byte[]> chunk : cursor) {
+                Result<Record> result = readOnlyCtx.newResult(fields);
+                for (TransactionDetails.MeterValues s : MeterValueBlobCodec.decode(chunk.value4())) {
+                    if (isInPeriod(s.getValueTimestamp(), from, to)) {
+                        Record r = readOnlyCtx.newRecord(fields);
+                        r.fromArray(chunk.value1(), chunk.value2(), chunk.value3(), s.getValueTimestamp(),
+                                s.getValue(), s.getReadingContext(), s.getFormat(), s.getMeasurand(),
+                                s.getLocation(), s.getUnit(), s.getPhase());
+                        result.add(r);
+                    }
+                }
+                result.formatCSV(writer, false);
+            }
+        }
+    }
+
+    private static boolean isInPeriod(DateTime timestamp, DateTime from, DateTime to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        return timestamp != null
+                && (from == null || !timestamp.isBefore(from))
+                && (to == null || timestamp.isBefore(to));
+    }
+
     private static class TransactionMapper
             implements RecordMapper<Record11<Integer, String, Integer, String, DateTime, String, DateTime,
                                              String, String, Integer, Integer>, Transaction> {
@@ -2,6 +2,7 @@ package de.rwth.idsg.steve.repository.impl;
 
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.repository.AddressRepository;
+import de.rwth.idsg.steve.repository.StatisticsStore;
 import de.rwth.idsg.steve.repository.UserRepository;
 import de.rwth.idsg.steve.repository.dto.User;
 import de.rwth.idsg.steve.web.dto.UserForm;
@@ -39,6 +40,7 @@ public class UserRepositoryImpl implements UserRepository {
 
     @Autowired private DSLContext ctx;
     @Autowired private AddressRepository addressRepository;
+    @Autowired private StatisticsStore statisticsStore;
 
     @Override
     public List<User.Overview> getOverview(UserQueryForm form) {
@@ -110,6 +112,8 @@ public class UserRepositoryImpl implements UserRepository {
                 throw new SteveException("Failed to add the user", e);
             }
         });
+
+        statisticsStore.userAdded();
     }
 
     @Override
@@ -138,6 +142,8 @@ public class UserRepositoryImpl implements UserRepository {
                 throw new SteveException("Failed to delete the user", e);
             }
         });
+
+        statisticsStore.userDeleted();
     }
 
     // -------------------------------------------------------------------------
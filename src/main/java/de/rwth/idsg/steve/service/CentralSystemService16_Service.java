@@ -1,10 +1,12 @@
 package de.rwth.idsg.steve.service;
 
 import de.rwth.idsg.steve.ocpp.OcppProtocol;
+import de.rwth.idsg.steve.repository.ChargeBoxHeartbeatStore;
 import de.rwth.idsg.steve.repository.ChargePointRepository;
 import de.rwth.idsg.steve.repository.OcppServerRepository;
 import de.rwth.idsg.steve.repository.SettingsRepository;
 import de.rwth.idsg.steve.repository.dto.InsertConnectorStatusParams;
+import de.rwth.idsg.steve.repository.dto.InsertMeterValuesParams;
 import de.rwth.idsg.steve.repository.dto.InsertTransactionParams;
 import de.rwth.idsg.steve.repository.dto.UpdateChargeboxParams;
 import de.rwth.idsg.steve.repository.dto.UpdateTransactionParams;
@@ -47,10 +49,12 @@ public class CentralSystemService16_Service {
 
     @Autowired private OcppServerRepository ocppServerRepository;
     @Autowired private SettingsRepository settingsRepository;
+    @Autowired private ChargeBoxHeartbeatStore chargeBoxHeartbeatStore;
 
     @Autowired private OcppTagService ocppTagService;
     @Autowired private NotificationService notificationService;
     @Autowired private ChargePointHelperService chargePointHelperService;
+    @Autowired private MeterValueIngestionService meterValueIngestionService;
 
     public BootNotificationResponse bootNotification(BootNotificationRequest parameters, String chargeBoxIdentity,
                                                      OcppProtocol ocppProtocol) {
@@ -77,7 +81,9 @@ public class CentralSystemService16_Service {
                                          .heartbeatTimestamp(now)
                                          .build();
 
-            ocppServerRepository.updateChargebox(params);
+            if (!ocppServerRepository.updateChargebox(params)) {
+                chargeBoxHeartbeatStore.update(chargeBoxIdentity, now);
+            }
         } else {
             log.error("The chargebox '{}' is NOT registered and its boot NOT acknowledged.", chargeBoxIdentity);
         }
@@ -124,8 +130,14 @@ public class CentralSystemService16_Service {
 
     public MeterValuesResponse meterValues(MeterValuesRequest parameters, String chargeBoxIdentity) {
         if (parameters.isSetMeterValue()) {
-            ocppServerRepository.insertMeterValues(chargeBoxIdentity, parameters.getMeterValue(),
-                                                   parameters.getConnectorId(), parameters.getTransactionId());
+            meterValueIngestionService.submit(
+                    InsertMeterValuesParams.builder()
+                                           .chargeBoxId(chargeBoxIdentity)
+                                           .connectorId(parameters.getConnectorId())
+                                           .transactionId(parameters.getTransactionId())
+                                           .meterValues(parameters.getMeterValue())
+                                           .build()
+            );
         }
         return new MeterValuesResponse();
     }
@@ -169,11 +181,14 @@ public class CentralSystemService16_Service {
                                        .stopReason(stopReason)
                                        .build();
 
+        // the queued meter values of the transaction must be written before it is completed
+        meterValueIngestionService.flushTransaction(transactionId);
         ocppServerRepository.updateTransaction(params);
 
         if (parameters.isSetTransactionData()) {
             ocppServerRepository.insertMeterValues(chargeBoxIdentity, parameters.getTransactionData(), transactionId);
         }
+        ocppServerRepository.compactMeterValues(transactionId);
 
         // Get the authorization info of the user
         if (parameters.isSetIdTag()) {
@@ -186,7 +201,7 @@ public class CentralSystemService16_Service {
 
     public HeartbeatResponse heartbeat(HeartbeatRequest parameters, String chargeBoxIdentity) {
         DateTime now = DateTime.now();
-        ocppServerRepository.updateChargeboxHeartbeat(chargeBoxIdentity, now);
+        chargeBoxHeartbeatStore.update(chargeBoxIdentity, now);
 
         return new HeartbeatResponse().withCurrentTime(now);
     }
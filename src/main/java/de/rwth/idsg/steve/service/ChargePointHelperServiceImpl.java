@@ -10,11 +10,9 @@ import de.rwth.idsg.steve.ocpp.ws.ocpp12.Ocpp12WebSocketEndpoint;
 import de.rwth.idsg.steve.ocpp.ws.ocpp15.Ocpp15WebSocketEndpoint;
 import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16WebSocketEndpoint;
 import de.rwth.idsg.steve.repository.ChargePointRepository;
-import de.rwth.idsg.steve.repository.GenericRepository;
+import de.rwth.idsg.steve.repository.StatisticsStore;
 import de.rwth.idsg.steve.repository.dto.ChargePointSelect;
-import de.rwth.idsg.steve.repository.dto.ConnectorStatus;
 import de.rwth.idsg.steve.service.dto.UnidentifiedIncomingObject;
-import de.rwth.idsg.steve.utils.ConnectorStatusCountFilter;
 import de.rwth.idsg.steve.utils.DateTimeUtils;
 import de.rwth.idsg.steve.web.dto.OcppJsonStatus;
 import de.rwth.idsg.steve.web.dto.Statistics;
@@ -46,7 +44,7 @@ public class ChargePointHelperServiceImpl implements ChargePointHelperService {
     private final boolean autoRegisterUnknownStations = CONFIG.getOcpp().isAutoRegisterUnknownStations();
     private final Striped<Lock> isRegisteredLocks = Striped.lock(16);
 
-    @Autowired private GenericRepository genericRepository;
+    @Autowired private StatisticsStore statisticsStore;
 
     // SOAP-based charge points are stored in DB with an endpoint address
     @Autowired private ChargePointRepository chargePointRepository;
@@ -75,14 +73,10 @@ public class ChargePointHelperServiceImpl implements ChargePointHelperService {
 
     @Override
     public Statistics getStats() {
-        Statistics stats = genericRepository.getStats();
+        Statistics stats = statisticsStore.getStats();
         stats.setNumOcpp12JChargeBoxes(ocpp12WebSocketEndpoint.getNumberOfChargeBoxes());
         stats.setNumOcpp15JChargeBoxes(ocpp15WebSocketEndpoint.getNumberOfChargeBoxes());
         stats.setNumOcpp16JChargeBoxes(ocpp16WebSocketEndpoint.getNumberOfChargeBoxes());
-
-        List<ConnectorStatus> latestList = chargePointRepository.getChargePointConnectorStatus();
-        stats.setStatusCountMap(ConnectorStatusCountFilter.getStatusCountMap(latestList));
-
         return stats;
     }
 
@@ -4,11 +4,13 @@ import com.google.common.base.Strings;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.repository.SettingsRepository;
 import de.rwth.idsg.steve.repository.dto.MailSettings;
+import de.rwth.idsg.steve.repository.dto.SettingsSnapshot;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PostConstruct;
 import javax.mail.Authenticator;
 import javax.mail.Message;
 import javax.mail.MessagingException;
@@ -19,9 +21,6 @@ import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 import java.util.Properties;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
@@ -34,31 +33,11 @@ public class MailService {
     @Autowired private SettingsRepository settingsRepository;
     @Autowired private ScheduledExecutorService executorService;
 
-    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    private final Lock readLock = readWriteLock.readLock();
-    private final Lock writeLock = readWriteLock.writeLock();
-
-    private MailSettings settings;
-    private Session session;
-
-    @PostConstruct
-    public void loadSettingsFromDB() {
-        writeLock.lock();
-        try {
-            settings = settingsRepository.getMailSettings();
-        } finally {
-            writeLock.unlock();
-        }
-        session = createSession(getSettings());
-    }
+    // The mail settings of the current settings snapshot, and the session created from them
+    private volatile MailContext context;
 
     public MailSettings getSettings() {
-        readLock.lock();
-        try {
-            return this.settings;
-        } finally {
-            readLock.unlock();
-        }
+        return getContext().getSettings();
     }
 
     public void sendTestMail() {
@@ -80,7 +59,9 @@ public class MailService {
     }
 
     public void send(String subject, String body) throws MessagingException {
-        MailSettings settings = getSettings();
+        MailContext context = getContext();
+        MailSettings settings = context.getSettings();
+        Session session = context.getSession();
 
         Message mail = new MimeMessage(session);
         mail.setSubject("[SteVe] " + subject);
@@ -101,6 +82,22 @@ public class MailService {
     // Private helpers
     // -------------------------------------------------------------------------
 
+    /**
+     * The session is recreated only when the settings snapshot changed. If multiple threads notice the change at the
+     * same time, each creates a session, which is harmless.
+     */
+    private MailContext getContext() {
+        SettingsSnapshot snapshot = settingsRepository.getSnapshot();
+        MailContext current = context;
+
+        if (current == null || current.getVersion() != snapshot.getVersion()) {
+            MailSettings settings = snapshot.getMailSettings();
+            current = new MailContext(snapshot.getVersion(), settings, createSession(settings));
+            context = current;
+        }
+        return current;
+    }
+
     private static Session createSession(MailSettings settings) {
         Properties props = new Properties();
         String protocol = settings.getProtocol();
@@ -136,4 +133,12 @@ public class MailService {
             }
         };
     }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class MailContext {
+        private final long version;
+        private final MailSettings settings;
+        private final Session session;
+    }
 }
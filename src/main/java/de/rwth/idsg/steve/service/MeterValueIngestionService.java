@@ -0,0 +1,342 @@
+package de.rwth.idsg.steve.service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.rwth.idsg.steve.SteveConfiguration;
+import de.rwth.idsg.steve.repository.OcppServerRepository;
+import de.rwth.idsg.steve.repository.dto.InsertMeterValuesParams;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * The MeterValues of charging stations are acknowledged right away and put into a bounded queue. One writer thread
+ * takes them from the queue and group-commits the samples of many messages (and stations) with one transaction and
+ * one multi-row insert. A batch is written, when it reaches the batch size (in samples) or when its first message
+ * waited for the linger time, whichever comes first.
+ *
+ * Backpressure: If the queue is full, the caller waits for free capacity. It does not write its message by itself,
+ * since this would overtake the queued messages of its station. Waiting callers fill up the mailboxes of their
+ * stations, which then reject further calls (see IncomingMessageDispatcher).
+ *
+ * StopTransaction must not be written before the queued meter values of its transaction, since the blob and the
+ * rollups are completed with it. Therefore, the queued messages are counted per transaction, and
+ * {@link #flushTransaction(int)} waits until they are written.
+ *
+ * If a batch fails, its messages are retried one by one, such that a faulty message (e.g. referencing an unknown
+ * transaction) does not take the other messages with it.
+ *
+ * Durability: Messages in the queue are acknowledged, but not written yet. They are written when the application is
+ * shut down properly, but are lost if the process crashes. Once the shutdown started, callers write their messages
+ * synchronously. The lock makes sure that no message is put into the queue after the writer saw it empty.
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+@Service
+public class MeterValueIngestionService implements MetricsProvider {
+
+    @Autowired private OcppServerRepository ocppServerRepository;
+
+    // StopTransaction does not wait longer than this for the meter values of its transaction
+    private static final long FLUSH_TRANSACTION_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long lingerMillis;
+
+    private BlockingQueue<Entry> queue;
+    private ExecutorService writer;
+    private volatile boolean running = false;
+
+    // submit holds the read lock while it puts into the queue, shutDown takes the write lock to stop accepting
+    private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+
+    // (transactionId, number of queued messages). Guarded by the monitor for waiting and signalling
+    private final ConcurrentHashMap<Integer, Integer> queuedTransactions = new ConcurrentHashMap<>();
+    private final Object writtenMonitor = new Object();
+
+    private final LongAdder queuedSamples = new LongAdder();
+    private final LongAdder flushedSamples = new LongAdder();
+    private final LongAdder failedSamples = new LongAdder();
+    private final LongAdder flushedBatches = new LongAdder();
+    private final LongAdder blockedSubmits = new LongAdder();
+    private final LongAdder transactionFlushes = new LongAdder();
+    private final LongAdder totalFlushMillis = new LongAdder();
+    private final AtomicLong maxFlushMillis = new AtomicLong();
+    private volatile long lastFlushMillis = 0;
+
+    public MeterValueIngestionService() {
+        this(CONFIG.getDb());
+    }
+
+    private MeterValueIngestionService(SteveConfiguration.DB config) {
+        this(config.getMeterValueQueueCapacity(), config.getMeterValueBatchSize(), config.getMeterValueLingerMillis());
+    }
+
+    MeterValueIngestionService(int queueCapacity, int batchSize, long lingerMillis) {
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (queueCapacity <= 0) {
+            log.info("Queue for meter values is disabled. They will be written synchronously");
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        writer = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("SteVe-MeterValueWriter-%d").build()
+        );
+
+        running = true;
+        writer.execute(this::writeLoop);
+    }
+
+    /**
+     * Stop accepting, and wait until the writer drained the queue.
+     */
+    @PreDestroy
+    public void shutDown() {
+        if (writer == null) {
+            return;
+        }
+
+        runningLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            runningLock.writeLock().unlock();
+        }
+
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Writer did not finish in time. {} queued messages will be lost", queue.size());
+            }
+        } catch (InterruptedException e) {
+            log.error("Termination interrupted", e);
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+
+    public void submit(InsertMeterValuesParams params) {
+        runningLock.readLock().lock();
+        try {
+            if (running) {
+                enqueue(new Entry(params, params.getSampleCount(), System.currentTimeMillis()));
+                return;
+            }
+        } finally {
+            runningLock.readLock().unlock();
+        }
+
+        write(params);
+    }
+
+    /**
+     * Waits until the queued meter values of the transaction are written (or failed).
+     */
+    public void flushTransaction(int transactionId) {
+        if (!queuedTransactions.containsKey(transactionId)) {
+            return;
+        }
+
+        transactionFlushes.increment();
+        long deadline = System.currentTimeMillis() + FLUSH_TRANSACTION_TIMEOUT_MILLIS;
+
+        synchronized (writtenMonitor) {
+            while (queuedTransactions.containsKey(transactionId)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    log.warn("Meter values of transaction {} are not written within {} ms. Proceeding without",
+                            transactionId, FLUSH_TRANSACTION_TIMEOUT_MILLIS);
+                    return;
+                }
+                try {
+                    writtenMonitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    @Override
+    public String getMetricsName() {
+        return "Meter Value Ingestion";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        long batches = flushedBatches.sum();
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Batch size (samples)", batchSize);
+        map.put("Linger time (ms)", lingerMillis);
+        map.put("Waiting messages", (queue == null) ? 0 : queue.size());
+        map.put("Queued samples", queuedSamples.sum());
+        map.put("Flushed samples", flushedSamples.sum());
+        map.put("Failed samples", failedSamples.sum());
+        map.put("Flushed batches", batches);
+        map.put("Transactions with queued messages", queuedTransactions.size());
+        map.put("Submits that waited for capacity (queue full)", blockedSubmits.sum());
+        map.put("StopTransactions that waited for their meter values", transactionFlushes.sum());
+        map.put("Average flush latency (ms)", (batches == 0) ? 0 : totalFlushMillis.sum() / batches);
+        map.put("Last flush latency (ms)", lastFlushMillis);
+        map.put("Max flush latency (ms)", maxFlushMillis.get());
+        return map;
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Called with the read lock held, such that shutDown waits for a caller that waits for capacity.
+     */
+    private void enqueue(Entry entry) {
+        Integer transactionId = entry.params.getTransactionId();
+        if (transactionId != null) {
+            queuedTransactions.merge(transactionId, 1, Integer::sum);
+        }
+
+        try {
+            if (!queue.offer(entry)) {
+                blockedSubmits.increment();
+                queue.put(entry);
+            }
+            queuedSamples.add(entry.sampleCount);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for capacity. Writing the meter values of chargeBoxId '{}' directly",
+                    entry.params.getChargeBoxId());
+            write(entry.params);
+            written(Collections.singletonList(entry));
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                int samples = first.sampleCount;
+                long deadline = first.enqueuedAt + lingerMillis;
+
+                while (samples < batchSize) {
+                    long remaining = running ? deadline - System.currentTimeMillis() : 0;
+                    Entry next = (remaining > 0) ? queue.poll(remaining, TimeUnit.MILLISECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    samples += next.sampleCount;
+                }
+
+                flush(batch, samples);
+
+            } catch (InterruptedException e) {
+                log.warn("Writer interrupted. {} queued messages will be lost", queue.size() + batch.size());
+                return;
+
+            } catch (Exception e) {
+                // must not kill the writer
+                log.error("Exception occurred", e);
+
+            } finally {
+                written(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Entry> batch, int samples) {
+        List<InsertMeterValuesParams> list = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            list.add(entry.params);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            ocppServerRepository.insertMeterValues(list);
+            flushedSamples.add(samples);
+        } catch (Exception e) {
+            log.error("Failed to write a batch of {} messages. Retrying one by one", list.size(), e);
+            list.forEach(this::write);
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        flushedBatches.increment();
+        totalFlushMillis.add(duration);
+        maxFlushMillis.accumulateAndGet(duration, Math::max);
+        lastFlushMillis = duration;
+    }
+
+    private void written(List<Entry> entries) {
+        for (Entry entry : entries) {
+            Integer transactionId = entry.params.getTransactionId();
+            if (transactionId != null) {
+                queuedTransactions.computeIfPresent(transactionId, (k, count) -> (count == 1) ? null : count - 1);
+            }
+        }
+
+        synchronized (writtenMonitor) {
+            writtenMonitor.notifyAll();
+        }
+    }
+
+    private void write(InsertMeterValuesParams params) {
+        try {
+            ocppServerRepository.insertMeterValues(Collections.singletonList(params));
+            flushedSamples.add(params.getSampleCount());
+        } catch (Exception e) {
+            failedSamples.add(params.getSampleCount());
+            log.error("Failed to write the meter values of chargeBoxId '{}', connectorId '{}'",
+                    params.getChargeBoxId(), params.getConnectorId(), e);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final InsertMeterValuesParams params;
+        private final int sampleCount;
+        private final long enqueuedAt;
+    }
+}
@@ -0,0 +1,19 @@
+package de.rwth.idsg.steve.service;
+
+import java.util.Map;
+
+/**
+ * Implemented by components that want to expose runtime numbers (queue depths, counters, cache hit rates etc.)
+ * in the "Runtime Metrics" section of the about page.
+ *
+ * @since 18.10.2026
+ */
+public interface MetricsProvider {
+
+    String getMetricsName();
+
+    /**
+     * Returns a snapshot of the current values. The iteration order of the map is the display order.
+     */
+    Map<String, Object> getMetrics();
+}
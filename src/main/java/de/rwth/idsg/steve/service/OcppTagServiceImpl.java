@@ -1,9 +1,10 @@
 package de.rwth.idsg.steve.service;
 
 import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.repository.ActiveTransactionRegistry;
+import de.rwth.idsg.steve.repository.AuthorizationCache;
 import de.rwth.idsg.steve.repository.OcppTagRepository;
 import de.rwth.idsg.steve.repository.SettingsRepository;
-import de.rwth.idsg.steve.repository.TransactionRepository;
 import de.rwth.idsg.steve.service.dto.UnidentifiedIncomingObject;
 import jooq.steve.db.tables.records.OcppTagRecord;
 import lombok.AccessLevel;
@@ -18,6 +19,7 @@ import org.jooq.RecordMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -30,7 +32,8 @@ public class OcppTagServiceImpl implements OcppTagService {
 
     @Autowired private SettingsRepository settingsRepository;
     @Autowired private OcppTagRepository ocppTagRepository;
-    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private ActiveTransactionRegistry activeTransactionRegistry;
+    @Autowired private AuthorizationCache authorizationCache;
 
     private final UnidentifiedIncomingObjectService invalidOcppTagService = new UnidentifiedIncomingObjectService(1000);
 
@@ -63,8 +66,9 @@ public class OcppTagServiceImpl implements OcppTagService {
 
     @Override
     public IdTagInfo getIdTagInfo(String idTag, String askingChargeBoxId) {
-        OcppTagRecord record = ocppTagRepository.getRecord(idTag);
-        AuthorizationStatus status = decideStatus(record, idTag, askingChargeBoxId);
+        AuthorizationCache.Entry entry = authorizationCache.get(idTag, () -> loadAuthorizationData(idTag));
+        OcppTagRecord record = entry.getRecord();
+        AuthorizationStatus status = decideStatus(entry, idTag, askingChargeBoxId);
 
         switch (status) {
             case INVALID:
@@ -87,6 +91,19 @@ public class OcppTagServiceImpl implements OcppTagService {
     // Private helpers
     // -------------------------------------------------------------------------
 
+    private AuthorizationCache.Entry loadAuthorizationData(String idTag) {
+        OcppTagRecord record = ocppTagRepository.getRecord(idTag);
+
+        List<String> txChargeBoxIds;
+        if (record != null && record.getInTransaction()) {
+            txChargeBoxIds = activeTransactionRegistry.getChargeBoxIds(idTag);
+        } else {
+            txChargeBoxIds = Collections.emptyList();
+        }
+
+        return new AuthorizationCache.Entry(record, txChargeBoxIds);
+    }
+
     /**
      * If the database contains an actual expiry, use it. Otherwise, calculate an expiry for cached info
      */
@@ -106,7 +123,8 @@ public class OcppTagServiceImpl implements OcppTagService {
         }
     }
 
-    private AuthorizationStatus decideStatus(OcppTagRecord record, String idTag, String askingChargeBoxId) {
+    private AuthorizationStatus decideStatus(AuthorizationCache.Entry entry, String idTag, String askingChargeBoxId) {
+        OcppTagRecord record = entry.getRecord();
         if (record == null) {
             log.error("The user with idTag '{}' is INVALID (not present in DB).", idTag);
             return AuthorizationStatus.INVALID;
@@ -124,8 +142,7 @@ public class OcppTagServiceImpl implements OcppTagService {
 
         // https://github.com/RWTH-i5-IDSG/steve/issues/73
         if (record.getInTransaction()) {
-            List<String> txChargeBoxIds = transactionRepository.getChargeBoxIdsOfActiveTransactions(idTag);
-            if (!txChargeBoxIds.contains(askingChargeBoxId)) {
+            if (!entry.getChargeBoxIdsOfActiveTransactions().contains(askingChargeBoxId)) {
                 log.warn("The user with idTag '{}' is ALREADY in another transaction.", idTag);
                 return AuthorizationStatus.CONCURRENT_TX;
             }
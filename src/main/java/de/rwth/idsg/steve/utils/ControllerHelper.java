@@ -1,8 +1,13 @@
 package de.rwth.idsg.steve.utils;
 
 import com.neovisionaries.i18n.CountryCode;
+import de.rwth.idsg.steve.repository.dto.Page;
 import de.rwth.idsg.steve.web.dto.Address;
 import jooq.steve.db.tables.records.AddressRecord;
+import org.springframework.ui.Model;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
 
 import java.util.Arrays;
 import java.util.Comparator;
@@ -45,6 +50,34 @@ public final class ControllerHelper {
         return map;
     }
 
+    /**
+     * Adds the page and the links to the previous/next page. The links repeat the current filter parameters with the
+     * keyset cursor of the page.
+     */
+    public static void addPageNavigation(Model model, Page<?> page, HttpServletRequest request, String queryPath) {
+        model.addAttribute("page", page);
+
+        if (page.isHasPrevious()) {
+            model.addAttribute("prevPageUrl", buildPageUrl(request, queryPath, "before", page.getFirstKey()));
+        }
+
+        if (page.isHasNext()) {
+            model.addAttribute("nextPageUrl", buildPageUrl(request, queryPath, "after", page.getLastKey()));
+        }
+    }
+
+    private static String buildPageUrl(HttpServletRequest request, String queryPath, String cursorParam,
+                                       Integer cursor) {
+        return UriComponentsBuilder.fromPath(request.getContextPath())
+                                   .path(queryPath)
+                                   .query(request.getQueryString())
+                                   .replaceQueryParam("after")
+                                   .replaceQueryParam("before")
+                                   .replaceQueryParam(cursorParam, cursor)
+                                   .build()
+                                   .toUriString();
+    }
+
     private static Map<String, String> populateCountryCodes() {
         CountryCode[] codes = CountryCode.values();
         Arrays.sort(codes, Comparator.comparing(CountryCode::getName));
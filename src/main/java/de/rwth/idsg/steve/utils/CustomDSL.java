@@ -47,6 +47,13 @@ public final class CustomDSL {
         return field.like("%" + input + "%");
     }
 
+    /**
+     * For ON DUPLICATE KEY UPDATE: The value of the column in the row that would have been inserted
+     */
+    public static <T> Field<T> values(Field<T> column) {
+        return field("values({0})", column.getDataType(), DSL.name(column.getName()));
+    }
+
     public static Long selectOffsetFromUtcInSeconds(DSLContext ctx) {
         return ctx.select(timestampDiffBetweenUtcAndCurrent(DatePart.SECOND))
                   .fetchOne()
@@ -0,0 +1,82 @@
+package de.rwth.idsg.steve.utils;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A minimal hashed timing wheel: Items are put into the bucket (deadline tick % wheel size) and are visited only
+ * when the wheel arrives at their bucket. Adding and cancelling are O(1) and thread-safe, whereas {@link #tick}
+ * must be called by one thread at a fixed rate. Deadlines longer than one revolution are supported, such items
+ * stay in their bucket for multiple rounds.
+ *
+ * The wheel does not own a thread. The unit of time is whatever the tick rate of the caller is.
+ *
+ * @since 18.10.2026
+ */
+public class HashedTimingWheel<T> {
+
+    private final Set<Timeout<T>>[] buckets;
+    private final int mask;
+
+    private volatile long currentTick = 0;
+
+    /**
+     * @param wheelSize is rounded up to the next power of two
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(int wheelSize) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        mask = size - 1;
+        buckets = new Set[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = ConcurrentHashMap.newKeySet();
+        }
+    }
+
+    /**
+     * The item expires after at least delayInTicks full ticks. Since the current tick is already in progress,
+     * one more tick is added to the deadline.
+     */
+    public Timeout<T> add(T item, long delayInTicks) {
+        Timeout<T> timeout = new Timeout<>(item, currentTick + Math.max(delayInTicks, 1) + 1);
+        bucketOf(timeout).add(timeout);
+        return timeout;
+    }
+
+    public void cancel(Timeout<T> timeout) {
+        bucketOf(timeout).remove(timeout);
+    }
+
+    /**
+     * Advances the wheel by one tick and passes the expired items to the consumer.
+     */
+    public void tick(Consumer<T> expiredConsumer) {
+        long tick = ++currentTick;
+        Iterator<Timeout<T>> it = buckets[(int) (tick & mask)].iterator();
+
+        while (it.hasNext()) {
+            Timeout<T> timeout = it.next();
+            if (timeout.deadlineTick <= tick) {
+                it.remove();
+                expiredConsumer.accept(timeout.item);
+            }
+        }
+    }
+
+    private Set<Timeout<T>> bucketOf(Timeout<T> timeout) {
+        return buckets[(int) (timeout.deadlineTick & mask)];
+    }
+
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadlineTick;
+    }
+}
@@ -111,6 +111,15 @@ public class PropertiesFileLoader {
         }
     }
 
+    public int getOptionalInt(String key, int fallback) {
+        Integer i = getOptionalInt(key);
+        if (i == null) {
+            return fallback;
+        } else {
+            return i;
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Private helpers
     // -------------------------------------------------------------------------
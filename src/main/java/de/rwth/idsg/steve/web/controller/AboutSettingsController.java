@@ -4,6 +4,7 @@ import de.rwth.idsg.steve.NotificationFeature;
 import de.rwth.idsg.steve.repository.GenericRepository;
 import de.rwth.idsg.steve.repository.SettingsRepository;
 import de.rwth.idsg.steve.service.MailService;
+import de.rwth.idsg.steve.service.MetricsProvider;
 import de.rwth.idsg.steve.service.ReleaseCheckService;
 import de.rwth.idsg.steve.web.dto.EndpointInfo;
 import de.rwth.idsg.steve.web.dto.SettingsForm;
@@ -18,6 +19,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
 import javax.validation.Valid;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 
@@ -35,6 +39,7 @@ public class AboutSettingsController {
     @Autowired private SettingsRepository settingsRepository;
     @Autowired private MailService mailService;
     @Autowired private ReleaseCheckService releaseCheckService;
+    @Autowired private List<MetricsProvider> metricsProviders;
 
     // -------------------------------------------------------------------------
     // Paths
@@ -56,6 +61,7 @@ public class AboutSettingsController {
         model.addAttribute("systemTimeZone", DateTimeZone.getDefault());
         model.addAttribute("releaseReport", releaseCheckService.check());
         model.addAttribute("endpointInfo", EndpointInfo.INSTANCE);
+        model.addAttribute("metrics", getMetrics());
         return "about";
     }
 
@@ -76,7 +82,6 @@ public class AboutSettingsController {
         }
 
         settingsRepository.update(settingsForm);
-        mailService.loadSettingsFromDB();
         return "redirect:/manager/settings";
     }
 
@@ -89,9 +94,20 @@ public class AboutSettingsController {
         }
 
         settingsRepository.update(settingsForm);
-        mailService.loadSettingsFromDB();
         mailService.sendTestMail();
 
         return "redirect:/manager/settings";
     }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private Map<String, Map<String, Object>> getMetrics() {
+        Map<String, Map<String, Object>> metrics = new LinkedHashMap<>();
+        for (MetricsProvider provider : metricsProviders) {
+            metrics.put(provider.getMetricsName(), provider.getMetrics());
+        }
+        return metrics;
+    }
 }
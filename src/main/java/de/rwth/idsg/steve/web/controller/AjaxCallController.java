@@ -3,16 +3,21 @@ package de.rwth.idsg.steve.web.controller;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import de.rwth.idsg.steve.repository.ActiveTransactionRegistry;
 import de.rwth.idsg.steve.repository.ChargePointRepository;
+import de.rwth.idsg.steve.repository.MeterValueRollupStore;
 import de.rwth.idsg.steve.repository.ReservationRepository;
-import de.rwth.idsg.steve.repository.TransactionRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import javax.annotation.PostConstruct;
@@ -34,8 +39,9 @@ import java.util.List;
 public class AjaxCallController {
 
     @Autowired private ChargePointRepository chargePointRepository;
-    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private ActiveTransactionRegistry activeTransactionRegistry;
     @Autowired private ReservationRepository reservationRepository;
+    @Autowired private MeterValueRollupStore meterValueRollupStore;
 
     private ObjectMapper objectMapper;
 
@@ -43,6 +49,11 @@ public class AjaxCallController {
     private void init() {
         objectMapper = new ObjectMapper();
         objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+        // ISO 8601, instead of the bean properties of DateTime
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(DateTime.class, ToStringSerializer.instance);
+        objectMapper.registerModule(module);
     }
 
     // -------------------------------------------------------------------------
@@ -52,6 +63,11 @@ public class AjaxCallController {
     private static final String CONNECTOR_IDS_PATH      = "/connectorIds";
     private static final String TRANSACTION_IDS_PATH    = "/transactionIds";
     private static final String RESERVATION_IDS_PATH    = "/reservationIds";
+    private static final String METER_VALUE_ROLLUPS_PATH = "/meterValueRollups";
+
+    private static final String DEFAULT_MEASURAND = "Energy.Active.Import.Register";
+    private static final int DEFAULT_MAX_POINTS = 500;
+    private static final int MAX_POINTS_LIMIT = 5_000;
 
     // -------------------------------------------------------------------------
     // HTTP methods
@@ -67,7 +83,7 @@ public class AjaxCallController {
     @RequestMapping(value = TRANSACTION_IDS_PATH)
     public void getTransactionIds(@PathVariable("chargeBoxId") String chargeBoxId,
                                   HttpServletResponse response) throws IOException {
-        String s = serializeArray(transactionRepository.getActiveTransactionIds(chargeBoxId));
+        String s = serializeArray(activeTransactionRegistry.getTransactionIds(chargeBoxId));
         writeOutput(response, s);
     }
 
@@ -78,6 +94,28 @@ public class AjaxCallController {
         writeOutput(response, s);
     }
 
+    /**
+     * For the charts of the meter values over long ranges. The times are in ISO 8601 (e.g. 2026-10-18T12:00:00Z), and
+     * the range is the last 24 hours by default.
+     */
+    @RequestMapping(value = METER_VALUE_ROLLUPS_PATH)
+    public void getMeterValueRollups(@PathVariable("chargeBoxId") String chargeBoxId,
+                                     @RequestParam(value = "connectorId", required = false) Integer connectorId,
+                                     @RequestParam(value = "measurand", defaultValue = DEFAULT_MEASURAND)
+                                             String measurand,
+                                     @RequestParam(value = "from", required = false) String from,
+                                     @RequestParam(value = "to", required = false) String to,
+                                     @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+                                     HttpServletResponse response) throws IOException {
+        DateTime toTime = to == null ? DateTime.now() : DateTime.parse(to);
+        DateTime fromTime = from == null ? toTime.minusDays(1) : DateTime.parse(from);
+        int points = maxPoints == null ? DEFAULT_MAX_POINTS : Math.max(1, Math.min(maxPoints, MAX_POINTS_LIMIT));
+
+        String s = serializeArray(meterValueRollupStore.getRollups(chargeBoxId, connectorId, measurand,
+                fromTime, toTime, points));
+        writeOutput(response, s);
+    }
+
     private String serializeArray(List<?> list) {
         try {
             return objectMapper.writeValueAsString(list);
@@ -2,6 +2,7 @@ package de.rwth.idsg.steve.web.controller;
 
 import de.rwth.idsg.steve.repository.ChargePointRepository;
 import de.rwth.idsg.steve.repository.dto.ChargePoint;
+import de.rwth.idsg.steve.repository.dto.Page;
 import de.rwth.idsg.steve.service.ChargePointHelperService;
 import de.rwth.idsg.steve.utils.ControllerHelper;
 import de.rwth.idsg.steve.web.dto.ChargePointBatchInsertForm;
@@ -16,6 +17,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.util.Collections;
 import java.util.List;
@@ -56,20 +58,24 @@ public class ChargePointsController {
     // -------------------------------------------------------------------------
 
     @RequestMapping(method = RequestMethod.GET)
-    public String getOverview(Model model) {
-        initList(model, new ChargePointQueryForm());
+    public String getOverview(Model model, HttpServletRequest request) {
+        initList(model, new ChargePointQueryForm(), request);
         return "data-man/chargepoints";
     }
 
     @RequestMapping(value = QUERY_PATH, method = RequestMethod.GET)
-    public String getQuery(@ModelAttribute(PARAMS) ChargePointQueryForm params, Model model) {
-        initList(model, params);
+    public String getQuery(@ModelAttribute(PARAMS) ChargePointQueryForm params, Model model,
+                           HttpServletRequest request) {
+        initList(model, params, request);
         return "data-man/chargepoints";
     }
 
-    private void initList(Model model, ChargePointQueryForm params) {
+    private void initList(Model model, ChargePointQueryForm params, HttpServletRequest request) {
+        Page<ChargePoint.Overview> page = chargePointRepository.getOverview(params);
+
         model.addAttribute(PARAMS, params);
-        model.addAttribute("cpList", chargePointRepository.getOverview(params));
+        model.addAttribute("cpList", page.getItems());
+        ControllerHelper.addPageNavigation(model, page, request, "/manager/chargepoints" + QUERY_PATH);
         model.addAttribute("unknownList", chargePointHelperService.getUnknownChargePoints());
     }
 
@@ -1,6 +1,8 @@
 package de.rwth.idsg.steve.web.controller;
 
 import de.rwth.idsg.steve.repository.OcppTagRepository;
+import de.rwth.idsg.steve.repository.dto.OcppTag;
+import de.rwth.idsg.steve.repository.dto.Page;
 import de.rwth.idsg.steve.service.OcppTagService;
 import de.rwth.idsg.steve.utils.ControllerHelper;
 import de.rwth.idsg.steve.web.dto.OcppTagBatchInsertForm;
@@ -17,6 +19,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.util.Collections;
 import java.util.List;
@@ -56,14 +59,15 @@ public class OcppTagsController {
     // -------------------------------------------------------------------------
 
     @RequestMapping(method = RequestMethod.GET)
-    public String get(Model model) {
-        initList(model, new OcppTagQueryForm());
+    public String get(Model model, HttpServletRequest request) {
+        initList(model, new OcppTagQueryForm(), request);
         return "data-man/ocppTags";
     }
 
     @RequestMapping(value = QUERY_PATH, method = RequestMethod.GET)
-    public String getQuery(@ModelAttribute(PARAMS) OcppTagQueryForm params, Model model) {
-        initList(model, params);
+    public String getQuery(@ModelAttribute(PARAMS) OcppTagQueryForm params, Model model,
+                           HttpServletRequest request) {
+        initList(model, params, request);
         return "data-man/ocppTags";
     }
 
@@ -159,11 +163,14 @@ public class OcppTagsController {
         return toOverview();
     }
 
-    private void initList(Model model, OcppTagQueryForm params) {
+    private void initList(Model model, OcppTagQueryForm params, HttpServletRequest request) {
+        Page<OcppTag.Overview> page = ocppTagRepository.getOverview(params);
+
         model.addAttribute(PARAMS, params);
         model.addAttribute("idTagList", ocppTagRepository.getIdTags());
         model.addAttribute("parentIdTagList", ocppTagRepository.getParentIdTags());
-        model.addAttribute("ocppTagList", ocppTagRepository.getOverview(params));
+        model.addAttribute("ocppTagList", page.getItems());
+        ControllerHelper.addPageNavigation(model, page, request, "/manager/ocppTags" + QUERY_PATH);
         model.addAttribute("unknownList", ocppTagService.getUnknownOcppTags());
     }
 
@@ -5,6 +5,11 @@ import de.rwth.idsg.steve.repository.OcppTagRepository;
 import de.rwth.idsg.steve.repository.ReservationRepository;
 import de.rwth.idsg.steve.repository.ReservationStatus;
 import de.rwth.idsg.steve.repository.TransactionRepository;
+import de.rwth.idsg.steve.repository.dto.Page;
+import de.rwth.idsg.steve.repository.dto.Reservation;
+import de.rwth.idsg.steve.repository.dto.Transaction;
+import de.rwth.idsg.steve.utils.ControllerHelper;
+import de.rwth.idsg.steve.web.dto.MeterValueQueryForm;
 import de.rwth.idsg.steve.web.dto.ReservationQueryForm;
 import de.rwth.idsg.steve.web.dto.TransactionQueryForm;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,9 +21,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * One controller for transactions and reservations pages
@@ -36,6 +46,7 @@ public class TransactionsReservationsController {
     @Autowired private OcppTagRepository ocppTagRepository;
 
     private static final String PARAMS = "params";
+    private static final String METER_VALUE_PARAMS = "meterValueParams";
 
     // -------------------------------------------------------------------------
     // Paths
@@ -44,6 +55,7 @@ public class TransactionsReservationsController {
     private static final String TRANSACTIONS_PATH = "/transactions";
     private static final String TRANSACTIONS_DETAILS_PATH = "/transactions/details/{transactionPk}";
     private static final String TRANSACTIONS_QUERY_PATH = "/transactions/query";
+    private static final String TRANSACTIONS_METER_VALUES_PATH = "/transactions/meterValues";
     private static final String RESERVATIONS_PATH = "/reservations";
     private static final String RESERVATIONS_QUERY_PATH = "/reservations/query";
 
@@ -52,11 +64,11 @@ public class TransactionsReservationsController {
     // -------------------------------------------------------------------------
 
     @RequestMapping(value = TRANSACTIONS_PATH)
-    public String getTransactions(Model model) {
+    public String getTransactions(Model model, HttpServletRequest request) {
         TransactionQueryForm params = new TransactionQueryForm();
-        initList(model);
+        initTransList(model);
 
-        model.addAttribute("transList", transactionRepository.getTransactions(params));
+        addTransactions(model, params, request);
         model.addAttribute(PARAMS, params);
         return "data-man/transactions";
     }
@@ -70,45 +82,63 @@ public class TransactionsReservationsController {
     @RequestMapping(value = TRANSACTIONS_QUERY_PATH)
     public String getTransactionsQuery(@Valid @ModelAttribute(PARAMS) TransactionQueryForm params,
                                        BindingResult result, Model model,
+                                       HttpServletRequest request,
                                        HttpServletResponse response) throws IOException {
         if (result.hasErrors()) {
-            initList(model);
+            initTransList(model);
             model.addAttribute(PARAMS, params);
             return "data-man/transactions";
         }
 
         if (params.isReturnCSV()) {
-            String fileName = "transactions.csv";
-            String headerKey = "Content-Disposition";
-            String headerValue = String.format("attachment; filename=\"%s\"", fileName);
-            response.setContentType("text/csv");
-            response.setHeader(headerKey, headerValue);
-            transactionRepository.writeTransactionsCSV(params, response.getWriter());
+            try (Writer writer = getCsvWriter(response, "transactions.csv", params.isGzipCSV())) {
+                transactionRepository.writeTransactionsCSV(params, writer);
+            }
             return null;
 
         } else {
-            model.addAttribute("transList", transactionRepository.getTransactions(params));
-            initList(model);
+            addTransactions(model, params, request);
+            initTransList(model);
             model.addAttribute(PARAMS, params);
             return "data-man/transactions";
         }
     }
 
+    @RequestMapping(value = TRANSACTIONS_METER_VALUES_PATH)
+    public String getMeterValuesCSV(@Valid @ModelAttribute(METER_VALUE_PARAMS) MeterValueQueryForm params,
+                                    BindingResult result, Model model,
+                                    HttpServletRequest request,
+                                    HttpServletResponse response) throws IOException {
+        if (result.hasErrors()) {
+            TransactionQueryForm transactionParams = new TransactionQueryForm();
+            initList(model);
+            addTransactions(model, transactionParams, request);
+            model.addAttribute(PARAMS, transactionParams);
+            return "data-man/transactions";
+        }
+
+        try (Writer writer = getCsvWriter(response, "meterValues.csv", params.isGzipCSV())) {
+            transactionRepository.writeMeterValuesCSV(params, writer);
+        }
+        return null;
+    }
+
     @RequestMapping(value = RESERVATIONS_PATH)
-    public String getReservations(Model model) {
+    public String getReservations(Model model, HttpServletRequest request) {
         ReservationQueryForm params = new ReservationQueryForm();
         initResList(model);
 
-        model.addAttribute("reservList", reservationRepository.getReservations(params));
+        addReservations(model, params, request);
         model.addAttribute(PARAMS, params);
         return "data-man/reservations";
     }
 
     @RequestMapping(value = RESERVATIONS_QUERY_PATH)
     public String getReservationsQuery(@Valid @ModelAttribute(PARAMS) ReservationQueryForm params,
-                                      BindingResult result, Model model) throws IOException {
+                                      BindingResult result, Model model,
+                                      HttpServletRequest request) throws IOException {
         if (!result.hasErrors()) {
-            model.addAttribute("reservList", reservationRepository.getReservations(params));
+            addReservations(model, params, request);
         }
 
         initResList(model);
@@ -116,14 +146,49 @@ public class TransactionsReservationsController {
         return "data-man/reservations";
     }
 
+    private void addTransactions(Model model, TransactionQueryForm params, HttpServletRequest request) {
+        Page<Transaction> page = transactionRepository.getTransactions(params);
+        model.addAttribute("transList", page.getItems());
+        ControllerHelper.addPageNavigation(model, page, request, "/manager" + TRANSACTIONS_QUERY_PATH);
+    }
+
+    private void addReservations(Model model, ReservationQueryForm params, HttpServletRequest request) {
+        Page<Reservation> page = reservationRepository.getReservations(params);
+        model.addAttribute("reservList", page.getItems());
+        ControllerHelper.addPageNavigation(model, page, request, "/manager" + RESERVATIONS_QUERY_PATH);
+    }
+
     private void initList(Model model) {
         model.addAttribute("cpList", chargePointRepository.getChargeBoxIds());
         model.addAttribute("idTagList", ocppTagRepository.getIdTags());
     }
 
+    private void initTransList(Model model) {
+        initList(model);
+        model.addAttribute(METER_VALUE_PARAMS, new MeterValueQueryForm());
+    }
+
     private void initResList(Model model) {
         initList(model);
         model.addAttribute("statusList", ReservationStatus.getValues());
     }
 
+    /**
+     * The rows are written to the response while they are read from the database. With gzip, they are compressed
+     * on the way and the file is downloaded as compressed.
+     */
+    static Writer getCsvWriter(HttpServletResponse response, String fileName,
+                               boolean gzip) throws IOException {
+        if (gzip) {
+            response.setContentType("application/gzip");
+            response.setHeader("Content-Disposition", String.format("attachment; filename=\"%s.gz\"", fileName));
+            return new OutputStreamWriter(new GZIPOutputStream(response.getOutputStream()), StandardCharsets.UTF_8);
+        } else {
+            response.setContentType("text/csv");
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setHeader("Content-Disposition", String.format("attachment; filename=\"%s\"", fileName));
+            return response.getWriter();
+        }
+    }
+
 }
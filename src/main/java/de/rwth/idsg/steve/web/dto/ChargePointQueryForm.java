@@ -11,7 +11,7 @@ import lombok.Setter;
  */
 @Getter
 @Setter
-public class ChargePointQueryForm {
+public class ChargePointQueryForm extends PagedQueryForm {
 
     private String chargeBoxId;
     private String description;
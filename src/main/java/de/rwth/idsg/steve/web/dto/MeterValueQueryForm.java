@@ -0,0 +1,53 @@
+package de.rwth.idsg.steve.web.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.joda.time.LocalDateTime;
+
+import javax.validation.constraints.AssertTrue;
+
+/**
+ * Export of the meter values of one transaction, or of a period (optionally of one charging station).
+ *
+ * @since 18.10.2026
+ */
+@Getter
+@Setter
+public class MeterValueQueryForm {
+
+    // Internal database Id
+    private Integer transactionPk;
+
+    private String chargeBoxId;
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    private boolean gzipCSV;
+
+    @AssertTrue(message = "Either 'Transaction ID' or both 'From' and 'To' must be set")
+    public boolean isTransactionOrPeriodSet() {
+        return isTransactionPkSet() || (from != null && to != null);
+    }
+
+    @AssertTrue(message = "'To' must be after 'From'")
+    public boolean isFromToValid() {
+        return from == null || to == null || to.isAfter(from);
+    }
+
+    public boolean isTransactionPkSet() {
+        return transactionPk != null;
+    }
+
+    public boolean isChargeBoxIdSet() {
+        return chargeBoxId != null;
+    }
+
+    public boolean isFromSet() {
+        return from != null;
+    }
+
+    public boolean isToSet() {
+        return to != null;
+    }
+}
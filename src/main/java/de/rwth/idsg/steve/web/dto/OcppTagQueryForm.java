@@ -10,7 +10,7 @@ import lombok.Setter;
  */
 @Getter
 @Setter
-public class OcppTagQueryForm {
+public class OcppTagQueryForm extends PagedQueryForm {
 
     private String idTag;
     private String parentIdTag;
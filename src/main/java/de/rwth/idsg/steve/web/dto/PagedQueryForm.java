@@ -0,0 +1,40 @@
+package de.rwth.idsg.steve.web.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * Keyset pagination of the overview pages: Instead of an offset, a page is requested relative to the primary key of
+ * the last row of the previous page (after) or the first row of the next page (before). If neither is set, the first
+ * page is returned.
+ *
+ * @since 18.10.2026
+ */
+@Getter
+@Setter
+public abstract class PagedQueryForm {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private Integer after;
+    private Integer before;
+
+    @Min(value = 1, message = "Page size must be at least {value}")
+    @Max(value = MAX_PAGE_SIZE, message = "Page size must be at most {value}")
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    // Counting all matching rows costs an additional query, and is therefore optional
+    private boolean countTotal;
+
+    public boolean isAfterSet() {
+        return after != null;
+    }
+
+    public boolean isBeforeSet() {
+        return before != null;
+    }
+}
@@ -14,7 +14,7 @@ import javax.validation.constraints.AssertTrue;
 @Getter
 @Setter
 @NoArgsConstructor
-public abstract class QueryForm {
+public abstract class QueryForm extends PagedQueryForm {
 
     private String chargeBoxId;
     private String ocppIdTag;
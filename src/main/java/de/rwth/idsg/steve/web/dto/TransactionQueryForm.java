@@ -19,6 +19,7 @@ public class TransactionQueryForm extends QueryForm {
     private Integer transactionPk;
 
     private boolean returnCSV;
+    private boolean gzipCSV;
 
     @NotNull(message = "Query type is required")
     private QueryType type;
@@ -0,0 +1,22 @@
+--
+-- optional storage of the meter values of a transaction as compact blobs (see db.meter.value.blob and
+-- MeterValueBlobCodec), instead of one connector_meter_value row per sample.
+--
+-- every MeterValues message inserts one chunk (a row), such that an append does not rewrite the previous chunks. when
+-- the transaction is stopped, its chunks are merged into one row by the application. the chunks of a transaction are
+-- read in the order of chunk_pk.
+--
+-- the blobs are deleted with their transaction (and therefore with the connector and charge box of the transaction).
+--
+
+CREATE TABLE `transaction_meter_value_blob` (
+  `transaction_pk` INT(10) UNSIGNED NOT NULL,
+  `chunk_pk` BIGINT(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `connector_pk` INT(11) UNSIGNED NOT NULL,
+  `sample_count` INT(11) NOT NULL,
+  `data` LONGBLOB NOT NULL,
+  PRIMARY KEY (`transaction_pk`, `chunk_pk`),
+  UNIQUE KEY `tmvb_chunk_pk_uq` (`chunk_pk`),
+  CONSTRAINT `FK_tmvb_transaction_pk`
+    FOREIGN KEY (`transaction_pk`) REFERENCES `transaction` (`transaction_pk`) ON DELETE CASCADE ON UPDATE NO ACTION
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_unicode_ci;
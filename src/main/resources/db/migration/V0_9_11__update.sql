@@ -0,0 +1,137 @@
+--
+-- the six low-cardinality strings of connector_meter_value (reading context, format, measurand, location, unit and
+-- phase) are replaced with codes into meter_value_dictionary, which the application holds in memory (see
+-- MeterValueDictionary). since connector_meter_value is partitioned, the codes cannot be foreign keys (see V0_9_8).
+--
+-- the values are compared binary (utf8_bin), such that e.g. 'Wh' and 'wh' get different codes and are restored as
+-- they were stored.
+--
+-- the codes are SMALLINT, i.e. the dictionary holds at most 32767 values, of which the OCPP 1.6 values take 64. the
+-- application rejects new values when it is full (see MeterValueDictionaryImpl).
+--
+-- the new columns are added at the end of the table without an explicit position, which is an instant change with
+-- MariaDB 10.3.2+ and MySQL 8.0.12+, and an online (in-place) one otherwise. the codes are filled in batches of one
+-- hour of value_timestamp, each in its own transaction, such that the undo log and the row locks stay small.
+--
+-- NOTE: dropping the string columns rebuilds connector_meter_value (except with MariaDB 10.4+ and MySQL 8.0.29+),
+-- which takes a while for large tables. it blocks the writes to the table while the table is copied. since the
+-- application migrates the schema at startup, this is an offline step: plan a maintenance window for large tables,
+-- and stop all instances of the application, since the previous versions still write the string columns.
+--
+
+CREATE TABLE `meter_value_dictionary` (
+  `dictionary_pk` SMALLINT(6) NOT NULL AUTO_INCREMENT,
+  `value` VARCHAR(255) CHARACTER SET utf8 COLLATE utf8_bin NOT NULL,
+  PRIMARY KEY (`dictionary_pk`),
+  UNIQUE KEY `meter_value_dictionary_value_uq` (`value`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_unicode_ci;
+
+-- the values of the OCPP 1.6 enums of SampledValue
+INSERT IGNORE INTO `meter_value_dictionary` (`value`) VALUES
+  ('Interruption.Begin'), ('Interruption.End'), ('Other'), ('Sample.Clock'), ('Sample.Periodic'),
+  ('Transaction.Begin'), ('Transaction.End'), ('Trigger'),
+  ('Raw'), ('SignedData'),
+  ('Current.Export'), ('Current.Import'), ('Current.Offered'), ('Energy.Active.Export.Register'),
+  ('Energy.Active.Import.Register'), ('Energy.Reactive.Export.Register'), ('Energy.Reactive.Import.Register'),
+  ('Energy.Active.Export.Interval'), ('Energy.Active.Import.Interval'), ('Energy.Reactive.Export.Interval'),
+  ('Energy.Reactive.Import.Interval'), ('Frequency'), ('Power.Active.Export'), ('Power.Active.Import'),
+  ('Power.Factor'), ('Power.Offered'), ('Power.Reactive.Export'), ('Power.Reactive.Import'), ('RPM'), ('SoC'),
+  ('Temperature'), ('Voltage'),
+  ('Body'), ('Cable'), ('EV'), ('Inlet'), ('Outlet'),
+  ('Wh'), ('kWh'), ('varh'), ('kvarh'), ('W'), ('kW'), ('VA'), ('kVA'), ('var'), ('kvar'), ('A'), ('V'),
+  ('Celsius'), ('Celcius'), ('Fahrenheit'), ('K'), ('Percent'),
+  ('L1'), ('L2'), ('L3'), ('N'), ('L1-N'), ('L2-N'), ('L3-N'), ('L1-L2'), ('L2-L3'), ('L3-L1');
+
+-- the other values in the table, e.g. of OCPP 1.2/1.5. the distinct combinations are collected with one scan. a
+-- temporary table cannot be used twice in one statement, hence one insert per column
+CREATE TEMPORARY TABLE `tmp_meter_value_strings` AS
+  SELECT DISTINCT `reading_context`, `format`, `measurand`, `location`, `unit`, `phase`
+  FROM `connector_meter_value`;
+
+INSERT IGNORE INTO `meter_value_dictionary` (`value`)
+  SELECT `reading_context` FROM `tmp_meter_value_strings` WHERE `reading_context` IS NOT NULL;
+INSERT IGNORE INTO `meter_value_dictionary` (`value`)
+  SELECT `format` FROM `tmp_meter_value_strings` WHERE `format` IS NOT NULL;
+INSERT IGNORE INTO `meter_value_dictionary` (`value`)
+  SELECT `measurand` FROM `tmp_meter_value_strings` WHERE `measurand` IS NOT NULL;
+INSERT IGNORE INTO `meter_value_dictionary` (`value`)
+  SELECT `location` FROM `tmp_meter_value_strings` WHERE `location` IS NOT NULL;
+INSERT IGNORE INTO `meter_value_dictionary` (`value`)
+  SELECT `unit` FROM `tmp_meter_value_strings` WHERE `unit` IS NOT NULL;
+INSERT IGNORE INTO `meter_value_dictionary` (`value`)
+  SELECT `phase` FROM `tmp_meter_value_strings` WHERE `phase` IS NOT NULL;
+
+DROP TEMPORARY TABLE `tmp_meter_value_strings`;
+
+ALTER TABLE `connector_meter_value`
+  ADD COLUMN `reading_context_pk` SMALLINT(6) NULL DEFAULT NULL,
+  ADD COLUMN `format_pk` SMALLINT(6) NULL DEFAULT NULL,
+  ADD COLUMN `measurand_pk` SMALLINT(6) NULL DEFAULT NULL,
+  ADD COLUMN `location_pk` SMALLINT(6) NULL DEFAULT NULL,
+  ADD COLUMN `unit_pk` SMALLINT(6) NULL DEFAULT NULL,
+  ADD COLUMN `phase_pk` SMALLINT(6) NULL DEFAULT NULL;
+
+DROP PROCEDURE IF EXISTS `encode_meter_values`;
+
+DELIMITER ;;
+CREATE PROCEDURE `encode_meter_values`()
+  BEGIN
+    DECLARE batchStart DATETIME(6);
+    DECLARE lastTimestamp DATETIME(6);
+
+    -- the table has no primary key, hence the batches are ranges of the indexed value_timestamp
+    SET @encodeQuery = CONCAT(
+      'UPDATE `connector_meter_value` cmv ',
+      'LEFT JOIN `meter_value_dictionary` d1 ON d1.`value` = cmv.`reading_context` COLLATE utf8_bin ',
+      'LEFT JOIN `meter_value_dictionary` d2 ON d2.`value` = cmv.`format` COLLATE utf8_bin ',
+      'LEFT JOIN `meter_value_dictionary` d3 ON d3.`value` = cmv.`measurand` COLLATE utf8_bin ',
+      'LEFT JOIN `meter_value_dictionary` d4 ON d4.`value` = cmv.`location` COLLATE utf8_bin ',
+      'LEFT JOIN `meter_value_dictionary` d5 ON d5.`value` = cmv.`unit` COLLATE utf8_bin ',
+      'LEFT JOIN `meter_value_dictionary` d6 ON d6.`value` = cmv.`phase` COLLATE utf8_bin ',
+      'SET cmv.`reading_context_pk` = d1.`dictionary_pk`, ',
+      'cmv.`format_pk` = d2.`dictionary_pk`, ',
+      'cmv.`measurand_pk` = d3.`dictionary_pk`, ',
+      'cmv.`location_pk` = d4.`dictionary_pk`, ',
+      'cmv.`unit_pk` = d5.`dictionary_pk`, ',
+      'cmv.`phase_pk` = d6.`dictionary_pk` ',
+      'WHERE ');
+
+    SET @batchQuery = CONCAT(@encodeQuery, 'cmv.`value_timestamp` >= ? AND cmv.`value_timestamp` < ?');
+    PREPARE encodeBatch FROM @batchQuery;
+
+    SELECT MIN(`value_timestamp`), MAX(`value_timestamp`)
+    INTO batchStart, lastTimestamp
+    FROM `connector_meter_value`;
+
+    SET batchStart = DATE_FORMAT(batchStart, '%Y-%m-%d %H:00:00');
+
+    WHILE batchStart <= lastTimestamp DO
+      SET @batchStart = batchStart;
+      SET @batchEnd = batchStart + INTERVAL 1 HOUR;
+      EXECUTE encodeBatch USING @batchStart, @batchEnd;
+      COMMIT;
+      SET batchStart = @batchEnd;
+    END WHILE;
+
+    DEALLOCATE PREPARE encodeBatch;
+
+    -- the rows without timestamp
+    SET @nullQuery = CONCAT(@encodeQuery, 'cmv.`value_timestamp` IS NULL');
+    PREPARE encodeNull FROM @nullQuery;
+    EXECUTE encodeNull;
+    COMMIT;
+    DEALLOCATE PREPARE encodeNull;
+  END ;;
+DELIMITER ;
+
+CALL encode_meter_values();
+
+DROP PROCEDURE `encode_meter_values`;
+
+ALTER TABLE `connector_meter_value`
+  DROP COLUMN `reading_context`,
+  DROP COLUMN `format`,
+  DROP COLUMN `measurand`,
+  DROP COLUMN `location`,
+  DROP COLUMN `unit`,
+  DROP COLUMN `phase`;
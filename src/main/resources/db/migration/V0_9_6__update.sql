@@ -0,0 +1,23 @@
+--
+-- the latest status of each connector, maintained with every insert into connector_status,
+-- such that the status page and the statistics do not have to find it in the history
+--
+
+CREATE TABLE `connector_status_latest` (
+  `connector_pk` INT(11) UNSIGNED NOT NULL,
+  `status_timestamp` TIMESTAMP(6) NULL DEFAULT NULL,
+  `status` VARCHAR(255) NULL DEFAULT NULL,
+  `error_code` VARCHAR(255) NULL DEFAULT NULL,
+  PRIMARY KEY (`connector_pk`),
+  INDEX `connector_status_latest_status_idx` (`status`),
+  CONSTRAINT `FK_connector_status_latest_cpk`
+    FOREIGN KEY (`connector_pk`) REFERENCES `connector` (`connector_pk`) ON DELETE CASCADE ON UPDATE NO ACTION
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_unicode_ci;
+
+-- one-time backfill from the history. if a connector has multiple statuses with the latest timestamp, one of them
+-- is kept (IGNORE)
+INSERT IGNORE INTO `connector_status_latest` (`connector_pk`, `status_timestamp`, `status`, `error_code`)
+  SELECT cs.connector_pk, cs.status_timestamp, cs.status, cs.error_code
+  FROM connector_status cs
+    INNER JOIN (SELECT connector_pk, MAX(status_timestamp) AS Max FROM connector_status GROUP BY connector_pk)
+      AS t1 ON cs.connector_pk = t1.connector_pk AND cs.status_timestamp = t1.Max;
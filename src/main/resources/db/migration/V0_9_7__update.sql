@@ -0,0 +1,62 @@
+--
+-- a StartTransaction that is sent again by a station (e.g. because our response was lost) must not create a second
+-- transaction. the key covers the same columns as the duplicate check in the application, which was done under a
+-- lock before, such that the check is now left to the database (INSERT IGNORE).
+--
+-- utf8 VARCHAR(255) columns take at most 765 bytes, and therefore fit into an index without prefixes.
+--
+-- the duplicates that already exist would violate the key. of each group, the first transaction is kept:
+--
+-- - if it was not stopped, but a duplicate was, it takes over the stop data of the duplicate
+-- - the meter values of the duplicates are moved to it
+-- - reservations that point to a duplicate lose the reference (transaction_pk is unique in reservation)
+--
+-- rows with a NULL in one of the columns are no duplicates for the key, and are left as they are.
+--
+
+CREATE TABLE `tmp_transaction_duplicate` (
+  `duplicate_pk` INT(10) UNSIGNED NOT NULL,
+  `keep_pk` INT(10) UNSIGNED NOT NULL,
+  PRIMARY KEY (`duplicate_pk`),
+  INDEX (`keep_pk`)
+) ENGINE=InnoDB;
+
+INSERT INTO `tmp_transaction_duplicate` (`duplicate_pk`, `keep_pk`)
+  SELECT t.`transaction_pk`, k.`keep_pk`
+  FROM `transaction` t
+  JOIN (SELECT MIN(`transaction_pk`) AS `keep_pk`, `connector_pk`, `id_tag`, `start_timestamp`, `start_value`
+        FROM `transaction`
+        WHERE `start_timestamp` IS NOT NULL AND `start_value` IS NOT NULL
+        GROUP BY `connector_pk`, `id_tag`, `start_timestamp`, `start_value`
+        HAVING COUNT(*) > 1) k
+    ON k.`connector_pk` = t.`connector_pk`
+   AND k.`id_tag` = t.`id_tag`
+   AND k.`start_timestamp` = t.`start_timestamp`
+   AND k.`start_value` = t.`start_value`
+  WHERE t.`transaction_pk` <> k.`keep_pk`;
+
+UPDATE `transaction` k
+  JOIN `tmp_transaction_duplicate` d ON d.`keep_pk` = k.`transaction_pk`
+  JOIN `transaction` t ON t.`transaction_pk` = d.`duplicate_pk`
+SET k.`stop_timestamp` = t.`stop_timestamp`,
+    k.`stop_value` = t.`stop_value`,
+    k.`stop_reason` = t.`stop_reason`
+WHERE k.`stop_timestamp` IS NULL
+  AND t.`stop_timestamp` IS NOT NULL;
+
+UPDATE `connector_meter_value` cmv
+  JOIN `tmp_transaction_duplicate` d ON d.`duplicate_pk` = cmv.`transaction_pk`
+SET cmv.`transaction_pk` = d.`keep_pk`;
+
+UPDATE `reservation` r
+  JOIN `tmp_transaction_duplicate` d ON d.`duplicate_pk` = r.`transaction_pk`
+SET r.`transaction_pk` = NULL;
+
+DELETE t
+  FROM `transaction` t
+  JOIN `tmp_transaction_duplicate` d ON d.`duplicate_pk` = t.`transaction_pk`;
+
+DROP TABLE `tmp_transaction_duplicate`;
+
+ALTER TABLE `transaction`
+  ADD UNIQUE KEY `transaction_start_uq` (`connector_pk`, `id_tag`, `start_timestamp`, `start_value`);
@@ -0,0 +1,77 @@
+--
+-- connector_meter_value and connector_status are partitioned by the month of their timestamps, such that queries with
+-- a time range only read the partitions of the range, and months past the retention period can be dropped as a whole
+-- instead of deleted row by row (see PartitionMaintenance). the partitions of the coming months are created by the
+-- application.
+--
+-- MySQL does not support foreign keys for partitioned tables. therefore, the foreign keys are dropped, and the
+-- application does what they did: it deletes the rows of a deleted charge box, and sets transaction_pk of the meter
+-- values to NULL, when the transactions of a deleted OCPP tag are deleted.
+--
+-- a TIMESTAMP(6) column cannot be used for partitioning (UNIX_TIMESTAMP is only allowed for TIMESTAMP without
+-- fractional seconds). therefore, the timestamp columns are changed to DATETIME(6), and the tables are partitioned by
+-- RANGE COLUMNS, with plain dates as boundaries. the values are converted in the time zone of the session, which is
+-- the one of the server, as for the application. the column type is mapped to DateTime by jOOQ like before.
+--
+-- rows without timestamp end up in the first partition (p_start), which is never dropped.
+--
+-- NOTE: the conversion and the partitioning rewrite both tables, which takes a while for large tables.
+--
+
+ALTER TABLE `connector_meter_value`
+  DROP FOREIGN KEY `FK_pk_cm`,
+  DROP FOREIGN KEY `FK_tid_cm`;
+
+ALTER TABLE `connector_meter_value`
+  MODIFY `value_timestamp` DATETIME(6) NULL DEFAULT NULL;
+
+ALTER TABLE `connector_status`
+  DROP FOREIGN KEY `FK_cs_pk`;
+
+ALTER TABLE `connector_status`
+  MODIFY `status_timestamp` DATETIME(6) NULL DEFAULT NULL;
+
+DROP PROCEDURE IF EXISTS `partition_by_month`;
+
+DELIMITER ;;
+CREATE PROCEDURE `partition_by_month`(IN tableName VARCHAR(64), IN columnName VARCHAR(64))
+  BEGIN
+    DECLARE partitionMonth DATE;
+    DECLARE lastMonth DATE;
+    DECLARE partitionList TEXT;
+
+    SET @minTimestamp = NULL;
+    SET @query = CONCAT('SELECT MIN(`', columnName, '`) INTO @minTimestamp FROM `', tableName, '`');
+    PREPARE stmt FROM @query;
+    EXECUTE stmt;
+    DEALLOCATE PREPARE stmt;
+
+    -- one partition per month of the existing rows, and of the next three months
+    SET partitionMonth = DATE_FORMAT(LEAST(COALESCE(@minTimestamp, CURRENT_DATE), CURRENT_DATE), '%Y-%m-01');
+    SET lastMonth = DATE_FORMAT(CURRENT_DATE + INTERVAL 3 MONTH, '%Y-%m-01');
+
+    SET partitionList = CONCAT('PARTITION p_start VALUES LESS THAN (''', partitionMonth, ''')');
+
+    WHILE partitionMonth <= lastMonth DO
+      SET partitionList = CONCAT(partitionList,
+        ', PARTITION p', DATE_FORMAT(partitionMonth, '%Y%m'),
+        ' VALUES LESS THAN (''', partitionMonth + INTERVAL 1 MONTH, ''')');
+      SET partitionMonth = partitionMonth + INTERVAL 1 MONTH;
+    END WHILE;
+
+    -- catch-all for rows beyond the created months. the application splits the next months from it, which is a
+    -- metadata operation as long as it is empty (see PartitionMaintenanceImpl)
+    SET partitionList = CONCAT(partitionList, ', PARTITION p_future VALUES LESS THAN (MAXVALUE)');
+
+    SET @query = CONCAT('ALTER TABLE `', tableName, '` PARTITION BY RANGE COLUMNS(`', columnName, '`) (',
+                        partitionList, ')');
+    PREPARE stmt FROM @query;
+    EXECUTE stmt;
+    DEALLOCATE PREPARE stmt;
+  END ;;
+DELIMITER ;
+
+CALL partition_by_month('connector_meter_value', 'value_timestamp');
+CALL partition_by_month('connector_status', 'status_timestamp');
+
+DROP PROCEDURE `partition_by_month`;
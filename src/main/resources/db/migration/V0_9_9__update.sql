@@ -0,0 +1,31 @@
+--
+-- downsampled meter values per connector, measurand and phase (see MeterValueRollupStore). one row per bucket of the
+-- resolution (60, 900 or 3600 seconds), such that queries over long ranges do not read the raw rows of
+-- connector_meter_value. the rows are written by the application while the meter values are received.
+--
+-- - phase: empty string for the samples without phase, since it is a part of the primary key
+-- - unit: kilo-units are normalized (e.g. kWh to Wh)
+-- - last_value/last_timestamp: the latest sample in the bucket
+--
+-- there is no column for the consumption of a bucket. it is the increase of last_value over the previous bucket of the
+-- series, and is calculated by the query, such that it does not depend on the order in which the rows are written.
+--
+-- bucket_start is DATETIME, since a TIMESTAMP column without default might be updated automatically by MySQL.
+-- there are no foreign keys, like connector_meter_value (see V0_9_8). the rows of a deleted charge box are deleted by
+-- the application.
+--
+
+CREATE TABLE `connector_meter_value_rollup` (
+  `connector_pk` INT(11) UNSIGNED NOT NULL,
+  `measurand` VARCHAR(255) NOT NULL,
+  `phase` VARCHAR(255) NOT NULL DEFAULT '',
+  `resolution` INT(11) NOT NULL,
+  `bucket_start` DATETIME NOT NULL,
+  `unit` VARCHAR(255) NULL DEFAULT NULL,
+  `sample_count` INT(11) NOT NULL,
+  `min_value` DOUBLE NOT NULL,
+  `max_value` DOUBLE NOT NULL,
+  `last_value` DOUBLE NOT NULL,
+  `last_timestamp` TIMESTAMP(6) NULL DEFAULT NULL,
+  PRIMARY KEY (`connector_pk`, `measurand`, `phase`, `resolution`, `bucket_start`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_unicode_ci;
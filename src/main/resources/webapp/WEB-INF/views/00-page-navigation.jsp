@@ -0,0 +1,7 @@
+<div class="page-navigation">
+    <c:if test="${not empty prevPageUrl}"><a href="${prevPageUrl}">&laquo; Previous</a></c:if>
+    <c:if test="${not empty nextPageUrl}"><a href="${nextPageUrl}">Next &raquo;</a></c:if>
+    <c:if test="${not empty page.totalCount}">
+        <span>Total: ${page.totalCount}<c:if test="${page.totalCountCapped}">+</c:if></span>
+    </c:if>
+</div>
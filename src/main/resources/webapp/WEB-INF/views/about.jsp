@@ -27,5 +27,14 @@
         </tr>
     </tr>
     </table>
+<section><span>Runtime Metrics</span></section>
+    <table class="userInputFullPage">
+        <c:forEach items="${metrics}" var="group">
+            <tr><td colspan="2"><b>${group.key}</b></td></tr>
+            <c:forEach items="${group.value}" var="entry">
+                <tr><td>${entry.key}:</td><td>${entry.value}</td></tr>
+            </c:forEach>
+        </c:forEach>
+    </table>
 </div>
 <%@ include file="00-footer.jsp" %>
\ No newline at end of file
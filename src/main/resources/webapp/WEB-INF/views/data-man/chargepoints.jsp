@@ -78,6 +78,10 @@
                     </form:select>
                     </td>
                 </tr>
+                <tr>
+                    <td>Count total?:</td>
+                    <td><form:checkbox path="countTotal"/></td>
+                </tr>
                 <tr>
                     <td></td>
                     <td id="add_space">
@@ -116,6 +120,7 @@
             </c:forEach>
             </tbody>
         </table>
+        <%@ include file="../00-page-navigation.jsp" %>
     </div>
 </div></div>
 <%@ include file="../00-footer.jsp" %>
\ No newline at end of file
@@ -92,6 +92,10 @@
                     </form:select>
                     </td>
                 </tr>
+                <tr>
+                    <td>Count total?:</td>
+                    <td><form:checkbox path="countTotal"/></td>
+                </tr>
                 <tr>
                     <td></td>
                     <td id="add_space">
@@ -137,6 +141,7 @@
             </c:forEach>
             </tbody>
         </table>
+        <%@ include file="../00-page-navigation.jsp" %>
     </div>
     </div>
 </div>
@@ -61,6 +61,10 @@
 				<td>To:</td>
 				<td><form:input path="to" id="intervalPeriodTypeTo" cssClass="dateTimePicker"/></td>
 			</tr>
+			<tr>
+				<td>Count total?:</td>
+				<td><form:checkbox path="countTotal"/></td>
+			</tr>
 			<tr>
 				<td></td>
 				<td id="add_space">
@@ -103,6 +107,7 @@
 	</c:forEach>
 	</tbody>
 </table>
+<%@ include file="../00-page-navigation.jsp" %>
 <br>
 </div>
 <%@ include file="../00-footer.jsp" %>
\ No newline at end of file
@@ -20,7 +20,9 @@
         </table>
     </center>
     <br>
-    <section><span>Intermediate Meter Values</span></section>
+    <section><span>Intermediate Meter Values
+    <a href="${ctxPath}/manager/transactions/meterValues?transactionPk=${details.transaction.id}">(Export as CSV)</a>
+    </span></section>
     <table class="res">
         <thead>
         <tr>
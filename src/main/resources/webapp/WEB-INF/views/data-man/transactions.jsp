@@ -63,6 +63,14 @@ Transactions
                 <td>Get as CSV?:</td>
                 <td><form:checkbox path="returnCSV"/></td>
             </tr>
+            <tr>
+                <td>Compress CSV (gzip)?:</td>
+                <td><form:checkbox path="gzipCSV"/></td>
+            </tr>
+            <tr>
+                <td>Count total?:</td>
+                <td><form:checkbox path="countTotal"/></td>
+            </tr>
             <tr>
                 <td></td>
                 <td id="add_space">
@@ -103,6 +111,58 @@ Transactions
         </c:forEach>
         </tbody>
     </table>
+    <%@ include file="../00-page-navigation.jsp" %>
+<br>
+<section><span>
+Meter Values Export
+<a class="tooltip" href="#"><img src="${ctxPath}/static/images/info.png" style="vertical-align:middle">
+<span>Exports the meter values of a transaction (as sent by the charging station with the transaction id), or of a
+period (optionally of one charging station) as CSV.</span>
+</a>
+</span></section>
+    <spring:hasBindErrors name="meterValueParams">
+        <div class="error">
+            <ul>
+                <c:forEach var="error" items="${errors.allErrors}">
+                    <li>${error.defaultMessage}</li>
+                </c:forEach>
+            </ul>
+        </div>
+    </spring:hasBindErrors>
+    <form:form action="${ctxPath}/manager/transactions/meterValues" method="get" modelAttribute="meterValueParams">
+        <table class="userInput">
+            <tr>
+                <td>Transaction ID:</td>
+                <td><form:input path="transactionPk"/></td>
+            </tr>
+            <tr>
+                <td>ChargeBox ID:</td>
+                <td><form:select path="chargeBoxId">
+                        <option value="" selected>All</option>
+                        <form:options items="${cpList}"/>
+                    </form:select>
+                </td>
+            </tr>
+            <tr>
+                <td>From:</td>
+                <td><form:input path="from" cssClass="dateTimePicker"/></td>
+            </tr>
+            <tr>
+                <td>To:</td>
+                <td><form:input path="to" cssClass="dateTimePicker"/></td>
+            </tr>
+            <tr>
+                <td>Compress CSV (gzip)?:</td>
+                <td><form:checkbox path="gzipCSV"/></td>
+            </tr>
+            <tr>
+                <td></td>
+                <td id="add_space">
+                    <input type="submit" value="Export">
+                </td>
+            </tr>
+        </table>
+    </form:form>
 <br>
 </div>
 <%@ include file="../00-footer.jsp" %>
\ No newline at end of file
@@ -0,0 +1,118 @@
+package de.rwth.idsg.steve;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.rwth.idsg.ocpp.jaxb.RequestType;
+import de.rwth.idsg.steve.ocpp.ws.JsonObjectMapper;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
+import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16TypeStore;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Deserializer;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Serializer;
+import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.MeterValuesRequest;
+import ocpp.cs._2015._10.SampledValue;
+import org.joda.time.DateTime;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Compares the allocation and throughput of the single-pass streaming deserialization in {@link Deserializer}
+ * with the previous two-pass approach (JsonNode tree first, then tree to value). Not a unit test, run the main method.
+ *
+ * With a MeterValues frame of 445 chars (OpenJDK 11), both approaches process about 70,000 messages per second. The
+ * streaming one allocates 6,456 instead of 11,600 bytes per message, i.e. the benefit is less garbage, not speed.
+ *
+ * @since 18.10.2026
+ */
+public class DeserializerBenchmark {
+
+    private static final int WARM_UP_ITERATIONS = 50_000;
+    private static final int MEASURE_ITERATIONS = 200_000;
+
+    private static final ObjectMapper MAPPER = JsonObjectMapper.INSTANCE.getMapper();
+
+    public static void main(String[] args) throws Exception {
+        String frame = createMeterValuesFrame();
+        System.out.println("Frame size: " + frame.length() + " chars");
+
+        Deserializer deserializer = new Deserializer(null, Ocpp16TypeStore.INSTANCE);
+
+        Consumer<String> streaming = str -> {
+            CommunicationContext context = new CommunicationContext(null, "benchmark");
+            context.setIncomingString(str);
+            deserializer.accept(context);
+        };
+
+        Consumer<String> tree = str -> {
+            try (JsonParser parser = MAPPER.getFactory().createParser(str)) {
+                parser.nextToken(); // '['
+                parser.nextToken(); // message type
+                parser.nextToken(); // message id
+                parser.nextToken(); // action
+                Class<? extends RequestType> clazz = Ocpp16TypeStore.INSTANCE.findRequestClass(parser.getText());
+                parser.nextToken(); // payload
+                JsonNode payload = parser.readValueAsTree();
+                MAPPER.treeToValue(payload, clazz);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        };
+
+        run("tree (old)", tree, frame);
+        run("streaming", streaming, frame);
+        run("tree (old)", tree, frame);
+        run("streaming", streaming, frame);
+    }
+
+    private static void run(String name, Consumer<String> consumer, String frame) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            consumer.accept(frame);
+        }
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = bean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            consumer.accept(frame);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocated = bean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-12s %,12.0f msg/s %,10d bytes/msg%n",
+                name,
+                MEASURE_ITERATIONS / (elapsed / 1e9),
+                allocated / MEASURE_ITERATIONS);
+    }
+
+    private static String createMeterValuesFrame() {
+        List<MeterValue> list = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            list.add(new MeterValue().withTimestamp(DateTime.now())
+                                     .withSampledValue(
+                                             new SampledValue().withValue(Integer.toString(1000 * i)),
+                                             new SampledValue().withValue("16.1")
+                                     ));
+        }
+
+        OcppJsonCall call = new OcppJsonCall();
+        call.setMessageId("benchmark");
+        call.setAction("MeterValues");
+        call.setPayload(new MeterValuesRequest().withConnectorId(1)
+                                                .withTransactionId(1)
+                                                .withMeterValue(list));
+
+        CommunicationContext context = new CommunicationContext(null, "benchmark");
+        context.setOutgoingMessage(call);
+        Serializer.INSTANCE.accept(context);
+        return context.getOutgoingString();
+    }
+}
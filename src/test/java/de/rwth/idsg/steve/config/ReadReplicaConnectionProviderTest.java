@@ -0,0 +1,130 @@
+package de.rwth.idsg.steve.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.jooq.exception.DataAccessException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Runs against the database of the test profile, which takes the roles of both the primary and the replica.
+ *
+ * @since 18.10.2026
+ */
+public class ReadReplicaConnectionProviderTest {
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<Connection> connections = new ArrayList<>();
+
+    @After
+    public void cleanUp() throws Exception {
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        for (HikariDataSource dataSource : dataSources) {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    public void testReplica() throws Exception {
+        HikariDataSource replica = dataSource(CONFIG.getDb().getPort(), 2);
+        ReadReplicaConnectionProvider provider = new ReadReplicaConnectionProvider(replica, dataSource(
+                CONFIG.getDb().getPort(), 2));
+
+        provider.release(provider.acquire());
+
+        Assert.assertEquals(1, provider.getReplicaAcquires());
+        Assert.assertEquals(0, provider.getPrimaryFallbacks());
+        Assert.assertEquals(0, replica.getHikariPoolMXBean().getActiveConnections());
+    }
+
+    /**
+     * A replica that cannot be connected to is skipped by the following reads
+     */
+    @Test
+    public void testReplicaNotReachable() throws Exception {
+        HikariDataSource replica = dataSource(1, 2);
+        ReadReplicaConnectionProvider provider = new ReadReplicaConnectionProvider(replica, dataSource(
+                CONFIG.getDb().getPort(), 2));
+
+        provider.release(provider.acquire());
+        Assert.assertFalse(provider.isReplicaAvailable());
+
+        provider.release(provider.acquire());
+        Assert.assertEquals(0, provider.getReplicaAcquires());
+        Assert.assertEquals(2, provider.getPrimaryFallbacks());
+        Assert.assertEquals(0, provider.getReplicaPoolTimeouts());
+    }
+
+    /**
+     * A replica with a full pool is reachable, and is tried again by the next read
+     */
+    @Test
+    public void testReplicaPoolFull() throws Exception {
+        HikariDataSource replica = dataSource(CONFIG.getDb().getPort(), 1);
+        ReadReplicaConnectionProvider provider = new ReadReplicaConnectionProvider(replica, dataSource(
+                CONFIG.getDb().getPort(), 2));
+
+        Connection busy = replica.getConnection();
+        provider.release(provider.acquire());
+        Assert.assertTrue(provider.isReplicaAvailable());
+        Assert.assertEquals(1, provider.getReplicaPoolTimeouts());
+        Assert.assertEquals(1, provider.getPrimaryFallbacks());
+
+        busy.close();
+        provider.release(provider.acquire());
+        Assert.assertEquals(1, provider.getReplicaAcquires());
+    }
+
+    @Test
+    public void testPrimaryPoolFull() throws Exception {
+        HikariDataSource primary = dataSource(CONFIG.getDb().getPort(), 1);
+        ReadReplicaConnectionProvider provider = new ReadReplicaConnectionProvider(dataSource(1, 1), primary);
+
+        connections.add(primary.getConnection());
+        try {
+            provider.acquire();
+            Assert.fail();
+        } catch (DataAccessException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Timed out waiting for a free connection"));
+        }
+    }
+
+    @Test
+    public void testPrimaryNotReachable() {
+        ReadReplicaConnectionProvider provider = new ReadReplicaConnectionProvider(dataSource(1, 1),
+                dataSource(1, 1));
+        try {
+            provider.acquire();
+            Assert.fail();
+        } catch (DataAccessException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Error getting connection"));
+        }
+    }
+
+    /**
+     * Fails fast and does not connect before the first acquire, like the replica pool of BeanConfiguration
+     */
+    private HikariDataSource dataSource(int port, int maxPoolSize) {
+        HikariConfig hc = new HikariConfig();
+        hc.setJdbcUrl("jdbc:mysql://" + CONFIG.getDb().getIp() + ":" + port + "/" + CONFIG.getDb().getSchema());
+        hc.setUsername(CONFIG.getDb().getUserName());
+        hc.setPassword(CONFIG.getDb().getPassword());
+        hc.setMaximumPoolSize(maxPoolSize);
+        hc.setMinimumIdle(0);
+        hc.setConnectionTimeout(1_000);
+        hc.setInitializationFailTimeout(-1);
+
+        HikariDataSource dataSource = new HikariDataSource(hc);
+        dataSources.add(dataSource);
+        return dataSource;
+    }
+}
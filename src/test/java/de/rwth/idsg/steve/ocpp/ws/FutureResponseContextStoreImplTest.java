@@ -0,0 +1,148 @@
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.ocpp.jaxb.RequestType;
+import de.rwth.idsg.ocpp.jaxb.ResponseType;
+import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.ocpp.CommunicationTask;
+import de.rwth.idsg.steve.ocpp.OcppCallback;
+import de.rwth.idsg.steve.ocpp.OcppTransport;
+import de.rwth.idsg.steve.ocpp.OcppVersion;
+import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonError;
+import de.rwth.idsg.steve.repository.dto.ChargePointSelect;
+import de.rwth.idsg.steve.web.dto.ocpp.SingleChargePointSelect;
+import ocpp.cs._2015._10.HeartbeatResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.ws.AsyncHandler;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @since 18.10.2026
+ */
+public class FutureResponseContextStoreImplTest {
+
+    private static final int CALL_TIMEOUT = 3;
+
+    private final FutureResponseContextStoreImpl store = new FutureResponseContextStoreImpl(CALL_TIMEOUT);
+    private final RecordingWebSocketSession session = new RecordingWebSocketSession("session-1", "charge-box-1");
+    private final List<String> failures = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testResponse() {
+        store.addSession(session);
+        FutureResponseContext context = newContext();
+        store.add(session, "id-1", context);
+
+        Assert.assertSame(context, store.get(session, "id-1"));
+        Assert.assertNull(store.get(session, "id-1"));
+
+        // the timeout was cancelled
+        tick(CALL_TIMEOUT + 2);
+        Assert.assertEquals(Collections.emptyList(), failures);
+    }
+
+    @Test
+    public void testTimeout() {
+        store.addSession(session);
+        store.add(session, "id-1", newContext());
+
+        tick(CALL_TIMEOUT);
+        Assert.assertEquals(Collections.emptyList(), failures);
+
+        tick(1);
+        Assert.assertEquals(Collections.singletonList("charge-box-1"), failures);
+
+        // a late response is ignored
+        Assert.assertNull(store.get(session, "id-1"));
+    }
+
+    @Test
+    public void testConnectionClosed() {
+        store.addSession(session);
+        store.add(session, "id-1", newContext());
+        store.add(session, "id-2", newContext());
+
+        store.removeSession(session);
+        Assert.assertEquals(2, failures.size());
+
+        // failed only once
+        tick(CALL_TIMEOUT + 2);
+        Assert.assertEquals(2, failures.size());
+    }
+
+    @Test(expected = SteveException.class)
+    public void testUnknownSession() {
+        store.add(session, "id-1", newContext());
+    }
+
+    private void tick(int count) {
+        for (int i = 0; i < count; i++) {
+            store.tick();
+        }
+    }
+
+    private FutureResponseContext newContext() {
+        SingleChargePointSelect params = new SingleChargePointSelect();
+        params.setChargePointSelectList(
+                Collections.singletonList(new ChargePointSelect(OcppTransport.JSON, "charge-box-1")));
+
+        return new FutureResponseContext(new RecordingTask(params), HeartbeatResponse.class);
+    }
+
+    private class RecordingTask extends CommunicationTask<SingleChargePointSelect, String> {
+
+        private RecordingTask(SingleChargePointSelect params) {
+            super(OcppVersion.V_16, params);
+        }
+
+        @Override
+        public OcppCallback<String> defaultCallback() {
+            return new OcppCallback<String>() {
+                @Override
+                public void success(String chargeBoxId, String response) { }
+
+                @Override
+                public void success(String chargeBoxId, OcppJsonError error) { }
+
+                @Override
+                public void failed(String chargeBoxId, Exception e) {
+                    failures.add(chargeBoxId);
+                }
+            };
+        }
+
+        @Override
+        public <T extends RequestType> T getOcpp12Request() {
+            return null;
+        }
+
+        @Override
+        public <T extends RequestType> T getOcpp15Request() {
+            return null;
+        }
+
+        @Override
+        public <T extends RequestType> T getOcpp16Request() {
+            return null;
+        }
+
+        @Override
+        public <T extends ResponseType> AsyncHandler<T> getOcpp12Handler(String chargeBoxId) {
+            return null;
+        }
+
+        @Override
+        public <T extends ResponseType> AsyncHandler<T> getOcpp15Handler(String chargeBoxId) {
+            return null;
+        }
+
+        @Override
+        public <T extends ResponseType> AsyncHandler<T> getOcpp16Handler(String chargeBoxId) {
+            return null;
+        }
+    }
+}
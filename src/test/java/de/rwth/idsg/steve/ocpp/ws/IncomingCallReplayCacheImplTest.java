@@ -0,0 +1,177 @@
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.ocpp.jaxb.RequestType;
+import de.rwth.idsg.ocpp.jaxb.ResponseType;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
+import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16TypeStore;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.AbstractCallHandler;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Deserializer;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.IncomingPipeline;
+import ocpp.cs._2015._10.HeartbeatRequest;
+import ocpp.cs._2015._10.HeartbeatResponse;
+import ocpp.cs._2015._10.MeterValuesResponse;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * The calls are processed by an {@link IncomingPipeline} with the cache, which counts the calls that reach the
+ * handler.
+ *
+ * @since 18.10.2026
+ */
+public class IncomingCallReplayCacheImplTest {
+
+    private static final FutureResponseContextStore NO_PENDING_CALLS = new FutureResponseContextStore() {
+        @Override
+        public void addSession(WebSocketSession session) { }
+
+        @Override
+        public void removeSession(WebSocketSession session) { }
+
+        @Override
+        public void add(WebSocketSession session, String messageId, FutureResponseContext context) { }
+
+        @Override
+        public FutureResponseContext get(WebSocketSession session, String messageId) {
+            return null;
+        }
+    };
+
+    private final AtomicInteger dispatchCount = new AtomicInteger();
+    private final RecordingWebSocketSession session = new RecordingWebSocketSession("session-1", "charge-box-1");
+
+    @Test
+    public void testTransactionMessage() {
+        IncomingPipeline pipeline = pipeline(new IncomingCallReplayCacheImpl(60, 10));
+
+        process(pipeline, "charge-box-1", meterValues("id-1", 1000));
+        process(pipeline, "charge-box-1", meterValues("id-1", 1000));
+
+        Assert.assertEquals(1, dispatchCount.get());
+        List<String> sent = getSent();
+        Assert.assertEquals(2, sent.size());
+        Assert.assertEquals(sent.get(0), sent.get(1));
+    }
+
+    /**
+     * The response of a Heartbeat (i.e. the current time) is not replayed
+     */
+    @Test
+    public void testOtherAction() {
+        IncomingPipeline pipeline = pipeline(new IncomingCallReplayCacheImpl(60, 10));
+
+        process(pipeline, "charge-box-1", "[2,\"id-1\",\"Heartbeat\",{}]");
+        process(pipeline, "charge-box-1", "[2,\"id-1\",\"Heartbeat\",{}]");
+
+        Assert.assertEquals(2, dispatchCount.get());
+    }
+
+    /**
+     * A station that starts its messageIds from the beginning (e.g. after a reboot) reuses them for other calls
+     */
+    @Test
+    public void testSameMessageIdOtherPayload() {
+        IncomingPipeline pipeline = pipeline(new IncomingCallReplayCacheImpl(60, 10));
+
+        process(pipeline, "charge-box-1", meterValues("id-1", 1000));
+        process(pipeline, "charge-box-1", meterValues("id-1", 2000));
+
+        Assert.assertEquals(2, dispatchCount.get());
+    }
+
+    @Test
+    public void testOtherStation() {
+        IncomingPipeline pipeline = pipeline(new IncomingCallReplayCacheImpl(60, 10));
+
+        process(pipeline, "charge-box-1", meterValues("id-1", 1000));
+        process(pipeline, "charge-box-2", meterValues("id-1", 1000));
+
+        Assert.assertEquals(2, dispatchCount.get());
+    }
+
+    @Test
+    public void testSizePerStation() {
+        IncomingPipeline pipeline = pipeline(new IncomingCallReplayCacheImpl(60, 2));
+
+        process(pipeline, "charge-box-1", meterValues("id-1", 1000));
+        process(pipeline, "charge-box-1", meterValues("id-2", 2000));
+        process(pipeline, "charge-box-1", meterValues("id-3", 3000));
+        Assert.assertEquals(3, dispatchCount.get());
+
+        // the oldest one was removed
+        process(pipeline, "charge-box-1", meterValues("id-3", 3000));
+        process(pipeline, "charge-box-1", meterValues("id-1", 1000));
+        Assert.assertEquals(4, dispatchCount.get());
+    }
+
+    @Test
+    public void testDisabled() {
+        IncomingPipeline pipeline = pipeline(new IncomingCallReplayCacheImpl(0, 10));
+
+        process(pipeline, "charge-box-1", meterValues("id-1", 1000));
+        process(pipeline, "charge-box-1", meterValues("id-1", 1000));
+
+        Assert.assertEquals(2, dispatchCount.get());
+    }
+
+    /**
+     * A call that failed is processed again
+     */
+    @Test
+    public void testError() {
+        IncomingPipeline pipeline = new IncomingPipeline(new Deserializer(NO_PENDING_CALLS, Ocpp16TypeStore.INSTANCE),
+                new AbstractCallHandler() {
+                    @Override
+                    protected ResponseType dispatch(RequestType params, String chargeBoxId) {
+                        dispatchCount.incrementAndGet();
+                        throw new IllegalStateException("Database is down");
+                    }
+                }, new IncomingCallReplayCacheImpl(60, 10));
+
+        process(pipeline, "charge-box-1", meterValues("id-1", 1000));
+        process(pipeline, "charge-box-1", meterValues("id-1", 1000));
+
+        Assert.assertEquals(2, dispatchCount.get());
+        Assert.assertTrue(getSent().stream().allMatch(s -> s.startsWith("[4,\"id-1\",")));
+    }
+
+    private IncomingPipeline pipeline(IncomingCallReplayCache cache) {
+        AbstractCallHandler handler = new AbstractCallHandler() {
+            @Override
+            protected ResponseType dispatch(RequestType params, String chargeBoxId) {
+                dispatchCount.incrementAndGet();
+                if (params instanceof HeartbeatRequest) {
+                    return new HeartbeatResponse().withCurrentTime(DateTime.now());
+                }
+                return new MeterValuesResponse();
+            }
+        };
+        return new IncomingPipeline(new Deserializer(NO_PENDING_CALLS, Ocpp16TypeStore.INSTANCE), handler, cache);
+    }
+
+    private void process(IncomingPipeline pipeline, String chargeBoxId, String incoming) {
+        CommunicationContext context = new CommunicationContext(session, chargeBoxId);
+        context.setIncomingString(incoming);
+        pipeline.accept(context);
+    }
+
+    private List<String> getSent() {
+        return session.getSentMessages()
+                      .stream()
+                      .map(m -> ((TextMessage) m).getPayload())
+                      .collect(Collectors.toList());
+    }
+
+    private static String meterValues(String messageId, int value) {
+        return "[2,\"" + messageId + "\",\"MeterValues\",{\"connectorId\":1,\"meterValue\":[{\"timestamp\":"
+                + "\"2026-10-18T12:00:00.000Z\",\"sampledValue\":[{\"value\":\"" + value + "\"}]}]}]";
+    }
+}
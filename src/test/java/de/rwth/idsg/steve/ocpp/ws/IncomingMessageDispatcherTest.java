@@ -0,0 +1,213 @@
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.config.WebSocketConfiguration;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Sender;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * @since 18.10.2026
+ */
+public class IncomingMessageDispatcherTest {
+
+    private IncomingMessageDispatcher dispatcher;
+
+    @After
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutDown();
+        }
+    }
+
+    @Test
+    public void testOrderWithinStation() throws Exception {
+        dispatcher = start(4, 1_000, 10_000);
+
+        int count = 500;
+        List<String> processed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(count);
+
+        Consumer<CommunicationContext> pipeline = context -> {
+            processed.add(context.getIncomingString());
+            done.countDown();
+        };
+
+        List<String> sent = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String call = call("id-" + i);
+            sent.add(call);
+            dispatcher.dispatch(context("charge-box-1", null, call), pipeline);
+        }
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(sent, processed);
+    }
+
+    /**
+     * The messages of a station are never processed concurrently, but the messages of different stations are
+     */
+    @Test
+    public void testSerializationPerStation() throws Exception {
+        dispatcher = start(4, 1_000, 10_000);
+
+        int stations = 2;
+        int countPerStation = 100;
+
+        CyclicBarrier firstMessages = new CyclicBarrier(stations);
+        ConcurrentHashMap<String, AtomicInteger> active = new ConcurrentHashMap<>();
+        AtomicBoolean overlapDetected = new AtomicBoolean(false);
+        AtomicBoolean parallel = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(stations * countPerStation);
+
+        Consumer<CommunicationContext> pipeline = context -> {
+            AtomicInteger counter = active.computeIfAbsent(context.getChargeBoxId(), k -> new AtomicInteger());
+            if (counter.incrementAndGet() > 1) {
+                overlapDetected.set(true);
+            }
+            try {
+                if (context.getIncomingString().equals(call("id-0"))) {
+                    // only passes if the first messages of all stations are processed at the same time
+                    firstMessages.await(5, TimeUnit.SECONDS);
+                } else {
+                    Thread.sleep(1);
+                }
+            } catch (Exception e) {
+                parallel.set(false);
+            } finally {
+                counter.decrementAndGet();
+                done.countDown();
+            }
+        };
+
+        for (int i = 0; i < countPerStation; i++) {
+            for (int s = 0; s < stations; s++) {
+                dispatcher.dispatch(context("charge-box-" + s, null, call("id-" + i)), pipeline);
+            }
+        }
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertFalse(overlapDetected.get());
+        Assert.assertTrue(parallel.get());
+    }
+
+    /**
+     * A full mailbox rejects further calls with an error, but still accepts the responses to our own calls
+     */
+    @Test
+    public void testOverflow() throws Exception {
+        dispatcher = start(1, 2, 100);
+
+        RecordingWebSocketSession session = new RecordingWebSocketSession("session-1", "charge-box-1");
+        List<String> processed = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+
+        Consumer<CommunicationContext> pipeline = context -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            processed.add(context.getIncomingString());
+            done.countDown();
+        };
+
+        // taken out of the mailbox by the worker, and blocks it
+        dispatcher.dispatch(context("charge-box-1", session, call("id-1")), pipeline);
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        dispatcher.dispatch(context("charge-box-1", session, call("id-2")), pipeline);
+        dispatcher.dispatch(context("charge-box-1", session, call("id-3")), pipeline);
+        dispatcher.dispatch(context("charge-box-1", session, call("id-4")), pipeline);
+        dispatcher.dispatch(context("charge-box-1", session, "[3,\"our-call\",{}]"), pipeline);
+
+        // rejected immediately by the calling thread
+        List<WebSocketMessage<?>> sent = session.getSentMessages();
+        Assert.assertEquals(1, sent.size());
+        String error = ((TextMessage) sent.get(0)).getPayload();
+        Assert.assertTrue(error, error.startsWith("[4,\"id-4\",\"InternalError\","));
+
+        release.countDown();
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList(call("id-1"), call("id-2"), call("id-3"), "[3,\"our-call\",{}]"), processed);
+        Assert.assertEquals(1, session.getSentMessages().size());
+    }
+
+    /**
+     * The rejections are sent by the dispatching thread, while the worker is sending the responses to the same
+     * station. With the session decorated like in {@link AbstractWebSocketEndpoint}, the sends must not overlap.
+     */
+    @Test
+    public void testRejectWhileWorkerSends() throws Exception {
+        dispatcher = start(1, 1, 100);
+
+        RecordingWebSocketSession nativeSession = new RecordingWebSocketSession("session-1", "charge-box-1");
+        nativeSession.setSendDelayMillis(2);
+        WebSocketSession session = new ConcurrentWebSocketSessionDecorator(nativeSession,
+                WebSocketConfiguration.SEND_TIME_LIMIT, WebSocketConfiguration.SEND_BUFFER_SIZE_LIMIT);
+
+        Consumer<CommunicationContext> pipeline = context -> {
+            context.setOutgoingString("[3,\"id\",{}]");
+            Sender.INSTANCE.accept(context);
+        };
+
+        int count = 200;
+        for (int i = 0; i < count; i++) {
+            dispatcher.dispatch(context("charge-box-1", session, call("id-" + i)), pipeline);
+        }
+
+        // every call is either answered or rejected
+        Assert.assertTrue(await(() -> nativeSession.getSentMessages().size() == count));
+        Assert.assertFalse(nativeSession.isConcurrentSendDetected());
+        Assert.assertNull(nativeSession.getCloseStatus());
+    }
+
+    private static IncomingMessageDispatcher start(int workerThreads, int mailboxCapacity, int queueCapacity) {
+        IncomingMessageDispatcher dispatcher = new IncomingMessageDispatcher(workerThreads, mailboxCapacity,
+                queueCapacity);
+        dispatcher.init();
+        return dispatcher;
+    }
+
+    private static CommunicationContext context(String chargeBoxId, WebSocketSession session, String incoming) {
+        CommunicationContext context = new CommunicationContext(session, chargeBoxId);
+        context.setIncomingString(incoming);
+        return context;
+    }
+
+    private static String call(String messageId) {
+        return "[2,\"" + messageId + "\",\"Heartbeat\",{}]";
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,145 @@
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The tests walk a single session themselves. A slice is 15 seconds long.
+ *
+ * @since 18.10.2026
+ */
+public class WebSocketPingSchedulerTest {
+
+    private static final int PING_SLICE = 5;
+
+    private final RecordingWebSocketSession session = new RecordingWebSocketSession("session-1", "charge-box-1");
+    private final SessionContext context = new SessionContext(session, DateTime.now(), PING_SLICE);
+
+    private WebSocketPingScheduler scheduler;
+
+    @After
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutDown();
+        }
+    }
+
+    @Test
+    public void testPingAtSlice() throws Exception {
+        scheduler = new WebSocketPingScheduler(0);
+
+        walk(0, PING_SLICE - 1);
+        Assert.assertEquals(0, session.getSentMessages().size());
+
+        walk(PING_SLICE, PING_SLICE);
+        Assert.assertTrue(await(() -> session.getSentMessages().size() == 1));
+        Assert.assertTrue(session.getSentMessages().get(0) instanceof PingMessage);
+    }
+
+    /**
+     * Without a pong timeout, a session that does not answer is pinged again in the next round, but not closed
+     */
+    @Test
+    public void testNoPongWithoutTimeout() throws Exception {
+        scheduler = new WebSocketPingScheduler(0);
+
+        walk(0, PING_SLICE);
+        Assert.assertTrue(await(() -> session.getSentMessages().size() == 1));
+
+        walk(PING_SLICE + 1, PING_SLICE + WebSocketPingScheduler.SLICES);
+        Assert.assertTrue(await(() -> session.getSentMessages().size() == 2));
+        Assert.assertTrue(session.isOpen());
+    }
+
+    @Test
+    public void testNoPongWithTimeout() throws Exception {
+        // rounded up to 4 slices
+        scheduler = new WebSocketPingScheduler(50);
+
+        walk(0, PING_SLICE);
+        Assert.assertTrue(await(() -> context.getPingSendingSinceTick() == SessionContext.NO_PING_SENDING));
+
+        walk(PING_SLICE + 1, PING_SLICE + 3);
+        Assert.assertTrue(session.isOpen());
+
+        walk(PING_SLICE + 4, PING_SLICE + 4);
+        Assert.assertEquals(CloseStatus.SESSION_NOT_RELIABLE, session.getCloseStatus());
+    }
+
+    /**
+     * Dead sessions are disconnected out of the box, i.e. with the pong timeout of the configuration (60 seconds)
+     */
+    @Test
+    public void testDefaultPongTimeout() throws Exception {
+        scheduler = new WebSocketPingScheduler();
+        Assert.assertEquals(60, scheduler.getMetrics().get("Pong timeout (seconds)"));
+
+        walk(0, PING_SLICE);
+        Assert.assertTrue(await(() -> context.getPingSendingSinceTick() == SessionContext.NO_PING_SENDING));
+
+        walk(PING_SLICE + 1, PING_SLICE + 3);
+        Assert.assertTrue(session.isOpen());
+
+        walk(PING_SLICE + 4, PING_SLICE + 4);
+        Assert.assertEquals(CloseStatus.SESSION_NOT_RELIABLE, session.getCloseStatus());
+    }
+
+    @Test
+    public void testPongWithTimeout() throws Exception {
+        scheduler = new WebSocketPingScheduler(50);
+
+        walk(0, PING_SLICE);
+        Assert.assertTrue(await(() -> context.getPingSendingSinceTick() == SessionContext.NO_PING_SENDING));
+
+        // what SessionContextStore does when the pong arrives
+        context.setPingSentAtTick(SessionContext.NO_PING_PENDING);
+
+        walk(PING_SLICE + 1, PING_SLICE + 10);
+        Assert.assertTrue(session.isOpen());
+    }
+
+    /**
+     * A ping that cannot be written blocks only its sender thread, and the session is disconnected after two slices,
+     * even without a pong timeout
+     */
+    @Test
+    public void testStuckPing() throws Exception {
+        scheduler = new WebSocketPingScheduler(0);
+        session.setSendDelayMillis(TimeUnit.MINUTES.toMillis(1));
+
+        // returns, although the send blocks
+        walk(0, PING_SLICE);
+        Assert.assertEquals(PING_SLICE, context.getPingSendingSinceTick());
+
+        walk(PING_SLICE + 1, PING_SLICE + 1);
+        Assert.assertTrue(session.isOpen());
+
+        walk(PING_SLICE + 2, PING_SLICE + 2);
+        Assert.assertEquals(CloseStatus.SESSION_NOT_RELIABLE, session.getCloseStatus());
+    }
+
+    private void walk(long fromTick, long toTick) {
+        for (long tick = fromTick; tick <= toTick; tick++) {
+            scheduler.visit(context, tick, (int) (tick % WebSocketPingScheduler.SLICES));
+        }
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+}
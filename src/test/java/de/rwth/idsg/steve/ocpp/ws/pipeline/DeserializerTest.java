@@ -0,0 +1,126 @@
+package de.rwth.idsg.steve.ocpp.ws.pipeline;
+
+import de.rwth.idsg.steve.ocpp.ws.FutureResponseContextStore;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.ErrorCode;
+import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonError;
+import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16TypeStore;
+import ocpp.cs._2015._10.Measurand;
+import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.MeterValuesRequest;
+import ocpp.cs._2015._10.SampledValue;
+import ocpp.cs._2015._10.UnitOfMeasure;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * @since 18.10.2026
+ */
+public class DeserializerTest {
+
+    private static final FutureResponseContextStore NO_PENDING_CALLS = new FutureResponseContextStore() {
+        @Override
+        public void addSession(WebSocketSession session) { }
+
+        @Override
+        public void removeSession(WebSocketSession session) { }
+
+        @Override
+        public void add(WebSocketSession session, String messageId, FutureResponseContext context) { }
+
+        @Override
+        public FutureResponseContext get(WebSocketSession session, String messageId) {
+            return null;
+        }
+    };
+
+    private final Deserializer deserializer = new Deserializer(NO_PENDING_CALLS, Ocpp16TypeStore.INSTANCE);
+
+    @Test
+    public void testCall() {
+        CommunicationContext context = deserialize("[2,\"id-1\",\"MeterValues\",{\"connectorId\":2,\"transactionId\":7,"
+                + "\"meterValue\":[{\"timestamp\":\"2026-10-18T12:00:00.000Z\",\"sampledValue\":["
+                + "{\"value\":\"1000.5\",\"measurand\":\"Energy.Active.Import.Register\",\"unit\":\"Wh\"},"
+                + "{\"value\":\"16\",\"measurand\":\"Current.Import\",\"unit\":\"A\"}]}]}]");
+
+        Assert.assertNull(context.getOutgoingMessage());
+
+        OcppJsonCall call = (OcppJsonCall) context.getIncomingMessage();
+        Assert.assertEquals("id-1", call.getMessageId());
+        Assert.assertEquals("MeterValues", call.getAction());
+
+        MeterValuesRequest request = (MeterValuesRequest) call.getPayload();
+        Assert.assertEquals(2, request.getConnectorId());
+        Assert.assertEquals(Integer.valueOf(7), request.getTransactionId());
+        Assert.assertEquals(1, request.getMeterValue().size());
+
+        MeterValue meterValue = request.getMeterValue().get(0);
+        Assert.assertEquals(DateTime.parse("2026-10-18T12:00:00.000Z").getMillis(),
+                meterValue.getTimestamp().getMillis());
+        Assert.assertEquals(2, meterValue.getSampledValue().size());
+
+        SampledValue first = meterValue.getSampledValue().get(0);
+        Assert.assertEquals("1000.5", first.getValue());
+        Assert.assertEquals(Measurand.ENERGY_ACTIVE_IMPORT_REGISTER, first.getMeasurand());
+        Assert.assertEquals(UnitOfMeasure.WH, first.getUnit());
+
+        SampledValue second = meterValue.getSampledValue().get(1);
+        Assert.assertEquals("16", second.getValue());
+        Assert.assertEquals(Measurand.CURRENT_IMPORT, second.getMeasurand());
+        Assert.assertEquals(UnitOfMeasure.A, second.getUnit());
+    }
+
+    @Test
+    public void testUnknownAction() {
+        CommunicationContext context = deserialize("[2,\"id-2\",\"NoSuchAction\",{}]");
+
+        Assert.assertNull(context.getIncomingMessage());
+        assertError(context, "id-2", ErrorCode.NotImplemented);
+    }
+
+    @Test
+    public void testInvalidPayload() {
+        CommunicationContext context = deserialize("[2,\"id-3\",\"MeterValues\",{\"connectorId\":\"not a number\"}]");
+
+        Assert.assertNull(context.getIncomingMessage());
+        assertError(context, "id-3", ErrorCode.FormationViolation);
+    }
+
+    @Test
+    public void testUnknownEnumValue() {
+        CommunicationContext context = deserialize("[2,\"id-4\",\"MeterValues\",{\"connectorId\":1,\"meterValue\":"
+                + "[{\"timestamp\":\"2026-10-18T12:00:00.000Z\",\"sampledValue\":"
+                + "[{\"value\":\"1\",\"unit\":\"parsec\"}]}]}]");
+
+        Assert.assertNull(context.getIncomingMessage());
+        assertError(context, "id-4", ErrorCode.FormationViolation);
+    }
+
+    /**
+     * The call might have timed out already, which must not fail the processing
+     */
+    @Test
+    public void testResultOfUnknownCall() {
+        CommunicationContext context = deserialize("[3,\"id-5\",{\"currentTime\":\"2026-10-18T12:00:00.000Z\"}]");
+
+        Assert.assertNull(context.getIncomingMessage());
+        Assert.assertNull(context.getOutgoingMessage());
+    }
+
+    private CommunicationContext deserialize(String frame) {
+        CommunicationContext context = new CommunicationContext(null, "charge-box-1");
+        context.setIncomingString(frame);
+        deserializer.accept(context);
+        return context;
+    }
+
+    private static void assertError(CommunicationContext context, String messageId, ErrorCode errorCode) {
+        OcppJsonError error = (OcppJsonError) context.getOutgoingMessage();
+        Assert.assertEquals(messageId, error.getMessageId());
+        Assert.assertEquals(errorCode, error.getErrorCode());
+    }
+}
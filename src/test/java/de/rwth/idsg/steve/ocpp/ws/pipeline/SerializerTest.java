@@ -0,0 +1,99 @@
+package de.rwth.idsg.steve.ocpp.ws.pipeline;
+
+import de.rwth.idsg.ocpp.jaxb.ResponseType;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.ErrorCode;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonError;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonMessage;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonResult;
+import ocpp.cs._2015._10.DataTransferResponse;
+import ocpp.cs._2015._10.DataTransferStatus;
+import ocpp.cs._2015._10.HeartbeatRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @since 18.10.2026
+ */
+public class SerializerTest {
+
+    @Test
+    public void testCall() {
+        OcppJsonCall call = new OcppJsonCall();
+        call.setMessageId("id-1");
+        call.setAction("Heartbeat");
+        call.setPayload(new HeartbeatRequest());
+
+        Assert.assertEquals("[2,\"id-1\",\"Heartbeat\",{}]", serialize(call));
+    }
+
+    @Test
+    public void testResult() {
+        OcppJsonResult result = new OcppJsonResult();
+        result.setMessageId("id-2");
+        result.setPayload(new DataTransferResponse().withStatus(DataTransferStatus.ACCEPTED));
+
+        // enums with their OCPP values, null fields are left out
+        Assert.assertEquals("[3,\"id-2\",{\"status\":\"Accepted\"}]", serialize(result));
+    }
+
+    @Test
+    public void testError() {
+        OcppJsonError error = new OcppJsonError();
+        error.setMessageId("id-3");
+        error.setErrorCode(ErrorCode.NotImplemented);
+
+        // description and details must be present, even if empty
+        Assert.assertEquals("[4,\"id-3\",\"NotImplemented\",\"\",{}]", serialize(error));
+    }
+
+    /**
+     * The partially written payload is discarded, and an error is sent instead
+     */
+    @Test
+    public void testResultWithFailingPayload() {
+        OcppJsonResult result = new OcppJsonResult();
+        result.setMessageId("id-4");
+        result.setPayload(new FailingResponse());
+
+        String frame = serialize(result);
+        Assert.assertTrue(frame, frame.startsWith("[4,\"id-4\",\"InternalError\","));
+        Assert.assertFalse(frame, frame.contains("status"));
+    }
+
+    /**
+     * The thread-local buffer must not leak the content of the previous message
+     */
+    @Test
+    public void testBufferReuse() {
+        OcppJsonResult first = new OcppJsonResult();
+        first.setMessageId("first-message-with-a-long-id");
+        first.setPayload(new DataTransferResponse().withStatus(DataTransferStatus.UNKNOWN_VENDOR_ID)
+                                                   .withData("some data to fill the buffer"));
+        serialize(first);
+
+        OcppJsonResult second = new OcppJsonResult();
+        second.setMessageId("id-5");
+        second.setPayload(new DataTransferResponse().withStatus(DataTransferStatus.REJECTED));
+
+        Assert.assertEquals("[3,\"id-5\",{\"status\":\"Rejected\"}]", serialize(second));
+    }
+
+    private static String serialize(OcppJsonMessage message) {
+        CommunicationContext context = new CommunicationContext(null, "charge-box-1");
+        context.setOutgoingMessage(message);
+        Serializer.INSTANCE.accept(context);
+        return context.getOutgoingString();
+    }
+
+    public static class FailingResponse implements ResponseType {
+        public String getStatus() {
+            return "Accepted";
+        }
+
+        public String getData() {
+            throw new IllegalStateException("Failed to convert the payload");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.utils.__DatabasePreparer__;
+import org.jooq.DSLContext;
+import org.junit.After;
+import org.junit.Before;
+
+/**
+ * Base class of the tests that run against the database of the test profile. Before every test, the tables are
+ * truncated and contain one charge box and one OCPP tag (see {@link __DatabasePreparer__}). The tests share the
+ * connection pool of {@link __DatabasePreparer__#getDslContext()}.
+ *
+ * @since 18.10.2026
+ */
+public abstract class AbstractDatabaseTest {
+
+    protected static final DSLContext ctx = __DatabasePreparer__.getDslContext();
+
+    @Before
+    public void prepareDatabase() {
+        __DatabasePreparer__.prepare();
+    }
+
+    @After
+    public void cleanUpDatabase() {
+        __DatabasePreparer__.cleanUp();
+    }
+}
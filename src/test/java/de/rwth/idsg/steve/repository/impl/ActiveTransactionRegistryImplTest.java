@@ -0,0 +1,125 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.dto.ActiveTransaction;
+import de.rwth.idsg.steve.utils.__DatabasePreparer__;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.Transaction.TRANSACTION;
+
+/**
+ * The registry is not initialized, i.e. it is only reconciled by the tests.
+ *
+ * @since 18.10.2026
+ */
+public class ActiveTransactionRegistryImplTest extends AbstractDatabaseTest {
+
+    private final String chargeBoxId = __DatabasePreparer__.getRegisteredChargeBoxId();
+    private final String ocppIdTag = __DatabasePreparer__.getRegisteredOcppTag();
+
+    private int connectorPk;
+    private ActiveTransactionRegistryImpl registry;
+
+    @Before
+    public void prepare() {
+        connectorPk = ctx.insertInto(CONNECTOR)
+                         .set(CONNECTOR.CHARGE_BOX_ID, chargeBoxId)
+                         .set(CONNECTOR.CONNECTOR_ID, 1)
+                         .returning(CONNECTOR.CONNECTOR_PK)
+                         .fetchOne()
+                         .getConnectorPk();
+
+        registry = new ActiveTransactionRegistryImpl();
+        ReflectionTestUtils.setField(registry, "ctx", ctx);
+    }
+
+    /**
+     * A transaction is active, as long as its stop value and its stop timestamp are null
+     */
+    @Test
+    public void testReconcile() {
+        int active = insertTransaction(null, null);
+        insertTransaction(DateTime.now(), "2000");
+        insertTransaction(DateTime.now(), null);
+        insertTransaction(null, "2000");
+
+        registry.reconcile();
+
+        Assert.assertEquals(1, registry.getCount());
+        Assert.assertEquals(Collections.singletonList(active), registry.getTransactionIds(chargeBoxId));
+        Assert.assertEquals(Collections.singletonList(active), registry.getTransactionIds(chargeBoxId, 1));
+        Assert.assertEquals(Collections.emptyList(), registry.getTransactionIds(chargeBoxId, 2));
+        Assert.assertEquals(Collections.singletonList(chargeBoxId), registry.getChargeBoxIds(ocppIdTag));
+
+        ActiveTransaction t = registry.get(active);
+        Assert.assertEquals(ocppIdTag, t.getOcppIdTag());
+        Assert.assertEquals(chargeBoxId, t.getChargeBoxId());
+        Assert.assertEquals(1, t.getConnectorId());
+    }
+
+    @Test
+    public void testReportedChanges() {
+        registry.started(transaction(2, "cb-1", 1));
+        registry.started(transaction(1, "cb-1", 2));
+        registry.started(transaction(3, "cb-2", 1));
+
+        Assert.assertEquals(Arrays.asList(1, 2), registry.getTransactionIds("cb-1"));
+        Assert.assertEquals(Collections.singletonList(1), registry.getTransactionIds("cb-1", 2));
+        Assert.assertEquals(3, registry.getChargeBoxIds(ocppIdTag).size());
+
+        registry.stopped(2);
+        // idempotent
+        registry.stopped(2);
+        Assert.assertNull(registry.get(2));
+        Assert.assertEquals(Collections.singletonList(1), registry.getTransactionIds("cb-1"));
+
+        registry.chargeBoxDeleted("cb-1");
+        Assert.assertEquals(Collections.emptyList(), registry.getTransactionIds("cb-1"));
+        Assert.assertEquals(Collections.singletonList("cb-2"), registry.getChargeBoxIds(ocppIdTag));
+        Assert.assertEquals(1, registry.getCount());
+    }
+
+    /**
+     * The changes that were not reported are corrected by the reconciliation
+     */
+    @Test
+    public void testCorrections() {
+        int unreported = insertTransaction(null, null);
+        registry.started(transaction(unreported + 1, chargeBoxId, 1));
+
+        registry.reconcile();
+
+        Assert.assertNotNull(registry.get(unreported));
+        Assert.assertNull(registry.get(unreported + 1));
+        Assert.assertEquals(2, registry.getMetrics().get("Corrections at last reconciliation"));
+    }
+
+    private int insertTransaction(DateTime stopTimestamp, String stopValue) {
+        return ctx.insertInto(TRANSACTION)
+                  .set(TRANSACTION.CONNECTOR_PK, connectorPk)
+                  .set(TRANSACTION.ID_TAG, ocppIdTag)
+                  .set(TRANSACTION.START_TIMESTAMP, DateTime.now().minusHours(1))
+                  .set(TRANSACTION.START_VALUE, "1000")
+                  .set(TRANSACTION.STOP_TIMESTAMP, stopTimestamp)
+                  .set(TRANSACTION.STOP_VALUE, stopValue)
+                  .returning(TRANSACTION.TRANSACTION_PK)
+                  .fetchOne()
+                  .getTransactionPk();
+    }
+
+    private ActiveTransaction transaction(int transactionId, String chargeBoxId, int connectorId) {
+        return ActiveTransaction.builder()
+                                .transactionId(transactionId)
+                                .ocppIdTag(ocppIdTag)
+                                .chargeBoxId(chargeBoxId)
+                                .connectorId(connectorId)
+                                .build();
+    }
+}
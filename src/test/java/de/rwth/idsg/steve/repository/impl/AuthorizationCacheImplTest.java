@@ -0,0 +1,109 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.AuthorizationCache;
+import jooq.steve.db.tables.records.OcppTagRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * @since 18.10.2026
+ */
+public class AuthorizationCacheImplTest {
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    @Test
+    public void testDisabled() {
+        AuthorizationCacheImpl cache = new AuthorizationCacheImpl(0, 100);
+
+        cache.get("tag-1", loader("tag-1"));
+        cache.get("tag-1", loader("tag-1"));
+
+        Assert.assertEquals(2, loadCount.get());
+        Assert.assertEquals(false, cache.getMetrics().get("Enabled"));
+    }
+
+    @Test
+    public void testHit() {
+        AuthorizationCacheImpl cache = new AuthorizationCacheImpl(60, 100);
+
+        AuthorizationCache.Entry first = cache.get("tag-1", loader("tag-1"));
+        AuthorizationCache.Entry second = cache.get("tag-1", loader("tag-1"));
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, loadCount.get());
+    }
+
+    /**
+     * An idTag that is not in database is cached as well
+     */
+    @Test
+    public void testUnknownIdTag() {
+        AuthorizationCacheImpl cache = new AuthorizationCacheImpl(60, 100);
+        Supplier<AuthorizationCache.Entry> loader = () -> {
+            loadCount.incrementAndGet();
+            return new AuthorizationCache.Entry(null, Collections.emptyList());
+        };
+
+        Assert.assertNull(cache.get("unknown", loader).getRecord());
+        Assert.assertNull(cache.get("unknown", loader).getRecord());
+        Assert.assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void testInvalidate() {
+        AuthorizationCacheImpl cache = new AuthorizationCacheImpl(60, 100);
+        cache.get("tag-1", loader("tag-1"));
+        cache.get("tag-2", loader("tag-2"));
+        cache.get("tag-3", loader("tag-3"));
+
+        cache.invalidate("tag-1");
+        cache.get("tag-1", loader("tag-1"));
+        cache.get("tag-2", loader("tag-2"));
+        Assert.assertEquals(4, loadCount.get());
+
+        cache.invalidate(Arrays.asList("tag-2", "tag-3"));
+        cache.get("tag-2", loader("tag-2"));
+        cache.get("tag-3", loader("tag-3"));
+        Assert.assertEquals(6, loadCount.get());
+
+        cache.invalidateAll();
+        cache.get("tag-1", loader("tag-1"));
+        Assert.assertEquals(7, loadCount.get());
+    }
+
+    /**
+     * A load that overlaps with an invalidation might have read the state from before the write, and must not be
+     * cached. The invalidation of any idTag counts, since the list variants do not check the idTags.
+     */
+    @Test
+    public void testInvalidationWhileLoading() {
+        AuthorizationCacheImpl cache = new AuthorizationCacheImpl(60, 100);
+
+        AuthorizationCache.Entry stale = cache.get("tag-1", () -> {
+            cache.invalidate("tag-1");
+            return loader("tag-1").get();
+        });
+        Assert.assertEquals("tag-1", stale.getRecord().getIdTag());
+
+        cache.get("tag-1", loader("tag-1"));
+        Assert.assertEquals(2, loadCount.get());
+        Assert.assertEquals(1L, cache.getMetrics().get("Loads dropped due to concurrent invalidation"));
+
+        // without an overlapping invalidation, the entry is cached again
+        cache.get("tag-1", loader("tag-1"));
+        Assert.assertEquals(2, loadCount.get());
+    }
+
+    private Supplier<AuthorizationCache.Entry> loader(String idTag) {
+        return () -> {
+            loadCount.incrementAndGet();
+            return new AuthorizationCache.Entry(new OcppTagRecord().setIdTag(idTag), Collections.emptyList());
+        };
+    }
+}
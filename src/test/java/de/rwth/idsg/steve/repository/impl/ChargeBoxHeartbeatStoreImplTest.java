@@ -0,0 +1,134 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.OcppServerRepository;
+import de.rwth.idsg.steve.repository.StatisticsStore;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The repository is replaced by a proxy that records the batches of updateChargeboxHeartbeats.
+ *
+ * @since 18.10.2026
+ */
+public class ChargeBoxHeartbeatStoreImplTest {
+
+    private static final DateTime T1 = DateTime.parse("2026-10-18T12:00:00.000Z");
+    private static final DateTime T2 = T1.plusSeconds(1);
+    private static final DateTime T3 = T1.plusSeconds(2);
+
+    private final List<Map<String, DateTime>> writtenBatches = new ArrayList<>();
+
+    // called before a batch is written. might throw to fail the write
+    private Consumer<Map<String, DateTime>> beforeWrite = batch -> { };
+
+    private final ChargeBoxHeartbeatStoreImpl store = newStore(10);
+
+    @Test
+    public void testCoalesce() {
+        store.update("cb-1", T1);
+        store.update("cb-1", T3);
+        // out of order, must not overwrite the newer one
+        store.update("cb-1", T2);
+        store.update("cb-2", T1);
+
+        Assert.assertEquals(T3, store.getPending("cb-1"));
+        Assert.assertTrue(writtenBatches.isEmpty());
+
+        store.flush();
+
+        Map<String, DateTime> expected = new HashMap<>();
+        expected.put("cb-1", T3);
+        expected.put("cb-2", T1);
+        Assert.assertEquals(Collections.singletonList(expected), writtenBatches);
+        Assert.assertNull(store.getPending("cb-1"));
+        Assert.assertNull(store.getPending("cb-2"));
+    }
+
+    @Test
+    public void testFailedWriteIsRetried() {
+        beforeWrite = batch -> {
+            throw new IllegalStateException("Database is down");
+        };
+        store.update("cb-1", T1);
+        store.flush();
+
+        Assert.assertTrue(writtenBatches.isEmpty());
+        Assert.assertEquals(T1, store.getPending("cb-1"));
+
+        beforeWrite = batch -> { };
+        store.flush();
+
+        Assert.assertEquals(1, writtenBatches.size());
+        Assert.assertNull(store.getPending("cb-1"));
+    }
+
+    /**
+     * A heartbeat that arrives while its batch is written must be written with the next flush
+     */
+    @Test
+    public void testHeartbeatDuringFlush() {
+        store.update("cb-1", T1);
+        beforeWrite = batch -> store.update("cb-1", T2);
+        store.flush();
+
+        Assert.assertEquals(T1, writtenBatches.get(0).get("cb-1"));
+        Assert.assertEquals(T2, store.getPending("cb-1"));
+    }
+
+    @Test
+    public void testStatementSize() {
+        for (int i = 0; i < 1_200; i++) {
+            store.update("cb-" + i, T1);
+        }
+        store.flush();
+
+        Assert.assertEquals(3, writtenBatches.size());
+        Assert.assertEquals(1_200, writtenBatches.stream().mapToInt(Map::size).sum());
+        Assert.assertTrue(writtenBatches.stream().allMatch(batch -> batch.size() <= 500));
+    }
+
+    @Test
+    public void testWriteBehindDisabled() {
+        ChargeBoxHeartbeatStoreImpl immediate = newStore(0);
+        immediate.update("cb-1", T1);
+
+        Assert.assertEquals(1, writtenBatches.size());
+        Assert.assertNull(immediate.getPending("cb-1"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ChargeBoxHeartbeatStoreImpl newStore(int flushIntervalInSeconds) {
+        OcppServerRepository repository = (OcppServerRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{OcppServerRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("updateChargeboxHeartbeats")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    Map<String, DateTime> batch = new HashMap<>((Map<String, DateTime>) args[0]);
+                    beforeWrite.accept(batch);
+                    writtenBatches.add(batch);
+                    return null;
+                });
+
+        StatisticsStore statisticsStore = (StatisticsStore) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{StatisticsStore.class},
+                (proxy, method, args) -> null);
+
+        ChargeBoxHeartbeatStoreImpl heartbeatStore = new ChargeBoxHeartbeatStoreImpl(flushIntervalInSeconds);
+        ReflectionTestUtils.setField(heartbeatStore, "ocppServerRepository", repository);
+        ReflectionTestUtils.setField(heartbeatStore, "statisticsStore", statisticsStore);
+        return heartbeatStore;
+    }
+}
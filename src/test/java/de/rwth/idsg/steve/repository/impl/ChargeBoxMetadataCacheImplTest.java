@@ -0,0 +1,92 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.base.Ticker;
+import de.rwth.idsg.steve.utils.__DatabasePreparer__;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+
+/**
+ * The database is changed directly, i.e. without invalidating the cache, as another instance would.
+ *
+ * @since 18.10.2026
+ */
+public class ChargeBoxMetadataCacheImplTest extends AbstractDatabaseTest {
+
+    private final String chargeBoxId = __DatabasePreparer__.getRegisteredChargeBoxId();
+    private final FakeTicker ticker = new FakeTicker();
+
+    @Test
+    public void testHit() {
+        ChargeBoxMetadataCacheImpl cache = new ChargeBoxMetadataCacheImpl(ctx, 60, 100, ticker);
+        Assert.assertNull(cache.get(chargeBoxId).getVendor());
+
+        setVendor(chargeBoxId, "vendor");
+        Assert.assertNull(cache.get(chargeBoxId).getVendor());
+
+        cache.invalidate(chargeBoxId);
+        Assert.assertEquals("vendor", cache.get(chargeBoxId).getVendor());
+        Assert.assertEquals(1L, cache.getMetrics().get("Hits"));
+        Assert.assertEquals(2L, cache.getMetrics().get("Misses"));
+    }
+
+    @Test
+    public void testDisabled() {
+        ChargeBoxMetadataCacheImpl cache = new ChargeBoxMetadataCacheImpl(ctx, 0, 100, ticker);
+        Assert.assertNull(cache.get("charge-box-new"));
+
+        insertChargeBox("charge-box-new");
+        Assert.assertNotNull(cache.get("charge-box-new"));
+    }
+
+    /**
+     * An unknown charge box expires after a few seconds, the known ones after the TTL
+     */
+    @Test
+    public void testNegativeTtl() {
+        ChargeBoxMetadataCacheImpl cache = new ChargeBoxMetadataCacheImpl(ctx, 60, 100, ticker);
+        Assert.assertNull(cache.get("charge-box-new"));
+        Assert.assertNotNull(cache.get(chargeBoxId));
+
+        insertChargeBox("charge-box-new");
+        setVendor(chargeBoxId, "vendor");
+        Assert.assertNull(cache.get("charge-box-new"));
+
+        ticker.advance(11);
+        Assert.assertNotNull(cache.get("charge-box-new"));
+        Assert.assertNull(cache.get(chargeBoxId).getVendor());
+
+        ticker.advance(60);
+        Assert.assertEquals("vendor", cache.get(chargeBoxId).getVendor());
+    }
+
+    private static void insertChargeBox(String chargeBoxId) {
+        ctx.insertInto(CHARGE_BOX)
+           .set(CHARGE_BOX.CHARGE_BOX_ID, chargeBoxId)
+           .execute();
+    }
+
+    private static void setVendor(String chargeBoxId, String vendor) {
+        ctx.update(CHARGE_BOX)
+           .set(CHARGE_BOX.CHARGE_POINT_VENDOR, vendor)
+           .where(CHARGE_BOX.CHARGE_BOX_ID.eq(chargeBoxId))
+           .execute();
+    }
+
+    private static class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        private void advance(int seconds) {
+            nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+        }
+    }
+}
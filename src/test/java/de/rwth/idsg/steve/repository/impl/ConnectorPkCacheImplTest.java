@@ -0,0 +1,69 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+/**
+ * @since 18.10.2026
+ */
+public class ConnectorPkCacheImplTest {
+
+    private final ConnectorPkCacheImpl cache = new ConnectorPkCacheImpl();
+
+    @Test
+    public void testGetAndPut() {
+        Assert.assertNull(cache.get("charge-box-1", 1));
+
+        cache.put("charge-box-1", 1, 10);
+        cache.put("charge-box-1", 2, 11);
+        cache.put("charge-box-2", 1, 20);
+
+        Assert.assertEquals(Integer.valueOf(10), cache.get("charge-box-1", 1));
+        Assert.assertEquals(Integer.valueOf(11), cache.get("charge-box-1", 2));
+        Assert.assertEquals(Integer.valueOf(20), cache.get("charge-box-2", 1));
+        Assert.assertNull(cache.get("charge-box-2", 2));
+    }
+
+    /**
+     * All connectors of the charge box are invalidated, but not the ones of other charge boxes
+     */
+    @Test
+    public void testInvalidate() {
+        cache.put("charge-box-1", 1, 10);
+        cache.put("charge-box-1", 2, 11);
+        cache.put("charge-box-2", 1, 20);
+
+        cache.invalidate("charge-box-1");
+        cache.invalidate("unknown");
+
+        Assert.assertNull(cache.get("charge-box-1", 1));
+        Assert.assertNull(cache.get("charge-box-1", 2));
+        Assert.assertEquals(Integer.valueOf(20), cache.get("charge-box-2", 1));
+
+        // the primary keys of re-inserted connectors are new
+        cache.put("charge-box-1", 1, 30);
+        Assert.assertEquals(Integer.valueOf(30), cache.get("charge-box-1", 1));
+    }
+
+    @Test
+    public void testMetrics() {
+        cache.put("charge-box-1", 1, 10);
+        cache.put("charge-box-1", 2, 11);
+        cache.put("charge-box-2", 1, 20);
+
+        cache.get("charge-box-1", 1);
+        cache.get("charge-box-1", 1);
+        cache.get("charge-box-1", 3);
+        cache.invalidate("charge-box-2");
+        cache.invalidate("charge-box-2");
+
+        Map<String, Object> metrics = cache.getMetrics();
+        Assert.assertEquals(1, metrics.get("Cached charge boxes"));
+        Assert.assertEquals(2, metrics.get("Cached connectors"));
+        Assert.assertEquals(2L, metrics.get("Hits"));
+        Assert.assertEquals(1L, metrics.get("Misses"));
+        Assert.assertEquals(1L, metrics.get("Invalidated charge boxes"));
+    }
+}
@@ -0,0 +1,83 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.dto.Page;
+import de.rwth.idsg.steve.web.dto.OcppTagQueryForm;
+import jooq.steve.db.tables.records.OcppTagRecord;
+import org.jooq.SelectQuery;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
+
+/**
+ * The tags are sorted by idTag, which is the reverse order of their primary keys.
+ *
+ * @since 18.10.2026
+ */
+public class KeysetPaginationTest extends AbstractDatabaseTest {
+
+    private static final KeysetPagination KEYSET = KeysetPagination.byColumn(OCPP_TAG.ID_TAG, OCPP_TAG.OCPP_TAG_PK,
+            false);
+
+    @Before
+    public void prepare() {
+        for (String idTag : Arrays.asList("page-5", "page-4", "page-3", "page-2", "page-1")) {
+            ctx.insertInto(OCPP_TAG)
+               .set(OCPP_TAG.ID_TAG, idTag)
+               .set(OCPP_TAG.BLOCKED, false)
+               .set(OCPP_TAG.IN_TRANSACTION, false)
+               .execute();
+        }
+    }
+
+    @Test
+    public void testForwardAndBackward() {
+        Page<String> first = fetchPage(null, null);
+        assertPage(first, false, true, "page-1", "page-2");
+
+        Page<String> second = fetchPage(first.getLastKey(), null);
+        assertPage(second, true, true, "page-3", "page-4");
+
+        Page<String> third = fetchPage(second.getLastKey(), null);
+        assertPage(third, true, false, "page-5");
+
+        assertPage(fetchPage(null, third.getFirstKey()), true, true, "page-3", "page-4");
+        assertPage(fetchPage(null, second.getFirstKey()), false, true, "page-1", "page-2");
+    }
+
+    /**
+     * The position of a deleted cursor is unknown, which must not result in an empty page
+     */
+    @Test
+    public void testDeletedCursor() {
+        Page<String> first = fetchPage(null, null);
+        Page<String> second = fetchPage(first.getLastKey(), null);
+
+        ctx.deleteFrom(OCPP_TAG).where(OCPP_TAG.OCPP_TAG_PK.eq(first.getLastKey())).execute();
+        assertPage(fetchPage(first.getLastKey(), null), false, true, "page-1", "page-3");
+
+        ctx.deleteFrom(OCPP_TAG).where(OCPP_TAG.OCPP_TAG_PK.eq(second.getFirstKey())).execute();
+        assertPage(fetchPage(null, second.getFirstKey()), false, true, "page-1", "page-4");
+    }
+
+    private Page<String> fetchPage(Integer after, Integer before) {
+        OcppTagQueryForm form = new OcppTagQueryForm();
+        form.setPageSize(2);
+        form.setAfter(after);
+        form.setBefore(before);
+
+        SelectQuery<OcppTagRecord> query = ctx.selectQuery(OCPP_TAG);
+        query.addConditions(OCPP_TAG.ID_TAG.like("page-%"));
+
+        return KEYSET.fetchPage(ctx, query, form, OcppTagRecord::getIdTag);
+    }
+
+    private static void assertPage(Page<String> page, boolean hasPrevious, boolean hasNext, String... idTags) {
+        Assert.assertEquals(Arrays.asList(idTags), page.getItems());
+        Assert.assertEquals(hasPrevious, page.isHasPrevious());
+        Assert.assertEquals(hasNext, page.isHasNext());
+    }
+}
@@ -0,0 +1,68 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @since 18.10.2026
+ */
+public class LatestConnectorStatusCacheImplTest {
+
+    private static final DateTime NOON = new DateTime(2026, 10, 18, 12, 0);
+
+    private final LatestConnectorStatusCacheImpl cache = new LatestConnectorStatusCacheImpl(true);
+
+    @Test
+    public void testUnchanged() {
+        Assert.assertFalse(isUnchanged(1, NOON, "Available", "NoError"));
+
+        put(1, NOON, "Available", "NoError");
+        Assert.assertTrue(isUnchanged(1, NOON.plusMinutes(1), "Available", "NoError"));
+        Assert.assertTrue(isUnchanged(1, NOON, "Available", "NoError"));
+
+        Assert.assertFalse(isUnchanged(1, NOON.plusMinutes(1), "Charging", "NoError"));
+        Assert.assertFalse(isUnchanged(1, NOON.plusMinutes(1), "Available", "GroundFailure"));
+        Assert.assertFalse(isUnchanged(2, NOON.plusMinutes(1), "Available", "NoError"));
+        Assert.assertFalse(isUnchanged(1, null, "Available", "NoError"));
+    }
+
+    /**
+     * An older status (e.g. a delayed message) is stored in any case, and does not replace the cached one
+     */
+    @Test
+    public void testOlderStatus() {
+        put(1, NOON, "Available", "NoError");
+
+        Assert.assertFalse(isUnchanged(1, NOON.minusMinutes(1), "Available", "NoError"));
+
+        put(1, NOON.minusMinutes(1), "Charging", "NoError");
+        Assert.assertTrue(isUnchanged(1, NOON.plusMinutes(1), "Available", "NoError"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        put(1, NOON, "Available", "NoError");
+        cache.invalidate(1);
+
+        Assert.assertFalse(isUnchanged(1, NOON.plusMinutes(1), "Available", "NoError"));
+        Assert.assertEquals(1L, cache.getMetrics().get("Invalidated connectors"));
+    }
+
+    @Test
+    public void testDisabled() {
+        LatestConnectorStatusCacheImpl disabled = new LatestConnectorStatusCacheImpl(false);
+        disabled.put(1, NOON, "Available", "NoError", null, null, null);
+
+        Assert.assertFalse(disabled.isUnchanged(1, NOON.plusMinutes(1), "Available", "NoError", null, null, null));
+        Assert.assertEquals(0, disabled.getMetrics().get("Cached connectors"));
+    }
+
+    private boolean isUnchanged(int connectorPk, DateTime timestamp, String status, String errorCode) {
+        return cache.isUnchanged(connectorPk, timestamp, status, errorCode, null, null, null);
+    }
+
+    private void put(int connectorPk, DateTime timestamp, String status, String errorCode) {
+        cache.put(connectorPk, timestamp, status, errorCode, null, null, null);
+    }
+}
@@ -0,0 +1,91 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.dto.TransactionDetails;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @since 18.10.2026
+ */
+public class MeterValueBlobCodecTest {
+
+    private static final DateTime START = new DateTime(2026, 10, 18, 12, 0);
+
+    @Test
+    public void testRoundTrip() {
+        List<TransactionDetails.MeterValues> samples = Arrays.asList(
+                sample(START, "1000.5", "Energy.Active.Import.Register", "Wh", null),
+                sample(START, "16", "Current.Import", "A", "L1"),
+                sample(START.plusSeconds(60), "1200.25", "Energy.Active.Import.Register", "Wh", null),
+                sample(START.plusSeconds(60), "-3", "Current.Import", "A", "L1"),
+                // not a decimal, or not printed back to the same string
+                sample(START.plusSeconds(30), "1E+3", "Energy.Active.Import.Register", "Wh", null),
+                sample(START.plusSeconds(120), "0x1F", "Some.Vendor.Measurand", "Unknown", "L2"),
+                sample(START.plusSeconds(180), "99999999999999999999", null, null, null),
+                sample(null, null, null, null, null)
+        );
+
+        assertEquals(samples, MeterValueBlobCodec.decode(MeterValueBlobCodec.encode(samples)));
+    }
+
+    @Test
+    public void testAppendedChunks() throws Exception {
+        List<TransactionDetails.MeterValues> first = Arrays.asList(
+                sample(START, "1000", "Energy.Active.Import.Register", "Wh", null),
+                sample(START.plusSeconds(60), "1100", "Energy.Active.Import.Register", "Wh", null));
+
+        List<TransactionDetails.MeterValues> second = Arrays.asList(
+                sample(START.plusSeconds(120), "1.25", "Energy.Active.Import.Register", "kWh", null));
+
+        ByteArrayOutputStream blob = new ByteArrayOutputStream();
+        blob.write(MeterValueBlobCodec.encode(first));
+        blob.write(MeterValueBlobCodec.encode(second));
+
+        List<TransactionDetails.MeterValues> expected = new ArrayList<>(first);
+        expected.addAll(second);
+
+        assertEquals(expected, MeterValueBlobCodec.decode(blob.toByteArray()));
+    }
+
+    private static TransactionDetails.MeterValues sample(DateTime ts, String value, String measurand, String unit,
+                                                         String phase) {
+        return TransactionDetails.MeterValues.builder()
+                                             .valueTimestamp(ts)
+                                             .value(value)
+                                             .readingContext("Sample.Periodic")
+                                             .format("Raw")
+                                             .measurand(measurand)
+                                             .location(null)
+                                             .unit(unit)
+                                             .phase(phase)
+                                             .build();
+    }
+
+    private static void assertEquals(List<TransactionDetails.MeterValues> expected,
+                                     List<TransactionDetails.MeterValues> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            TransactionDetails.MeterValues e = expected.get(i);
+            TransactionDetails.MeterValues a = actual.get(i);
+
+            if (e.getValueTimestamp() == null) {
+                Assert.assertNull(a.getValueTimestamp());
+            } else {
+                Assert.assertEquals(e.getValueTimestamp().getMillis(), a.getValueTimestamp().getMillis());
+            }
+            Assert.assertEquals(e.getValue(), a.getValue());
+            Assert.assertEquals(e.getReadingContext(), a.getReadingContext());
+            Assert.assertEquals(e.getFormat(), a.getFormat());
+            Assert.assertEquals(e.getMeasurand(), a.getMeasurand());
+            Assert.assertEquals(e.getLocation(), a.getLocation());
+            Assert.assertEquals(e.getUnit(), a.getUnit());
+            Assert.assertEquals(e.getPhase(), a.getPhase());
+        }
+    }
+}
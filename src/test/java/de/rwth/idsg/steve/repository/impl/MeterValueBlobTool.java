@@ -0,0 +1,342 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.config.BeanConfiguration;
+import de.rwth.idsg.steve.repository.dto.TransactionDetails;
+import jooq.steve.db.tables.records.ConnectorMeterValueRecord;
+import jooq.steve.db.tables.records.TransactionMeterValueBlobRecord;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record2;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
+import static jooq.steve.db.tables.Transaction.TRANSACTION;
+import static jooq.steve.db.tables.TransactionMeterValueBlob.TRANSACTION_METER_VALUE_BLOB;
+
+/**
+ * Moves the meter values of transactions between connector_meter_value and transaction_meter_value_blob, and reports
+ * the storage and scan time of both. Runs against the database of the configuration, with the application stopped or
+ * running. Usage (with the test classes and the application jar in the classpath):
+ *
+ * - migrate [transactions per batch]: Moves the rows of finished transactions to blobs
+ * - export [transactions per batch]: Moves the blobs back to rows, e.g. before db.meter.value.blob is disabled
+ * - compact [transactions per batch]: Merges the chunks of finished transactions, e.g. the ones that were appended
+ *   after the stop
+ * - report [transactions]: Prints the bytes per sample of both tables, and the time to read the meter values of the
+ *   latest transactions from each of them. For a comparison, both tables must have data (e.g. migrate a part).
+ *
+ * Every batch runs in one database transaction. The rows of a batch are locked, such that a MeterValues message that
+ * arrives for one of its transactions in the meantime waits for the batch.
+ *
+ * @since 18.10.2026
+ */
+@Slf4j
+public final class MeterValueBlobTool {
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_REPORT_TRANSACTIONS = 1000;
+
+    private final DSLContext ctx;
+    private final MeterValueDictionaryImpl meterValueDictionary;
+
+    private MeterValueBlobTool(DSLContext ctx) {
+        this.ctx = ctx;
+        this.meterValueDictionary = new MeterValueDictionaryImpl(ctx);
+        this.meterValueDictionary.init();
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            log.error("Usage: MeterValueBlobTool migrate|export|compact|report [count]");
+            return;
+        }
+
+        BeanConfiguration config = new BeanConfiguration();
+        try {
+            MeterValueBlobTool tool = new MeterValueBlobTool(config.dslContext());
+            switch (args[0]) {
+                case "migrate":
+                    tool.migrate(getCount(args, DEFAULT_BATCH_SIZE));
+                    break;
+                case "export":
+                    tool.export(getCount(args, DEFAULT_BATCH_SIZE));
+                    break;
+                case "compact":
+                    tool.compact(getCount(args, DEFAULT_BATCH_SIZE));
+                    break;
+                case "report":
+                    tool.report(getCount(args, DEFAULT_REPORT_TRANSACTIONS));
+                    break;
+                default:
+                    log.error("Unknown command '{}'", args[0]);
+            }
+        } finally {
+            config.shutDown();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Commands
+    // -------------------------------------------------------------------------
+
+    private void migrate(int batchSize) {
+        int lastTransactionPk = 0;
+        long transactionCount = 0;
+        long sampleCount = 0;
+
+        while (true) {
+            List<Integer> transactionPks =
+                    ctx.select(TRANSACTION.TRANSACTION_PK)
+                       .from(TRANSACTION)
+                       .where(TRANSACTION.TRANSACTION_PK.gt(lastTransactionPk))
+                       .and(TRANSACTION.STOP_TIMESTAMP.isNotNull())
+                       .andExists(DSL.selectOne()
+                                     .from(CONNECTOR_METER_VALUE)
+                                     .where(CONNECTOR_METER_VALUE.TRANSACTION_PK.eq(TRANSACTION.TRANSACTION_PK)))
+                       .orderBy(TRANSACTION.TRANSACTION_PK)
+                       .limit(batchSize)
+                       .fetch(TRANSACTION.TRANSACTION_PK);
+
+            if (transactionPks.isEmpty()) {
+                break;
+            }
+
+            BatchResult result =
+                    ctx.transactionResult(configuration -> migrateBatch(DSL.using(configuration), transactionPks));
+            transactionCount += result.transactions;
+            sampleCount += result.samples;
+            lastTransactionPk = transactionPks.get(transactionPks.size() - 1);
+
+            log.info("Migrated {} transactions with {} samples", transactionCount, sampleCount);
+        }
+    }
+
+    private void export(int batchSize) {
+        long transactionCount = 0;
+        long sampleCount = 0;
+
+        while (true) {
+            BatchResult result =
+                    ctx.transactionResult(configuration -> exportBatch(DSL.using(configuration), batchSize));
+            if (result.transactions == 0) {
+                break;
+            }
+            transactionCount += result.transactions;
+            sampleCount += result.samples;
+
+            log.info("Exported {} transactions with {} samples", transactionCount, sampleCount);
+        }
+    }
+
+    private void compact(int batchSize) {
+        int lastTransactionPk = 0;
+        long transactionCount = 0;
+
+        while (true) {
+            List<Integer> transactionPks =
+                    ctx.select(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK)
+                       .from(TRANSACTION_METER_VALUE_BLOB)
+                       .join(TRANSACTION)
+                         .on(TRANSACTION.TRANSACTION_PK.eq(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK))
+                       .where(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK.gt(lastTransactionPk))
+                       .and(TRANSACTION.STOP_TIMESTAMP.isNotNull())
+                       .groupBy(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK)
+                       .having(DSL.count().gt(1))
+                       .orderBy(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK)
+                       .limit(batchSize)
+                       .fetch(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK);
+
+            if (transactionPks.isEmpty()) {
+                break;
+            }
+
+            for (Integer transactionPk : transactionPks) {
+                ctx.transaction(configuration -> MeterValueBlobCodec.compact(DSL.using(configuration), transactionPk));
+            }
+            transactionCount += transactionPks.size();
+            lastTransactionPk = transactionPks.get(transactionPks.size() - 1);
+
+            log.info("Compacted {} transactions", transactionCount);
+        }
+    }
+
+    private void report(int transactionCount) {
+        // the sizes in information_schema are estimates, which are updated by the analysis
+        ctx.execute("ANALYZE TABLE " + CONNECTOR_METER_VALUE.getName() + ", " + TRANSACTION_METER_VALUE_BLOB.getName());
+
+        TableSize rows = getTableSize(CONNECTOR_METER_VALUE, DSL.count());
+        TableSize blobs = getTableSize(TRANSACTION_METER_VALUE_BLOB,
+                DSL.coalesce(DSL.sum(TRANSACTION_METER_VALUE_BLOB.SAMPLE_COUNT), DSL.zero()));
+
+        log.info("Rows:  {} samples, {} bytes, {} bytes/sample", rows.samples, rows.bytes, rows.getBytesPerSample());
+        log.info("Blobs: {} samples, {} bytes, {} bytes/sample", blobs.samples, blobs.bytes, blobs.getBytesPerSample());
+
+        // the latest transactions that have rows
+        List<Integer> rowTransactionPks =
+                ctx.selectDistinct(CONNECTOR_METER_VALUE.TRANSACTION_PK)
+                   .from(CONNECTOR_METER_VALUE)
+                   .where(CONNECTOR_METER_VALUE.TRANSACTION_PK.isNotNull())
+                   .orderBy(CONNECTOR_METER_VALUE.TRANSACTION_PK.desc())
+                   .limit(transactionCount)
+                   .fetch(CONNECTOR_METER_VALUE.TRANSACTION_PK);
+
+        List<Integer> blobTransactionPks =
+                ctx.selectDistinct(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK)
+                   .from(TRANSACTION_METER_VALUE_BLOB)
+                   .orderBy(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK.desc())
+                   .limit(transactionCount)
+                   .fetch(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK);
+
+        long start = System.nanoTime();
+        long rowSamples = 0;
+        for (Integer transactionPk : rowTransactionPks) {
+            rowSamples += ctx.selectFrom(CONNECTOR_METER_VALUE)
+                             .where(CONNECTOR_METER_VALUE.TRANSACTION_PK.eq(transactionPk))
+                             .fetch()
+                             .size();
+        }
+        logScan("Rows", rowTransactionPks.size(), rowSamples, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        long blobSamples = 0;
+        for (Integer transactionPk : blobTransactionPks) {
+            blobSamples += MeterValueBlobCodec.read(ctx, transactionPk).size();
+        }
+        logScan("Blobs", blobTransactionPks.size(), blobSamples, System.nanoTime() - start);
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private BatchResult migrateBatch(DSLContext ctx, List<Integer> transactionPks) {
+        List<ConnectorMeterValueRecord> rows =
+                ctx.selectFrom(CONNECTOR_METER_VALUE)
+                   .where(CONNECTOR_METER_VALUE.TRANSACTION_PK.in(transactionPks))
+                   .orderBy(CONNECTOR_METER_VALUE.TRANSACTION_PK, CONNECTOR_METER_VALUE.VALUE_TIMESTAMP)
+                   .forUpdate()
+                   .fetch();
+
+        Map<Integer, List<TransactionDetails.MeterValues>> samples = new LinkedHashMap<>();
+        Map<Integer, Integer> connectorPks = new LinkedHashMap<>();
+        for (ConnectorMeterValueRecord r : rows) {
+            samples.computeIfAbsent(r.getTransactionPk(), k -> new ArrayList<>())
+                   .add(toSample(r));
+            connectorPks.put(r.getTransactionPk(), r.getConnectorPk());
+        }
+
+        List<TransactionMeterValueBlobRecord> blobs = new ArrayList<>(samples.size());
+        samples.forEach((transactionPk, list) ->
+                blobs.add(MeterValueBlobCodec.toRecord(ctx, transactionPk, connectorPks.get(transactionPk), list)));
+        MeterValueBlobCodec.append(ctx, blobs);
+
+        ctx.delete(CONNECTOR_METER_VALUE)
+           .where(CONNECTOR_METER_VALUE.TRANSACTION_PK.in(transactionPks))
+           .execute();
+
+        return new BatchResult(blobs.size(), rows.size());
+    }
+
+    private BatchResult exportBatch(DSLContext ctx, int batchSize) {
+        List<Integer> batch =
+                ctx.selectDistinct(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK)
+                   .from(TRANSACTION_METER_VALUE_BLOB)
+                   .orderBy(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK)
+                   .limit(batchSize)
+                   .fetch(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK);
+
+        List<TransactionMeterValueBlobRecord> blobs =
+                ctx.selectFrom(TRANSACTION_METER_VALUE_BLOB)
+                   .where(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK.in(batch))
+                   .orderBy(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK, TRANSACTION_METER_VALUE_BLOB.CHUNK_PK)
+                   .forUpdate()
+                   .fetch();
+
+        List<ConnectorMeterValueRecord> rows = new ArrayList<>();
+        for (TransactionMeterValueBlobRecord blob : blobs) {
+            for (TransactionDetails.MeterValues s : MeterValueBlobCodec.decode(blob.getData())) {
+                rows.add(ctx.newRecord(CONNECTOR_METER_VALUE)
+                            .setConnectorPk(blob.getConnectorPk())
+                            .setTransactionPk(blob.getTransactionPk())
+                            .setValueTimestamp(s.getValueTimestamp())
+                            .setValue(s.getValue())
+                            .setReadingContextPk(meterValueDictionary.getCode(s.getReadingContext()))
+                            .setFormatPk(meterValueDictionary.getCode(s.getFormat()))
+                            .setMeasurandPk(meterValueDictionary.getCode(s.getMeasurand()))
+                            .setLocationPk(meterValueDictionary.getCode(s.getLocation()))
+                            .setUnitPk(meterValueDictionary.getCode(s.getUnit()))
+                            .setPhasePk(meterValueDictionary.getCode(s.getPhase())));
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            ctx.batchInsert(rows).execute();
+        }
+
+        ctx.delete(TRANSACTION_METER_VALUE_BLOB)
+           .where(TRANSACTION_METER_VALUE_BLOB.TRANSACTION_PK.in(batch))
+           .execute();
+
+        return new BatchResult(batch.size(), rows.size());
+    }
+
+    private TransactionDetails.MeterValues toSample(ConnectorMeterValueRecord r) {
+        return TransactionDetails.MeterValues.builder()
+                                             .valueTimestamp(r.getValueTimestamp())
+                                             .value(r.getValue())
+                                             .readingContext(meterValueDictionary.getValue(r.getReadingContextPk()))
+                                             .format(meterValueDictionary.getValue(r.getFormatPk()))
+                                             .measurand(meterValueDictionary.getValue(r.getMeasurandPk()))
+                                             .location(meterValueDictionary.getValue(r.getLocationPk()))
+                                             .unit(meterValueDictionary.getValue(r.getUnitPk()))
+                                             .phase(meterValueDictionary.getValue(r.getPhasePk()))
+                                             .build();
+    }
+
+    private TableSize getTableSize(Table<?> table, Field<? extends Number> samples) {
+        Record2<Long, Long> size =
+                ctx.select(DSL.field(DSL.name("DATA_LENGTH"), Long.class),
+                           DSL.field(DSL.name("INDEX_LENGTH"), Long.class))
+                   .from(DSL.table(DSL.name("information_schema", "TABLES")))
+                   .where(DSL.field(DSL.name("TABLE_SCHEMA")).eq(DSL.field("DATABASE()")))
+                   .and(DSL.field(DSL.name("TABLE_NAME")).eq(table.getName()))
+                   .fetchOne();
+
+        long sampleCount = ctx.select(samples).from(table).fetchOne().value1().longValue();
+        return new TableSize(size.value1() + size.value2(), sampleCount);
+    }
+
+    private static void logScan(String name, int transactions, long samples, long nanos) {
+        log.info("{}: read {} samples of {} transactions in {} ms ({} samples/ms)",
+                name, samples, transactions, nanos / 1_000_000, nanos == 0 ? 0 : samples * 1_000_000 / nanos);
+    }
+
+    private static int getCount(String[] args, int defaultCount) {
+        return args.length > 1 ? Integer.parseInt(args[1]) : defaultCount;
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static class BatchResult {
+        private final int transactions;
+        private final int samples;
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static class TableSize {
+        private final long bytes;
+        private final long samples;
+
+        private long getBytesPerSample() {
+            return samples == 0 ? 0 : bytes / samples;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.SteveException;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static jooq.steve.db.tables.MeterValueDictionary.METER_VALUE_DICTIONARY;
+
+/**
+ * The dictionary is empty before every test.
+ *
+ * @since 18.10.2026
+ */
+public class MeterValueDictionaryImplTest extends AbstractDatabaseTest {
+
+    private MeterValueDictionaryImpl dictionary;
+
+    @Before
+    public void prepare() {
+        dictionary = newDictionary();
+    }
+
+    @Test
+    public void testInsert() {
+        Short code = dictionary.getCode("Energy.Active.Import.Register");
+        Assert.assertNotNull(code);
+        Assert.assertEquals(code, dictionary.getCode("Energy.Active.Import.Register"));
+        Assert.assertEquals("Energy.Active.Import.Register", dictionary.getValue(code));
+        Assert.assertEquals(1, ctx.fetchCount(METER_VALUE_DICTIONARY));
+
+        Assert.assertNull(dictionary.getCode(null));
+        Assert.assertNull(dictionary.getValue(null));
+    }
+
+    @Test
+    public void testCaseSensitive() {
+        Short upper = dictionary.getCode("Wh");
+        Short lower = dictionary.getCode("wh");
+        Assert.assertNotEquals(upper, lower);
+        Assert.assertEquals("Wh", dictionary.getValue(upper));
+        Assert.assertEquals("wh", dictionary.getValue(lower));
+    }
+
+    /**
+     * The entries of the database are loaded at startup, and the codes that are added by another instance afterwards
+     * are looked up when they are read
+     */
+    @Test
+    public void testOtherInstance() {
+        Short loaded = dictionary.getCode("Sample.Periodic");
+
+        MeterValueDictionaryImpl other = newDictionary();
+        Assert.assertEquals(loaded, other.getCode("Sample.Periodic"));
+
+        Short added = other.getCode("Sample.Clock");
+        Assert.assertEquals("Sample.Clock", dictionary.getValue(added));
+
+        // the same value gets the same code in both instances
+        Assert.assertEquals(added, dictionary.getCode("Sample.Clock"));
+    }
+
+    @Test(expected = SteveException.class)
+    public void testUnknownCode() {
+        dictionary.getValue((short) 42);
+    }
+
+    @Test
+    public void testResolve() {
+        dictionary.getCode("Outlet");
+
+        Field<String> location = dictionary.resolve(DSL.field(DSL.name("location_pk"), Short.class));
+        Assert.assertEquals("location", location.getName());
+
+        Field<String> value = dictionary.resolve(METER_VALUE_DICTIONARY.DICTIONARY_PK);
+        Assert.assertEquals("dictionary", value.getName());
+        Assert.assertEquals("Outlet", ctx.select(value)
+                                         .from(METER_VALUE_DICTIONARY)
+                                         .fetchOne()
+                                         .value1());
+    }
+
+    /**
+     * The last code of SMALLINT is still assigned, after that new values are rejected. The known values are still
+     * served.
+     */
+    @Test
+    public void testFull() {
+        ctx.execute("ALTER TABLE " + METER_VALUE_DICTIONARY.getName() + " AUTO_INCREMENT = " + Short.MAX_VALUE);
+
+        Assert.assertEquals(Short.valueOf(Short.MAX_VALUE), dictionary.getCode("Current.Import"));
+
+        try {
+            dictionary.getCode("Current.Export");
+            Assert.fail();
+        } catch (SteveException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("is full"));
+        }
+
+        Assert.assertEquals(Short.valueOf(Short.MAX_VALUE), dictionary.getCode("Current.Import"));
+        Assert.assertEquals(Boolean.TRUE, dictionary.getMetrics().get("Full"));
+        Assert.assertEquals(1L, dictionary.getMetrics().get("Rejected values"));
+        Assert.assertEquals(1, ctx.fetchCount(METER_VALUE_DICTIONARY));
+    }
+
+    private static MeterValueDictionaryImpl newDictionary() {
+        MeterValueDictionaryImpl dictionary = new MeterValueDictionaryImpl(ctx);
+        dictionary.init();
+        return dictionary;
+    }
+}
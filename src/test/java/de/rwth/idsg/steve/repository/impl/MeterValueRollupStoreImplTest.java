@@ -0,0 +1,185 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.dto.MeterValueRollup;
+import de.rwth.idsg.steve.utils.__DatabasePreparer__;
+import ocpp.cs._2015._10.Location;
+import ocpp.cs._2015._10.Measurand;
+import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.SampledValue;
+import ocpp.cs._2015._10.UnitOfMeasure;
+import ocpp.cs._2015._10.ValueFormat;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+
+/**
+ * The stores are not initialized, i.e. they are flushed by the tests only.
+ *
+ * @since 18.10.2026
+ */
+public class MeterValueRollupStoreImplTest extends AbstractDatabaseTest {
+
+    private static final String ENERGY = "Energy.Active.Import.Register";
+    private static final DateTime NOON = new DateTime(2026, 10, 18, 12, 0, DateTimeZone.UTC);
+
+    private final String chargeBoxId = __DatabasePreparer__.getRegisteredChargeBoxId();
+
+    private int connectorPk;
+    private MeterValueRollupStoreImpl store;
+
+    @Before
+    public void prepare() {
+        connectorPk = ctx.insertInto(CONNECTOR)
+                         .set(CONNECTOR.CHARGE_BOX_ID, chargeBoxId)
+                         .set(CONNECTOR.CONNECTOR_ID, 1)
+                         .returning(CONNECTOR.CONNECTOR_PK)
+                         .fetchOne()
+                         .getConnectorPk();
+
+        store = new MeterValueRollupStoreImpl(ctx, ctx, null);
+    }
+
+    @Test
+    public void testAggregation() {
+        store.add(connectorPk, Arrays.asList(
+                meterValue(NOON.plusSeconds(10), energy("1500")),
+                // kWh is normalized to Wh
+                meterValue(NOON.plusSeconds(40), energy("1").withUnit(UnitOfMeasure.K_WH)),
+                meterValue(NOON.plusSeconds(25), energy("1200")),
+                meterValue(NOON.plusSeconds(70), energy("2000"))
+        ));
+        store.flush();
+
+        List<MeterValueRollup> rollups = getRollups(NOON, NOON.plusMinutes(2));
+        Assert.assertEquals(2, rollups.size());
+
+        MeterValueRollup first = rollups.get(0);
+        Assert.assertEquals(MeterValueRollup.Resolution.ONE_MINUTE, first.getResolution());
+        Assert.assertEquals(NOON.getMillis(), first.getBucketStart().getMillis());
+        Assert.assertEquals("Wh", first.getUnit());
+        Assert.assertEquals(3, first.getSampleCount());
+        Assert.assertEquals(1000, first.getMinValue(), 0);
+        Assert.assertEquals(1500, first.getMaxValue(), 0);
+        Assert.assertEquals(1000, first.getLastValue(), 0);
+        Assert.assertEquals(NOON.plusSeconds(40).getMillis(), first.getLastTimestamp().getMillis());
+
+        MeterValueRollup second = rollups.get(1);
+        Assert.assertEquals(1, second.getSampleCount());
+        Assert.assertEquals(2000, second.getLastValue(), 0);
+        Assert.assertEquals(Double.valueOf(1000), second.getEnergyDelta());
+    }
+
+    /**
+     * The buckets that are written by several flushes are merged by the upsert
+     */
+    @Test
+    public void testMergeAcrossFlushes() {
+        store.add(connectorPk, Collections.singletonList(meterValue(NOON.plusSeconds(30), energy("1000"))));
+        store.flush();
+        store.add(connectorPk, Collections.singletonList(meterValue(NOON.plusSeconds(10), energy("900"))));
+        store.flush();
+
+        MeterValueRollup rollup = getRollups(NOON, NOON.plusMinutes(1)).get(0);
+        Assert.assertEquals(2, rollup.getSampleCount());
+        Assert.assertEquals(900, rollup.getMinValue(), 0);
+        // the later sample stays the last one, although it was written first
+        Assert.assertEquals(1000, rollup.getLastValue(), 0);
+    }
+
+    @Test
+    public void testSkipped() {
+        store.add(connectorPk, Collections.singletonList(meterValue(NOON,
+                energy("1000").withLocation(Location.INLET),
+                energy("1000").withFormat(ValueFormat.SIGNED_DATA),
+                energy("not a number")
+        )));
+        store.flush();
+
+        Assert.assertTrue(getRollups(NOON, NOON.plusMinutes(1)).isEmpty());
+    }
+
+    /**
+     * The samples of a series are received by two instances, and the second instance is restarted in between. The
+     * deltas are the same as if one instance received all of them.
+     */
+    @Test
+    public void testEnergyDeltaAcrossInstances() {
+        add(store, 0, "1000");
+        add(newStore(), 1, "1500");
+        // a decreasing register
+        add(store, 2, "1400");
+        add(newStore(), 3, "2000");
+
+        // the first bucket in the range is compared with the bucket before the range
+        List<MeterValueRollup> rollups = getRollups(NOON.plusMinutes(1), NOON.plusMinutes(4));
+        Assert.assertEquals(3, rollups.size());
+        Assert.assertEquals(Double.valueOf(500), rollups.get(0).getEnergyDelta());
+        Assert.assertNull(rollups.get(1).getEnergyDelta());
+        Assert.assertEquals(Double.valueOf(600), rollups.get(2).getEnergyDelta());
+
+        // without a previous bucket
+        Assert.assertNull(getRollups(NOON, NOON.plusMinutes(1)).get(0).getEnergyDelta());
+    }
+
+    @Test
+    public void testNoEnergyDeltaForOtherMeasurands() {
+        for (int i = 0; i < 2; i++) {
+            store.add(connectorPk, Collections.singletonList(meterValue(NOON.plusMinutes(i),
+                    new SampledValue().withValue("16").withMeasurand(Measurand.CURRENT_IMPORT))));
+        }
+        store.flush();
+
+        List<MeterValueRollup> rollups = store.getRollups(chargeBoxId, 1, Measurand.CURRENT_IMPORT.value(),
+                NOON, NOON.plusMinutes(2), 100);
+        Assert.assertEquals(2, rollups.size());
+        Assert.assertNull(rollups.get(1).getEnergyDelta());
+    }
+
+    @Test
+    public void testResolution() {
+        store.add(connectorPk, Collections.singletonList(meterValue(NOON.plusMinutes(20), energy("1000"))));
+        store.flush();
+
+        List<MeterValueRollup> rollups = store.getRollups(chargeBoxId, null, ENERGY,
+                NOON.minusDays(1), NOON.plusDays(1), 100);
+        Assert.assertEquals(1, rollups.size());
+        Assert.assertEquals(MeterValueRollup.Resolution.ONE_HOUR, rollups.get(0).getResolution());
+        Assert.assertEquals(NOON.getMillis(), rollups.get(0).getBucketStart().getMillis());
+
+        rollups = store.getRollups(chargeBoxId, null, ENERGY, NOON, NOON.plusHours(1), 10);
+        Assert.assertEquals(MeterValueRollup.Resolution.FIFTEEN_MINUTES, rollups.get(0).getResolution());
+        Assert.assertEquals(NOON.plusMinutes(15).getMillis(), rollups.get(0).getBucketStart().getMillis());
+    }
+
+    private MeterValueRollupStoreImpl newStore() {
+        return new MeterValueRollupStoreImpl(ctx, ctx, null);
+    }
+
+    private void add(MeterValueRollupStoreImpl s, int minute, String value) {
+        s.add(connectorPk, Collections.singletonList(meterValue(NOON.plusMinutes(minute).plusSeconds(30),
+                energy(value))));
+        s.flush();
+    }
+
+    private List<MeterValueRollup> getRollups(DateTime from, DateTime to) {
+        return store.getRollups(chargeBoxId, 1, ENERGY, from, to, 100);
+    }
+
+    private static MeterValue meterValue(DateTime timestamp, SampledValue... values) {
+        return new MeterValue().withTimestamp(timestamp).withSampledValue(values);
+    }
+
+    private static SampledValue energy(String value) {
+        return new SampledValue().withValue(value)
+                                 .withMeasurand(Measurand.ENERGY_ACTIVE_IMPORT_REGISTER)
+                                 .withUnit(UnitOfMeasure.WH);
+    }
+}
@@ -0,0 +1,121 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.StatisticsStore;
+import de.rwth.idsg.steve.repository.dto.ConnectorStatus;
+import de.rwth.idsg.steve.repository.dto.InsertConnectorStatusParams;
+import de.rwth.idsg.steve.utils.__DatabasePreparer__;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
+
+/**
+ * The repository is wired with the collaborators that the tested paths need.
+ *
+ * @since 18.10.2026
+ */
+public class OcppServerRepositoryImplTest extends AbstractDatabaseTest {
+
+    private static final DateTime T1 = DateTime.parse("2026-10-18T12:00:00.000Z");
+    private static final DateTime T2 = T1.plusMinutes(1);
+    private static final DateTime T3 = T1.plusMinutes(2);
+
+    private final String chargeBoxId = __DatabasePreparer__.getRegisteredChargeBoxId();
+
+    private ConnectorPkCacheImpl connectorPkCache;
+    private OcppServerRepositoryImpl repository;
+
+    @Before
+    public void prepare() {
+        repository = newRepository();
+    }
+
+    /**
+     * The history keeps every status, whereas the latest status is not overwritten by a delayed (older) one
+     */
+    @Test
+    public void testLatestConnectorStatus() {
+        repository.insertConnectorStatus(status(1, T2, "Charging"));
+        repository.insertConnectorStatus(status(1, T1, "Preparing"));
+        repository.insertConnectorStatus(status(2, T1, "Available"));
+
+        Assert.assertEquals(3, ctx.fetchCount(CONNECTOR_STATUS));
+        assertLatest(1, T2, "Charging");
+        assertLatest(2, T1, "Available");
+
+        repository.insertConnectorStatus(status(1, T3, "Finishing"));
+        assertLatest(1, T3, "Finishing");
+    }
+
+    /**
+     * The connectors are inserted once, and their committed primary keys are cached
+     */
+    @Test
+    public void testConnectorPkCache() {
+        repository.insertConnectorStatus(status(1, T1, "Available"));
+        repository.insertConnectorStatus(status(2, T1, "Available"));
+        repository.insertConnectorStatus(status(1, T2, "Preparing"));
+
+        Assert.assertEquals(2, ctx.fetchCount(CONNECTOR, CONNECTOR.CHARGE_BOX_ID.eq(chargeBoxId)));
+        Assert.assertEquals(getConnectorPk(1), connectorPkCache.get(chargeBoxId, 1));
+        Assert.assertEquals(getConnectorPk(2), connectorPkCache.get(chargeBoxId, 2));
+
+        // a status of an invalidated charge box resolves the connector again
+        connectorPkCache.invalidate(chargeBoxId);
+        repository.insertConnectorStatus(status(1, T3, "Charging"));
+        Assert.assertEquals(getConnectorPk(1), connectorPkCache.get(chargeBoxId, 1));
+        Assert.assertNull(connectorPkCache.get(chargeBoxId, 2));
+    }
+
+    private Integer getConnectorPk(int connectorId) {
+        return ctx.select(CONNECTOR.CONNECTOR_PK)
+                  .from(CONNECTOR)
+                  .where(CONNECTOR.CHARGE_BOX_ID.eq(chargeBoxId))
+                  .and(CONNECTOR.CONNECTOR_ID.eq(connectorId))
+                  .fetchOne(CONNECTOR.CONNECTOR_PK);
+    }
+
+    private void assertLatest(int connectorId, DateTime timestamp, String status) {
+        List<ConnectorStatus> list = __DatabasePreparer__.getChargePointConnectorStatus();
+        ConnectorStatus connectorStatus = list.stream()
+                                              .filter(s -> s.getConnectorId() == connectorId)
+                                              .findFirst()
+                                              .orElseThrow(() -> new AssertionError("No status of " + connectorId));
+
+        Assert.assertEquals(status, connectorStatus.getStatus());
+        Assert.assertEquals(timestamp.getMillis(), connectorStatus.getStatusTimestamp().getMillis());
+    }
+
+    private InsertConnectorStatusParams status(int connectorId, DateTime timestamp, String status) {
+        return InsertConnectorStatusParams.builder()
+                                          .chargeBoxId(chargeBoxId)
+                                          .connectorId(connectorId)
+                                          .timestamp(timestamp)
+                                          .status(status)
+                                          .errorCode("NoError")
+                                          .build();
+    }
+
+    private OcppServerRepositoryImpl newRepository() {
+        StatisticsStore statisticsStore = (StatisticsStore) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{StatisticsStore.class},
+                (proxy, method, args) -> null);
+
+        OcppServerRepositoryImpl impl = new OcppServerRepositoryImpl();
+        ReflectionTestUtils.setField(impl, "ctx", ctx);
+        connectorPkCache = new ConnectorPkCacheImpl();
+        ReflectionTestUtils.setField(impl, "connectorPkCache", connectorPkCache);
+        ReflectionTestUtils.setField(impl, "latestConnectorStatusCache", new LatestConnectorStatusCacheImpl());
+        ReflectionTestUtils.setField(impl, "statisticsStore", statisticsStore);
+        impl.init();
+        return impl;
+    }
+}
@@ -0,0 +1,143 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.utils.__DatabasePreparer__;
+import org.joda.time.DateTime;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Query;
+import org.jooq.impl.DSL;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntConsumer;
+
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
+import static jooq.steve.db.tables.ConnectorStatusLatest.CONNECTOR_STATUS_LATEST;
+
+/**
+ * Compares the CPU time (of the calling thread, i.e. without the database) per StatusNotification of the statements
+ * that are built and rendered for every message with the ones in {@link PreparedQuery}. Runs against the database of
+ * the test profile. Not a unit test, run the main method.
+ *
+ * @since 18.10.2026
+ */
+public class PreparedQueryBenchmark {
+
+    private static final int WARM_UP_ITERATIONS = 5_000;
+    private static final int MEASURE_ITERATIONS = 20_000;
+
+    private static final String STATUS = "Available";
+    private static final String ERROR_CODE = "NoError";
+
+    public static void main(String[] args) {
+        __DatabasePreparer__.prepare();
+        try {
+            DSLContext ctx = __DatabasePreparer__.getDslContext();
+            int connectorPk = insertConnector(ctx);
+
+            PreparedQuery insertStatus = PreparedQuery.of(ctx,
+                    DSL.insertInto(CONNECTOR_STATUS)
+                       .set(CONNECTOR_STATUS.CONNECTOR_PK, DSL.param("connectorPk", CONNECTOR_STATUS.CONNECTOR_PK))
+                       .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, DSL.param("ts", CONNECTOR_STATUS.STATUS_TIMESTAMP))
+                       .set(CONNECTOR_STATUS.STATUS, DSL.param("status", CONNECTOR_STATUS.STATUS))
+                       .set(CONNECTOR_STATUS.ERROR_CODE, DSL.param("errorCode", CONNECTOR_STATUS.ERROR_CODE)));
+
+            PreparedQuery upsertLatest = PreparedQuery.of(ctx, createUpsertLatest(
+                    DSL.param("connectorPk", CONNECTOR_STATUS_LATEST.CONNECTOR_PK),
+                    DSL.param("ts", CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP),
+                    DSL.param("status", CONNECTOR_STATUS_LATEST.STATUS),
+                    DSL.param("errorCode", CONNECTOR_STATUS_LATEST.ERROR_CODE)));
+
+            DateTime start = DateTime.now();
+
+            IntConsumer rendered = i -> {
+                DateTime ts = start.plusMillis(i);
+                ctx.insertInto(CONNECTOR_STATUS)
+                   .set(CONNECTOR_STATUS.CONNECTOR_PK, connectorPk)
+                   .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, ts)
+                   .set(CONNECTOR_STATUS.STATUS, STATUS)
+                   .set(CONNECTOR_STATUS.ERROR_CODE, ERROR_CODE)
+                   .execute();
+                ctx.execute(createUpsertLatest(
+                        DSL.val(connectorPk, CONNECTOR_STATUS_LATEST.CONNECTOR_PK),
+                        DSL.val(ts, CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP),
+                        DSL.val(STATUS, CONNECTOR_STATUS_LATEST.STATUS),
+                        DSL.val(ERROR_CODE, CONNECTOR_STATUS_LATEST.ERROR_CODE)));
+            };
+
+            IntConsumer prepared = i -> {
+                DateTime ts = start.plusMillis(i);
+                insertStatus.execute(ctx, connectorPk, ts, STATUS, ERROR_CODE);
+                upsertLatest.execute(ctx, connectorPk, ts, STATUS, ERROR_CODE);
+            };
+
+            run("rendered", rendered);
+            run("prepared", prepared);
+            run("rendered", rendered);
+            run("prepared", prepared);
+        } finally {
+            __DatabasePreparer__.cleanUp();
+        }
+    }
+
+    private static void run(String name, IntConsumer consumer) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            consumer.accept(i);
+        }
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = bean.getThreadAllocatedBytes(threadId);
+        long cpuBefore = bean.getCurrentThreadCpuTime();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            consumer.accept(WARM_UP_ITERATIONS + i);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long cpu = bean.getCurrentThreadCpuTime() - cpuBefore;
+        long allocated = bean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-10s %,10.0f msg/s %,8d ns CPU/msg %,10d bytes/msg%n",
+                name,
+                MEASURE_ITERATIONS / (elapsed / 1e9),
+                cpu / MEASURE_ITERATIONS,
+                allocated / MEASURE_ITERATIONS);
+    }
+
+    private static int insertConnector(DSLContext ctx) {
+        return ctx.insertInto(CONNECTOR)
+                  .set(CONNECTOR.CHARGE_BOX_ID, __DatabasePreparer__.getRegisteredChargeBoxId())
+                  .set(CONNECTOR.CONNECTOR_ID, 1)
+                  .returning(CONNECTOR.CONNECTOR_PK)
+                  .fetchOne()
+                  .getConnectorPk();
+    }
+
+    /**
+     * Same statement as in OcppServerRepositoryImpl
+     */
+    private static Query createUpsertLatest(Field<Integer> connectorPk,
+                                            Field<DateTime> timestamp,
+                                            Field<String> status,
+                                            Field<String> errorCode) {
+        Condition isNewer = CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.isNull()
+                                .or(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.le(timestamp));
+
+        return DSL.insertInto(CONNECTOR_STATUS_LATEST)
+                  .set(CONNECTOR_STATUS_LATEST.CONNECTOR_PK, connectorPk)
+                  .set(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP, timestamp)
+                  .set(CONNECTOR_STATUS_LATEST.STATUS, status)
+                  .set(CONNECTOR_STATUS_LATEST.ERROR_CODE, errorCode)
+                  .onDuplicateKeyUpdate()
+                  .set(CONNECTOR_STATUS_LATEST.STATUS,
+                          DSL.when(isNewer, status).otherwise(CONNECTOR_STATUS_LATEST.STATUS))
+                  .set(CONNECTOR_STATUS_LATEST.ERROR_CODE,
+                          DSL.when(isNewer, errorCode).otherwise(CONNECTOR_STATUS_LATEST.ERROR_CODE))
+                  .set(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP,
+                          DSL.when(isNewer, timestamp).otherwise(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP));
+    }
+}
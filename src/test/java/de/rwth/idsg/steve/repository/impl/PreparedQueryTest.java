@@ -0,0 +1,103 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.utils.__DatabasePreparer__;
+import jooq.steve.db.tables.records.ConnectorStatusRecord;
+import org.joda.time.DateTime;
+import org.jooq.impl.DSL;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
+
+/**
+ * @since 18.10.2026
+ */
+public class PreparedQueryTest extends AbstractDatabaseTest {
+
+    private int connectorPk;
+
+    @Before
+    public void prepare() {
+        connectorPk = ctx.insertInto(CONNECTOR)
+                         .set(CONNECTOR.CHARGE_BOX_ID, __DatabasePreparer__.getRegisteredChargeBoxId())
+                         .set(CONNECTOR.CONNECTOR_ID, 1)
+                         .returning(CONNECTOR.CONNECTOR_PK)
+                         .fetchOne()
+                         .getConnectorPk();
+    }
+
+    /**
+     * Inlined literals that look like placeholders must not be taken for them, and a placeholder that is used twice
+     * gets its value at both positions
+     */
+    @Test
+    public void testLiteralsAndRepeatedPlaceholder() {
+        PreparedQuery query = PreparedQuery.of(ctx,
+                DSL.insertInto(CONNECTOR_STATUS)
+                   .set(CONNECTOR_STATUS.CONNECTOR_PK, DSL.param("connectorPk", CONNECTOR_STATUS.CONNECTOR_PK))
+                   .set(CONNECTOR_STATUS.ERROR_INFO, DSL.inline("at 12:00 :status"))
+                   .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, DSL.param("ts", CONNECTOR_STATUS.STATUS_TIMESTAMP))
+                   .set(CONNECTOR_STATUS.STATUS, DSL.param("status", CONNECTOR_STATUS.STATUS))
+                   .set(CONNECTOR_STATUS.VENDOR_ERROR_CODE, DSL.param("status", CONNECTOR_STATUS.VENDOR_ERROR_CODE))
+                   .set(CONNECTOR_STATUS.ERROR_CODE, DSL.inline("NoError")));
+
+        DateTime ts = DateTime.parse("2026-10-18T12:00:00.000Z");
+        Assert.assertEquals(1, query.execute(ctx, connectorPk, ts, "Charging"));
+
+        ConnectorStatusRecord record = ctx.selectFrom(CONNECTOR_STATUS).fetchOne();
+        Assert.assertEquals(Integer.valueOf(connectorPk), record.getConnectorPk());
+        Assert.assertEquals("at 12:00 :status", record.getErrorInfo());
+        Assert.assertEquals(ts.getMillis(), record.getStatusTimestamp().getMillis());
+        Assert.assertEquals("Charging", record.getStatus());
+        Assert.assertEquals("Charging", record.getVendorErrorCode());
+        Assert.assertEquals("NoError", record.getErrorCode());
+    }
+
+    /**
+     * The selected columns are read with the converters of their fields, and a null value is bound as NULL
+     */
+    @Test
+    public void testFetchOneInto() {
+        DateTime ts = DateTime.parse("2026-10-18T12:00:00.000Z");
+        ctx.insertInto(CONNECTOR_STATUS)
+           .set(CONNECTOR_STATUS.CONNECTOR_PK, connectorPk)
+           .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, ts)
+           .set(CONNECTOR_STATUS.STATUS, "Charging")
+           .execute();
+
+        PreparedQuery query = PreparedQuery.of(ctx,
+                DSL.select(CONNECTOR_STATUS.STATUS_TIMESTAMP, CONNECTOR_STATUS.STATUS)
+                   .from(CONNECTOR_STATUS)
+                   .where(CONNECTOR_STATUS.CONNECTOR_PK.eq(DSL.param("connectorPk", CONNECTOR_STATUS.CONNECTOR_PK)))
+                   .and(CONNECTOR_STATUS.ERROR_CODE.isNull()
+                                                   .or(CONNECTOR_STATUS.ERROR_CODE.eq(
+                                                           DSL.param("errorCode", CONNECTOR_STATUS.ERROR_CODE)))));
+
+        ConnectorStatusRecord record = query.fetchOneInto(ctx, CONNECTOR_STATUS, connectorPk, null);
+        Assert.assertEquals(ts.getMillis(), record.getStatusTimestamp().getMillis());
+        Assert.assertEquals("Charging", record.getStatus());
+        Assert.assertNull(record.getConnectorPk());
+
+        Assert.assertNull(query.fetchOneInto(ctx, CONNECTOR_STATUS, connectorPk + 1, null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnnamedBindValue() {
+        PreparedQuery.of(ctx,
+                DSL.update(CONNECTOR_STATUS)
+                   .set(CONNECTOR_STATUS.STATUS, "Charging")
+                   .where(CONNECTOR_STATUS.CONNECTOR_PK.eq(DSL.param("connectorPk", CONNECTOR_STATUS.CONNECTOR_PK))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongNumberOfValues() {
+        PreparedQuery query = PreparedQuery.of(ctx,
+                DSL.update(CONNECTOR_STATUS)
+                   .set(CONNECTOR_STATUS.STATUS, DSL.param("status", CONNECTOR_STATUS.STATUS))
+                   .where(CONNECTOR_STATUS.CONNECTOR_PK.eq(DSL.param("connectorPk", CONNECTOR_STATUS.CONNECTOR_PK))));
+
+        query.execute(ctx, "Charging");
+    }
+}
@@ -0,0 +1,190 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.dto.ActiveTransaction;
+import de.rwth.idsg.steve.utils.__DatabasePreparer__;
+import de.rwth.idsg.steve.web.dto.Statistics;
+import org.joda.time.DateTime;
+import org.jooq.DSLContext;
+import org.jooq.ExecuteContext;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultExecuteListener;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
+import static jooq.steve.db.tables.Transaction.TRANSACTION;
+
+/**
+ * @since 18.10.2026
+ */
+public class StatisticsStoreImplTest extends AbstractDatabaseTest {
+
+    private final String chargeBoxId = __DatabasePreparer__.getRegisteredChargeBoxId();
+
+    private ActiveTransactionRegistryImpl activeTransactionRegistry;
+    private StatisticsStoreImpl store;
+
+    @Before
+    public void prepare() {
+        activeTransactionRegistry = new ActiveTransactionRegistryImpl();
+        ReflectionTestUtils.setField(activeTransactionRegistry, "ctx", ctx);
+
+        store = newStore(ctx);
+    }
+
+    @Test
+    public void testReportedChanges() {
+        DateTime now = DateTime.now();
+
+        store.chargeBoxesAdded(Arrays.asList("charge-box-1", "charge-box-2"));
+        store.ocppTagsAdded(3);
+        store.ocppTagDeleted();
+        store.userAdded();
+
+        store.heartbeat("charge-box-1", now.minusDays(1));
+        store.heartbeat("charge-box-1", now);
+        store.heartbeat("charge-box-2", now.minusDays(1));
+
+        // the older status does not overwrite the current one
+        store.connectorStatus("charge-box-1", 1, now, "Charging");
+        store.connectorStatus("charge-box-1", 1, now.minusMinutes(1), "Available");
+        store.connectorStatus("charge-box-2", 1, now, "Available");
+
+        store.reservationAccepted(1, now.plusHours(1));
+        store.reservationAccepted(2, now.plusHours(1));
+        store.reservationAccepted(3, now.minusHours(1));
+        store.reservationEnded(2);
+
+        Statistics stats = store.getStats();
+        Assert.assertEquals(Integer.valueOf(2), stats.getNumChargeBoxes());
+        Assert.assertEquals(Integer.valueOf(2), stats.getNumOcppTags());
+        Assert.assertEquals(Integer.valueOf(1), stats.getNumUsers());
+        Assert.assertEquals(Integer.valueOf(1), stats.getNumReservations());
+        Assert.assertEquals(Integer.valueOf(1), stats.getHeartbeatToday());
+        Assert.assertEquals(Integer.valueOf(1), stats.getHeartbeatYesterday());
+        Assert.assertEquals(Integer.valueOf(1), stats.getStatusCountMap().get("Charging"));
+        Assert.assertEquals(Integer.valueOf(1), stats.getStatusCountMap().get("Available"));
+
+        store.chargeBoxDeleted("charge-box-1");
+
+        stats = store.getStats();
+        Assert.assertEquals(Integer.valueOf(1), stats.getNumChargeBoxes());
+        Assert.assertEquals(Integer.valueOf(0), stats.getHeartbeatToday());
+        Assert.assertNull(stats.getStatusCountMap().get("Charging"));
+    }
+
+    /**
+     * The counts are taken from the database, and the heartbeats that are not written yet are kept
+     */
+    @Test
+    public void testReconcile() {
+        store.ocppTagsAdded(5);
+        store.heartbeat(chargeBoxId, DateTime.now());
+
+        store.reconcile();
+
+        Statistics stats = store.getStats();
+        Assert.assertEquals(Integer.valueOf(1), stats.getNumChargeBoxes());
+        Assert.assertEquals(Integer.valueOf(1), stats.getNumOcppTags());
+        Assert.assertEquals(Integer.valueOf(0), stats.getNumUsers());
+        Assert.assertEquals(Integer.valueOf(1), stats.getHeartbeatToday());
+        Assert.assertEquals(5, store.getMetrics().get("Corrected counts at last reconciliation"));
+    }
+
+    /**
+     * The changes that are reported after the counts were read must be applied to the new state
+     */
+    @Test
+    public void testChangesDuringReconcile() {
+        AtomicBoolean reported = new AtomicBoolean(false);
+        DateTime now = DateTime.now();
+
+        DSLContext reportingCtx = DSL.using(ctx.configuration().derive(new DefaultExecuteListenerProvider(
+                new DefaultExecuteListener() {
+                    @Override
+                    public void executeEnd(ExecuteContext context) {
+                        if (reported.compareAndSet(false, true)) {
+                            store.ocppTagsAdded(1);
+                            store.heartbeat(chargeBoxId, now);
+                            store.reservationAccepted(7, now.plusHours(1));
+                        }
+                    }
+                })));
+        store = newStore(reportingCtx);
+
+        store.reconcile();
+
+        Assert.assertTrue(reported.get());
+        Statistics stats = store.getStats();
+        Assert.assertEquals(Integer.valueOf(2), stats.getNumOcppTags());
+        Assert.assertEquals(Integer.valueOf(1), stats.getHeartbeatToday());
+        Assert.assertEquals(Integer.valueOf(1), stats.getNumReservations());
+
+        // recording stopped with the reconciliation
+        store.reconcile();
+        Assert.assertEquals(Integer.valueOf(1), store.getStats().getNumOcppTags());
+    }
+
+    /**
+     * The reservations and transactions of a deleted OCPP tag are deleted by cascade, and must be reported as well
+     */
+    @Test
+    public void testOcppTagDeleteCascade() {
+        String idTag = __DatabasePreparer__.getRegisteredOcppTag();
+        int connectorPk = ctx.insertInto(CONNECTOR)
+                             .set(CONNECTOR.CHARGE_BOX_ID, chargeBoxId)
+                             .set(CONNECTOR.CONNECTOR_ID, 1)
+                             .returning(CONNECTOR.CONNECTOR_PK)
+                             .fetchOne()
+                             .getConnectorPk();
+
+        int reservationId = __DatabasePreparer__.makeReservation(1);
+        store.reservationAccepted(reservationId, DateTime.now().plusHours(1));
+
+        int transactionPk = ctx.insertInto(TRANSACTION)
+                               .set(TRANSACTION.CONNECTOR_PK, connectorPk)
+                               .set(TRANSACTION.ID_TAG, idTag)
+                               .set(TRANSACTION.START_TIMESTAMP, DateTime.now())
+                               .set(TRANSACTION.START_VALUE, "0")
+                               .returning(TRANSACTION.TRANSACTION_PK)
+                               .fetchOne()
+                               .getTransactionPk();
+
+        activeTransactionRegistry.started(ActiveTransaction.builder()
+                                                           .transactionId(transactionPk)
+                                                           .ocppIdTag(idTag)
+                                                           .chargeBoxId(chargeBoxId)
+                                                           .connectorId(1)
+                                                           .build());
+
+        Assert.assertEquals(Integer.valueOf(1), store.getStats().getNumReservations());
+        Assert.assertEquals(Integer.valueOf(1), store.getStats().getNumTransactions());
+
+        OcppTagRepositoryImpl repository = new OcppTagRepositoryImpl(ctx, new AuthorizationCacheImpl(0, 1),
+                store, activeTransactionRegistry);
+        repository.deleteOcppTag(ctx.select(OCPP_TAG.OCPP_TAG_PK)
+                                    .from(OCPP_TAG)
+                                    .where(OCPP_TAG.ID_TAG.eq(idTag))
+                                    .fetchOne(OCPP_TAG.OCPP_TAG_PK));
+
+        Assert.assertEquals(0, ctx.fetchCount(TRANSACTION));
+        Assert.assertEquals(Integer.valueOf(0), store.getStats().getNumReservations());
+        Assert.assertEquals(Integer.valueOf(0), store.getStats().getNumTransactions());
+        Assert.assertEquals(Collections.emptyList(), activeTransactionRegistry.getChargeBoxIds(idTag));
+    }
+
+    private StatisticsStoreImpl newStore(DSLContext ctx) {
+        StatisticsStoreImpl store = new StatisticsStoreImpl();
+        ReflectionTestUtils.setField(store, "ctx", ctx);
+        ReflectionTestUtils.setField(store, "activeTransactionRegistry", activeTransactionRegistry);
+        return store;
+    }
+}
@@ -0,0 +1,190 @@
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.dto.TransactionDetails;
+import de.rwth.idsg.steve.utils.__DatabasePreparer__;
+import de.rwth.idsg.steve.web.dto.MeterValueQueryForm;
+import de.rwth.idsg.steve.web.dto.TransactionQueryForm;
+import org.joda.time.DateTime;
+import org.jooq.InsertValuesStep4;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.Transaction.TRANSACTION;
+import static jooq.steve.db.tables.TransactionMeterValueBlob.TRANSACTION_METER_VALUE_BLOB;
+
+/**
+ * The CSV exports, and the meter values that are stored as blob.
+ *
+ * @since 18.10.2026
+ */
+public class TransactionRepositoryImplTest extends AbstractDatabaseTest {
+
+    private static final DateTime START = new DateTime(2026, 10, 18, 12, 0);
+
+    private int connectorPk;
+    private int transactionPk;
+    private TransactionRepositoryImpl repository;
+
+    @Before
+    public void prepare() {
+        connectorPk = ctx.insertInto(CONNECTOR)
+                         .set(CONNECTOR.CHARGE_BOX_ID, __DatabasePreparer__.getRegisteredChargeBoxId())
+                         .set(CONNECTOR.CONNECTOR_ID, 1)
+                         .returning(CONNECTOR.CONNECTOR_PK)
+                         .fetchOne()
+                         .getConnectorPk();
+
+        transactionPk = ctx.insertInto(TRANSACTION)
+                           .set(TRANSACTION.CONNECTOR_PK, connectorPk)
+                           .set(TRANSACTION.ID_TAG, __DatabasePreparer__.getRegisteredOcppTag())
+                           .set(TRANSACTION.START_TIMESTAMP, START)
+                           .set(TRANSACTION.START_VALUE, "0")
+                           .returning(TRANSACTION.TRANSACTION_PK)
+                           .fetchOne()
+                           .getTransactionPk();
+
+        MeterValueDictionaryImpl meterValueDictionary = new MeterValueDictionaryImpl(ctx);
+        meterValueDictionary.init();
+        repository = new TransactionRepositoryImpl(ctx, meterValueDictionary);
+    }
+
+    /**
+     * Every append is a row, which are merged into one by the compaction. A chunk that is appended later is read
+     * after the merged one.
+     */
+    @Test
+    public void testCompact() {
+        for (int i = 0; i < 3; i++) {
+            append(i);
+        }
+        Assert.assertEquals(3, ctx.fetchCount(TRANSACTION_METER_VALUE_BLOB));
+
+        Assert.assertEquals(3, MeterValueBlobCodec.compact(ctx, transactionPk));
+        Assert.assertEquals(1, ctx.fetchCount(TRANSACTION_METER_VALUE_BLOB));
+        Assert.assertEquals(Integer.valueOf(3), ctx.select(TRANSACTION_METER_VALUE_BLOB.SAMPLE_COUNT)
+                                                   .from(TRANSACTION_METER_VALUE_BLOB)
+                                                   .fetchOne()
+                                                   .value1());
+
+        // nothing to merge
+        Assert.assertEquals(0, MeterValueBlobCodec.compact(ctx, transactionPk));
+
+        append(3);
+        Assert.assertEquals(Arrays.asList("1000", "1001", "1002", "1003"), getValues(transactionPk));
+
+        List<TransactionDetails.MeterValues> details = repository.getDetails(transactionPk).getValues();
+        Assert.assertEquals(Arrays.asList("1000", "1001", "1002", "1003"),
+                details.stream().map(TransactionDetails.MeterValues::getValue).collect(Collectors.toList()));
+    }
+
+    /**
+     * The rows are written in chunks, and the header is only written before the first one
+     */
+    @Test
+    public void testTransactionsCsvExport() {
+        InsertValuesStep4<?, Integer, String, DateTime, String> insert =
+                ctx.insertInto(TRANSACTION, TRANSACTION.CONNECTOR_PK, TRANSACTION.ID_TAG,
+                               TRANSACTION.START_TIMESTAMP, TRANSACTION.START_VALUE);
+        String idTag = __DatabasePreparer__.getRegisteredOcppTag();
+        for (int i = 1; i <= TransactionRepositoryImpl.CSV_CHUNK_SIZE; i++) {
+            insert = insert.values(connectorPk, idTag, START.plusMinutes(i), "0");
+        }
+        insert.execute();
+
+        List<String> lines = writeTransactionsCsv(new TransactionQueryForm());
+        Assert.assertEquals(TransactionRepositoryImpl.CSV_CHUNK_SIZE + 2, lines.size());
+        Assert.assertTrue(lines.get(0), lines.get(0).startsWith("transaction_pk,"));
+        Assert.assertEquals(1, lines.stream().filter(l -> l.startsWith("transaction_pk,")).count());
+
+        // the newest first, and every transaction once
+        Assert.assertTrue(lines.get(lines.size() - 1), lines.get(lines.size() - 1).startsWith(transactionPk + ","));
+        Assert.assertEquals(lines.size() - 1, lines.stream().skip(1).map(l -> l.split(",")[0]).distinct().count());
+    }
+
+    @Test
+    public void testTransactionsCsvExportEmpty() {
+        TransactionQueryForm form = new TransactionQueryForm();
+        form.setChargeBoxId("unknown");
+
+        List<String> lines = writeTransactionsCsv(form);
+        Assert.assertEquals(1, lines.size());
+        Assert.assertTrue(lines.get(0), lines.get(0).startsWith("transaction_pk,"));
+    }
+
+    @Test
+    public void testCsvExport() {
+        for (int i = 0; i < 3; i++) {
+            append(i);
+        }
+
+        MeterValueQueryForm form = new MeterValueQueryForm();
+        form.setTransactionPk(transactionPk);
+
+        List<String> lines = writeCsv(form);
+        Assert.assertEquals(4, lines.size());
+        Assert.assertTrue(lines.get(0), lines.get(0).startsWith("transaction_pk,"));
+        Assert.assertTrue(lines.get(1), lines.get(1).startsWith(transactionPk + ","));
+        Assert.assertTrue(lines.get(1), lines.get(1).contains(",1000,Sample.Periodic,"));
+
+        // the samples of the blob are filtered by the period
+        form = new MeterValueQueryForm();
+        form.setFrom(START.plusMinutes(1).toLocalDateTime());
+        form.setTo(START.plusMinutes(2).toLocalDateTime());
+
+        lines = writeCsv(form);
+        Assert.assertEquals(2, lines.size());
+        Assert.assertTrue(lines.get(1), lines.get(1).contains(",1001,"));
+    }
+
+    @Test
+    public void testDeletedWithTransaction() {
+        append(0);
+
+        ctx.delete(TRANSACTION)
+           .where(TRANSACTION.TRANSACTION_PK.eq(transactionPk))
+           .execute();
+
+        Assert.assertEquals(0, ctx.fetchCount(TRANSACTION_METER_VALUE_BLOB));
+    }
+
+    private void append(int minute) {
+        TransactionDetails.MeterValues sample =
+                TransactionDetails.MeterValues.builder()
+                                              .valueTimestamp(START.plusMinutes(minute))
+                                              .value(String.valueOf(1000 + minute))
+                                              .readingContext("Sample.Periodic")
+                                              .measurand("Energy.Active.Import.Register")
+                                              .unit("Wh")
+                                              .build();
+
+        MeterValueBlobCodec.append(ctx, Collections.singletonList(
+                MeterValueBlobCodec.toRecord(ctx, transactionPk, connectorPk, Collections.singletonList(sample))));
+    }
+
+    private static List<String> getValues(int transactionPk) {
+        return MeterValueBlobCodec.read(ctx, transactionPk)
+                                  .stream()
+                                  .map(TransactionDetails.MeterValues::getValue)
+                                  .collect(Collectors.toList());
+    }
+
+    private List<String> writeTransactionsCsv(TransactionQueryForm form) {
+        StringWriter writer = new StringWriter();
+        repository.writeTransactionsCSV(form, writer);
+        return Arrays.asList(writer.toString().split("\n"));
+    }
+
+    private List<String> writeCsv(MeterValueQueryForm form) {
+        StringWriter writer = new StringWriter();
+        repository.writeMeterValuesCSV(form, writer);
+        return Arrays.asList(writer.toString().split("\n"));
+    }
+}
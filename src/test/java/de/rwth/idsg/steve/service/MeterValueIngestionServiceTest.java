@@ -0,0 +1,175 @@
+package de.rwth.idsg.steve.service;
+
+import de.rwth.idsg.steve.repository.OcppServerRepository;
+import de.rwth.idsg.steve.repository.dto.InsertMeterValuesParams;
+import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.SampledValue;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The repository is replaced by a proxy that records the written messages. The connector id of a message is used
+ * as its sequence number.
+ *
+ * @since 18.10.2026
+ */
+public class MeterValueIngestionServiceTest {
+
+    private final List<InsertMeterValuesParams> written = new CopyOnWriteArrayList<>();
+
+    // the writes wait for this latch
+    private volatile CountDownLatch writeGate = new CountDownLatch(0);
+    private volatile long writeDelayMillis = 0;
+
+    private MeterValueIngestionService service;
+
+    @After
+    public void tearDown() {
+        writeGate.countDown();
+        if (service != null) {
+            service.shutDown();
+        }
+    }
+
+    /**
+     * With a small queue and a slow writer, the callers have to wait for capacity. They must not overtake the
+     * queued messages.
+     */
+    @Test
+    public void testOrderOnOverflow() {
+        service = start(2, 3, 5);
+        writeDelayMillis = 2;
+
+        for (int i = 0; i < 100; i++) {
+            service.submit(params("cb-1", i, null));
+        }
+        service.shutDown();
+
+        Assert.assertEquals(100, written.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, written.get(i).getConnectorId());
+        }
+    }
+
+    @Test
+    public void testFlushTransaction() throws Exception {
+        service = start(100, 1_000, 5);
+        writeGate = new CountDownLatch(1);
+
+        service.submit(params("cb-1", 1, 7));
+        service.submit(params("cb-1", 2, 8));
+
+        CountDownLatch flushed = new CountDownLatch(1);
+        Thread stopTransaction = new Thread(() -> {
+            service.flushTransaction(7);
+            flushed.countDown();
+        });
+        stopTransaction.start();
+
+        // the writer is blocked, so the meter values of the transaction are still queued
+        Assert.assertFalse(flushed.await(200, TimeUnit.MILLISECONDS));
+
+        writeGate.countDown();
+        Assert.assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(written.stream().anyMatch(p -> Integer.valueOf(7).equals(p.getTransactionId())));
+    }
+
+    @Test
+    public void testFlushTransactionWithoutQueuedMessages() {
+        service = start(100, 1_000, 5);
+        writeGate = new CountDownLatch(1);
+
+        service.submit(params("cb-1", 1, 8));
+
+        // returns right away, although the writer is blocked
+        service.flushTransaction(7);
+    }
+
+    /**
+     * Messages that are submitted while the service shuts down are either queued and written by the writer,
+     * or written by the caller. None is lost.
+     */
+    @Test
+    public void testNoLossAtShutdown() throws Exception {
+        service = start(50, 10, 1);
+        writeDelayMillis = 1;
+
+        int threads = 4;
+        AtomicInteger submitted = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(threads);
+        List<Thread> submitters = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            String chargeBoxId = "cb-" + t;
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < 500; i++) {
+                    service.submit(params(chargeBoxId, i, null));
+                    submitted.incrementAndGet();
+                }
+            });
+            submitters.add(thread);
+            thread.start();
+        }
+
+        started.await();
+        Thread.sleep(20);
+        service.shutDown();
+
+        for (Thread thread : submitters) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        Assert.assertEquals(threads * 500, submitted.get());
+        Assert.assertEquals(threads * 500, written.size());
+    }
+
+    private MeterValueIngestionService start(int queueCapacity, int batchSize, long lingerMillis) {
+        OcppServerRepository repository = (OcppServerRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{OcppServerRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("insertMeterValues") || args.length != 1) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    writeGate.await();
+                    if (writeDelayMillis > 0) {
+                        Thread.sleep(writeDelayMillis);
+                    }
+                    for (Object params : (List<?>) args[0]) {
+                        written.add((InsertMeterValuesParams) params);
+                    }
+                    return null;
+                });
+
+        MeterValueIngestionService ingestionService =
+                new MeterValueIngestionService(queueCapacity, batchSize, lingerMillis);
+        ReflectionTestUtils.setField(ingestionService, "ocppServerRepository", repository);
+        ingestionService.init();
+        return ingestionService;
+    }
+
+    private static InsertMeterValuesParams params(String chargeBoxId, int connectorId, Integer transactionId) {
+        MeterValue meterValue = new MeterValue().withTimestamp(DateTime.now())
+                                                .withSampledValue(new SampledValue().withValue("1"));
+
+        return InsertMeterValuesParams.builder()
+                                      .chargeBoxId(chargeBoxId)
+                                      .connectorId(connectorId)
+                                      .transactionId(transactionId)
+                                      .meterValues(Collections.singletonList(meterValue))
+                                      .build();
+    }
+}
@@ -0,0 +1,95 @@
+package de.rwth.idsg.steve.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @since 18.10.2026
+ */
+public class HashedTimingWheelTest {
+
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    public void testExpiry() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(8);
+        wheel.add("a", 3);
+
+        // the tick in progress does not count
+        tick(wheel, 3);
+        Assert.assertEquals(Collections.emptyList(), expired);
+
+        tick(wheel, 1);
+        Assert.assertEquals(Collections.singletonList("a"), expired);
+
+        // expired items are removed
+        tick(wheel, 16);
+        Assert.assertEquals(Collections.singletonList("a"), expired);
+    }
+
+    @Test
+    public void testMinimumDelay() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(8);
+        wheel.add("a", 0);
+
+        tick(wheel, 1);
+        Assert.assertEquals(Collections.emptyList(), expired);
+
+        tick(wheel, 1);
+        Assert.assertEquals(Collections.singletonList("a"), expired);
+    }
+
+    @Test
+    public void testCancel() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(8);
+        HashedTimingWheel.Timeout<String> timeout = wheel.add("a", 2);
+        wheel.add("b", 2);
+
+        wheel.cancel(timeout);
+        tick(wheel, 3);
+        Assert.assertEquals(Collections.singletonList("b"), expired);
+    }
+
+    /**
+     * The wheel is rounded up to 4 buckets. The item is visited every 4 ticks, but stays for multiple rounds.
+     */
+    @Test
+    public void testDelayLongerThanRevolution() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(3);
+        wheel.add("a", 10);
+        wheel.add("b", 1);
+
+        tick(wheel, 10);
+        Assert.assertEquals(Collections.singletonList("b"), expired);
+
+        tick(wheel, 1);
+        Assert.assertEquals(Arrays.asList("b", "a"), expired);
+    }
+
+    /**
+     * Items added later are relative to the current tick
+     */
+    @Test
+    public void testAddAfterTicks() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(8);
+        tick(wheel, 5);
+        wheel.add("a", 2);
+
+        tick(wheel, 2);
+        Assert.assertEquals(Collections.emptyList(), expired);
+
+        tick(wheel, 1);
+        Assert.assertEquals(Collections.singletonList("a"), expired);
+    }
+
+    private void tick(HashedTimingWheel<String> wheel, int count) {
+        for (int i = 0; i < count; i++) {
+            wheel.tick(expired::add);
+        }
+    }
+}
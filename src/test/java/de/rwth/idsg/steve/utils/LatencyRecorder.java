@@ -0,0 +1,50 @@
+package de.rwth.idsg.steve.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the round-trip times (request sent -> response received) of a stress test per OCPP action, and prints
+ * their percentiles at the end. Since the messages of one station are processed one after another, the time
+ * includes the wait for the messages that were sent before.
+ *
+ * @since 18.10.2026
+ */
+public class LatencyRecorder {
+
+    private final Map<String, Queue<Long>> nanosPerAction = new ConcurrentHashMap<>();
+
+    public void record(String action, long nanos) {
+        nanosPerAction.computeIfAbsent(action, k -> new ConcurrentLinkedQueue<>()).add(nanos);
+    }
+
+    public void print() {
+        System.out.println(String.format("%-30s %8s %10s %10s %10s", "Action", "Count", "p50 (ms)", "p99 (ms)",
+                "Max (ms)"));
+
+        for (Map.Entry<String, Queue<Long>> entry : new TreeMap<>(nanosPerAction).entrySet()) {
+            List<Long> sorted = new ArrayList<>(entry.getValue());
+            Collections.sort(sorted);
+
+            System.out.println(String.format("%-30s %8d %10.2f %10.2f %10.2f", entry.getKey(), sorted.size(),
+                    toMillis(percentile(sorted, 50)), toMillis(percentile(sorted, 99)),
+                    toMillis(sorted.get(sorted.size() - 1))));
+        }
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
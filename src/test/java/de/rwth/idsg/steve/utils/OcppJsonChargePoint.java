@@ -50,11 +50,17 @@ public class OcppJsonChargePoint {
     private final ResponseDeserializer deserializer;
     private final WebSocketClient client;
     private final CountDownLatch closeHappenedSignal;
+    private final LatencyRecorder latencyRecorder;
 
     private CountDownLatch receivedResponsesSignal;
     private Session session;
 
     public OcppJsonChargePoint(OcppVersion version, String chargeBoxId, String pathPrefix) {
+        this(version, chargeBoxId, pathPrefix, null);
+    }
+
+    public OcppJsonChargePoint(OcppVersion version, String chargeBoxId, String pathPrefix,
+                               LatencyRecorder latencyRecorder) {
         this.version = version;
         this.chargeBoxId = chargeBoxId;
         this.connectionPath = pathPrefix + chargeBoxId;
@@ -62,6 +68,7 @@ public class OcppJsonChargePoint {
         this.deserializer = new ResponseDeserializer();
         this.client = new WebSocketClient();
         this.closeHappenedSignal = new CountDownLatch(1);
+        this.latencyRecorder = latencyRecorder;
     }
 
     @OnWebSocketConnect
@@ -81,6 +88,10 @@ public class OcppJsonChargePoint {
             OcppJsonResponse response = deserializer.extractResponse(msg);
             ResponseContext ctx = responseContextMap.remove(response.getMessageId());
 
+            if (latencyRecorder != null) {
+                latencyRecorder.record(ctx.action, System.nanoTime() - ctx.sentAt);
+            }
+
             if (response instanceof OcppJsonResult) {
                 ctx.responseHandler.accept(((OcppJsonResult) response).getPayload());
             } else if (response instanceof OcppJsonError) {
@@ -124,7 +135,8 @@ public class OcppJsonChargePoint {
 
         Serializer.INSTANCE.accept(ctx);
 
-        ResponseContext resCtx = new ResponseContext(ctx.getOutgoingString(), responseClass, responseHandler, errorHandler);
+        ResponseContext resCtx = new ResponseContext(call.getAction(), ctx.getOutgoingString(), responseClass,
+                responseHandler, errorHandler);
         responseContextMap.put(messageId, resCtx);
     }
 
@@ -138,6 +150,7 @@ public class OcppJsonChargePoint {
         // send all messages
         for (ResponseContext ctx : values) {
             try {
+                ctx.sentAt = System.nanoTime();
                 session.getRemote().sendString(ctx.outgoingMessage);
             } catch (IOException e) {
                 e.printStackTrace();
@@ -185,16 +198,20 @@ public class OcppJsonChargePoint {
     }
 
     private static class ResponseContext {
+        private final String action;
         private final String outgoingMessage;
         private final Class<ResponseType> responseClass;
         private final Consumer<ResponseType> responseHandler;
         private final Consumer<OcppJsonError> errorHandler;
+        private volatile long sentAt;
 
         @SuppressWarnings("unchecked")
-        private <T extends ResponseType> ResponseContext(String outgoingMessage,
+        private <T extends ResponseType> ResponseContext(String action,
+                                                         String outgoingMessage,
                                                          Class<T> responseClass,
                                                          Consumer<T> responseHandler,
                                                          Consumer<OcppJsonError> errorHandler) {
+            this.action = action;
             this.outgoingMessage = outgoingMessage;
             this.responseClass = (Class<ResponseType>) responseClass;
             this.responseHandler = (Consumer<ResponseType>) responseHandler;
@@ -8,10 +8,17 @@ import de.rwth.idsg.steve.repository.dto.InsertReservationParams;
 import de.rwth.idsg.steve.repository.dto.Reservation;
 import de.rwth.idsg.steve.repository.dto.Transaction;
 import de.rwth.idsg.steve.repository.dto.TransactionDetails;
+import de.rwth.idsg.steve.repository.impl.ActiveTransactionRegistryImpl;
 import de.rwth.idsg.steve.repository.impl.AddressRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.AuthorizationCacheImpl;
+import de.rwth.idsg.steve.repository.impl.ChargeBoxHeartbeatStoreImpl;
+import de.rwth.idsg.steve.repository.impl.ChargeBoxMetadataCacheImpl;
 import de.rwth.idsg.steve.repository.impl.ChargePointRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.ConnectorPkCacheImpl;
+import de.rwth.idsg.steve.repository.impl.MeterValueDictionaryImpl;
 import de.rwth.idsg.steve.repository.impl.OcppTagRepositoryImpl;
 import de.rwth.idsg.steve.repository.impl.ReservationRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.StatisticsStoreImpl;
 import de.rwth.idsg.steve.repository.impl.TransactionRepositoryImpl;
 import de.rwth.idsg.steve.web.dto.ReservationQueryForm;
 import de.rwth.idsg.steve.web.dto.TransactionQueryForm;
@@ -54,6 +61,11 @@ public class __DatabasePreparer__ {
     private static final BeanConfiguration beanConfiguration = new BeanConfiguration();
     private static final DSLContext dslContext = beanConfiguration.dslContext();
 
+    static {
+        // the pool is shared by all tests of the JVM, and closed with it
+        Runtime.getRuntime().addShutdownHook(new Thread(beanConfiguration::shutDown));
+    }
+
     public static void prepare() {
         runOperation(ctx -> {
             truncateTables(ctx);
@@ -63,7 +75,7 @@ public class __DatabasePreparer__ {
     }
 
     public static int makeReservation(int connectorId) {
-        ReservationRepositoryImpl r = new ReservationRepositoryImpl(dslContext);
+        ReservationRepositoryImpl r = new ReservationRepositoryImpl(dslContext, dslContext, new StatisticsStoreImpl());
         InsertReservationParams params = InsertReservationParams.builder()
                                                                 .chargeBoxId(REGISTERED_CHARGE_BOX_ID)
                                                                 .idTag(REGISTERED_OCPP_TAG)
@@ -79,6 +91,13 @@ public class __DatabasePreparer__ {
         runOperation(__DatabasePreparer__::truncateTables);
     }
 
+    /**
+     * The tests that access the database use this context, such that they share one connection pool
+     */
+    public static DSLContext getDslContext() {
+        return dslContext;
+    }
+
     public static String getRegisteredChargeBoxId() {
         return REGISTERED_CHARGE_BOX_ID;
     }
@@ -88,35 +107,45 @@ public class __DatabasePreparer__ {
     }
 
     public static List<Transaction> getTransactions() {
-        TransactionRepositoryImpl impl = new TransactionRepositoryImpl(dslContext);
-        return impl.getTransactions(new TransactionQueryForm());
+        TransactionRepositoryImpl impl = new TransactionRepositoryImpl(dslContext,
+                new MeterValueDictionaryImpl(dslContext));
+        return impl.getTransactions(new TransactionQueryForm()).getItems();
     }
     public static List<TransactionRecord> getTransactionRecords() {
         return dslContext.selectFrom(TRANSACTION).fetch();
     }
 
     public static List<Reservation> getReservations() {
-        ReservationRepositoryImpl impl = new ReservationRepositoryImpl(dslContext);
-        return impl.getReservations(new ReservationQueryForm());
+        ReservationRepositoryImpl impl = new ReservationRepositoryImpl(dslContext, dslContext,
+                new StatisticsStoreImpl());
+        return impl.getReservations(new ReservationQueryForm()).getItems();
     }
 
     public static List<ConnectorStatus> getChargePointConnectorStatus() {
-        ChargePointRepositoryImpl impl = new ChargePointRepositoryImpl(dslContext, new AddressRepositoryImpl());
+        ChargePointRepositoryImpl impl = new ChargePointRepositoryImpl(dslContext, dslContext,
+                new AddressRepositoryImpl(), new ChargeBoxHeartbeatStoreImpl(), new ConnectorPkCacheImpl(),
+                new StatisticsStoreImpl(), new ActiveTransactionRegistryImpl(),
+                new ChargeBoxMetadataCacheImpl(dslContext));
         return impl.getChargePointConnectorStatus();
     }
 
     public static TransactionDetails getDetails(int transactionPk) {
-        TransactionRepositoryImpl impl = new TransactionRepositoryImpl(dslContext);
+        TransactionRepositoryImpl impl = new TransactionRepositoryImpl(dslContext,
+                new MeterValueDictionaryImpl(dslContext));
         return impl.getDetails(transactionPk);
     }
 
     public static OcppTagRecord getOcppTagRecord(String idTag) {
-        OcppTagRepositoryImpl impl = new OcppTagRepositoryImpl(dslContext);
+        OcppTagRepositoryImpl impl = new OcppTagRepositoryImpl(dslContext, new AuthorizationCacheImpl(),
+                new StatisticsStoreImpl(), new ActiveTransactionRegistryImpl());
         return impl.getRecord(idTag);
     }
 
     public static ChargePoint.Details getCBDetails(String chargeboxID) {
-        ChargePointRepositoryImpl impl = new ChargePointRepositoryImpl(dslContext, new AddressRepositoryImpl());
+        ChargePointRepositoryImpl impl = new ChargePointRepositoryImpl(dslContext, dslContext,
+                new AddressRepositoryImpl(), new ChargeBoxHeartbeatStoreImpl(), new ConnectorPkCacheImpl(),
+                new StatisticsStoreImpl(), new ActiveTransactionRegistryImpl(),
+                new ChargeBoxMetadataCacheImpl(dslContext));
         Map<String, Integer> pkMap = impl.getChargeBoxIdPkPair(Arrays.asList(chargeboxID));
         int pk = pkMap.get(chargeboxID);
         return impl.getDetails(pk);
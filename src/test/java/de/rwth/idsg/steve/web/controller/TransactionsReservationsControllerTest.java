@@ -0,0 +1,51 @@
+package de.rwth.idsg.steve.web.controller;
+
+import com.google.common.io.CharStreams;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * @since 18.10.2026
+ */
+public class TransactionsReservationsControllerTest {
+
+    private static final String CSV = "transaction_pk,charge_box_id\n1,Ladesäule-1\n";
+
+    @Test
+    public void testCsvWriter() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try (Writer writer = TransactionsReservationsController.getCsvWriter(response, "transactions.csv", false)) {
+            writer.write(CSV);
+        }
+
+        Assert.assertTrue(response.getContentType(), response.getContentType().startsWith("text/csv"));
+        Assert.assertEquals("UTF-8", response.getCharacterEncoding());
+        Assert.assertEquals("attachment; filename=\"transactions.csv\"", response.getHeader("Content-Disposition"));
+        Assert.assertEquals(CSV, response.getContentAsString());
+    }
+
+    @Test
+    public void testGzipCsvWriter() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try (Writer writer = TransactionsReservationsController.getCsvWriter(response, "transactions.csv", true)) {
+            writer.write(CSV);
+        }
+
+        Assert.assertEquals("application/gzip", response.getContentType());
+        Assert.assertEquals("attachment; filename=\"transactions.csv.gz\"", response.getHeader("Content-Disposition"));
+
+        try (Reader reader = new InputStreamReader(new GZIPInputStream(
+                new ByteArrayInputStream(response.getContentAsByteArray())), StandardCharsets.UTF_8)) {
+            Assert.assertEquals(CSV, CharStreams.toString(reader));
+        }
+    }
+}